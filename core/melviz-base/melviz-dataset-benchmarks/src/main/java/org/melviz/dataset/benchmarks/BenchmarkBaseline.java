@@ -0,0 +1,206 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.melviz.json.Json;
+import org.melviz.json.JsonArray;
+import org.melviz.json.JsonObject;
+
+/**
+ * Compares JMH results against a baseline so that CI can detect performance regressions.
+ * <p>Usage, after running the benchmarks with <tt>-rf json -rff results.json</tt>:</p>
+ * <pre>
+ * java -cp target/benchmarks.jar org.melviz.dataset.benchmarks.BenchmarkBaseline compare results.json baseline.json [tolerance]
+ * java -cp target/benchmarks.jar org.melviz.dataset.benchmarks.BenchmarkBaseline update results.json baseline.json
+ * </pre>
+ * <p>The baseline is a JSON array with one entry per benchmark and parameter combination:</p>
+ * <pre>
+ * [{"benchmark": "org.melviz.dataset.benchmarks.DataSetSortBenchmark.sortLabel",
+ *   "params": {"cardinality": "LOW", "rows": "10000"},
+ *   "mode": "avgt", "score": 1.25, "unit": "ms/op"}]
+ * </pre>
+ * <p><tt>compare</tt> exits with status 1 if any result is slower than its baseline score by more than the
+ * tolerance (default 0.10, i.e. 10%). Results with no baseline entry are reported but never fail the
+ * comparison. Baselines must be recorded on the same hardware the comparison runs on.</p>
+ */
+public class BenchmarkBaseline {
+
+    public static final double DEFAULT_TOLERANCE = 0.10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || (!"compare".equals(args[0]) && !"update".equals(args[0]))) {
+            System.err.println("Usage: BenchmarkBaseline compare|update <results.json> <baseline.json> [tolerance]");
+            System.exit(2);
+        }
+        Path resultsPath = Paths.get(args[1]);
+        Path baselinePath = Paths.get(args[2]);
+        List<Entry> results = readResults(read(resultsPath));
+
+        if ("update".equals(args[0])) {
+            Files.write(baselinePath, toJson(results).getBytes(StandardCharsets.UTF_8));
+            System.out.println(results.size() + " baseline entries written to " + baselinePath);
+            return;
+        }
+        double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_TOLERANCE;
+        List<Entry> baseline = readBaseline(read(baselinePath));
+        List<String> regressions = compare(results, baseline, tolerance, System.out);
+        if (!regressions.isEmpty()) {
+            System.out.println(regressions.size() + " benchmark(s) regressed more than " + tolerance * 100 + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compare the results against the baseline.
+     * @return The keys of the results considered a regression.
+     */
+    public static List<String> compare(List<Entry> results, List<Entry> baseline, double tolerance,
+            Appendable out) throws IOException {
+        Map<String, Entry> baselineMap = new LinkedHashMap<>();
+        for (Entry entry : baseline) {
+            baselineMap.put(entry.getKey(), entry);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Entry result : results) {
+            String key = result.getKey();
+            Entry base = baselineMap.get(key);
+            if (base == null) {
+                out.append(String.format("NEW        %s %.3f %s%n", key, result.score, result.unit));
+                continue;
+            }
+            double change = (result.score - base.score) / base.score;
+            // For throughput modes the higher the better
+            boolean regression = result.isThroughput() ? -change > tolerance : change > tolerance;
+            out.append(String.format("%-10s %s %.3f -> %.3f %s (%+.1f%%)%n",
+                    regression ? "REGRESSION" : "OK", key, base.score, result.score, result.unit, change * 100));
+            if (regression) {
+                regressions.add(key);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Read the entries of a JMH JSON result file.
+     */
+    public static List<Entry> readResults(String json) {
+        JsonArray array = Json.instance().parse(json);
+        List<Entry> result = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            JsonObject item = array.getObject(i);
+            JsonObject metric = item.getObject("primaryMetric");
+            result.add(new Entry(item.getString("benchmark"),
+                    readParams(item.getObject("params")),
+                    item.getString("mode"),
+                    metric.getNumber("score").doubleValue(),
+                    metric.getString("scoreUnit")));
+        }
+        return result;
+    }
+
+    /**
+     * Read the entries of a baseline file.
+     */
+    public static List<Entry> readBaseline(String json) {
+        JsonArray array = Json.instance().parse(json);
+        List<Entry> result = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            JsonObject item = array.getObject(i);
+            result.add(new Entry(item.getString("benchmark"),
+                    readParams(item.getObject("params")),
+                    item.getString("mode"),
+                    item.getNumber("score").doubleValue(),
+                    item.getString("unit")));
+        }
+        return result;
+    }
+
+    public static String toJson(List<Entry> entries) {
+        JsonArray array = Json.createArray();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            JsonObject params = Json.createObject();
+            entry.params.forEach(params::put);
+            JsonObject item = Json.createObject();
+            item.put("benchmark", entry.benchmark);
+            item.put("params", params);
+            item.put("mode", entry.mode);
+            item.put("score", entry.score);
+            item.put("unit", entry.unit);
+            array.set(i, item);
+        }
+        return array.toJson();
+    }
+
+    static Map<String, String> readParams(JsonObject json) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (json != null) {
+            String[] keys = json.keys();
+            Arrays.sort(keys);
+            for (String key : keys) {
+                params.put(key, json.getString(key));
+            }
+        }
+        return params;
+    }
+
+    static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The score of a benchmark for a given parameter combination.
+     */
+    public static class Entry {
+
+        String benchmark;
+        Map<String, String> params;
+        String mode;
+        double score;
+        String unit;
+
+        public Entry(String benchmark, Map<String, String> params, String mode, double score, String unit) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        public String getKey() {
+            return benchmark + params;
+        }
+
+        public boolean isThroughput() {
+            return "thrpt".equals(mode);
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
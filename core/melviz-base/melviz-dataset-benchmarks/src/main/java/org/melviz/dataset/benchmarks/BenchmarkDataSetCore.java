@@ -0,0 +1,80 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import java.util.UUID;
+
+import org.melviz.dataset.AbstractDataSetCore;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataSetManager;
+import org.melviz.dataset.engine.Chronometer;
+import org.melviz.dataset.engine.group.IntervalBuilderLocator;
+import org.melviz.dataset.group.GroupStrategy;
+import org.melviz.dataset.uuid.UUIDGenerator;
+
+/**
+ * Plain JVM wiring of the shared data set engine.
+ */
+public class BenchmarkDataSetCore extends AbstractDataSetCore {
+
+    @Override
+    protected DataSetManager newDataSetManager() {
+        return new BenchmarkDataSetManager(getSharedDataSetOpEngine());
+    }
+
+    @Override
+    protected IntervalBuilderLocator newIntervalBuilderLocator() {
+        return (ColumnType columnType, GroupStrategy strategy) -> {
+            if (ColumnType.DATE.equals(columnType)) {
+                return getIntervalBuilderFixedDate();
+            }
+            return getIntervalBuilderDynamicLabel();
+        };
+    }
+
+    @Override
+    protected Chronometer newChronometer() {
+        return new NanoChronometer();
+    }
+
+    @Override
+    protected UUIDGenerator newUuidGenerator() {
+        return () -> UUID.randomUUID().toString();
+    }
+
+    static class NanoChronometer implements Chronometer {
+
+        long startTime = 0;
+        long stopTime = -1;
+
+        public long start() {
+            stopTime = -1;
+            return startTime = System.nanoTime();
+        }
+
+        public long stop() {
+            return stopTime = System.nanoTime();
+        }
+
+        public long elapsedTime() {
+            return (stopTime != -1 ? stopTime : System.nanoTime()) - startTime;
+        }
+
+        public String formatElapsedTime(long millis) {
+            return millis + "ms";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetFactory;
+import org.melviz.dataset.DataSetLookup;
+import org.melviz.dataset.DataSetManager;
+import org.melviz.dataset.engine.SharedDataSetOpEngine;
+import org.melviz.dataset.engine.index.DataSetIndex;
+
+/**
+ * In memory data set manager over the benchmark engine. Lookups behave as in the client manager: the operations
+ * run on the engine and the result is trimmed as requested.
+ */
+public class BenchmarkDataSetManager implements DataSetManager {
+
+    SharedDataSetOpEngine dataSetOpEngine;
+
+    public BenchmarkDataSetManager(SharedDataSetOpEngine dataSetOpEngine) {
+        this.dataSetOpEngine = dataSetOpEngine;
+    }
+
+    @Override
+    public DataSet createDataSet(String uuid) {
+        DataSet dataSet = DataSetFactory.newEmptyDataSet();
+        dataSet.setUUID(uuid);
+        return dataSet;
+    }
+
+    @Override
+    public DataSet getDataSet(String uuid) {
+        DataSetIndex index = dataSetOpEngine.getIndexRegistry().get(uuid);
+        return index == null ? null : index.getDataSet();
+    }
+
+    @Override
+    public void registerDataSet(DataSet dataSet) {
+        if (dataSet != null) {
+            dataSetOpEngine.getIndexRegistry().put(dataSet);
+        }
+    }
+
+    @Override
+    public DataSet removeDataSet(String uuid) {
+        DataSetIndex index = dataSetOpEngine.getIndexRegistry().remove(uuid);
+        return index == null ? null : index.getDataSet();
+    }
+
+    @Override
+    public DataSet lookupDataSet(DataSetLookup lookup) {
+        String uuid = lookup.getDataSetUUID();
+        if (uuid == null || uuid.isEmpty()) {
+            return null;
+        }
+        DataSetIndex index = dataSetOpEngine.getIndexRegistry().get(uuid);
+        if (index == null) {
+            return null;
+        }
+        DataSet dataSet = index.getDataSet();
+        if (!lookup.getOperationList().isEmpty()) {
+            dataSet = dataSetOpEngine.execute(uuid, lookup.getOperationList());
+        }
+        return dataSet.trim(lookup.getRowOffset(), lookup.getNumberOfRows());
+    }
+
+    @Override
+    public DataSet[] lookupDataSets(DataSetLookup[] lookup) {
+        DataSet[] result = new DataSet[lookup.length];
+        for (int i = 0; i < lookup.length; i++) {
+            result[i] = lookupDataSet(lookup[i]);
+        }
+        return result;
+    }
+}
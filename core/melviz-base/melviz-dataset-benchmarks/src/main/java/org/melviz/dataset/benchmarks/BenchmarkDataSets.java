@@ -0,0 +1,129 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetFactory;
+import org.melviz.json.Json;
+import org.melviz.json.JsonArray;
+import org.melviz.json.JsonObject;
+
+/**
+ * Synthetic data sets used by the benchmarks.
+ * <p>Every data set has the following columns:</p>
+ * <ul>
+ * <li>{@link #LABEL}: the grouping label, which number of distinct values depends on the {@link Cardinality}</li>
+ * <li>{@link #CATEGORY}: a label with {@link #CATEGORIES} distinct values</li>
+ * <li>{@link #AMOUNT}: a number between 0 and 10000 (1% of nulls)</li>
+ * <li>{@link #DATE}: a date within a 3 years period</li>
+ * </ul>
+ * <p>Data sets are generated from a fixed seed so that they are the same across runs.</p>
+ */
+public class BenchmarkDataSets {
+
+    public static final String LABEL = "label";
+    public static final String CATEGORY = "category";
+    public static final String AMOUNT = "amount";
+    public static final String DATE = "date";
+
+    public static final int CATEGORIES = 10;
+
+    static final long SEED = 20250101L;
+    static final long START_DATE = 1704067200000L;
+    static final long DAY = 24 * 60 * 60 * 1000L;
+
+    public enum Cardinality {
+
+        /**
+         * 20 distinct labels.
+         */
+        LOW,
+
+        /**
+         * One distinct label every 10 rows.
+         */
+        HIGH;
+
+        public int distinctValues(int rows) {
+            return this == LOW ? 20 : Math.max(1, rows / 10);
+        }
+    }
+
+    public static DataSet newDataSet(int rows, Cardinality cardinality) {
+        Random random = new Random(SEED);
+        int labels = cardinality.distinctValues(rows);
+
+        DataSet dataSet = DataSetFactory.newEmptyDataSet();
+        dataSet.addColumn(LABEL, ColumnType.LABEL);
+        dataSet.addColumn(CATEGORY, ColumnType.LABEL);
+        dataSet.addColumn(AMOUNT, ColumnType.NUMBER);
+        dataSet.addColumn(DATE, ColumnType.DATE);
+        for (int i = 0; i < rows; i++) {
+            dataSet.addValues(label(random.nextInt(labels)),
+                    category(random.nextInt(CATEGORIES)),
+                    random.nextInt(100) == 0 ? null : Math.round(random.nextDouble() * 1000000) / 100d,
+                    new Date(START_DATE + random.nextInt(3 * 365) * DAY + random.nextInt((int) DAY)));
+        }
+        return dataSet;
+    }
+
+    public static String label(int i) {
+        return "Label " + i;
+    }
+
+    public static String category(int i) {
+        return "Category " + i;
+    }
+
+    /**
+     * Get the data set in the JSON format read by <tt>ExternalDataSetJSONParser</tt>. Dates are written as
+     * epoch milliseconds.
+     */
+    public static String toJson(DataSet dataSet) {
+        JsonArray columns = Json.createArray();
+        for (int j = 0; j < dataSet.getColumns().size(); j++) {
+            DataColumn column = dataSet.getColumnByIndex(j);
+            JsonObject columnJson = Json.createObject();
+            columnJson.put("id", column.getId());
+            columnJson.put("type", column.getColumnType().name());
+            columns.set(j, columnJson);
+        }
+        JsonArray values = Json.createArray();
+        for (int i = 0; i < dataSet.getRowCount(); i++) {
+            JsonArray row = Json.createArray();
+            for (int j = 0; j < dataSet.getColumns().size(); j++) {
+                Object value = dataSet.getValueAt(i, j);
+                if (value instanceof Date) {
+                    row.set(j, Long.toString(((Date) value).getTime()));
+                } else if (value instanceof Number) {
+                    row.set(j, ((Number) value).doubleValue());
+                } else {
+                    row.set(j, value == null ? "" : value.toString());
+                }
+            }
+            values.set(i, row);
+        }
+        JsonObject json = Json.createObject();
+        json.put("columns", columns);
+        json.put("values", values);
+        return json.toJson();
+    }
+}
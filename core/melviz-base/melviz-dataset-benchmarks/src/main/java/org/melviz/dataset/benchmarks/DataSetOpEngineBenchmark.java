@@ -0,0 +1,155 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetLookupFactory;
+import org.melviz.dataset.DataSetOp;
+import org.melviz.dataset.benchmarks.BenchmarkDataSets.Cardinality;
+import org.melviz.dataset.engine.SharedDataSetOpEngine;
+import org.melviz.dataset.filter.FilterFactory;
+import org.melviz.dataset.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.AMOUNT;
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.CATEGORY;
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.LABEL;
+import static org.melviz.dataset.group.AggregateFunctionType.AVERAGE;
+import static org.melviz.dataset.group.AggregateFunctionType.COUNT;
+import static org.melviz.dataset.group.AggregateFunctionType.MAX;
+import static org.melviz.dataset.group.AggregateFunctionType.MIN;
+import static org.melviz.dataset.group.AggregateFunctionType.SUM;
+
+/**
+ * <tt>SharedDataSetOpEngine.execute(uuid, ops)</tt> over a registered data set.
+ * <p>With <tt>indexed=false</tt> the data set is registered again before every invocation, so nothing is reused
+ * from the index cache. With <tt>indexed=true</tt> the index built by previous invocations is reused, which is what
+ * happens when a dashboard is refreshed.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DataSetOpEngineBenchmark {
+
+    static final String UUID = "benchmark";
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int rows;
+
+    @Param({"LOW", "HIGH"})
+    Cardinality cardinality;
+
+    @Param({"false", "true"})
+    boolean indexed;
+
+    BenchmarkDataSetCore core;
+    SharedDataSetOpEngine engine;
+    DataSet dataSet;
+
+    List<DataSetOp> filterOps;
+    List<DataSetOp> groupOps;
+    List<DataSetOp> filterGroupSortOps;
+    List<DataSetOp> sortOps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        core = new BenchmarkDataSetCore();
+        engine = core.getSharedDataSetOpEngine();
+        dataSet = BenchmarkDataSets.newDataSet(rows, cardinality);
+        dataSet.setUUID(UUID);
+        core.getIndexRegistry().put(dataSet);
+
+        filterOps = DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(UUID)
+                .filter(CATEGORY, FilterFactory.equalsTo(BenchmarkDataSets.category(3)))
+                .filter(AMOUNT, FilterFactory.greaterThan(5000d))
+                .buildLookup()
+                .getOperationList();
+
+        groupOps = DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(UUID)
+                .group(LABEL)
+                .column(LABEL)
+                .column(COUNT, "count")
+                .column(AMOUNT, SUM, "sum")
+                .column(AMOUNT, AVERAGE, "avg")
+                .column(AMOUNT, MIN, "min")
+                .column(AMOUNT, MAX, "max")
+                .buildLookup()
+                .getOperationList();
+
+        filterGroupSortOps = DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(UUID)
+                .filter(CATEGORY, FilterFactory.notEqualsTo(BenchmarkDataSets.category(0)))
+                .group(LABEL)
+                .column(LABEL)
+                .column(AMOUNT, SUM, "sum")
+                .column(AMOUNT, AVERAGE, "avg")
+                .sort("sum", SortOrder.DESCENDING)
+                .buildLookup()
+                .getOperationList();
+
+        sortOps = DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(UUID)
+                .sort(AMOUNT, SortOrder.DESCENDING)
+                .buildLookup()
+                .getOperationList();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetIndex() {
+        if (!indexed) {
+            core.getIndexRegistry().put(dataSet);
+        }
+    }
+
+    @Benchmark
+    public DataSet filter() {
+        return engine.execute(UUID, filterOps);
+    }
+
+    @Benchmark
+    public DataSet groupAggregate() {
+        return engine.execute(UUID, groupOps);
+    }
+
+    @Benchmark
+    public DataSet filterGroupSort() {
+        return engine.execute(UUID, filterGroupSortOps);
+    }
+
+    @Benchmark
+    public DataSet sort() {
+        return engine.execute(UUID, sortOps);
+    }
+}
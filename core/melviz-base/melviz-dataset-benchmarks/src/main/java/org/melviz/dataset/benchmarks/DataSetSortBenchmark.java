@@ -0,0 +1,98 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.benchmarks.BenchmarkDataSets.Cardinality;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.engine.sort.CollectionsDataSetSort;
+import org.melviz.dataset.sort.ColumnSort;
+import org.melviz.dataset.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.AMOUNT;
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.CATEGORY;
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.DATE;
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.LABEL;
+
+/**
+ * {@link CollectionsDataSetSort} over label, number, date and multiple columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DataSetSortBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int rows;
+
+    @Param({"LOW", "HIGH"})
+    Cardinality cardinality;
+
+    CollectionsDataSetSort sortAlgorithm;
+    DataSet dataSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sortAlgorithm = new CollectionsDataSetSort();
+        dataSet = BenchmarkDataSets.newDataSet(rows, cardinality);
+    }
+
+    @Benchmark
+    public IntRowSet sortLabel() {
+        return sort(new ColumnSort(LABEL, SortOrder.ASCENDING));
+    }
+
+    @Benchmark
+    public IntRowSet sortNumber() {
+        return sort(new ColumnSort(AMOUNT, SortOrder.DESCENDING));
+    }
+
+    @Benchmark
+    public IntRowSet sortDate() {
+        return sort(new ColumnSort(DATE, SortOrder.ASCENDING));
+    }
+
+    @Benchmark
+    public IntRowSet sortMultiColumn() {
+        return sort(new ColumnSort(CATEGORY, SortOrder.ASCENDING),
+                new ColumnSort(LABEL, SortOrder.DESCENDING),
+                new ColumnSort(AMOUNT, SortOrder.ASCENDING));
+    }
+
+    IntRowSet sort(ColumnSort... columnSorts) {
+        List<ColumnSort> columnSortList = Arrays.asList(columnSorts);
+        return sortAlgorithm.sort(dataSet, columnSortList);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.benchmarks.BenchmarkDataSets.Cardinality;
+import org.melviz.dataset.engine.group.IntervalBuilderDynamicLabel;
+import org.melviz.dataset.engine.group.IntervalList;
+import org.melviz.dataset.group.ColumnGroup;
+import org.melviz.dataset.group.GroupStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.melviz.dataset.benchmarks.BenchmarkDataSets.LABEL;
+
+/**
+ * {@link IntervalBuilderDynamicLabel} over low and high cardinality label columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IntervalBuilderBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int rows;
+
+    @Param({"LOW", "HIGH"})
+    Cardinality cardinality;
+
+    IntervalBuilderDynamicLabel intervalBuilder;
+    DataColumn column;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        intervalBuilder = new IntervalBuilderDynamicLabel();
+        column = BenchmarkDataSets.newDataSet(rows, cardinality).getColumnById(LABEL).orElseThrow();
+        column.setColumnGroup(new ColumnGroup(LABEL, LABEL, GroupStrategy.DYNAMIC));
+    }
+
+    @Benchmark
+    public IntervalList buildLabelIntervals() {
+        return intervalBuilder.build(column);
+    }
+}
@@ -23,6 +23,7 @@ import org.melviz.dataset.engine.function.AggregateFunctionManagerImpl;
 import org.melviz.dataset.engine.group.IntervalBuilderDynamicLabel;
 import org.melviz.dataset.engine.group.IntervalBuilderFixedDate;
 import org.melviz.dataset.engine.group.IntervalBuilderLocator;
+import org.melviz.dataset.engine.group.IntervalBuilderNumber;
 import org.melviz.dataset.engine.index.TransientDataSetIndexRegistry;
 import org.melviz.dataset.engine.index.spi.DataSetIndexRegistry;
 import org.melviz.dataset.engine.sort.CollectionsDataSetSort;
@@ -43,6 +44,7 @@ public abstract class AbstractDataSetCore {
     private DataSetFilterAlgorithm filterAlgorithm;
     private IntervalBuilderDynamicLabel intervalBuilderDynamicLabel;
     private IntervalBuilderFixedDate intervalBuilderFixedDate;
+    private IntervalBuilderNumber intervalBuilderNumber;
 
     protected <T extends Object> T checkNotNull(T obj, String name) {
         if (obj == null) {
@@ -115,6 +117,13 @@ public abstract class AbstractDataSetCore {
         return intervalBuilderFixedDate;
     }
 
+    public IntervalBuilderNumber getIntervalBuilderNumber() {
+        if (intervalBuilderNumber == null) {
+            intervalBuilderNumber = newIntervalBuilderNumber();
+        }
+        return intervalBuilderNumber;
+    }
+
     public Chronometer getChronometer() {
         if (chronometer == null) {
             chronometer = newChronometer();
@@ -163,6 +172,10 @@ public abstract class AbstractDataSetCore {
         this.intervalBuilderFixedDate = intervalBuilderFixedDate;
     }
 
+    public void setIntervalBuilderNumber(IntervalBuilderNumber intervalBuilderNumber) {
+        this.intervalBuilderNumber = intervalBuilderNumber;
+    }
+
     public void setChronometer(Chronometer chronometer) {
         this.chronometer = chronometer;
     }
@@ -208,6 +221,10 @@ public abstract class AbstractDataSetCore {
         return new IntervalBuilderFixedDate();
     }
 
+    protected IntervalBuilderNumber newIntervalBuilderNumber() {
+        return new IntervalBuilderNumber(getIntervalBuilderDynamicLabel());
+    }
+
     // Factory methods to be implemented by subclasses
 
     protected abstract DataSetManager newDataSetManager();
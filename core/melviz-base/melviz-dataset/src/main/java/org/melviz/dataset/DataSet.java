@@ -70,6 +70,7 @@ public interface DataSet {
      */
     Optional<DataColumn> getColumnById(String id);
 
+    @SuppressWarnings("unchecked") // DataColumn.getValues() is a raw list, its values are plain objects
     default List<Object> getColumnValues(String id) {
         return getColumnById(id).orElseThrow().getValues();
     }
@@ -185,6 +186,19 @@ public interface DataSet {
      */
     DataSet trim(List<Integer> rows);
 
+    /**
+     * Create a data set with the rows of another one with the same columns before the existing ones, so the newest
+     * rows come first. The new rows are always kept, while the existing ones are only kept up to the given row
+     * limit: the oldest (last) rows are discarded first.
+     * <p>This data set is left unchanged. Its column storages are shared with the new one whenever possible, so the
+     * cost depends on the number of new rows rather than on the existing ones.</p>
+     *
+     * @param other The data set holding the new rows.
+     * @param maxRows The max. number of rows to keep. Zero or negative means keeping only the new rows.
+     * @return A new data set with the same UUID and definition as this one.
+     */
+    DataSet prependRows(DataSet other, int maxRows);
+
     /**
      * If this data set is the result of a trim operation this method will return
      * the total number of rows existing before trim.
@@ -20,6 +20,7 @@ import org.melviz.dataset.date.Month;
 import org.melviz.dataset.filter.ColumnFilter;
 import org.melviz.dataset.group.AggregateFunctionType;
 import org.melviz.dataset.group.DateIntervalType;
+import org.melviz.dataset.group.NumberIntervalType;
 import org.melviz.dataset.sort.SortOrder;
 
 /**
@@ -203,6 +204,34 @@ public interface DataSetLookupBuilder<T> {
      */
     T fixed(DateIntervalType type, boolean emptyAllowed);
 
+    /**
+     * Split a previously defined group over a NUMBER column into histogram intervals.
+     *
+     * Example:
+     * <pre>
+     *   DataSetFactory.newDataSetLookupBuilder()
+     *   .dataset(REQUESTS)
+     *   .group(LATENCY).histogram(LOG, 20, false)
+     *   .column(LATENCY)
+     *   .column(COUNT, "occurrences")
+     * </pre>
+     * will count the requests in 20 intervals of increasing width (logarithmic scale) between the min. and max.
+     * latency.
+     *
+     * @param type How the values are split into intervals.
+     * @param maxIntervals The number of intervals.
+     * @param emptyAllowed If true then empty intervals will be also considered part of the resulting data set.
+     * @see org.melviz.dataset.group.NumberIntervalType
+     * @return The DataSetLookupBuilder instance that is being used to configure a DataSetLookup request.
+     */
+    T histogram(NumberIntervalType type, int maxIntervals, boolean emptyAllowed);
+
+    /**
+     * Same as &quot;histogram(NumberIntervalType type, int maxIntervals, boolean emptyAllowed)&quot; but splitting
+     * the values into intervals of the given width.
+     */
+    T histogram(double intervalWidth, boolean emptyAllowed);
+
     /**
      * This call requires a previously grouped data set with fixed DateIntervalType.DAY_OF_WEEK intervals, i.e. both
      * group() and fixed(DateIntervalType.DAY_OF_WEEK) have to be invoked previously. It will indicate the resulting
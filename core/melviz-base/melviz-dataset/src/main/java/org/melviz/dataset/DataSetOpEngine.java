@@ -32,6 +32,18 @@ public interface DataSetOpEngine {
      */
     DataSet execute(String uuid, List<DataSetOp> opList);
 
+    /**
+     * Apply a sequence of operations on the specified data set, knowing that only its first rows are required.
+     * <p>A trailing sort only looks for the first <i>rowLimit</i> rows. The remaining rows are left out of the
+     * result, yet they still count for its <i>rowCountNonTrimmed</i>.</p>
+     *
+     * @param uuid The target data set identifier.
+     * @param opList The list of operations.
+     * @param rowLimit The number of rows required. Zero or negative means all the rows.
+     * @return A brand new data set reflecting all the operations.
+     */
+    DataSet execute(String uuid, List<DataSetOp> opList, int rowLimit);
+
     /**
      * Apply a sequence of operations on the specified data set.
      *
@@ -15,8 +15,10 @@
  */
 package org.melviz.dataset.def;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -40,6 +42,10 @@ public class ExternalDataSetDef extends DataSetDef {
 
     private boolean accumulate;
 
+    private boolean labelColumns;
+
+    private boolean staleWhileRevalidate;
+
     private ExternalServiceType type;
 
     private HttpMethod method = HttpMethod.GET;
@@ -48,6 +54,10 @@ public class ExternalDataSetDef extends DataSetDef {
 
     private Collection<String> join;
 
+    private JoinType joinType = JoinType.UNION;
+
+    private List<String> joinOn = new ArrayList<>();
+
     public String getUrl() {
         return url;
     }
@@ -80,6 +90,25 @@ public class ExternalDataSetDef extends DataSetDef {
         this.join = join;
     }
 
+    public JoinType getJoinType() {
+        return joinType;
+    }
+
+    public void setJoinType(JoinType joinType) {
+        this.joinType = joinType;
+    }
+
+    /**
+     * The ids of the columns the joined data sets are matched on. Not used by {@link JoinType#UNION}.
+     */
+    public List<String> getJoinOn() {
+        return joinOn;
+    }
+
+    public void setJoinOn(List<String> joinOn) {
+        this.joinOn = joinOn;
+    }
+
     public Map<String, String> getHeaders() {
         return headers;
     }
@@ -96,6 +125,29 @@ public class ExternalDataSetDef extends DataSetDef {
         this.accumulate = accumulate;
     }
 
+    /**
+     * Whether the labels of metrics content are read into a column per label name instead of a single column.
+     */
+    public boolean isLabelColumns() {
+        return labelColumns;
+    }
+
+    public void setLabelColumns(boolean labelColumns) {
+        this.labelColumns = labelColumns;
+    }
+
+    /**
+     * Whether the cached data set keeps being served once the refresh time is reached, while it is fetched again
+     * in background.
+     */
+    public boolean isStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
     public ExternalServiceType getType() {
         return type;
     }
@@ -150,9 +202,13 @@ public class ExternalDataSetDef extends DataSetDef {
         def.setUrl(getUrl());
         def.setHeaders(getHeaders());
         def.setAccumulate(isAccumulate());
+        def.setLabelColumns(isLabelColumns());
+        def.setStaleWhileRevalidate(isStaleWhileRevalidate());
         def.setContent(getContent());
         def.setType(getType());
         def.setJoin(getJoin());
+        def.setJoinType(getJoinType());
+        def.setJoinOn(getJoinOn());
         def.setQuery(getQuery());
         def.setForm(getForm());
         def.setMethod(getMethod());
@@ -175,8 +231,12 @@ public class ExternalDataSetDef extends DataSetDef {
                Objects.equals(headers, other.headers) &&
                Objects.equals(url, other.url) &&
                Objects.equals(accumulate, other.accumulate) &&
+               labelColumns == other.labelColumns &&
+               staleWhileRevalidate == other.staleWhileRevalidate &&
                Objects.equals(type, other.type) &&
                Objects.equals(join, other.join) &&
+               Objects.equals(joinType, other.joinType) &&
+               Objects.equals(joinOn, other.joinOn) &&
                Objects.equals(query, other.query) &&
                Objects.equals(form, other.form) &&
                Objects.equals(method, other.method) &&
@@ -196,8 +256,12 @@ public class ExternalDataSetDef extends DataSetDef {
         out.append("Content=").append(content).append("\n");
         out.append("Headers=").append(headers).append("\n");
         out.append("Accumulate=").append(accumulate).append("\n");
+        out.append("Label columns=").append(labelColumns).append("\n");
+        out.append("Stale while revalidate=").append(staleWhileRevalidate).append("\n");
         out.append("Type=").append(type).append("\n");
         out.append("Join=").append(join).append("\n");
+        out.append("Join type=").append(joinType).append("\n");
+        out.append("Join on=").append(joinOn).append("\n");
         out.append("Query=").append(query).append("\n");
         out.append("Form=").append(form).append("\n");
         out.append("Method=").append(method).append("\n");
@@ -214,8 +278,12 @@ public class ExternalDataSetDef extends DataSetDef {
                 content,
                 headers,
                 accumulate,
+                labelColumns,
+                staleWhileRevalidate,
                 type,
                 join,
+                joinType,
+                joinOn,
                 query,
                 form,
                 method,
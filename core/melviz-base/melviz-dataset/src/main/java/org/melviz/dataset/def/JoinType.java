@@ -0,0 +1,47 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.def;
+
+/**
+ * How the data sets listed in the join of an external data set are combined.
+ *
+ */
+public enum JoinType {
+
+    /**
+     * Rows of all data sets one after another, plus a column with the source data set.
+     */
+    UNION,
+    /**
+     * Rows matching on the join columns in every data set.
+     */
+    INNER,
+    /**
+     * Every row of the first data set, with the matching rows of the others when found.
+     */
+    LEFT;
+
+    public static JoinType byName(String type) {
+        if (type != null) {
+            for (var t : JoinType.values()) {
+                if (t.name().equalsIgnoreCase(type)) {
+                    return t;
+                }
+            }
+        }
+        return UNION;
+    }
+}
@@ -15,8 +15,6 @@
  */
 package org.melviz.dataset.engine;
 
-import java.util.List;
-
 import org.melviz.dataset.DataSet;
 
 /**
@@ -25,6 +23,6 @@ import org.melviz.dataset.DataSet;
 public interface DataSetRowSet {
 
     DataSet getDataSet();
-    List<Integer> getRows();
+    IntRowSet getRows();
 
 }
\ No newline at end of file
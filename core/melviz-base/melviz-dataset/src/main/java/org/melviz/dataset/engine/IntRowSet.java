@@ -0,0 +1,282 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A selection of data set row numbers backed by an <tt>int[]</tt>.
+ * <p>It implements <tt>List&lt;Integer&gt;</tt> so it can be handed over to any existing consumer, but engine
+ * code should stick to the primitive methods ({@link #getRow(int)}, {@link #addRow(int)}, ...) in order to avoid
+ * boxing a new <tt>Integer</tt> for every row.</p>
+ */
+public class IntRowSet extends AbstractList<Integer> implements RandomAccess {
+
+    private static final int[] EMPTY = new int[0];
+
+    protected int[] rows;
+    protected int size = 0;
+
+    public IntRowSet() {
+        this.rows = EMPTY;
+    }
+
+    public IntRowSet(int capacity) {
+        this.rows = capacity > 0 ? new int[capacity] : EMPTY;
+    }
+
+    /**
+     * Wraps the given array. No copy is made.
+     */
+    public IntRowSet(int[] rows, int size) {
+        if (size < 0 || size > rows.length) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        this.rows = rows;
+        this.size = size;
+    }
+
+    /**
+     * Adapts a row list.
+     *
+     * @return The list itself if already a row set, a copy otherwise. Null if the list is null.
+     */
+    public static IntRowSet of(List<Integer> rows) {
+        if (rows == null) {
+            return null;
+        }
+        if (rows instanceof IntRowSet) {
+            return (IntRowSet) rows;
+        }
+        IntRowSet result = new IntRowSet(rows.size());
+        for (Integer row : rows) {
+            result.addRow(row);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a row set containing all the rows within the range [from, to).
+     */
+    public static IntRowSet range(int from, int to) {
+        IntRowSet result = new IntRowSet(to - from);
+        for (int i = from; i < to; i++) {
+            result.rows[result.size++] = i;
+        }
+        return result;
+    }
+
+    public int getRow(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return rows[index];
+    }
+
+    public void addRow(int row) {
+        if (size == rows.length) {
+            grow(size + 1);
+        }
+        rows[size++] = row;
+        modCount++;
+    }
+
+    public void addRows(IntRowSet other) {
+        if (other.size == 0) {
+            return;
+        }
+        if (size + other.size > rows.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.rows, 0, rows, size, other.size);
+        size += other.size;
+        modCount++;
+    }
+
+    /**
+     * @return A copy of the row numbers.
+     */
+    public int[] toIntArray() {
+        int[] result = new int[size];
+        System.arraycopy(rows, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * @return A new row set with the same rows in reverse order.
+     */
+    public IntRowSet reverse() {
+        IntRowSet result = new IntRowSet(size);
+        for (int i = size - 1; i >= 0; i--) {
+            result.rows[result.size++] = rows[i];
+        }
+        return result;
+    }
+
+    public boolean isAscending() {
+        for (int i = 1; i < size; i++) {
+            if (rows[i - 1] > rows[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean containsRow(int row) {
+        for (int i = 0; i < size; i++) {
+            if (rows[i] == row) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the rows of this set also present in the given one. The order of this set is preserved.
+     */
+    public IntRowSet intersect(IntRowSet other) {
+        IntRowSet result = new IntRowSet(Math.min(size, other.size));
+        if (size == 0 || other.size == 0) {
+            return result;
+        }
+        if (isAscending() && other.isAscending()) {
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                int a = rows[i];
+                int b = other.rows[j];
+                if (a == b) {
+                    result.rows[result.size++] = a;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return result;
+        }
+        int max = 0;
+        for (int i = 0; i < other.size; i++) {
+            max = Math.max(max, other.rows[i]);
+        }
+        int[] bitmap = new int[(max >>> 5) + 1];
+        for (int i = 0; i < other.size; i++) {
+            int row = other.rows[i];
+            bitmap[row >>> 5] |= 1 << (row & 31);
+        }
+        for (int i = 0; i < size; i++) {
+            int row = rows[i];
+            if (row <= max && (bitmap[row >>> 5] & (1 << (row & 31))) != 0) {
+                result.rows[result.size++] = row;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update the row numbers after some rows were inserted at the beginning of the data set and the last ones
+     * discarded: the rows from the given limit on are removed and the rest are shifted up. The order is preserved.
+     *
+     * @param limit The number of old rows still in the data set.
+     * @param inserted The number of rows inserted at the beginning.
+     */
+    public void shiftRows(int limit, int inserted) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int row = rows[i];
+            if (row < limit) {
+                rows[n++] = row + inserted;
+            }
+        }
+        size = n;
+        modCount++;
+    }
+
+    protected void grow(int capacity) {
+        int newCapacity = Math.max(capacity, rows.length + (rows.length >> 1) + 8);
+        int[] newRows = new int[newCapacity];
+        System.arraycopy(rows, 0, newRows, 0, size);
+        rows = newRows;
+    }
+
+    // java.util.List view
+
+    @Override
+    public Integer get(int index) {
+        return getRow(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer row) {
+        int old = getRow(index);
+        rows[index] = row;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Integer row) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == rows.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(rows, index, rows, index + 1, size - index);
+        rows[index] = row;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        int old = getRow(index);
+        System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> c) {
+        if (c instanceof IntRowSet) {
+            IntRowSet other = (IntRowSet) c;
+            addRows(other);
+            return other.size > 0;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && containsRow((Integer) o);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -26,6 +26,8 @@ import org.melviz.dataset.DataSetOp;
 import org.melviz.dataset.DataSetOpEngine;
 import org.melviz.dataset.DataSetOpType;
 import org.melviz.dataset.engine.filter.DataSetFilterAlgorithm;
+import org.melviz.dataset.engine.function.AccumulableFunction;
+import org.melviz.dataset.engine.function.AggregateAccumulator;
 import org.melviz.dataset.engine.group.IntervalBuilder;
 import org.melviz.dataset.engine.group.IntervalBuilderLocator;
 import org.melviz.dataset.engine.group.IntervalList;
@@ -95,9 +97,14 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
     }
 
     public DataSet execute(String uuid, List<DataSetOp> opList) {
+        return execute(uuid, opList, -1);
+    }
+
+    public DataSet execute(String uuid, List<DataSetOp> opList, int rowLimit) {
         DataSetOpListProcessor processor = new DataSetOpListProcessor();
         processor.setDataSetIndex(indexRegistry.get(uuid));
         processor.setOperationList(opList);
+        processor.setRowLimit(rowLimit);
         processor.run();
         return processor.getDataSet();
     }
@@ -106,6 +113,8 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
 
         List<DataSetOp> operationList;
         InternalContext context;
+        int rowLimit = -1;
+        int topRowCount = -1;
 
         public void setDataSetIndex(DataSetIndex index) {
             context = new InternalContext(index);
@@ -115,6 +124,10 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
             operationList = new ArrayList<DataSetOp>(opList);
         }
 
+        public void setRowLimit(int rowLimit) {
+            this.rowLimit = rowLimit;
+        }
+
         /**
          * Ensure the sequence of operations to apply match the following pattern:
          * <ul>
@@ -202,6 +215,11 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
 
             // Build the resulting data set
             buildDataSet(context);
+
+            // Only the top rows were sorted, so keep track of the real size
+            if (topRowCount != -1) {
+                context.dataSet.setRowCountNonTrimmed(topRowCount);
+            }
         }
 
         // GROUP OPERATION
@@ -364,7 +382,7 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
 
                 // No index => Filter required
                 if (context.index == null) {
-                    List<Integer> rows = filterAlgorithm.filter(new InternalHandler(context), filter);
+                    IntRowSet rows = filterAlgorithm.filter(new InternalHandler(context), filter);
                     context.index(op, new DataSetFilterIndex(filter, rows));
                     continue;
                 }
@@ -376,7 +394,7 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
                 }
                 // No index match => Filter required
                 chronometer.start();
-                List<Integer> rows = filterAlgorithm.filter(new InternalHandler(context), filter);
+                IntRowSet rows = filterAlgorithm.filter(new InternalHandler(context), filter);
                 chronometer.stop();
 
                 // Index before continue.
@@ -400,8 +418,11 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
 
             // No index => Sort required
             if (context.index == null) {
-                List<Integer> orderedRows = sortAlgorithm.sort(context.getDataSet(), context.getRows(),
-                        op.getColumnSortList());
+                IntRowSet orderedRows = sortTop(op, context);
+                if (orderedRows == null) {
+                    orderedRows = sortAlgorithm.sort(context.getDataSet(), context.getRows(),
+                            op.getColumnSortList());
+                }
                 context.index(op, new DataSetSortIndex(op, orderedRows));
                 return;
 
@@ -412,9 +433,15 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
                 context.index(op, sortIndex);
                 return;
             }
+            // Only the top rows requested => Partial sort, not indexed since later pages would need the full one
+            IntRowSet topRows = sortTop(op, context);
+            if (topRows != null) {
+                context.index(op, new DataSetSortIndex(op, topRows));
+                return;
+            }
             // No index match => Sort required
             chronometer.start();
-            List<Integer> orderedRows = sortAlgorithm.sort(context.getDataSet(), context.getRows(),
+            IntRowSet orderedRows = sortAlgorithm.sort(context.getDataSet(), context.getRows(),
                     op.getColumnSortList());
             chronometer.stop();
 
@@ -422,6 +449,23 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
             context.index(op, context.index.indexSort(op, orderedRows, chronometer.elapsedTime()));
         }
 
+        /**
+         * Sort only the first rows when the lookup is limited to them and the sort is the last operation.
+         * @return The top rows or null if a full sort is required.
+         */
+        protected IntRowSet sortTop(DataSetSort op, InternalContext context) {
+            if (rowLimit <= 0 || operationList.get(operationList.size() - 1) != op) {
+                return null;
+            }
+            IntRowSet rows = context.getRows();
+            int rowCount = rows != null ? rows.size() : context.dataSet.getRowCount();
+            if (rowLimit >= rowCount) {
+                return null;
+            }
+            topRowCount = rowCount;
+            return sortAlgorithm.sortTop(context.getDataSet(), rows, op.getColumnSortList(), rowLimit);
+        }
+
         // DATASET BUILD
 
         // ColumnGroup==null => columns selection OR agg calculations
@@ -469,7 +513,7 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
             return dataSet;
         }
 
-        private DataSet _filterDataSet(DataSet dataSet, List<Integer> rows) {
+        private DataSet _filterDataSet(DataSet dataSet, IntRowSet rows) {
             DataSet result = DataSetFactory.newEmptyDataSet();
             for (DataColumn column : dataSet.getColumns()) {
                 DataColumn sortedColumn = column.cloneEmpty();
@@ -524,8 +568,38 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
                     }
                 }
             }
+            // Resolve the source columns & functions once for all the intervals.
+            int nfunctions = groupFunctions.size();
+            DataColumn[] dataColumns = new DataColumn[nfunctions];
+            AccumulableFunction[] accFunctions = new AccumulableFunction[nfunctions];
+            AggregateAccumulator[] accumulators = new AggregateAccumulator[nfunctions];
+            List<AggregateAccumulator> accumulatorList = new ArrayList<>();
+            for (int j = 0; j < nfunctions; j++) {
+                GroupFunction groupFunction = groupFunctions.get(j);
+                String sourceId = groupFunction.getSourceId();
+                AggregateFunctionType columnFunction = groupFunction.getFunction();
+                if (sourceId != null && sourceId.equals(columnGroup.getSourceId()) && columnFunction == null) {
+                    continue;
+                }
+                DataColumn dataColumn = dataSet.getColumnByIndex(0);
+                if (sourceId != null)
+                    dataColumn = dataSet.getColumnById(sourceId).orElseThrow();
+                dataColumns[j] = dataColumn;
+
+                if (columnFunction != null) {
+                    AggregateFunction function = aggregateFunctionManager.getFunctionByType(columnFunction);
+                    if (function instanceof AccumulableFunction
+                            && ((AccumulableFunction) function).isAccumulable(dataColumn.getValues())) {
+                        accFunctions[j] = (AccumulableFunction) function;
+                        accumulators[j] = _getAccumulator(accumulatorList, dataColumn.getValues());
+                    }
+                }
+            }
+
             // Add the aggregate calculations to the result.
             List<DataSetIntervalIndex> intervalIdxs = index.getIntervalIndexes();
+            Object[] aggValues = new Object[nfunctions];
+            List<AggregateAccumulator> activeAccumulators = new ArrayList<>();
             int row = 0;
             for (int i = 0; i < intervalIdxs.size(); i++) {
                 DataSetIntervalIndex intervalIdx = intervalIdxs.get(i);
@@ -535,34 +609,59 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
                     continue;
                 }
 
+                // Calculate all the accumulable functions not yet indexed in a single pass over the interval rows
+                activeAccumulators.clear();
+                int naccumulated = 0;
+                for (int j = 0; j < nfunctions; j++) {
+                    aggValues[j] = null;
+                    if (accFunctions[j] != null) {
+                        aggValues[j] = intervalIdx.getAggValue(dataColumns[j].getId(), accFunctions[j].getType());
+                        if (aggValues[j] == null) {
+                            naccumulated++;
+                            if (!activeAccumulators.contains(accumulators[j])) {
+                                activeAccumulators.add(accumulators[j]);
+                            }
+                        }
+                    }
+                }
+                if (naccumulated > 0) {
+                    chronometer.start();
+                    _accumulate(activeAccumulators, intervalIdx.getRows());
+                    chronometer.stop();
+                    long buildTime = chronometer.elapsedTime() / naccumulated;
+                    for (int j = 0; j < nfunctions; j++) {
+                        if (accFunctions[j] != null && aggValues[j] == null) {
+                            aggValues[j] = accFunctions[j].aggregate(accumulators[j]);
+                            intervalIdx.indexAggValue(dataColumns[j].getId(), accFunctions[j].getType(), aggValues[j], buildTime);
+                        }
+                    }
+                }
+
                 // Add the aggregate calculations.
-                for (int j = 0; j < groupFunctions.size(); j++) {
+                for (int j = 0; j < nfunctions; j++) {
                     GroupFunction groupFunction = groupFunctions.get(j);
                     String sourceId = groupFunction.getSourceId();
                     AggregateFunctionType columnFunction = groupFunction.getFunction();
+                    DataColumn dataColumn = dataColumns[j];
 
                     if (sourceId != null && sourceId.equals(columnGroup.getSourceId()) && columnFunction == null) {
                         result.setValueAt(row, j, intervalIdx.getName());
-                    } else {
-                        DataColumn dataColumn = dataSet.getColumnByIndex(0);
-                        if (sourceId != null)
-                            dataColumn = dataSet.getColumnById(sourceId).orElseThrow();
-
-                        // Columns based on aggregation functions
-                        if (columnFunction != null) {
-                            Object aggValue = _calculateFunction(dataColumn, groupFunction.getFunction(), intervalIdx);
-                            result.setValueAt(row, j, aggValue);
-                        }
-                        // Pick up the first column value for the interval
-                        else {
-                            List<Integer> rows = intervalIdx.getRows();
-                            if (rows == null || rows.isEmpty()) {
-                                result.setValueAt(row, j, null);
-                            } else {
-                                int intervalRow = rows.get(0);
-                                Object firstValue = dataColumn.getValues().get(intervalRow);
-                                result.setValueAt(row, j, firstValue);
-                            }
+                    }
+                    // Columns based on aggregation functions
+                    else if (columnFunction != null) {
+                        Object aggValue = accFunctions[j] != null ? aggValues[j]
+                                : _calculateFunction(dataColumn, columnFunction, intervalIdx);
+                        result.setValueAt(row, j, aggValue);
+                    }
+                    // Pick up the first column value for the interval
+                    else {
+                        IntRowSet rows = intervalIdx.getRows();
+                        if (rows == null || rows.isEmpty()) {
+                            result.setValueAt(row, j, null);
+                        } else {
+                            int intervalRow = rows.getRow(0);
+                            Object firstValue = dataColumn.getValues().get(intervalRow);
+                            result.setValueAt(row, j, firstValue);
                         }
                     }
                 }
@@ -571,6 +670,38 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
             return result;
         }
 
+        private AggregateAccumulator _getAccumulator(List<AggregateAccumulator> accumulators, List values) {
+            for (AggregateAccumulator accumulator : accumulators) {
+                if (accumulator.getValues() == values) {
+                    return accumulator;
+                }
+            }
+            AggregateAccumulator accumulator = new AggregateAccumulator(values);
+            accumulators.add(accumulator);
+            return accumulator;
+        }
+
+        private void _accumulate(List<AggregateAccumulator> accumulators, IntRowSet rows) {
+            int nacc = accumulators.size();
+            for (int k = 0; k < nacc; k++) {
+                accumulators.get(k).reset();
+            }
+            int nrows = rows.size();
+            if (nacc == 1) {
+                AggregateAccumulator accumulator = accumulators.get(0);
+                for (int i = 0; i < nrows; i++) {
+                    accumulator.accumulate(rows.getRow(i));
+                }
+                return;
+            }
+            for (int i = 0; i < nrows; i++) {
+                int row = rows.getRow(i);
+                for (int k = 0; k < nacc; k++) {
+                    accumulators.get(k).accumulate(row);
+                }
+            }
+        }
+
         private DataSet _buildDataSet(InternalContext context, List<GroupFunction> groupFunctions,
                 boolean hasAggregations) {
             DataSetIndexNode index = context.index;
@@ -665,7 +796,7 @@ public class SharedDataSetOpEngine implements DataSetOpEngine {
                 return dataSet;
             }
 
-            public List<Integer> getRows() {
+            public IntRowSet getRows() {
                 if (index == null)
                     return null;
                 return index.getRows();
@@ -19,18 +19,27 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
+import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.date.TimeFrame;
 import org.melviz.dataset.filter.CoreFunctionFilter;
 import org.melviz.dataset.filter.CoreFunctionType;
+import org.melviz.dataset.impl.DateColumnStorage;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.LabelDictionary;
+import org.melviz.dataset.impl.NumberColumnStorage;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
 
 public class CoreFunction extends DataSetFunction {
 
     private CoreFunctionFilter coreFunctionFilter = null;
+    private RowPredicate predicate = null;
 
     public CoreFunction(DataSetFilterContext ctx, CoreFunctionFilter coreFunctionFilter) {
         super(ctx, coreFunctionFilter);
         this.coreFunctionFilter = coreFunctionFilter;
+        this.predicate = compile();
     }
 
     public Comparable getCurrentValue() {
@@ -52,46 +61,240 @@ public class CoreFunction extends DataSetFunction {
     }
 
     public boolean pass() {
+        return predicate.test(getContext().getCurrentRow());
+    }
+
+    /**
+     * A filter condition evaluated against a given data set row.
+     */
+    protected interface RowPredicate {
+
+        boolean test(int row);
+    }
+
+    /**
+     * Turn the filter into a predicate bound to the target column values, so that all the checks and
+     * conversions not depending on the row value are done only once.
+     */
+    protected RowPredicate compile() {
         CoreFunctionType type = coreFunctionFilter.getType();
+        if (!isSupported(type)) {
+            throw new IllegalArgumentException("Core function type not supported: " + type);
+        }
+        DataColumn column = columnId != null ? getDataColumn().orElse(null) : null;
+        if (column == null) {
+            // Keep the old behaviour: fail when evaluated
+            return row -> evaluate(type, getCurrentValue());
+        }
+        dataColumn = column;
+        List values = column.getValues();
+        PrimitiveColumnStorage storage = values instanceof PrimitiveColumnStorage ? (PrimitiveColumnStorage) values : null;
+        LabelColumnStorage labels = values instanceof LabelColumnStorage ? (LabelColumnStorage) values : null;
+
+        if (CoreFunctionType.IS_NULL.equals(type)) {
+            if (labels != null) {
+                return labels::isNull;
+            }
+            return storage != null ? storage::isNull : row -> values.get(row) == null;
+        }
+        if (CoreFunctionType.NOT_NULL.equals(type)) {
+            if (labels != null) {
+                return row -> !labels.isNull(row);
+            }
+            return storage != null ? row -> !storage.isNull(row) : row -> values.get(row) != null;
+        }
+        if (CoreFunctionType.EQUALS_TO.equals(type) || CoreFunctionType.IN.equals(type)) {
+            if (getParameters().isEmpty()) {
+                return row -> true;
+            }
+            ParameterSet paramSet = new ParameterSet(getParameters());
+            if (labels != null) {
+                return compileLabels(labels, paramSet::contains);
+            }
+            return row -> paramSet.contains(values.get(row));
+        }
+        if (CoreFunctionType.NOT_EQUALS_TO.equals(type) || CoreFunctionType.NOT_IN.equals(type)) {
+            if (getParameters().isEmpty()) {
+                return row -> true;
+            }
+            ParameterSet paramSet = new ParameterSet(getParameters());
+            if (labels != null) {
+                return compileLabels(labels, value -> !paramSet.contains(value));
+            }
+            return row -> !paramSet.contains(values.get(row));
+        }
+        if (CoreFunctionType.LIKE_TO.equals(type)) {
+            Comparable param0 = getParameter(0);
+            if (param0 == null) {
+                return row -> false;
+            }
+            boolean caseSensitive = getParameter(1) == null || Boolean.parseBoolean(getParameter(1).toString());
+            LikePattern likePattern = new LikePattern(param0.toString(), caseSensitive);
+            if (labels != null) {
+                return compileLabels(labels, value -> value != null && likePattern.matches(value.toString()));
+            }
+            return row -> {
+                Object value = values.get(row);
+                return value != null && likePattern.matches(value.toString());
+            };
+        }
+        if (CoreFunctionType.TIME_FRAME.equals(type) && storage instanceof DateColumnStorage && getParameter(0) != null) {
+            TimeFrameLimits limits = getTimeFrameLimits(getParameter(0).toString());
+            double from = limits.from.getTime();
+            double to = limits.to.getTime();
+            return row -> !storage.isNull(row) && storage.getDouble(row) >= from && storage.getDouble(row) <= to;
+        }
+        if (storage != null && isRangeType(type)) {
+            RowPredicate rangePredicate = compileRange(type, storage);
+            if (rangePredicate != null) {
+                return rangePredicate;
+            }
+        }
+        return row -> evaluate(type, (Comparable) values.get(row));
+    }
+
+    /**
+     * Checks over dictionary encoded labels. The condition is evaluated once per label code, not once per row.
+     */
+    protected RowPredicate compileLabels(LabelColumnStorage labels, Predicate<Object> condition) {
+        LabelDictionary dictionary = labels.getDictionary();
+        // One entry per code plus the null code (-1) in the first position
+        boolean[] matches = new boolean[dictionary.size() + 1];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = condition.test(dictionary.decode(i - 1));
+        }
+        return row -> {
+            int index = labels.getCode(row) + 1;
+            // Codes added to the dictionary after the compilation
+            if (index >= matches.length) {
+                return condition.test(dictionary.decode(index - 1));
+            }
+            return matches[index];
+        };
+    }
+
+    /**
+     * Range checks over primitive column storages.
+     *
+     * @return null if any of the parameters can't be converted into the storage primitive type.
+     */
+    protected RowPredicate compileRange(CoreFunctionType type, PrimitiveColumnStorage storage) {
+        Comparable param0 = getParameter(0);
+        Comparable param1 = getParameter(1);
+        double ref0 = toPrimitive(param0, storage);
+        double ref1 = toPrimitive(param1, storage);
+        if ((param0 != null && Double.isNaN(ref0)) || (param1 != null && Double.isNaN(ref1))) {
+            return null;
+        }
+        if (CoreFunctionType.GREATER_THAN.equals(type)) {
+            if (param0 == null) {
+                return row -> !storage.isNull(row);
+            }
+            return row -> !storage.isNull(row) && Double.compare(storage.getDouble(row), ref0) > 0;
+        }
+        if (CoreFunctionType.GREATER_OR_EQUALS_TO.equals(type)) {
+            if (param0 == null) {
+                return row -> true;
+            }
+            return row -> !storage.isNull(row) && Double.compare(storage.getDouble(row), ref0) >= 0;
+        }
+        if (CoreFunctionType.LOWER_THAN.equals(type)) {
+            if (param0 == null) {
+                return row -> false;
+            }
+            return row -> storage.isNull(row) || Double.compare(storage.getDouble(row), ref0) < 0;
+        }
+        if (CoreFunctionType.LOWER_OR_EQUALS_TO.equals(type)) {
+            if (param0 == null) {
+                return row -> storage.isNull(row);
+            }
+            return row -> storage.isNull(row) || Double.compare(storage.getDouble(row), ref0) <= 0;
+        }
+        // Between
+        return row -> {
+            if (storage.isNull(row)) {
+                return param0 == null;
+            }
+            double value = storage.getDouble(row);
+            if (param0 != null && Double.compare(value, ref0) < 0) {
+                return false;
+            }
+            return param1 == null || Double.compare(value, ref1) <= 0;
+        };
+    }
 
+    protected double toPrimitive(Comparable param, PrimitiveColumnStorage storage) {
+        if (storage instanceof NumberColumnStorage && param instanceof Number) {
+            return ((Number) param).doubleValue();
+        }
+        if (storage instanceof DateColumnStorage && param instanceof Date) {
+            return ((Date) param).getTime();
+        }
+        return Double.NaN;
+    }
+
+    protected boolean isRangeType(CoreFunctionType type) {
+        return CoreFunctionType.GREATER_THAN.equals(type)
+                || CoreFunctionType.GREATER_OR_EQUALS_TO.equals(type)
+                || CoreFunctionType.LOWER_THAN.equals(type)
+                || CoreFunctionType.LOWER_OR_EQUALS_TO.equals(type)
+                || CoreFunctionType.BETWEEN.equals(type);
+    }
+
+    protected boolean isSupported(CoreFunctionType type) {
+        return type != null && (isRangeType(type)
+                || CoreFunctionType.IS_NULL.equals(type)
+                || CoreFunctionType.NOT_NULL.equals(type)
+                || CoreFunctionType.EQUALS_TO.equals(type)
+                || CoreFunctionType.NOT_EQUALS_TO.equals(type)
+                || CoreFunctionType.LIKE_TO.equals(type)
+                || CoreFunctionType.TIME_FRAME.equals(type)
+                || CoreFunctionType.IN.equals(type)
+                || CoreFunctionType.NOT_IN.equals(type));
+    }
+
+    /**
+     * Evaluate the given value with no compiled state.
+     */
+    protected boolean evaluate(CoreFunctionType type, Comparable value) {
         if (CoreFunctionType.IS_NULL.equals(type)) {
-            return isNull(getCurrentValue());
+            return isNull(value);
         }
         if (CoreFunctionType.NOT_NULL.equals(type)) {
-            return isNotNull(getCurrentValue());
+            return isNotNull(value);
         }
         if (CoreFunctionType.EQUALS_TO.equals(type)) {
-            return isEqualsTo(getCurrentValue());
+            return isEqualsTo(value);
         }
         if (CoreFunctionType.NOT_EQUALS_TO.equals(type)) {
-            return isNotEqualsTo(getCurrentValue());
+            return isNotEqualsTo(value);
         }
         if (CoreFunctionType.LIKE_TO.equals(type)) {
-            return isLikeTo(getCurrentValue());
+            return isLikeTo(value);
         }
         if (CoreFunctionType.LOWER_THAN.equals(type)) {
-            return isLowerThan(getCurrentValue());
+            return isLowerThan(value);
         }
         if (CoreFunctionType.LOWER_OR_EQUALS_TO.equals(type)) {
-            return isLowerThanOrEqualsTo(getCurrentValue());
+            return isLowerThanOrEqualsTo(value);
         }
         if (CoreFunctionType.GREATER_THAN.equals(type)) {
-            return isGreaterThan(getCurrentValue());
+            return isGreaterThan(value);
         }
         if (CoreFunctionType.GREATER_OR_EQUALS_TO.equals(type)) {
-            return isGreaterThanOrEqualsTo(getCurrentValue());
+            return isGreaterThanOrEqualsTo(value);
         }
         if (CoreFunctionType.BETWEEN.equals(type)) {
-            return isBetween(getCurrentValue());
+            return isBetween(value);
         }
         if (CoreFunctionType.TIME_FRAME.equals(type)) {
-            return timeFrame(getCurrentValue());
+            return timeFrame(value);
         }
         if (CoreFunctionType.IN.equals(type)) {
-            return isEqualsTo(getCurrentValue());
+            return isEqualsTo(value);
         }
         if (CoreFunctionType.NOT_IN.equals(type)) {
-            return isNotEqualsTo(getCurrentValue());
+            return isNotEqualsTo(value);
         }
         throw new IllegalArgumentException("Core function type not supported: " + type);
     }
@@ -180,17 +383,7 @@ public class CoreFunction extends DataSetFunction {
         }
         // Case sensitive parameter
         final Boolean caseSensitive = getParameter(1) != null ? Boolean.parseBoolean(getParameter(1).toString()) : true;
-        String pattern = caseSensitive ? param0.toString() : param0.toString().toLowerCase();
-        String strValue = caseSensitive ? value.toString() : value.toString().toLowerCase();
-
-        // Replace the user's wilcards that come from the UI request for valid regular
-        // expression patterns.
-        pattern = pattern.replace(".", "\\."); // "\\" is escaped to "\"
-        pattern = pattern.replace("%", ".*");
-        pattern = pattern.replace("_", ".");
-
-        // Perform the regexp match operation.
-        return strValue.matches(pattern);
+        return new LikePattern(param0.toString(), caseSensitive).matches(value.toString());
     }
 
     public boolean isLowerThan(Comparable value) {
@@ -246,12 +439,7 @@ public class CoreFunction extends DataSetFunction {
         }
         Date target = (Date) value;
 
-        TimeFrameLimits timeFrameLimits = _timeFrameExprCache.get(timeFrameExpr);
-        if (timeFrameLimits == null) {
-            TimeFrame timeFrame = TimeFrame.parse(getParameter(0).toString());
-            _timeFrameExprCache.put(timeFrameExpr, timeFrameLimits = new TimeFrameLimits(timeFrame));
-        }
-
+        TimeFrameLimits timeFrameLimits = getTimeFrameLimits(timeFrameExpr);
         if (target.before(timeFrameLimits.from))
             return false;
         if (target.after(timeFrameLimits.to))
@@ -259,6 +447,15 @@ public class CoreFunction extends DataSetFunction {
         return true;
     }
 
+    protected TimeFrameLimits getTimeFrameLimits(String timeFrameExpr) {
+        TimeFrameLimits timeFrameLimits = _timeFrameExprCache.get(timeFrameExpr);
+        if (timeFrameLimits == null) {
+            TimeFrame timeFrame = TimeFrame.parse(timeFrameExpr);
+            _timeFrameExprCache.put(timeFrameExpr, timeFrameLimits = new TimeFrameLimits(timeFrame));
+        }
+        return timeFrameLimits;
+    }
+
     public class TimeFrameLimits {
 
         Date from = null;
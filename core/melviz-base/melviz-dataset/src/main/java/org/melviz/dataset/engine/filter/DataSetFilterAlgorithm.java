@@ -15,9 +15,8 @@
  */
 package org.melviz.dataset.engine.filter;
 
-import java.util.List;
-
 import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.filter.ColumnFilter;
 
 /**
@@ -32,5 +31,5 @@ public interface DataSetFilterAlgorithm {
      * @param columnFilter The column filter to apply.
      * @return A list of ordinals containing only the rows that surpass the filter.
      */
-    List<Integer> filter(DataSetHandler ctx, ColumnFilter columnFilter);
+    IntRowSet filter(DataSetHandler ctx, ColumnFilter columnFilter);
 }
@@ -15,11 +15,9 @@
  */
 package org.melviz.dataset.engine.filter;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.melviz.dataset.DataSet;
 import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.filter.ColumnFilter;
 import org.melviz.dataset.filter.CoreFunctionFilter;
 import org.melviz.dataset.filter.CustomFunctionFilter;
@@ -72,30 +70,33 @@ public class DefaultFilterAlgorithm implements DataSetFilterAlgorithm {
      .filter(COUNTRY, equalsTo("Spain"))
 
      */
-    public List<Integer> filter(DataSetHandler ctx, ColumnFilter columnFilter) {
+    public IntRowSet filter(DataSetHandler ctx, ColumnFilter columnFilter) {
 
         // Build the data set filter function.
         DataSet dataSet = ctx.getDataSet();
         DataSetFilterContext dataSetFilterContext = new DataSetFilterContext(dataSet);
         DataSetFunction filterFunction = buildFunction(dataSetFilterContext, columnFilter);
 
-        List<Integer> result = new ArrayList<Integer>();
+        IntRowSet result = new IntRowSet();
 
         // Apply the filter function to the whole data set.
         if (ctx == null || ctx.getRows() == null) {
-            for (int i = 0; i < dataSet.getRowCount(); i++) {
+            int rowCount = dataSet.getRowCount();
+            for (int i = 0; i < rowCount; i++) {
                 dataSetFilterContext.setCurrentRow(i);
                 if (filterFunction.pass()) {
-                    result.add(i);
+                    result.addRow(i);
                 }
             }
         }
         // Filter only the target rows specified.
         else {
-            for (Integer targetRow : ctx.getRows()) {
+            IntRowSet targetRows = ctx.getRows();
+            for (int i = 0; i < targetRows.size(); i++) {
+                int targetRow = targetRows.getRow(i);
                 dataSetFilterContext.setCurrentRow(targetRow);
                 if (filterFunction.pass()) {
-                    result.add(targetRow);
+                    result.addRow(targetRow);
                 }
             }
         }
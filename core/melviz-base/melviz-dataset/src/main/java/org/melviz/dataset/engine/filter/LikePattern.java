@@ -0,0 +1,95 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.filter;
+
+/**
+ * A <code>LIKE_TO</code> pattern prepared once and matched against many values.
+ * <p>Patterns made of plain characters plus the <code>%</code> and <code>_</code> wildcards are matched directly.
+ * Any other pattern (i.e: <code>[charlist]</code>) is translated to a regular expression.</p>
+ */
+class LikePattern {
+
+    private static final String REGEXP_CHARS = "\\[](){}*+?^$|";
+
+    private boolean caseSensitive;
+    private String pattern;
+    private String regexp = null;
+
+    LikePattern(String likeExpr, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.pattern = caseSensitive ? likeExpr : likeExpr.toLowerCase();
+        for (int i = 0; i < pattern.length(); i++) {
+            if (REGEXP_CHARS.indexOf(pattern.charAt(i)) != -1) {
+                regexp = toRegexp(pattern);
+                break;
+            }
+        }
+    }
+
+    boolean matches(String value) {
+        String str = caseSensitive ? value : value.toLowerCase();
+        if (regexp != null || !isPlain(str)) {
+            return str.matches(regexp != null ? regexp : toRegexp(pattern));
+        }
+        return matchWildcards(str, pattern);
+    }
+
+    static String toRegexp(String pattern) {
+        // Replace the user's wilcards for valid regular expression patterns.
+        return pattern.replace(".", "\\.")
+                .replace("%", ".*")
+                .replace("_", ".");
+    }
+
+    /**
+     * Check the value has no chars the regexp dot handles in a special way (line terminators and surrogates).
+     */
+    static boolean isPlain(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029'
+                    || (c >= '\uD800' && c <= '\uDFFF')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean matchWildcards(String str, String pattern) {
+        int s = 0;
+        int p = 0;
+        int lastWildcard = -1;
+        int lastMatch = 0;
+        while (s < str.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '_' || pattern.charAt(p) == str.charAt(s))) {
+                s++;
+                p++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '%') {
+                lastWildcard = p++;
+                lastMatch = s;
+            } else if (lastWildcard != -1) {
+                p = lastWildcard + 1;
+                s = ++lastMatch;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '%') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.filter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A hashed set of filter parameters. Lookups follow the {@link CoreFunction#compare(Comparable, Comparable)}
+ * rules: numbers are compared by value and anything else by its string representation.
+ */
+class ParameterSet {
+
+    private boolean containsNull = false;
+    private Set<Double> numbers = new HashSet<>();
+    private Set<String> strings = new HashSet<>();
+    private Set<String> nonNumericStrings = new HashSet<>();
+
+    ParameterSet(List<?> parameters) {
+        for (Object param : parameters) {
+            if (param == null) {
+                containsNull = true;
+                continue;
+            }
+            String str = param.toString();
+            strings.add(str);
+            if (param instanceof Number) {
+                double number = ((Number) param).doubleValue();
+                if (!Double.isNaN(number)) {
+                    numbers.add(normalize(number));
+                }
+            } else {
+                nonNumericStrings.add(str);
+            }
+        }
+    }
+
+    boolean contains(Object value) {
+        if (value == null) {
+            return containsNull;
+        }
+        if (value instanceof Number) {
+            if (numbers.contains(normalize(((Number) value).doubleValue()))) {
+                return true;
+            }
+            return !nonNumericStrings.isEmpty() && nonNumericStrings.contains(value.toString());
+        }
+        return strings.contains(value.toString());
+    }
+
+    private static Double normalize(double number) {
+        // Make 0.0 and -0.0 the same key as they are equal for the == operator
+        return number == 0d ? 0d : number;
+    }
+}
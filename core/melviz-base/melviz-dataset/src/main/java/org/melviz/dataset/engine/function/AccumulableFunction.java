@@ -0,0 +1,36 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.function;
+
+import java.util.List;
+
+import org.melviz.dataset.group.AggregateFunction;
+
+/**
+ * An aggregate function which result can be derived from an {@link AggregateAccumulator}.
+ */
+public interface AccumulableFunction extends AggregateFunction {
+
+    /**
+     * Check if the function can be calculated from an accumulator built over the given values.
+     */
+    boolean isAccumulable(List values);
+
+    /**
+     * Get the aggregate value from an accumulator previously fed with the target rows.
+     */
+    Object aggregate(AggregateAccumulator accumulator);
+}
@@ -0,0 +1,98 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.function;
+
+import java.util.List;
+
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
+
+/**
+ * Running state of the aggregate calculations over a single column.
+ * <p>It allows to calculate several {@link AccumulableFunction} over the same set of rows by visiting each
+ * row only once, no matter how many functions are requested.</p>
+ */
+public class AggregateAccumulator {
+
+    protected List values;
+    protected PrimitiveColumnStorage storage;
+    protected int rowCount = 0;
+    protected double sum = 0d;
+    protected int minRow = -1;
+    protected int maxRow = -1;
+    protected double minValue = 0d;
+    protected double maxValue = 0d;
+
+    public AggregateAccumulator(List values) {
+        this.values = values;
+        this.storage = values instanceof PrimitiveColumnStorage ? (PrimitiveColumnStorage) values : null;
+    }
+
+    public List getValues() {
+        return values;
+    }
+
+    public void reset() {
+        rowCount = 0;
+        sum = 0d;
+        minRow = -1;
+        maxRow = -1;
+    }
+
+    public void accumulate(int row) {
+        rowCount++;
+        if (storage == null || storage.isNull(row)) {
+            return;
+        }
+        double val = storage.getDouble(row);
+        sum += val;
+        if (minRow == -1 || Double.compare(val, minValue) < 0) {
+            minRow = row;
+            minValue = val;
+        }
+        if (maxRow == -1 || Double.compare(val, maxValue) > 0) {
+            maxRow = row;
+            maxValue = val;
+        }
+    }
+
+    /**
+     * @return The number of rows accumulated, nulls included.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return The sum of the non-null values. Only available for primitive column storages.
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The row holding the min. value or -1 if none.
+     */
+    public int getMinRow() {
+        return minRow;
+    }
+
+    /**
+     * @return The row holding the max. value or -1 if none.
+     */
+    public int getMaxRow() {
+        return maxRow;
+    }
+}
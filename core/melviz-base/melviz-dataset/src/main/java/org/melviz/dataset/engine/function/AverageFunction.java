@@ -17,6 +17,7 @@ package org.melviz.dataset.engine.function;
 
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.AggregateFunctionType;
 
 /**
@@ -40,7 +41,7 @@ public class AverageFunction extends SumFunction {
         return round(average, precission);
     }
 
-    public Object aggregate(List values, List<Integer> rows) {
+    public Object aggregate(List values, IntRowSet rows) {
         if (rows == null) {
             return aggregate(values);
         }
@@ -55,4 +56,11 @@ public class AverageFunction extends SumFunction {
         return round(average, precission);
     }
 
-}
\ No newline at end of file
+    public Object aggregate(AggregateAccumulator accumulator) {
+        if (accumulator.getRowCount() == 0) {
+            return 0d;
+        }
+        double sum = round(accumulator.getSum(), precission).doubleValue();
+        return round(sum / accumulator.getRowCount(), precission);
+    }
+}
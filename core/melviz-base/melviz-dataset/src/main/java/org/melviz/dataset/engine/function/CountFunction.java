@@ -17,12 +17,13 @@ package org.melviz.dataset.engine.function;
 
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.AggregateFunctionType;
 
 /**
  * It calculates the number of occurrences inside a given collection.
  */
-public class CountFunction extends AbstractFunction {
+public class CountFunction extends AbstractFunction implements AccumulableFunction {
 
     public CountFunction() {
         super();
@@ -39,7 +40,7 @@ public class CountFunction extends AbstractFunction {
         return (double) values.size();
     }
 
-    public Object aggregate(List values, List<Integer> rows) {
+    public Object aggregate(List values, IntRowSet rows) {
         if (rows == null) {
             return aggregate(values);
         }
@@ -48,4 +49,12 @@ public class CountFunction extends AbstractFunction {
         }
         return (double) rows.size();
     }
-}
\ No newline at end of file
+
+    public boolean isAccumulable(List values) {
+        return true;
+    }
+
+    public Object aggregate(AggregateAccumulator accumulator) {
+        return (double) accumulator.getRowCount();
+    }
+}
@@ -20,13 +20,20 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.AggregateFunctionType;
+import org.melviz.dataset.impl.LabelColumnStorage;
 
 /**
  * It calculates the number of distinct occurrences inside a given collection.
  */
 public class DistinctFunction extends AbstractFunction {
 
+    /**
+     * Above this dictionary size to rows ratio the distinct codes are tracked in a hash set.
+     */
+    static final int SPARSE_RATIO = 8;
+
     public DistinctFunction() {
         super();
     }
@@ -40,6 +47,10 @@ public class DistinctFunction extends AbstractFunction {
             return 0d;
         }
 
+        if (values instanceof LabelColumnStorage) {
+            return distinctCodes((LabelColumnStorage) values, null);
+        }
+
         // Return the number of distinct items in the collection.
         Set distincts = new HashSet();
         Iterator it = values.iterator();
@@ -53,7 +64,7 @@ public class DistinctFunction extends AbstractFunction {
         return (double) distincts.size();
     }
 
-    public Object aggregate(List values, List<Integer> rows) {
+    public Object aggregate(List values, IntRowSet rows) {
         if (rows == null) {
             return aggregate(values);
         }
@@ -64,9 +75,14 @@ public class DistinctFunction extends AbstractFunction {
             return 0d;
         }
 
+        if (values instanceof LabelColumnStorage) {
+            return distinctCodes((LabelColumnStorage) values, rows);
+        }
+
         // Return the number of distinct items in the collection.
         Set distincts = new HashSet();
-        for (Integer row : rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.getRow(i);
             Object o = values.get(row);
             if (distincts.contains(o)) {
                 continue;
@@ -75,4 +91,53 @@ public class DistinctFunction extends AbstractFunction {
         }
         return (double) distincts.size();
     }
+
+    /**
+     * Every distinct label has its own code, so there is no need to hash the values.
+     */
+    protected double distinctCodes(LabelColumnStorage storage, IntRowSet rows) {
+        int n = rows != null ? rows.size() : storage.size();
+        int codes = storage.getDictionary().size() + 1;
+        if ((long) n * SPARSE_RATIO < codes) {
+            // A few rows out of a big dictionary
+            return distinctCodesSparse(storage, rows, n);
+        }
+        // The null code (-1) takes the first position
+        boolean[] seen = new boolean[codes];
+        int distincts = 0;
+        for (int i = 0; i < n; i++) {
+            int index = storage.getCode(rows != null ? rows.getRow(i) : i) + 1;
+            if (!seen[index]) {
+                seen[index] = true;
+                distincts++;
+            }
+        }
+        return distincts;
+    }
+
+    /**
+     * Open addressing set of codes sized after the number of rows rather than the dictionary.
+     */
+    protected double distinctCodesSparse(LabelColumnStorage storage, IntRowSet rows, int n) {
+        int capacity = 8;
+        while (capacity < n * 2) {
+            capacity <<= 1;
+        }
+        int mask = capacity - 1;
+        // Codes are stored plus two, so zero means an empty slot
+        int[] table = new int[capacity];
+        int distincts = 0;
+        for (int i = 0; i < n; i++) {
+            int key = storage.getCode(rows != null ? rows.getRow(i) : i) + 2;
+            int slot = key & mask;
+            while (table[slot] != 0 && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == 0) {
+                table[slot] = key;
+                distincts++;
+            }
+        }
+        return distincts;
+    }
 }
@@ -18,6 +18,7 @@ package org.melviz.dataset.engine.function;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.AggregateFunctionType;
 
 /**
@@ -56,7 +57,7 @@ public class MedianFunction extends AbstractFunction {
         return round(v, precission);
     }
 
-    public Object aggregate(List values, List<Integer> rows) {
+    public Object aggregate(List values, IntRowSet rows) {
         if (rows == null) {
             return aggregate(values);
         }
@@ -17,12 +17,14 @@ package org.melviz.dataset.engine.function;
 
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.AggregateFunctionType;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
 
 /**
  * It calculates the min. number of a set of values.
  */
-public class MinFunction extends AbstractFunction {
+public class MinFunction extends AbstractFunction implements AccumulableFunction {
 
     public MinFunction() {
         super();
@@ -36,6 +38,22 @@ public class MinFunction extends AbstractFunction {
         if (values == null || values.isEmpty()) {
             return null;
         }
+        if (values instanceof PrimitiveColumnStorage) {
+            var storage = (PrimitiveColumnStorage) values;
+            int best = -1;
+            double bestValue = 0d;
+            for (int i = 0; i < storage.size(); i++) {
+                if (storage.isNull(i)) {
+                    continue;
+                }
+                double val = storage.getDouble(i);
+                if (best == -1 || Double.compare(val, bestValue) < 0) {
+                    best = i;
+                    bestValue = val;
+                }
+            }
+            return best == -1 ? null : adjust(storage.get(best));
+        }
 
         // Get the min. value from the collection.
         Comparable result = null;
@@ -53,17 +71,35 @@ public class MinFunction extends AbstractFunction {
         return result instanceof Number ? round((Number) result, precission) : result;
     }
 
-    public Object aggregate(List values, List<Integer> rows) {
+    public Object aggregate(List values, IntRowSet rows) {
         if (rows == null) {
             return aggregate(values);
         }
         if (rows.isEmpty() || values == null || values.isEmpty()) {
             return null;
         }
+        if (values instanceof PrimitiveColumnStorage) {
+            var storage = (PrimitiveColumnStorage) values;
+            int best = -1;
+            double bestValue = 0d;
+            for (int i = 0; i < rows.size(); i++) {
+                int row = rows.getRow(i);
+                if (storage.isNull(row)) {
+                    continue;
+                }
+                double val = storage.getDouble(row);
+                if (best == -1 || Double.compare(val, bestValue) < 0) {
+                    best = row;
+                    bestValue = val;
+                }
+            }
+            return best == -1 ? null : adjust(storage.get(best));
+        }
 
         // Get the min. value within the target rows.
         Comparable result = null;
-        for (Integer row : rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.getRow(i);
             Comparable val = (Comparable) values.get(row);
             if (val == null) {
                 continue;
@@ -75,4 +111,17 @@ public class MinFunction extends AbstractFunction {
         // Adjust to the specified precision.
         return result instanceof Number ? round((Number) result, precission) : result;
     }
-}
\ No newline at end of file
+
+    protected Object adjust(Object result) {
+        return result instanceof Number ? round((Number) result, precission) : result;
+    }
+
+    public boolean isAccumulable(List values) {
+        return values instanceof PrimitiveColumnStorage;
+    }
+
+    public Object aggregate(AggregateAccumulator accumulator) {
+        int best = accumulator.getMinRow();
+        return best == -1 ? null : adjust(accumulator.getValues().get(best));
+    }
+}
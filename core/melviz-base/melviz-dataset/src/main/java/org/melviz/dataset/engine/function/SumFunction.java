@@ -18,12 +18,14 @@ package org.melviz.dataset.engine.function;
 import java.util.Iterator;
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.AggregateFunctionType;
+import org.melviz.dataset.impl.NumberColumnStorage;
 
 /**
  * It calculates the sum value of a set of numbers.
  */
-public class SumFunction extends AbstractFunction {
+public class SumFunction extends AbstractFunction implements AccumulableFunction {
 
     public SumFunction() {
         super();
@@ -38,6 +40,17 @@ public class SumFunction extends AbstractFunction {
             return 0d;
         }
 
+        if (values instanceof NumberColumnStorage) {
+            var storage = (NumberColumnStorage) values;
+            double sum = 0d;
+            for (int i = 0; i < storage.size(); i++) {
+                if (!storage.isNull(i)) {
+                    sum += storage.getDouble(i);
+                }
+            }
+            return round(sum, precission);
+        }
+
         // Sum the collection.
         double sum = 0d;
         Iterator it = values.iterator();
@@ -49,7 +62,7 @@ public class SumFunction extends AbstractFunction {
         return round(sum, precission);
     }
 
-    public Object aggregate(List values, List<Integer> rows) {
+    public Object aggregate(List values, IntRowSet rows) {
         if (rows == null) {
             return aggregate(values);
         }
@@ -60,13 +73,37 @@ public class SumFunction extends AbstractFunction {
             return 0d;
         }
 
+        if (values instanceof NumberColumnStorage) {
+            var storage = (NumberColumnStorage) values;
+            double sum = 0d;
+            for (int i = 0; i < rows.size(); i++) {
+                int row = rows.getRow(i);
+                if (!storage.isNull(row)) {
+                    sum += storage.getDouble(row);
+                }
+            }
+            return round(sum, precission);
+        }
+
         // Sum the collection.
         double sum = 0d;
-        for (Integer row : rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.getRow(i);
             Number n = (Number) values.get(row);
             if (n == null) continue;
             sum += n.doubleValue();
         }
         return round(sum, precission);
     }
-}
\ No newline at end of file
+
+    public boolean isAccumulable(List values) {
+        return values instanceof NumberColumnStorage;
+    }
+
+    public Object aggregate(AggregateAccumulator accumulator) {
+        if (accumulator.getRowCount() == 0) {
+            return 0d;
+        }
+        return round(accumulator.getSum(), precission);
+    }
+}
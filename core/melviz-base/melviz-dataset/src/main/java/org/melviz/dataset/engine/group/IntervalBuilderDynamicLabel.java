@@ -15,18 +15,28 @@
  */
 package org.melviz.dataset.engine.group;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.ColumnGroup;
 import org.melviz.dataset.group.Interval;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.LabelDictionary;
 
 /**
  * Interval builder for label columns which generates one interval per label.
  */
 public class IntervalBuilderDynamicLabel implements IntervalBuilder {
 
+    /**
+     * Below one row per this many dictionary codes, intervals are resolved through a map sized by rows.
+     */
+    static final int SPARSE_RATIO = 8;
+
     public IntervalList build(DataSetHandler ctx, ColumnGroup columnGroup) {
         IntervalListLabel intervalList = new IntervalListLabel(columnGroup);
         String columnId = columnGroup.getSourceId();
@@ -34,7 +44,7 @@ public class IntervalBuilderDynamicLabel implements IntervalBuilder {
                 .getColumnById(columnId)
                 .orElseThrow()
                 .getValues();
-        List<Integer> rows = ctx.getRows();
+        IntRowSet rows = ctx.getRows();
         return intervalList.indexValues(values, rows);
     }
 
@@ -47,35 +57,88 @@ public class IntervalBuilderDynamicLabel implements IntervalBuilder {
 
     private class IntervalListLabel extends IntervalList {
 
+        // Intervals by name, kept along the list which holds the first-seen order.
+        private Map<String, Interval> intervalMap = new HashMap<>();
+
         private IntervalListLabel(ColumnGroup columnGroup) {
             super(columnGroup);
         }
 
+        @Override
+        public IntervalList indexValues(List<Object> values, List<Integer> rows) {
+            if (!(values instanceof LabelColumnStorage)) {
+                return super.indexValues(values, rows);
+            }
+            // Resolve the interval of every label code just once
+            LabelColumnStorage storage = (LabelColumnStorage) values;
+            LabelDictionary dictionary = storage.getDictionary();
+            IntRowSet rowSet = IntRowSet.of(rows);
+            int n = rowSet != null ? rowSet.size() : storage.size();
+            if ((long) n * SPARSE_RATIO < dictionary.size() + 1) {
+                // A few rows out of a big dictionary
+                return indexCodesSparse(storage, rowSet, n);
+            }
+            Interval[] intervalByCode = new Interval[dictionary.size() + 1];
+            for (int i = 0; i < n; i++) {
+                int row = rowSet != null ? rowSet.getRow(i) : i;
+                int index = storage.getCode(row) + 1;
+                Interval interval = intervalByCode[index];
+                if (interval == null) {
+                    interval = intervalByCode[index] = getInterval(dictionary.decode(index - 1));
+                }
+                interval.getRows().addRow(row);
+            }
+            return this;
+        }
+
+        /**
+         * Open addressing map from codes to intervals sized after the number of rows rather than the dictionary.
+         */
+        private IntervalList indexCodesSparse(LabelColumnStorage storage, IntRowSet rowSet, int n) {
+            LabelDictionary dictionary = storage.getDictionary();
+            int capacity = 8;
+            while (capacity < n * 2) {
+                capacity <<= 1;
+            }
+            int mask = capacity - 1;
+            // Codes are stored plus two, so zero means an empty slot
+            int[] keys = new int[capacity];
+            Interval[] intervals = new Interval[capacity];
+            for (int i = 0; i < n; i++) {
+                int row = rowSet != null ? rowSet.getRow(i) : i;
+                int code = storage.getCode(row);
+                int key = code + 2;
+                int slot = key & mask;
+                while (keys[slot] != 0 && keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                if (keys[slot] == 0) {
+                    keys[slot] = key;
+                    intervals[slot] = getInterval(dictionary.decode(code));
+                }
+                intervals[slot].getRows().addRow(row);
+            }
+            return this;
+        }
+
         public void indexValue(Object value, int row) {
-            Interval interval = locateInterval(value);
+            getInterval(value).getRows().addRow(row);
+        }
+
+        private Interval getInterval(Object value) {
+            String name = (value == null ? null : value.toString());
+            Interval interval = intervalMap.get(name);
             if (interval == null) {
                 // TODO: create a composite interval when the maxIntervals are reached.
-                String name = (value == null ? null : value.toString());
                 int index = this.size();
                 this.add(interval = new Interval(name, index));
+                intervalMap.put(name, interval);
             }
-            interval.getRows().add(row);
+            return interval;
         }
 
         public Interval locateInterval(Object value) {
-            for (Interval interval : this) {
-                if (interval.getName() == value) {
-                    return interval;
-                }
-                if (interval.getName() == null) {
-                    continue;
-                }
-                String name = (value == null ? null : value.toString());
-                if (interval.getName().equals(name)) {
-                    return interval;
-                }
-            }
-            return null;
+            return intervalMap.get(value == null ? null : value.toString());
         }
     }
 }
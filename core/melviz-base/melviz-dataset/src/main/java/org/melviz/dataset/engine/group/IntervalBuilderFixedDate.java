@@ -20,6 +20,7 @@ import java.util.List;
 
 import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.ColumnGroup;
 import org.melviz.dataset.group.DateIntervalType;
 
@@ -48,7 +49,7 @@ public class IntervalBuilderFixedDate implements IntervalBuilder {
         var values = ctx.getDataSet().getColumnById(columnId)
                 .orElseThrow()
                 .getValues();
-        List<Integer> rows = ctx.getRows();
+        IntRowSet rows = ctx.getRows();
         intervalList.indexValues(values, rows);
         return intervalList;
     }
@@ -0,0 +1,432 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.group;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.group.ColumnGroup;
+import org.melviz.dataset.group.Interval;
+import org.melviz.dataset.group.NumberIntervalType;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
+
+/**
+ * Interval builder for number columns which splits the values into histogram intervals.
+ * <p>The intervals are worked out from the min. and max. values and every value is then placed with a constant time
+ * calculation, so the cost is a couple of passes over the rows, and there are never more than
+ * {@link #MAX_INTERVALS} intervals whatever the number of values. See {@link NumberIntervalType} for the modes
+ * supported.</p>
+ * <p>Infinite values don't take part in the min. and max., they go to the first or the last interval, whose bound
+ * becomes infinite then.</p>
+ * <p>Histograms are only built when the interval size selects one. Any other group, FIXED ones with no interval
+ * size included, keeps getting one interval per distinct value.</p>
+ */
+public class IntervalBuilderNumber implements IntervalBuilder {
+
+    /**
+     * The max. number of intervals a histogram can have.
+     */
+    public static final int MAX_INTERVALS = 1000;
+
+    /**
+     * The number of intervals taken when the column group max. is not set.
+     */
+    public static final int DEFAULT_INTERVALS = 15;
+
+    /**
+     * The resolution of the value distribution the {@link NumberIntervalType#QUANTILE} intervals are cut from, so
+     * their bounds are approximate: the values in a bucket always go to the same interval.
+     */
+    public static final int QUANTILE_BUCKETS = 1024;
+
+    private IntervalBuilderDynamicLabel intervalBuilderDynamicLabel;
+
+    public IntervalBuilderNumber() {
+        this(new IntervalBuilderDynamicLabel());
+    }
+
+    public IntervalBuilderNumber(IntervalBuilderDynamicLabel intervalBuilderDynamicLabel) {
+        this.intervalBuilderDynamicLabel = intervalBuilderDynamicLabel;
+    }
+
+    public IntervalList build(DataSetHandler ctx, ColumnGroup columnGroup) {
+        if (!isHistogram(columnGroup)) {
+            return intervalBuilderDynamicLabel.build(ctx, columnGroup);
+        }
+        var values = ctx.getDataSet()
+                .getColumnById(columnGroup.getSourceId())
+                .orElseThrow()
+                .getValues();
+        return build(columnGroup, values, ctx.getRows());
+    }
+
+    public IntervalList build(DataColumn dataColumn) {
+        ColumnGroup columnGroup = dataColumn.getColumnGroup();
+        if (!isHistogram(columnGroup)) {
+            return intervalBuilderDynamicLabel.build(dataColumn);
+        }
+        return build(columnGroup, dataColumn.getValues(), null);
+    }
+
+    /**
+     * Check if the given group splits the values into histogram intervals rather than one interval per value.
+     */
+    public boolean isHistogram(ColumnGroup columnGroup) {
+        String intervalSize = columnGroup.getIntervalSize();
+        return NumberIntervalType.getByName(intervalSize) != null || NumberIntervalType.getWidth(intervalSize) > 0;
+    }
+
+    protected IntervalList build(ColumnGroup columnGroup, List values, IntRowSet rows) {
+        String intervalSize = columnGroup.getIntervalSize();
+        NumberIntervalType type = NumberIntervalType.getByName(intervalSize);
+        double width = NumberIntervalType.getWidth(intervalSize);
+
+        HistogramList results = new HistogramList(columnGroup, values, rows);
+        results.setIntervalType(type != null ? type.toString() : intervalSize);
+        if (results.count == 0 && results.infiniteCount == 0) {
+            return results;
+        }
+        int maxIntervals = columnGroup.getMaxIntervals() < 1 ? DEFAULT_INTERVALS : columnGroup.getMaxIntervals();
+        maxIntervals = Math.min(maxIntervals, MAX_INTERVALS);
+        if (width > 0) {
+            results.splitByWidth(width);
+        } else if (NumberIntervalType.LOG.equals(type)) {
+            results.splitByLog(maxIntervals);
+        } else if (NumberIntervalType.QUANTILE.equals(type)) {
+            results.splitByQuantile(maxIntervals);
+        } else {
+            results.splitByCount(maxIntervals);
+        }
+        results.indexRows();
+
+        // Reverse intervals if requested
+        if (!columnGroup.isAscendingOrder()) {
+            Collections.reverse(results);
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).setIndex(i);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Round a value to the digits that matter for the given magnitude, so interval names are free of floating
+     * point noise (i.e. <tt>0.3</tt> rather than <tt>0.30000000000000004</tt>).
+     */
+    static double round(double value, double magnitude) {
+        if (magnitude == 0 || Double.isNaN(magnitude) || Double.isInfinite(magnitude)) {
+            return value;
+        }
+        int decimals = 6 - (int) Math.floor(Math.log10(Math.abs(magnitude)));
+        if (decimals <= 0 || decimals > 15 || Double.isNaN(value)) {
+            return value;
+        }
+        double scale = Math.pow(10, decimals);
+        double scaled = value * scale;
+        if (Math.abs(scaled) >= 9e15) {
+            return value;
+        }
+        return Math.round(scaled) / scale;
+    }
+
+    static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * A list of histogram intervals which locates the interval of a value with a constant time calculation.
+     */
+    protected static class HistogramList extends IntervalList {
+
+        private List values;
+        private PrimitiveColumnStorage storage;
+        private IntRowSet rows;
+
+        // Value statistics. Infinite values are left out of the min. and max., they go to the first or last interval
+        private int count = 0;
+        private int infiniteCount = 0;
+        private boolean negativeInfinity = false;
+        private boolean positiveInfinity = false;
+        private double min = Double.NaN;
+        private double max = Double.NaN;
+        private double minPositive = Double.NaN;
+
+        // The intervals in ascending value order, no matter the list order
+        private Interval[] bins = new Interval[0];
+        private double start;
+        private double step;
+        private boolean log = false;
+        private boolean nonPositiveBin = false;
+        private int[] binByBucket = null;
+
+        HistogramList(ColumnGroup columnGroup, List values, IntRowSet rows) {
+            super(columnGroup);
+            this.values = values;
+            this.storage = values instanceof PrimitiveColumnStorage ? (PrimitiveColumnStorage) values : null;
+            this.rows = rows;
+            calculateStats();
+        }
+
+        private int rowCount() {
+            return rows != null ? rows.size() : values.size();
+        }
+
+        private int rowAt(int i) {
+            return rows != null ? rows.getRow(i) : i;
+        }
+
+        /**
+         * The value at the given row, or NaN if null.
+         */
+        private double valueAt(int row) {
+            if (storage != null) {
+                return storage.isNull(row) ? Double.NaN : storage.getDouble(row);
+            }
+            Object value = values.get(row);
+            return value == null ? Double.NaN : ((Number) value).doubleValue();
+        }
+
+        private void calculateStats() {
+            int n = rowCount();
+            for (int i = 0; i < n; i++) {
+                double value = valueAt(rowAt(i));
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                if (Double.isInfinite(value)) {
+                    infiniteCount++;
+                    negativeInfinity |= value < 0;
+                    positiveInfinity |= value > 0;
+                    continue;
+                }
+                if (count++ == 0 || value < min) {
+                    min = value;
+                }
+                if (count == 1 || value > max) {
+                    max = value;
+                }
+                if (value > 0 && (Double.isNaN(minPositive) || value < minPositive)) {
+                    minPositive = value;
+                }
+            }
+            if (count > 0) {
+                setMinValue(min);
+                setMaxValue(max);
+            } else {
+                // Infinite values only, they all go to a single interval
+                min = max = 0;
+            }
+        }
+
+        void splitByWidth(double width) {
+            start = Math.floor(min / width) * width;
+            double n = Math.floor((max - start) / width) + 1;
+            if (n > MAX_INTERVALS) {
+                width = width * Math.ceil(n / MAX_INTERVALS);
+                start = Math.floor(min / width) * width;
+                n = Math.floor((max - start) / width) + 1;
+            }
+            if (Double.isNaN(n) || Double.isInfinite(n) || Double.isInfinite(width)) {
+                // The range is beyond the double precision, the width can't be honoured
+                splitByCount(MAX_INTERVALS);
+                return;
+            }
+            int intervals = (int) Math.min(n, MAX_INTERVALS);
+            step = width;
+            bins = new Interval[intervals];
+            for (int i = 0; i < intervals; i++) {
+                addBin(i, round(start + i * width, width), round(start + (i + 1) * width, width), false);
+            }
+        }
+
+        void splitByCount(int intervals) {
+            start = min;
+            // Divide first, so a range wider than the max. double does not overflow
+            step = max / intervals - min / intervals;
+            if (step == 0) {
+                bins = new Interval[1];
+                addBin(0, min, max, true);
+                return;
+            }
+            bins = new Interval[intervals];
+            double from = min;
+            for (int i = 0; i < intervals; i++) {
+                double to = i == intervals - 1 ? max : round(min / intervals * (intervals - i - 1)
+                        + max / intervals * (i + 1), step);
+                addBin(i, from, to, i == intervals - 1);
+                from = to;
+            }
+        }
+
+        void splitByLog(int intervals) {
+            log = true;
+            nonPositiveBin = min <= 0 || negativeInfinity;
+            int offset = nonPositiveBin ? 1 : 0;
+            if (Double.isNaN(minPositive)) {
+                bins = new Interval[1];
+                addBin(0, min, max, true);
+                return;
+            }
+            start = Math.log10(minPositive);
+            step = (Math.log10(max) - start) / intervals;
+            int n = step == 0 ? 1 : intervals;
+            bins = new Interval[n + offset];
+            if (nonPositiveBin) {
+                addBin(0, min, 0, true);
+            }
+            for (int i = 0; i < n; i++) {
+                double from = i == 0 ? minPositive : Math.pow(10, start + i * step);
+                double to = i == n - 1 ? max : Math.pow(10, start + (i + 1) * step);
+                addBin(i + offset, round(from, from), round(to, to), i == n - 1);
+            }
+        }
+
+        void splitByQuantile(int intervals) {
+            if (max == min) {
+                bins = new Interval[1];
+                addBin(0, min, max, true);
+                return;
+            }
+            // Distribution of the values in fine grained buckets, in logarithmic scale if all the values are positive
+            // as they usually have a long tail (latencies, sizes, ...)
+            log = min > 0 && !negativeInfinity;
+            start = log ? Math.log10(min) : min;
+            step = (log ? Math.log10(max) : max) / QUANTILE_BUCKETS - start / QUANTILE_BUCKETS;
+            int[] counts = new int[QUANTILE_BUCKETS];
+            int n = rowCount();
+            for (int i = 0; i < n; i++) {
+                double value = valueAt(rowAt(i));
+                if (!Double.isNaN(value)) {
+                    counts[bucket(value)]++;
+                }
+            }
+            // Cut the buckets into intervals holding about count / intervals values each
+            binByBucket = new int[QUANTILE_BUCKETS];
+            int[] firstBucket = new int[intervals];
+            int bin = 0;
+            long accumulated = 0;
+            boolean cut = false;
+            for (int bucket = 0; bucket < QUANTILE_BUCKETS; bucket++) {
+                if (cut && counts[bucket] > 0) {
+                    firstBucket[++bin] = bucket;
+                    cut = false;
+                }
+                binByBucket[bucket] = bin;
+                accumulated += counts[bucket];
+                if (bin < intervals - 1 && accumulated * intervals >= (long) (bin + 1) * (count + infiniteCount)) {
+                    cut = true;
+                }
+            }
+            bins = new Interval[bin + 1];
+            for (int i = 0; i <= bin; i++) {
+                double from = i == 0 ? min : bucketStart(firstBucket[i]);
+                double to = i == bin ? max : bucketStart(firstBucket[i + 1]);
+                addBin(i, from, to, i == bin);
+            }
+        }
+
+        private double bucketStart(int bucket) {
+            if (log) {
+                double value = Math.pow(10, start + bucket * step);
+                return round(value, value);
+            }
+            return round(min / QUANTILE_BUCKETS * (QUANTILE_BUCKETS - bucket) + max / QUANTILE_BUCKETS * bucket, step);
+        }
+
+        private int bucket(double value) {
+            return clamp(Math.floor(((log ? Math.log10(value) : value) - start) / step), QUANTILE_BUCKETS);
+        }
+
+        private void addBin(int index, double from, double to, boolean closed) {
+            if (index == 0 && negativeInfinity) {
+                from = Double.NEGATIVE_INFINITY;
+            }
+            if (index == bins.length - 1 && positiveInfinity) {
+                to = Double.POSITIVE_INFINITY;
+                closed = true;
+            }
+            Interval interval = new Interval("[" + format(from) + ", " + format(to) + (closed ? "]" : ")"), index);
+            interval.setType(getIntervalType());
+            interval.setMinValue(from);
+            interval.setMaxValue(to);
+            bins[index] = interval;
+            add(interval);
+        }
+
+        /**
+         * The position in <tt>bins</tt> of the interval holding the given value, which must be within [min, max].
+         */
+        private int binIndex(double value) {
+            if (bins.length == 1) {
+                return 0;
+            }
+            if (binByBucket != null) {
+                return binByBucket[bucket(value)];
+            }
+            if (log) {
+                if (value <= 0) {
+                    return 0;
+                }
+                double position = step > 0 ? Math.floor((Math.log10(value) - start) / step) : 0;
+                return clamp(position + (nonPositiveBin ? 1 : 0), bins.length);
+            }
+            return clamp(Math.floor((value - start) / step), bins.length);
+        }
+
+        /**
+         * Bring an index into [0, size), in double precision so huge or infinite values don't overflow the int.
+         */
+        private int clamp(double index, int size) {
+            if (index >= size - 1) {
+                return size - 1;
+            }
+            return index > 0 ? (int) index : 0;
+        }
+
+        void indexRows() {
+            int n = rowCount();
+            for (int i = 0; i < n; i++) {
+                int row = rowAt(i);
+                double value = valueAt(row);
+                if (!Double.isNaN(value)) {
+                    bins[binIndex(value)].getRows().addRow(row);
+                }
+            }
+            values = null;
+            storage = null;
+            rows = null;
+        }
+
+        public Interval locateInterval(Object value) {
+            if (!(value instanceof Number) || bins.length == 0) {
+                return null;
+            }
+            double number = ((Number) value).doubleValue();
+            double lowest = negativeInfinity ? Double.NEGATIVE_INFINITY : min;
+            double highest = positiveInfinity ? Double.POSITIVE_INFINITY : max;
+            if (Double.isNaN(number) || number < lowest || number > highest) {
+                return null;
+            }
+            return bins[binIndex(number)];
+        }
+    }
+}
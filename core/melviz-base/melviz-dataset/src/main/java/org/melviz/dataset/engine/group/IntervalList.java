@@ -18,6 +18,7 @@ package org.melviz.dataset.engine.group;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.group.ColumnGroup;
 import org.melviz.dataset.group.Interval;
 
@@ -75,7 +76,9 @@ public abstract class IntervalList extends ArrayList<Interval> {
                 indexValue(value, row);
             }
         } else {
-            for (Integer row : rows) {
+            IntRowSet rowSet = IntRowSet.of(rows);
+            for (int i = 0; i < rowSet.size(); i++) {
+                int row = rowSet.getRow(i);
                 Object value = values.get(row);
                 indexValue(value, row);
             }
@@ -92,7 +95,7 @@ public abstract class IntervalList extends ArrayList<Interval> {
         if (value != null) {
             Interval interval = locateInterval(value);
             if (interval != null) {
-                interval.getRows().add(row);
+                interval.getRows().addRow(row);
             }
         }
     }
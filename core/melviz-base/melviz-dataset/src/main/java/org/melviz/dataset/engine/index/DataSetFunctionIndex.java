@@ -35,4 +35,8 @@ public class DataSetFunctionIndex extends DataSetIndexElement {
         this.value = value;
     }
 
+    public long getEstimatedSize() {
+        return 48;
+    }
+
 }
@@ -17,8 +17,14 @@ package org.melviz.dataset.engine.index;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.engine.group.IntervalList;
 import org.melviz.dataset.engine.index.visitor.DataSetIndexVisitor;
 import org.melviz.dataset.group.ColumnGroup;
@@ -36,8 +42,13 @@ public class DataSetGroupIndex extends DataSetIndexNode implements DataSetInterv
     Object minValue = null;
     Object maxValue = null;
 
+    // Positions of the interval indexes by name.
+    Map<String, Integer> intervalPositions = new HashMap<>();
+    int intervalPositionsSize = 0;
+
     // And can (optionally) contains a subset of interval selections.
     List<DataSetGroupIndex> selectIndexList = null;
+    Map<String, DataSetGroupIndex> selectIndexMap = null;
 
     // When the group represents a selection it has a selection key.
     String selectKey = null;
@@ -57,6 +68,7 @@ public class DataSetGroupIndex extends DataSetIndexNode implements DataSetInterv
         for (Interval interval : intervalList) {
             intervalIndexList.add(new DataSetIntervalIndex(this, interval));
         }
+        indexPositions();
     }
 
     public DataSetGroupIndex(String selectKey, List<DataSetIntervalIndex> intervalIndexes) {
@@ -116,31 +128,35 @@ public class DataSetGroupIndex extends DataSetIndexNode implements DataSetInterv
     }
 
     public DataSetIntervalIndex getIntervalIndex(String name) {
-        for (DataSetIntervalIndex idx : intervalIndexList) {
-            String idxName = idx.getName();
-            if (idxName != null && idxName.equals(name)) {
-                return idx;
-            }
-            if (idxName == null && name == null) {
-                return idx;
-            }
-        }
-        return null;
+        int i = positionOf(name);
+        return i == -1 ? null : intervalIndexList.get(i);
     }
 
     public int indexOfIntervalIndex(DataSetIntervalIndex target) {
-        for (int i = 0; i < intervalIndexList.size(); i++) {
-            DataSetIntervalIndex idx = intervalIndexList.get(i);
-            String idxName = idx.getName();
-            String targetName = target.getName();
-            if (idxName != null && idxName.equals(targetName)) {
-                return i;
-            }
-            if (idxName == null && targetName == null) {
-                return i;
+        return positionOf(target.getName());
+    }
+
+    protected int positionOf(String name) {
+        if (intervalPositionsSize != intervalIndexList.size()) {
+            indexPositions();
+        }
+        Integer i = intervalPositions.get(name);
+        return i == null ? -1 : i;
+    }
+
+    protected void indexPositions() {
+        // Index the positions not yet indexed. The first interval wins if names are duplicated.
+        if (intervalPositionsSize > intervalIndexList.size()) {
+            intervalPositions.clear();
+            intervalPositionsSize = 0;
+        }
+        for (int i = intervalPositionsSize; i < intervalIndexList.size(); i++) {
+            String name = intervalIndexList.get(i).getName();
+            if (!intervalPositions.containsKey(name)) {
+                intervalPositions.put(name, i);
             }
         }
-        return -1;
+        intervalPositionsSize = intervalIndexList.size();
     }
 
     public DataSetGroupIndex getSelectionIndex(List<Interval> intervalList) {
@@ -148,27 +164,53 @@ public class DataSetGroupIndex extends DataSetIndexNode implements DataSetInterv
             return null;
         }
         String targetKey = buildSelectKey(intervalList);
-        for (DataSetGroupIndex idx : selectIndexList) {
-            if (idx.selectKey.equals(targetKey)) {
-                idx.reuseHit();
-                return idx;
-            }
+        DataSetGroupIndex idx = selectIndexMap.get(targetKey);
+        if (idx != null) {
+            idx.reuseHit();
         }
-        return null;
+        return idx;
     }
 
     public DataSetGroupIndex indexSelection(List<Interval> intervalList, List<DataSetIntervalIndex> intervalIndexes) {
         if (selectIndexList == null) {
             selectIndexList = new ArrayList<DataSetGroupIndex>();
+            selectIndexMap = new HashMap<>();
         }
         String key = buildSelectKey(intervalList);
         DataSetGroupIndex index = new DataSetGroupIndex(key, intervalIndexes);
         index.setParent(this);
         index.setBuildTime(buildTime);
         selectIndexList.add(index);
+        if (!selectIndexMap.containsKey(key)) {
+            selectIndexMap.put(key, index);
+        }
+        indexAdded(index);
         return index;
     }
 
+    public List<DataSetIndexNode> getChildIndexes() {
+        List<DataSetIndexNode> result = super.getChildIndexes();
+        if (selectIndexList != null) result.addAll(selectIndexList);
+        return result;
+    }
+
+    public boolean removeChildIndex(DataSetIndexNode index) {
+        if (selectIndexList != null && selectIndexList.remove(index)) {
+            String key = ((DataSetGroupIndex) index).selectKey;
+            if (selectIndexMap.get(key) == index) {
+                selectIndexMap.remove(key);
+                for (DataSetGroupIndex selection : selectIndexList) {
+                    if (key.equals(selection.selectKey)) {
+                        selectIndexMap.put(key, selection);
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+        return super.removeChildIndex(index);
+    }
+
     protected String buildSelectKey(List<Interval> intervalList) {
         StringBuilder out = new StringBuilder();
         for (int i=0; i<intervalList.size(); i++) {
@@ -178,13 +220,27 @@ public class DataSetGroupIndex extends DataSetIndexNode implements DataSetInterv
         return out.toString();
     }
 
-    public List<Integer> getRows() {
+    public IntRowSet getRows() {
         if (intervalIndexList == null || intervalIndexList.isEmpty()) {
             return null;
         }
-        List<Integer> results = new ArrayList<Integer>();
-        for (DataSetIntervalIndex intervalIndex : intervalIndexList) {
-            results.addAll(intervalIndex.getRows());
+        return concatRows(intervalIndexList);
+    }
+
+    static IntRowSet concatRows(List<DataSetIntervalIndex> intervalIndexes) {
+        int size = 0;
+        for (DataSetIntervalIndex intervalIndex : intervalIndexes) {
+            IntRowSet rows = intervalIndex.getRows();
+            if (rows != null) {
+                size += rows.size();
+            }
+        }
+        IntRowSet results = new IntRowSet(size);
+        for (DataSetIntervalIndex intervalIndex : intervalIndexes) {
+            IntRowSet rows = intervalIndex.getRows();
+            if (rows != null) {
+                results.addRows(rows);
+            }
         }
         return results;
     }
@@ -214,11 +270,101 @@ public class DataSetGroupIndex extends DataSetIndexNode implements DataSetInterv
         }
     }
 
+    /**
+     * Update the intervals after some rows were inserted at the beginning of the data set
+     * (see {@link DataSetIndex#rowsPrepended}). Only groups on label columns can be updated since the intervals of
+     * any other type depend on the whole range of values.
+     *
+     * @param dataSet The updated data set.
+     * @param prepended The number of rows inserted at the beginning.
+     * @return false if the group can't be updated and must be discarded.
+     */
+    boolean rowsPrepended(DataSet dataSet, int prepended) {
+        if (columnGroup == null || selectKey != null) {
+            return false;
+        }
+        DataColumn column = dataSet.getColumnById(columnGroup.getSourceId()).orElse(null);
+        if (column == null || !ColumnType.LABEL.equals(column.getColumnType())) {
+            return false;
+        }
+        for (DataSetIntervalIndex intervalIndex : intervalIndexList) {
+            if (intervalIndex instanceof DataSetIntervalSetIndex || intervalIndex.rows == null) {
+                return false;
+            }
+        }
+        // The indexes built on top of the group refer to the old rows
+        functionIndexes = null;
+        groupIndexes = null;
+        filterIndexes = null;
+        sortIndexes = null;
+        selectIndexList = null;
+        selectIndexMap = null;
+
+        // The new rows, by interval, come before any old one
+        Map<DataSetIntervalIndex, IntRowSet> newRows = new HashMap<>();
+        List values = column.getValues();
+        for (int row = 0; row < prepended; row++) {
+            Object value = values.get(row);
+            String name = value == null ? null : value.toString();
+            DataSetIntervalIndex intervalIndex = getIntervalIndex(name);
+            if (intervalIndex == null) {
+                intervalIndex = new DataSetIntervalIndex(this, new Interval(name, intervalIndexList.size()));
+                intervalIndexList.add(intervalIndex);
+            }
+            IntRowSet rows = newRows.get(intervalIndex);
+            if (rows == null) {
+                newRows.put(intervalIndex, rows = new IntRowSet());
+            }
+            rows.addRow(row);
+        }
+        int oldRows = dataSet.getRowCount() - prepended;
+        for (DataSetIntervalIndex intervalIndex : intervalIndexList) {
+            int size = intervalIndex.rows.size();
+            intervalIndex.rows.shiftRows(oldRows, prepended);
+            boolean changed = intervalIndex.rows.size() != size;
+            IntRowSet rows = newRows.get(intervalIndex);
+            if (rows != null) {
+                rows.addRows(intervalIndex.rows);
+                intervalIndex.rows = rows;
+                changed = true;
+            }
+            // Aggregates are still valid if the interval holds the same rows, but not their numbers
+            if (changed) {
+                intervalIndex.functionIndexes = null;
+            }
+            intervalIndex.groupIndexes = null;
+            intervalIndex.filterIndexes = null;
+            intervalIndex.sortIndexes = null;
+        }
+        // Keep the intervals in order of appearance, as if built from scratch
+        intervalIndexList.removeIf(intervalIndex -> intervalIndex.rows.isEmpty());
+        intervalIndexList.sort((i1, i2) -> Integer.compare(i1.rows.getRow(0), i2.rows.getRow(0)));
+        for (int i = 0; i < intervalIndexList.size(); i++) {
+            intervalIndexList.get(i).setIndex(i);
+        }
+        intervalPositions.clear();
+        intervalPositionsSize = 0;
+        return true;
+    }
+
+    public long getEstimatedSize() {
+        // Interval references plus their position entries
+        return super.getEstimatedSize() + intervalIndexList.size() * 40L;
+    }
+
     public void acceptVisitor(DataSetIndexVisitor visitor) {
         super.acceptVisitor(visitor);
 
-        for (DataSetIntervalIndex index : intervalIndexList) {
-            index.acceptVisitor(visitor);
+        // The intervals of a selection belong to the group it was taken from
+        if (selectKey == null) {
+            for (DataSetIntervalIndex index : intervalIndexList) {
+                index.acceptVisitor(visitor);
+            }
+        }
+        if (selectIndexList != null) {
+            for (DataSetGroupIndex index : selectIndexList) {
+                index.acceptVisitor(visitor);
+            }
         }
     }
 
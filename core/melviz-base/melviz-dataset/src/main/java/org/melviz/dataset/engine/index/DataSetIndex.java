@@ -15,6 +15,8 @@
  */
 package org.melviz.dataset.engine.index;
 
+import java.util.function.Consumer;
+
 import org.melviz.dataset.DataSet;
 
 /**
@@ -22,9 +24,53 @@ import org.melviz.dataset.DataSet;
  */
 public abstract class DataSetIndex extends DataSetIndexNode {
 
+    // Number and estimated size of the child indexes held by the tree
+    int indexEntries = 0;
+    long indexSize = 0;
+
+    // Notified of every index attached to the tree, so the registry can keep within its budget
+    Consumer<DataSetIndexNode> indexAddedListener;
+
     /**
      * Get the data set referenced by this index.
      */
     public abstract DataSet getDataSet();
 
+    /**
+     * Replace the data set referenced by this index.
+     */
+    protected abstract void setDataSet(DataSet dataSet);
+
+    /**
+     * Update the index for a data set created by inserting some rows at the beginning of the indexed one
+     * (see {@link DataSet#prependRows(DataSet, int)}).
+     * <p>The group indexes on label columns are updated with the new rows, so only the aggregates of the intervals
+     * that changed need to be calculated again. Any other index is discarded and will be rebuilt on demand.</p>
+     *
+     * @param dataSet The data set with the new rows.
+     * @param prepended The number of rows inserted.
+     */
+    public void rowsPrepended(DataSet dataSet, int prepended) {
+        setDataSet(dataSet);
+        functionIndexes = null;
+        filterIndexes = null;
+        sortIndexes = null;
+        if (groupIndexes != null) {
+            if (prepended == dataSet.getRowCount()) {
+                // Not a single old row left
+                groupIndexes = null;
+            } else {
+                groupIndexes.removeIf(index -> !index.rowsPrepended(dataSet, prepended));
+            }
+        }
+    }
+
+    protected void indexAdded(DataSetIndexNode index) {
+        indexEntries++;
+        indexSize += index.getEstimatedTreeSize();
+        if (indexAddedListener != null) {
+            indexAddedListener.accept(index);
+        }
+    }
+
 }
@@ -0,0 +1,30 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.index;
+
+import org.melviz.dataset.engine.index.spi.DataSetIndexEvictionPolicy;
+
+/**
+ * Evicts first the indexes that save the least build time per byte of memory held.
+ * The time saved by an index is its build time multiplied by the number of times it has been used.
+ */
+public class DataSetIndexCostEvictionPolicy implements DataSetIndexEvictionPolicy {
+
+    public double getRetentionScore(DataSetIndexNode index, long estimatedSize) {
+        double savedTime = (double) index.getBuildTime() * (1 + index.getReuseHits());
+        return savedTime / Math.max(1, estimatedSize);
+    }
+}
@@ -32,8 +32,19 @@ public abstract class DataSetIndexElement {
      */
     int reuseHits = 0;
 
+    /**
+     * Logical clock used to sort the elements by their last access.
+     */
+    static long accessClock = 0;
+
+    /**
+     * Logical time of the last access (build or reuse) to the element.
+     */
+    long lastAccess = 0;
+
     DataSetIndexElement(long buildTime) {
         this.buildTime = buildTime;
+        this.lastAccess = ++accessClock;
     }
 
     public long getBuildTime() {
@@ -50,6 +61,18 @@ public abstract class DataSetIndexElement {
 
     public void reuseHit() {
         this.reuseHits++;
+        this.lastAccess = ++accessClock;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Estimated memory (in bytes) held by this element, children excluded.
+     */
+    public long getEstimatedSize() {
+        return 32;
     }
 
     public long getReuseTime() {
@@ -16,12 +16,13 @@
 package org.melviz.dataset.engine.index;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.engine.index.visitor.DataSetIndexStatsVisitor;
 import org.melviz.dataset.engine.index.visitor.DataSetIndexVisitor;
 import org.melviz.dataset.filter.ColumnFilter;
 import org.melviz.dataset.group.AggregateFunctionType;
@@ -34,7 +35,7 @@ import org.melviz.dataset.sort.DataSetSort;
 public abstract class DataSetIndexNode extends DataSetIndexElement {
 
     DataSetIndexNode parent = null;
-    List<Integer> rows = null;
+    IntRowSet rows = null;
     List<DataSetGroupIndex> groupIndexes = null;
     List<DataSetSortIndex> sortIndexes = null;
     List<DataSetFilterIndex> filterIndexes = null;
@@ -47,7 +48,7 @@ public abstract class DataSetIndexNode extends DataSetIndexElement {
     public DataSetIndexNode(DataSetIndexNode parent, List<Integer> rows, long buildTime) {
         super(buildTime);
         this.parent = parent;
-        this.rows = rows;
+        this.rows = IntRowSet.of(rows);
     }
 
     public DataSetIndexNode getParent() {
@@ -58,10 +59,23 @@ public abstract class DataSetIndexNode extends DataSetIndexElement {
         this.parent = parent;
     }
 
-    public List<Integer> getRows() {
+    public IntRowSet getRows() {
         return rows;
     }
 
+    public long getEstimatedSize() {
+        return 64 + (rows != null ? rows.size() * 4L : 0);
+    }
+
+    /**
+     * Estimated memory (in bytes) held by this node and all its children.
+     */
+    public long getEstimatedTreeSize() {
+        DataSetIndexStatsVisitor visitor = new DataSetIndexStatsVisitor();
+        acceptVisitor(visitor);
+        return visitor.getEstimatedSize();
+    }
+
     public void acceptVisitor(DataSetIndexVisitor visitor) {
         super.acceptVisitor(visitor);
 
@@ -119,7 +133,38 @@ public abstract class DataSetIndexNode extends DataSetIndexElement {
         return functionIndex.getValue();
     }
 
-    // TODO: coordinate concurrent index modifications
+    // Child indexes
+
+    /**
+     * Get the group, filter and sort indexes built on top of this node. They can be discarded at any time since
+     * they can always be rebuilt from this node.
+     */
+    public List<DataSetIndexNode> getChildIndexes() {
+        List<DataSetIndexNode> result = new ArrayList<>();
+        if (groupIndexes != null) result.addAll(groupIndexes);
+        if (filterIndexes != null) result.addAll(filterIndexes);
+        if (sortIndexes != null) result.addAll(sortIndexes);
+        return result;
+    }
+
+    /**
+     * Discard a child index.
+     * @return true if the index was a child of this node.
+     */
+    public boolean removeChildIndex(DataSetIndexNode index) {
+        return (groupIndexes != null && groupIndexes.remove(index))
+                || (filterIndexes != null && filterIndexes.remove(index))
+                || (sortIndexes != null && sortIndexes.remove(index));
+    }
+
+    /**
+     * Notify a new child index has been attached to the tree.
+     */
+    protected void indexAdded(DataSetIndexNode index) {
+        if (parent != null) {
+            parent.indexAdded(index);
+        }
+    }
 
     // Group indexes
 
@@ -128,6 +173,7 @@ public abstract class DataSetIndexNode extends DataSetIndexElement {
         index.setParent(this);
         index.setBuildTime(buildTime);
         groupIndexes.add(index);
+        indexAdded(index);
         return index;
     }
 
@@ -165,6 +211,7 @@ public abstract class DataSetIndexNode extends DataSetIndexElement {
         index.setParent(this);
         index.setBuildTime(buildTime);
         filterIndexes.add(index);
+        indexAdded(index);
         return index;
     }
 
@@ -192,11 +239,12 @@ public abstract class DataSetIndexNode extends DataSetIndexElement {
 
         // Also create an index for the inverted sort.
         DataSetSort invertedSortOp = sortOp.cloneInstance().invertOrder();
-        List<Integer> invertedRows = new ArrayList<Integer>(sortedRows);
-        Collections.reverse(invertedRows);
+        IntRowSet invertedRows = IntRowSet.of(sortedRows).reverse();
         DataSetSortIndex invertedIndex = new DataSetSortIndex(invertedSortOp, invertedRows);
         invertedIndex.setParent(this);
         sortIndexes.add(invertedIndex);
+        indexAdded(index);
+        indexAdded(invertedIndex);
 
         return index;
     }
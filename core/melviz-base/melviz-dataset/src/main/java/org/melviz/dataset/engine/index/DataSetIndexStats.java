@@ -0,0 +1,85 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.index;
+
+/**
+ * Usage statistics of a data set index registry.
+ */
+public class DataSetIndexStats {
+
+    int dataSets = 0;
+    int entries = 0;
+    long estimatedSize = 0;
+    int hits = 0;
+    int misses = 0;
+    int evictions = 0;
+    long evictedSize = 0;
+
+    /**
+     * Number of data sets registered.
+     */
+    public int getDataSets() {
+        return dataSets;
+    }
+
+    /**
+     * Number of group, filter and sort indexes held in memory.
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Estimated memory (in bytes) held by the indexes.
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Number of data set index lookups found in the registry.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Number of data set index lookups not found in the registry.
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Number of indexes discarded in order to keep the registry within its budget.
+     */
+    public int getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Estimated memory (in bytes) released by the evictions.
+     */
+    public long getEvictedSize() {
+        return evictedSize;
+    }
+
+    public String toString() {
+        return "dataSets=" + dataSets + " entries=" + entries + " estimatedSize=" + estimatedSize
+                + " hits=" + hits + " misses=" + misses
+                + " evictions=" + evictions + " evictedSize=" + evictedSize;
+    }
+}
@@ -26,6 +26,7 @@ import org.melviz.dataset.group.Interval;
 public class DataSetIntervalIndex extends DataSetIndexNode implements DataSetIntervalIndexHolder {
 
     String intervalName = null;
+    int intervalIndex = 0;
     String intervalType = null;
     Object minValue = null;
     Object maxValue = null;
@@ -38,6 +39,7 @@ public class DataSetIntervalIndex extends DataSetIndexNode implements DataSetInt
     public DataSetIntervalIndex(DataSetGroupIndex parent, Interval interval) {
         super(parent, interval.getRows(), 0);
         this.intervalName = interval.getName();
+        intervalIndex = interval.getIndex();
         intervalType = interval.getType();
         minValue = interval.getMinValue();
         maxValue = interval.getMaxValue();
@@ -51,6 +53,17 @@ public class DataSetIntervalIndex extends DataSetIndexNode implements DataSetInt
         return intervalName;
     }
 
+    /**
+     * The position of the interval within its group (see {@link Interval#getIndex()}).
+     */
+    public int getIndex() {
+        return intervalIndex;
+    }
+
+    public void setIndex(int index) {
+        this.intervalIndex = index;
+    }
+
     public String getIntervalType() {
         return intervalType;
     }
@@ -18,6 +18,8 @@ package org.melviz.dataset.engine.index;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
+
 /**
  * A set of interval indexes
  */
@@ -43,15 +45,11 @@ public class DataSetIntervalSetIndex extends DataSetIntervalIndex {
         intervalIndexList.add(index);
     }
 
-    public List<Integer> getRows() {
+    public IntRowSet getRows() {
         if (intervalIndexList == null || intervalIndexList.isEmpty()) {
             return null;
         }
-        AggregatedList<Integer> result = new AggregatedList<Integer>();
-        for (DataSetIntervalIndex intervalIndex : intervalIndexList) {
-            result.addSubList(intervalIndex.getRows());
-        }
-        return result;
+        return DataSetGroupIndex.concatRows(intervalIndexList);
     }
 }
 
@@ -33,4 +33,8 @@ public class DataSetStaticIndex extends DataSetIndex {
         return dataSet;
     }
 
+    protected void setDataSet(DataSet dataSet) {
+        this.dataSet = dataSet;
+    }
+
 }
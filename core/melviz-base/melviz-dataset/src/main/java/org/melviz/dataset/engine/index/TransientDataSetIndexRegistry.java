@@ -15,20 +15,81 @@
  */
 package org.melviz.dataset.engine.index;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.melviz.dataset.DataSet;
+import org.melviz.dataset.engine.index.spi.DataSetIndexEvictionPolicy;
 import org.melviz.dataset.engine.index.spi.DataSetIndexRegistry;
 import org.melviz.dataset.uuid.UUIDGenerator;
 
+/**
+ * In-memory registry of data set indexes.
+ * <p>The group, filter and sort indexes built on top of the registered data sets are kept within a budget of
+ * entries and estimated bytes. Once the budget is exceeded the indexes are discarded, as decided by the
+ * {@link DataSetIndexEvictionPolicy}, until the registry is back to 3/4 of its budget. The budget is checked
+ * whenever an index is added and whenever a data set index is reused. The registered data sets themselves are
+ * never evicted.</p>
+ * <p>The registry is not thread safe: it is meant to be used by the engine from a single thread.</p>
+ */
 public class TransientDataSetIndexRegistry implements DataSetIndexRegistry {
 
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
     protected UUIDGenerator uuidGenerator;
     protected Map<String, DataSetIndex> indexMap = new HashMap<String, DataSetIndex>();
+    protected DataSetIndexEvictionPolicy evictionPolicy;
+    protected int maxEntries;
+    protected long maxSize;
+    protected DataSetIndexStats stats = new DataSetIndexStats();
 
     public TransientDataSetIndexRegistry(UUIDGenerator uuidGenerator) {
+        this(uuidGenerator, new DataSetIndexLRUEvictionPolicy(), DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SIZE);
+    }
+
+    public TransientDataSetIndexRegistry(UUIDGenerator uuidGenerator,
+            DataSetIndexEvictionPolicy evictionPolicy,
+            int maxEntries,
+            long maxSize) {
         this.uuidGenerator = uuidGenerator;
+        this.evictionPolicy = evictionPolicy;
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    public DataSetIndexEvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(DataSetIndexEvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Max. number of group, filter and sort indexes kept in memory.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Max. estimated memory (in bytes) held by the group, filter and sort indexes.
+     */
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
     }
 
     public DataSetIndex put(DataSet dataSet) {
@@ -42,6 +103,7 @@ public class TransientDataSetIndexRegistry implements DataSetIndexRegistry {
         }
 
         DataSetIndex dsIndex = new DataSetStaticIndex(dataSet);
+        dsIndex.indexAddedListener = this::checkBudget;
         indexMap.put(uuid, dsIndex);
         return dsIndex;
     }
@@ -49,7 +111,11 @@ public class TransientDataSetIndexRegistry implements DataSetIndexRegistry {
     public DataSetIndex get(String uuid) {
         DataSetIndex index = indexMap.get(uuid);
         if (index != null) {
+            stats.hits++;
             index.reuseHit();
+            checkBudget();
+        } else {
+            stats.misses++;
         }
         return index;
     }
@@ -57,4 +123,163 @@ public class TransientDataSetIndexRegistry implements DataSetIndexRegistry {
     public DataSetIndex remove(String uuid) {
         return indexMap.remove(uuid);
     }
+
+    public DataSetIndex prepend(String uuid, DataSet rows, int maxRows) {
+        DataSetIndex index = indexMap.get(uuid);
+        if (index == null) {
+            return null;
+        }
+        DataSet dataSet = index.getDataSet().prependRows(rows, maxRows);
+        index.rowsPrepended(dataSet, rows.getRowCount());
+        recount();
+        return index;
+    }
+
+    /**
+     * Get the registry usage statistics. The entries and size are recounted on every call.
+     */
+    public DataSetIndexStats getStats() {
+        recount();
+        DataSetIndexStats result = new DataSetIndexStats();
+        result.dataSets = indexMap.size();
+        result.hits = stats.hits;
+        result.misses = stats.misses;
+        result.evictions = stats.evictions;
+        result.evictedSize = stats.evictedSize;
+        for (DataSetIndex index : indexMap.values()) {
+            result.entries += index.indexEntries;
+            result.estimatedSize += index.indexSize;
+        }
+        return result;
+    }
+
+    // Eviction
+
+    protected void checkBudget() {
+        checkBudget(null);
+    }
+
+    /**
+     * @param added The index just added, if any. It is kept even if the budget is exceeded.
+     */
+    protected void checkBudget(DataSetIndexNode added) {
+        int entries = 0;
+        long size = 0;
+        for (DataSetIndex index : indexMap.values()) {
+            entries += index.indexEntries;
+            size += index.indexSize;
+        }
+        if (entries > maxEntries || size > maxSize) {
+            evict(added);
+        }
+    }
+
+    /**
+     * Discard the indexes with the lowest retention score until the registry is back to 3/4 of its budget.
+     */
+    public void evict() {
+        evict(null);
+    }
+
+    protected void evict(DataSetIndexNode keep) {
+        List<EvictionCandidate> candidates = new ArrayList<>();
+        int entries = 0;
+        long size = 0;
+        for (DataSetIndex index : indexMap.values()) {
+            entries += collectCandidates(index, candidates);
+        }
+        for (EvictionCandidate candidate : candidates) {
+            candidate.size = candidate.index.getEstimatedTreeSize();
+            candidate.score = evictionPolicy.getRetentionScore(candidate.index, candidate.size);
+            if (candidate.owner instanceof DataSetIndex) {
+                size += candidate.size;
+            }
+        }
+        candidates.sort((c1, c2) -> {
+            int result = Double.compare(c1.score, c2.score);
+            return result != 0 ? result : Long.compare(c1.index.getLastAccess(), c2.index.getLastAccess());
+        });
+
+        int targetEntries = maxEntries - maxEntries / 4;
+        long targetSize = maxSize - maxSize / 4;
+        Set<DataSetIndexNode> evicted = new HashSet<>();
+        for (EvictionCandidate candidate : candidates) {
+            if (entries <= targetEntries && size <= targetSize) {
+                break;
+            }
+            if (isEvicted(candidate.owner, evicted) || isAncestorOrSelf(candidate.index, keep)) {
+                continue;
+            }
+            candidate.owner.removeChildIndex(candidate.index);
+            evicted.add(candidate.index);
+            entries -= candidate.entries;
+            size -= candidate.size;
+            stats.evictions++;
+            stats.evictedSize += candidate.size;
+        }
+        recount();
+    }
+
+    protected void recount() {
+        List<EvictionCandidate> candidates = new ArrayList<>();
+        for (DataSetIndex index : indexMap.values()) {
+            index.indexEntries = collectCandidates(index, candidates);
+            index.indexSize = index.getEstimatedTreeSize() - index.getEstimatedSize();
+            candidates.clear();
+        }
+    }
+
+    /**
+     * Collect all the child indexes under the given node.
+     * @return The number of indexes collected.
+     */
+    protected int collectCandidates(DataSetIndexNode node, List<EvictionCandidate> candidates) {
+        int count = 0;
+        for (DataSetIndexNode child : node.getChildIndexes()) {
+            EvictionCandidate candidate = new EvictionCandidate(node, child);
+            candidates.add(candidate);
+            candidate.entries = 1 + collectCandidates(child, candidates);
+            count += candidate.entries;
+        }
+        if (node instanceof DataSetGroupIndex && ((DataSetGroupIndex) node).selectKey == null) {
+            for (DataSetIntervalIndex intervalIndex : ((DataSetGroupIndex) node).getIntervalIndexes()) {
+                count += collectCandidates(intervalIndex, candidates);
+            }
+        }
+        return count;
+    }
+
+    protected boolean isAncestorOrSelf(DataSetIndexNode index, DataSetIndexNode node) {
+        while (node != null) {
+            if (node == index) {
+                return true;
+            }
+            node = node.getParent();
+        }
+        return false;
+    }
+
+    protected boolean isEvicted(DataSetIndexNode node, Set<DataSetIndexNode> evicted) {
+        while (node != null) {
+            if (evicted.contains(node)) {
+                return true;
+            }
+            node = node.getParent();
+        }
+        return false;
+    }
+
+    protected static class EvictionCandidate {
+
+        DataSetIndexNode owner;
+        DataSetIndexNode index;
+        int entries = 1;
+        long size = 0;
+        double score = 0;
+
+        EvictionCandidate(DataSetIndexNode owner, DataSetIndexNode index) {
+            this.owner = owner;
+            this.index = index;
+        }
+    }
 }
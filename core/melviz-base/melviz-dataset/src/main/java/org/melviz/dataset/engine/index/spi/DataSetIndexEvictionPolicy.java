@@ -0,0 +1,32 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.index.spi;
+
+import org.melviz.dataset.engine.index.DataSetIndexNode;
+
+/**
+ * Decides which cached indexes are discarded first when a {@link DataSetIndexRegistry} runs out of budget.
+ */
+public interface DataSetIndexEvictionPolicy {
+
+    /**
+     * Get how valuable is to keep the given index in memory. Indexes with the lowest score are evicted first
+     * (ties are evicted in least recently used order).
+     * @param index The candidate index.
+     * @param estimatedSize The estimated memory (in bytes) held by the index and its children.
+     */
+    double getRetentionScore(DataSetIndexNode index, long estimatedSize);
+}
@@ -40,5 +40,16 @@ public interface DataSetIndexRegistry {
      * @return The removed index or <tt>null</tt> if there was no mapping for <tt>uuid</tt>.
      */
     DataSetIndex remove(String uuid);
+
+    /**
+     * Replace a registered data set by one with new rows at its beginning, keeping as much of its index as
+     * possible. The data set registered so far is left unchanged.
+     * @param uuid The data set unique identifier.
+     * @param rows A data set with the same columns holding the new rows.
+     * @param maxRows The max. number of rows to keep (see <i>DataSet.prependRows</i>). Zero or negative means
+     * keeping only the new rows.
+     * @return The updated index or <tt>null</tt> if there was no mapping for <tt>uuid</tt>.
+     */
+    DataSetIndex prepend(String uuid, DataSet rows, int maxRows);
 }
 
@@ -0,0 +1,52 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.index.visitor;
+
+import org.melviz.dataset.engine.index.DataSetIndexElement;
+
+/**
+ * A visitor that collects usage statistics of the visited index elements.
+ */
+public class DataSetIndexStatsVisitor implements DataSetIndexVisitor {
+
+    protected int elements = 0;
+    protected long estimatedSize = 0;
+    protected long buildTime = 0;
+    protected int reuseHits = 0;
+
+    public void visit(DataSetIndexElement element) {
+        elements++;
+        estimatedSize += element.getEstimatedSize();
+        buildTime += element.getBuildTime();
+        reuseHits += element.getReuseHits();
+    }
+
+    public int getElements() {
+        return elements;
+    }
+
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    public long getBuildTime() {
+        return buildTime;
+    }
+
+    public int getReuseHits() {
+        return reuseHits;
+    }
+}
@@ -15,28 +15,121 @@
  */
 package org.melviz.dataset.engine.sort;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.DataSet;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.sort.ColumnSort;
 
 /**
- * A basic sort algorithm takes relies on the default
- * <tt>Collections.sort()</tt> implementation.
+ * A basic sort algorithm: a stable merge sort of the row numbers, so rows are ordered exactly like
+ * <tt>Collections.sort()</tt> would do, but over an <tt>int[]</tt> and with the sort keys extracted up front.
  */
 public class CollectionsDataSetSort implements DataSetSortAlgorithm {
 
-    public List<Integer> sort(DataSet dataSet, List<ColumnSort> columnSortList) {
+    /**
+     * Ranges up to this size are sorted by insertion.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    public IntRowSet sort(DataSet dataSet, List<ColumnSort> columnSortList) {
         return sort(dataSet, null, columnSortList);
     }
 
-    public List<Integer> sort(DataSet dataSet, List<Integer> rowNumbers, List<ColumnSort> columnSortList) {
+    public IntRowSet sort(DataSet dataSet, List<Integer> rowNumbers, List<ColumnSort> columnSortList) {
+
+        // Keys are only extracted for the rows to sort.
+        int[] rows = rowNumbers != null ? IntRowSet.of(rowNumbers).toIntArray() : null;
+        DataSetRowComparator comparator = createComparator(dataSet, rows, columnSortList);
+
+        // Sort the positions of the rows.
+        int size = rows != null ? rows.length : dataSet.getRowCount();
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+        }
+        if (size > 1) {
+            mergeSort(positions, Arrays.copyOf(positions, size), 0, size, comparator);
+        }
+        if (rows != null) {
+            for (int i = 0; i < size; i++) {
+                positions[i] = rows[positions[i]];
+            }
+        }
+        return new IntRowSet(positions, size);
+    }
+
+    /**
+     * Sort the range [from, to) of <tt>rows</tt> (row positions as the comparator expects them). The <tt>aux</tt>
+     * array must hold the same values on that range.
+     */
+    protected static void mergeSort(int[] rows, int[] aux, int from, int to, DataSetRowComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(rows[j], row) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        // Sort both halves into aux, then merge them back into rows.
+        int mid = (from + to) >>> 1;
+        mergeSort(aux, rows, from, mid, comparator);
+        mergeSort(aux, rows, mid, to, comparator);
+        if (comparator.compare(aux[mid - 1], aux[mid]) <= 0) {
+            System.arraycopy(aux, from, rows, from, to - from);
+            return;
+        }
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || (p < mid && comparator.compare(aux[p], aux[q]) <= 0)) {
+                rows[i] = aux[p++];
+            } else {
+                rows[i] = aux[q++];
+            }
+        }
+    }
+
+    /**
+     * Keeps the best <tt>limit</tt> rows in a bounded max-heap, so only O(n log limit) comparisons are needed.
+     * Ties are broken by the position of the row in the input, just like the (stable) full sort does.
+     */
+    public IntRowSet sortTop(DataSet dataSet, List<Integer> rowNumbers, List<ColumnSort> columnSortList, int limit) {
+        int total = rowNumbers != null ? rowNumbers.size() : dataSet.getRowCount();
+        if (limit >= total) {
+            return sort(dataSet, rowNumbers, columnSortList);
+        }
+        IntRowSet result = new IntRowSet(Math.max(limit, 0));
+        if (limit <= 0) {
+            return result;
+        }
+        int[] rows = rowNumbers != null ? IntRowSet.of(rowNumbers).toIntArray() : null;
+        DataSetRowComparator comparator = createComparator(dataSet, rows, columnSortList);
+
+        // The heap holds positions within the rows, the worst of the best rows found so far at the root.
+        TopHeap heap = new TopHeap(comparator, limit);
+        for (int i = 0; i < limit; i++) {
+            heap.push(i);
+        }
+        for (int i = limit; i < total; i++) {
+            if (heap.compare(i, heap.top()) < 0) {
+                heap.replaceTop(i);
+            }
+        }
+        int[] positions = heap.drain();
+        for (int position : positions) {
+            result.addRow(rows != null ? rows[position] : position);
+        }
+        return result;
+    }
 
-        // Create the comparator.
-        DataSetRowComparator comparator = new DataSetRowComparator();
+    protected DataSetRowComparator createComparator(DataSet dataSet, int[] rows, List<ColumnSort> columnSortList) {
+        DataSetRowComparator comparator = new DataSetRowComparator(rows);
         for (ColumnSort columnSort : columnSortList) {
             DataColumn column = dataSet.getColumnById(columnSort.getColumnId())
                     .orElseThrow(() -> new IllegalArgumentException("Sort column not found: " +
@@ -44,17 +137,83 @@ public class CollectionsDataSetSort implements DataSetSortAlgorithm {
 
             comparator.criteria(column, columnSort.getOrder());
         }
-        // Create the row number list to sort.
-        var rows = new ArrayList<Integer>(rowNumbers != null ? rowNumbers.size() : dataSet.getRowCount());
-        if (rowNumbers != null) {
-            rows.addAll(rowNumbers);
-        } else {
-            for (int i = 0; i < dataSet.getRowCount(); i++) {
-                rows.add(i);
+        return comparator;
+    }
+
+    private static class TopHeap {
+
+        final DataSetRowComparator comparator;
+        final int[] heap;
+        int size = 0;
+
+        TopHeap(DataSetRowComparator comparator, int capacity) {
+            this.comparator = comparator;
+            this.heap = new int[capacity];
+        }
+
+        int compare(int position1, int position2) {
+            int comp = comparator.compare(position1, position2);
+            return comp != 0 ? comp : Integer.compare(position1, position2);
+        }
+
+        int top() {
+            return heap[0];
+        }
+
+        void push(int position) {
+            int i = size++;
+            heap[i] = position;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (compare(heap[i], heap[parent]) <= 0) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        void replaceTop(int position) {
+            heap[0] = position;
+            siftDown(0);
+        }
+
+        /**
+         * Empties the heap.
+         * @return The positions in ascending order.
+         */
+        int[] drain() {
+            while (size > 1) {
+                swap(0, --size);
+                siftDown(0);
             }
+            size = 0;
+            return heap;
+        }
+
+        void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int largest = left;
+                int right = left + 1;
+                if (right < size && compare(heap[right], heap[left]) > 0) {
+                    largest = right;
+                }
+                if (compare(heap[largest], heap[i]) <= 0) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        void swap(int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
         }
-        // Sort the row numbers.
-        Collections.sort(rows, comparator);
-        return rows;
     }
 }
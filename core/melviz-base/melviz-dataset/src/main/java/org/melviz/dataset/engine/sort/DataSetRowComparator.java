@@ -16,46 +16,66 @@
 package org.melviz.dataset.engine.sort;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
-import org.melviz.comparator.ComparatorUtils;
 import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.sort.SortOrder;
 
 /**
  * A comparator of data set rows.
+ * <p>Rows are referred to by their position within the row numbers given on creation, or by their row number when
+ * none are given. The sort keys of those rows are extracted when a criteria is added (see {@link RowKey}), so rows
+ * should be compared through {@link #compare(int, int)}.</p>
  */
 public class DataSetRowComparator implements Comparator<Integer> {
 
     protected List<DataColumn> columns = new ArrayList<DataColumn>();
     protected List<SortOrder> orders = new ArrayList<SortOrder>();
+    protected RowKey[] keys = new RowKey[0];
+    protected int[] signs = new int[0];
+    protected int[] rows;
+
+    public DataSetRowComparator() {
+        this(null);
+    }
+
+    /**
+     * @param rows The row numbers to compare or null for all the rows.
+     */
+    public DataSetRowComparator(int[] rows) {
+        this.rows = rows;
+    }
 
     public DataSetRowComparator criteria(DataColumn column, SortOrder order) {
         columns.add(column);
         orders.add(order);
+        int n = keys.length;
+        keys = Arrays.copyOf(keys, n + 1);
+        signs = Arrays.copyOf(signs, n + 1);
+        keys[n] = RowKey.of(column, rows);
+        signs[n] = order == SortOrder.DESCENDING ? -1 : 1;
         return this;
     }
 
+    public int compare(int position1, int position2) {
+        for (int i = 0; i < keys.length; i++) {
+            int comp = keys[i].compare(position1, position2);
+            if (comp != 0) {
+                return comp < 0 ? -signs[i] : signs[i];
+            }
+        }
+        return 0;
+    }
+
     @Override
     public int compare(Integer row1, Integer row2) {
-        // Check criteria.
-        if (columns.isEmpty()) return 0;
-
         // Objects must be not null arrays.
         if (row1 == null && row2 != null) return -1;
         else if (row1 != null && row2 == null) return 1;
         else if (row1 == null) return 0;
 
-        // Compare the two rows.
-        for (int i=0; i<columns.size(); i++) {
-            DataColumn column = columns.get(i);
-            SortOrder order = orders.get(i);
-            Comparable value1 = (Comparable) column.getValues().get(row1);
-            Comparable value2 = (Comparable) column.getValues().get(row2);
-            int comp = ComparatorUtils.compare(value1, value2, order.asInt());
-            if (comp != 0) return comp;
-        }
-        return 0;
+        return compare(row1.intValue(), row2.intValue());
     }
 }
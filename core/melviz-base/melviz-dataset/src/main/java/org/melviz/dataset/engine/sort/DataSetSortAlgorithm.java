@@ -18,6 +18,7 @@ package org.melviz.dataset.engine.sort;
 import java.util.List;
 
 import org.melviz.dataset.DataSet;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.sort.ColumnSort;
 
 /**
@@ -31,7 +32,7 @@ public interface DataSetSortAlgorithm {
      * @param columnSortList The sort operations to apply
      * @return A list of ordered row numbers reflecting the sort results.
      */
-    List<Integer> sort(DataSet dataSet, List<ColumnSort> columnSortList);
+    IntRowSet sort(DataSet dataSet, List<ColumnSort> columnSortList);
 
     /**
      * Sort the specified data set according the sort criteria list specified.
@@ -40,5 +41,16 @@ public interface DataSetSortAlgorithm {
      * @param columnSortList The sort operations to apply
      * @return A list of ordered row numbers reflecting the sort results.
      */
-    List<Integer> sort(DataSet dataSet, List<Integer> rowNumbers, List<ColumnSort> columnSortList);
+    IntRowSet sort(DataSet dataSet, List<Integer> rowNumbers, List<ColumnSort> columnSortList);
+
+    /**
+     * Get only the first rows of the specified sort, as when a lookup asks for a limited number of rows.
+     * <p>The result must be the same as the <tt>limit</tt> first rows of a full sort, ties included.</p>
+     * @param dataSet The data set to sort
+     * @param rowNumbers The subset of rows to sort.
+     * @param columnSortList The sort operations to apply
+     * @param limit The maximum number of rows to return.
+     * @return A list of ordered row numbers with no more than <tt>limit</tt> elements.
+     */
+    IntRowSet sortTop(DataSet dataSet, List<Integer> rowNumbers, List<ColumnSort> columnSortList, int limit);
 }
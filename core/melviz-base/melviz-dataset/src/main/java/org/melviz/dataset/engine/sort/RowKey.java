@@ -0,0 +1,283 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.sort;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.melviz.comparator.ComparatorUtils;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.LabelDictionary;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
+
+/**
+ * The sort keys of the rows being sorted, read or extracted once so that comparing two rows neither boxes nor casts.
+ * <p>Rows are referred to by their position within the row numbers to sort (their row number when the whole
+ * column is sorted). Keys compare in ascending order with nulls first, like {@link ComparatorUtils} does.</p>
+ */
+public abstract class RowKey {
+
+    /**
+     * The row numbers to sort or null for all the rows of the column.
+     */
+    final int[] rows;
+
+    RowKey(int[] rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Compare the keys of the rows at two positions.
+     * @return A negative, zero or positive value.
+     */
+    public abstract int compare(int position1, int position2);
+
+    int row(int position) {
+        return rows == null ? position : rows[position];
+    }
+
+    /**
+     * Get the key extractor best suited to the column values.
+     * @param rows The row numbers to sort or null for all the rows. Keys are only extracted for those rows.
+     */
+    public static RowKey of(DataColumn column, int[] rows) {
+        List values = column.getValues();
+        if (values instanceof PrimitiveColumnStorage) {
+            return new StorageKey((PrimitiveColumnStorage) values, rows);
+        }
+        RowKey key = null;
+        if (values instanceof LabelColumnStorage) {
+            key = CodeKey.of((LabelColumnStorage) values, rows);
+        }
+        if (key == null) {
+            key = DoubleKey.of(values, rows);
+        }
+        if (key == null) {
+            key = RankKey.of(values, rows);
+        }
+        if (key == null) {
+            key = new ObjectKey(values, rows);
+        }
+        return key;
+    }
+
+    /**
+     * Numbers and dates read in place from a primitive storage.
+     */
+    static class StorageKey extends RowKey {
+
+        final PrimitiveColumnStorage storage;
+        final boolean hasNulls;
+
+        StorageKey(PrimitiveColumnStorage storage, int[] rows) {
+            super(rows);
+            this.storage = storage;
+            this.hasNulls = storage.hasNulls();
+        }
+
+        @Override
+        public int compare(int position1, int position2) {
+            int row1 = row(position1);
+            int row2 = row(position2);
+            if (hasNulls) {
+                boolean null1 = storage.isNull(row1);
+                boolean null2 = storage.isNull(row2);
+                if (null1 || null2) {
+                    return null1 == null2 ? 0 : (null1 ? -1 : 1);
+                }
+            }
+            return Double.compare(storage.getDouble(row1), storage.getDouble(row2));
+        }
+    }
+
+    /**
+     * Numbers and dates as plain doubles (dates in epoch milliseconds), indexed by position.
+     */
+    static class DoubleKey extends RowKey {
+
+        final double[] keys;
+        final boolean[] nulls;
+
+        DoubleKey(double[] keys, boolean[] nulls) {
+            super(null);
+            this.keys = keys;
+            this.nulls = nulls;
+        }
+
+        /**
+         * @return The keys or null if some value is neither a number nor a date.
+         */
+        static DoubleKey of(List values, int[] rows) {
+            int size = rows == null ? values.size() : rows.length;
+            double[] keys = new double[size];
+            boolean[] nulls = null;
+            boolean numbers = false;
+            boolean dates = false;
+            for (int i = 0; i < size; i++) {
+                Object value = values.get(rows == null ? i : rows[i]);
+                if (value == null) {
+                    if (nulls == null) {
+                        nulls = new boolean[size];
+                    }
+                    nulls[i] = true;
+                } else if (value instanceof Number && !dates) {
+                    keys[i] = ((Number) value).doubleValue();
+                    numbers = true;
+                } else if (value instanceof Date && !numbers) {
+                    keys[i] = ((Date) value).getTime();
+                    dates = true;
+                } else {
+                    return null;
+                }
+            }
+            return new DoubleKey(keys, nulls);
+        }
+
+        @Override
+        public int compare(int position1, int position2) {
+            if (nulls != null) {
+                boolean null1 = nulls[position1];
+                boolean null2 = nulls[position2];
+                if (null1 || null2) {
+                    return null1 == null2 ? 0 : (null1 ? -1 : 1);
+                }
+            }
+            return Double.compare(keys[position1], keys[position2]);
+        }
+    }
+
+    /**
+     * Strings collated up front: every row gets the rank of its value among the distinct values of the rows,
+     * indexed by position.
+     */
+    static class RankKey extends RowKey {
+
+        final int[] ranks;
+
+        RankKey(int[] ranks) {
+            super(null);
+            this.ranks = ranks;
+        }
+
+        /**
+         * @return The keys or null if some value is not a string.
+         */
+        static RankKey of(List values, int[] rows) {
+            int size = rows == null ? values.size() : rows.length;
+            int[] ids = new int[size];
+            Map<String, Integer> distinct = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                Object value = values.get(rows == null ? i : rows[i]);
+                if (value == null) {
+                    ids[i] = -1;
+                } else if (value instanceof String) {
+                    Integer id = distinct.get(value);
+                    if (id == null) {
+                        id = distinct.size();
+                        distinct.put((String) value, id);
+                    }
+                    ids[i] = id;
+                } else {
+                    return null;
+                }
+            }
+            String[] sorted = distinct.keySet().toArray(new String[distinct.size()]);
+            Arrays.sort(sorted);
+            int[] rankById = new int[sorted.length];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                rankById[distinct.get(sorted[rank])] = rank;
+            }
+            for (int i = 0; i < size; i++) {
+                if (ids[i] != -1) {
+                    ids[i] = rankById[ids[i]];
+                }
+            }
+            return new RankKey(ids);
+        }
+
+        @Override
+        public int compare(int position1, int position2) {
+            return Integer.compare(ranks[position1], ranks[position2]);
+        }
+    }
+
+    /**
+     * Dictionary encoded labels: only the dictionary is collated, rows are compared by the rank of its code.
+     */
+    static class CodeKey extends RowKey {
+
+        final LabelColumnStorage storage;
+        final int[] rankByCode;
+
+        CodeKey(LabelColumnStorage storage, int[] rankByCode, int[] rows) {
+            super(rows);
+            this.storage = storage;
+            this.rankByCode = rankByCode;
+        }
+
+        /**
+         * @return The keys or null if some label is not a string.
+         */
+        static CodeKey of(LabelColumnStorage storage, int[] rows) {
+            LabelDictionary dictionary = storage.getDictionary();
+            int size = dictionary.size();
+            String[] sorted = new String[size];
+            for (int code = 0; code < size; code++) {
+                Object value = dictionary.decode(code);
+                if (!(value instanceof String)) {
+                    return null;
+                }
+                sorted[code] = (String) value;
+            }
+            Arrays.sort(sorted);
+            // The null code (-1) goes first
+            int[] rankByCode = new int[size + 1];
+            for (int rank = 0; rank < size; rank++) {
+                rankByCode[dictionary.lookup(sorted[rank]) + 1] = rank + 1;
+            }
+            return new CodeKey(storage, rankByCode, rows);
+        }
+
+        @Override
+        public int compare(int position1, int position2) {
+            return Integer.compare(rankByCode[storage.getCode(row(position1)) + 1],
+                    rankByCode[storage.getCode(row(position2)) + 1]);
+        }
+    }
+
+    /**
+     * Any other values, compared as they are.
+     */
+    static class ObjectKey extends RowKey {
+
+        final List values;
+
+        ObjectKey(List values, int[] rows) {
+            super(rows);
+            this.values = values;
+        }
+
+        @Override
+        public int compare(int position1, int position2) {
+            return ComparatorUtils.compare((Comparable) values.get(row(position1)),
+                    (Comparable) values.get(row(position2)), 1);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.events;
+
+import org.melviz.dataset.def.DataSetDef;
+
+/**
+ * Fired once a registered data set has been replaced with newer data.
+ */
+public class DataSetModifiedEvent {
+
+    DataSetDef dataSetDef;
+
+    public DataSetModifiedEvent() {
+    }
+
+    public DataSetModifiedEvent(DataSetDef dataSetDef) {
+        this.dataSetDef = dataSetDef;
+    }
+
+    public DataSetDef getDataSetDef() {
+        return dataSetDef;
+    }
+
+    public void setDataSetDef(DataSetDef dataSetDef) {
+        this.dataSetDef = dataSetDef;
+    }
+}
@@ -17,6 +17,8 @@ package org.melviz.dataset.group;
 
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
+
 /**
  * Interface used to get the aggregate value of a given collection.
  * <p>Aggregate functions are used to calculate the aggregate
@@ -26,5 +28,9 @@ public interface AggregateFunction {
 
     AggregateFunctionType getType();
     Object aggregate(List values);
-    Object aggregate(List values, List<Integer> rows);
+    Object aggregate(List values, IntRowSet rows);
+
+    default Object aggregate(List values, List<Integer> rows) {
+        return aggregate(values, IntRowSet.of(rows));
+    }
 }
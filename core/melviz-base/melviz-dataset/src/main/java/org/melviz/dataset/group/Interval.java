@@ -15,9 +15,10 @@
  */
 package org.melviz.dataset.group;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
+
 /**
  * An interval represent a grouped subset of a data values.
  */
@@ -36,7 +37,7 @@ public class Interval {
     /**
      * The row indexes of the values that belong to this interval.
      */
-    protected List<Integer> rows = new ArrayList<Integer>();
+    protected IntRowSet rows = new IntRowSet();
 
     /**
      * The interval type
@@ -73,12 +74,12 @@ public class Interval {
         this.name = name;
     }
 
-    public List<Integer> getRows() {
+    public IntRowSet getRows() {
         return rows;
     }
 
     public void setRows(List<Integer> rows) {
-        this.rows = rows;
+        this.rows = IntRowSet.of(rows);
     }
 
     public int getIndex() {
@@ -0,0 +1,64 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.group;
+
+/**
+ * The ways of splitting a NUMBER column into histogram intervals.
+ * <p>They are set as the interval size of the column group. A number (i.e. <tt>"100"</tt>) as interval size stands
+ * for intervals of that fixed width instead.</p>
+ */
+public enum NumberIntervalType {
+
+    /**
+     * Intervals of the same width between the min. and the max. value, as many as the max. intervals set.
+     */
+    COUNT,
+
+    /**
+     * Intervals of the same width in logarithmic scale between the min. positive and the max. value, as many as
+     * the max. intervals set. The non positive values go to a first interval of their own.
+     */
+    LOG,
+
+    /**
+     * Intervals holding about the same number of values each, as many as the max. intervals set.
+     */
+    QUANTILE;
+
+    public static NumberIntervalType getByName(String interval) {
+        if (interval == null) return null;
+        try {
+            return valueOf(interval.toUpperCase());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * The width set as interval size.
+     *
+     * @return The width, or -1 if the interval size is not a positive number.
+     */
+    public static double getWidth(String intervalSize) {
+        if (intervalSize == null) return -1;
+        try {
+            double width = Double.parseDouble(intervalSize.trim());
+            return width > 0 && !Double.isInfinite(width) ? width : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.melviz.dataset.group.DataSetGroup;
 import org.melviz.dataset.group.DateIntervalType;
 import org.melviz.dataset.group.GroupFunction;
 import org.melviz.dataset.group.GroupStrategy;
+import org.melviz.dataset.group.NumberIntervalType;
 import org.melviz.dataset.sort.ColumnSort;
 import org.melviz.dataset.sort.DataSetSort;
 import org.melviz.dataset.sort.SortOrder;
@@ -128,6 +129,17 @@ public abstract class AbstractDataSetLookupBuilder<T> implements DataSetLookupBu
         return groupStrategy(GroupStrategy.FIXED, -1, intervalSize.toString(), emptyAllowed);
     }
 
+    public T histogram(NumberIntervalType type, int maxIntervals, boolean emptyAllowed) {
+        return groupStrategy(GroupStrategy.FIXED, maxIntervals, type.toString(), emptyAllowed);
+    }
+
+    public T histogram(double intervalWidth, boolean emptyAllowed) {
+        if (!(intervalWidth > 0)) {
+            throw new IllegalArgumentException("Histogram interval width must be positive: " + intervalWidth);
+        }
+        return groupStrategy(GroupStrategy.FIXED, -1, String.valueOf(intervalWidth), emptyAllowed);
+    }
+
     public T firstDay(DayOfWeek dayOfWeek) {
         DataSetGroup gOp = (DataSetGroup) getCurrentOp();
         if (gOp == null || gOp.getColumnGroup() == null) {
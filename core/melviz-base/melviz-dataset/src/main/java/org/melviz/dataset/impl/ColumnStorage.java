@@ -0,0 +1,152 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.melviz.dataset.ColumnType;
+
+/**
+ * Base class for the data column value storages.
+ * <p>A storage keeps the column values in a compact representation and exposes them as a
+ * <tt>java.util.List</tt>, so it can be returned as is from {@link org.melviz.dataset.DataColumn#getValues()}.</p>
+ */
+public abstract class ColumnStorage extends AbstractList<Object> implements RandomAccess {
+
+    /**
+     * Creates the values list for a brand new column of the given type.
+     *
+     * @return A primitive storage for NUMBER and DATE columns, a dictionary encoded storage for LABEL columns and
+     * a regular list for any other type.
+     */
+    public static List<Object> newValues(ColumnType columnType) {
+        if (ColumnType.NUMBER.equals(columnType)) {
+            return new NumberColumnStorage();
+        }
+        if (ColumnType.DATE.equals(columnType)) {
+            return new DateColumnStorage();
+        }
+        if (ColumnType.LABEL.equals(columnType)) {
+            return new LabelColumnStorage();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Creates an empty values list of the same kind as the given one.
+     */
+    public static List<Object> newValues(List<?> values) {
+        if (values instanceof ColumnStorage) {
+            return ((ColumnStorage) values).cloneEmpty();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Creates a copy of the given values list keeping its kind.
+     */
+    public static List<Object> copyValues(List<?> values) {
+        if (values instanceof ColumnStorage) {
+            return ((ColumnStorage) values).cloneInstance();
+        }
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * Creates a values list holding the given rows followed by the first values of another one, which is left
+     * unchanged.
+     *
+     * @param values The existing values.
+     * @param rows The values to insert first.
+     * @param kept The number of existing values to keep.
+     */
+    public static List<Object> prependValues(List<?> values, List<?> rows, int kept) {
+        if (values instanceof ColumnStorage) {
+            return ((ColumnStorage) values).prepend(rows, kept);
+        }
+        var result = new ArrayList<Object>(rows.size() + kept);
+        result.addAll(rows);
+        result.addAll(values.subList(0, kept));
+        return result;
+    }
+
+    /**
+     * The type of the values this storage holds.
+     */
+    public abstract ColumnType getColumnType();
+
+    /**
+     * Check if the value at the given row is null.
+     */
+    public abstract boolean isNull(int row);
+
+    /**
+     * Create an empty storage of the same kind.
+     */
+    public abstract ColumnStorage cloneEmpty();
+
+    /**
+     * Create a storage of the same kind holding a copy of the values.
+     */
+    public abstract ColumnStorage cloneInstance();
+
+    /**
+     * Make room for at least the given number of values, so they can be appended without growing the storage.
+     */
+    public abstract void ensureCapacity(int capacity);
+
+    /**
+     * Create a storage holding the given values followed by the first <tt>kept</tt> values of this one, which is
+     * left unchanged.
+     * <p>The values are written in the room left before the first one if no other storage took it yet, so both
+     * storages share their arrays and the cost only depends on the number of new values. Any later change on a
+     * storage sharing its arrays makes a copy of them first.</p>
+     */
+    public abstract ColumnStorage prepend(List<?> values, int kept);
+
+    /**
+     * Remove the values within the range [from, to).
+     */
+    @Override
+    public abstract void removeRange(int from, int to);
+
+    /**
+     * The first position in use of some arrays shared by several storages, the room before it is still free.
+     */
+    protected static class SharedHead {
+
+        int position;
+
+        SharedHead(int position) {
+            this.position = position;
+        }
+    }
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+
+    protected void checkPosition(int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+}
@@ -41,6 +41,7 @@ public class DataColumnImpl implements DataColumn {
     public DataColumnImpl(String id, ColumnType columnType) {
         this.id = id;
         this.columnType = columnType;
+        this.values = ColumnStorage.newValues(columnType);
     }
 
     public DataSetImpl getDataSet() {
@@ -57,6 +58,9 @@ public class DataColumnImpl implements DataColumn {
 
     public void setId(String id) {
         this.id = id;
+        if (dataSet != null) {
+            dataSet.invalidateColumnIndex();
+        }
     }
 
     public ColumnType getColumnType() {
@@ -65,6 +69,10 @@ public class DataColumnImpl implements DataColumn {
 
     public void setColumnType(ColumnType columnType) {
         this.columnType = columnType;
+        // Typed storages only hold values of its own type, so fall back to a regular list if the type changes
+        if (values instanceof ColumnStorage && ((ColumnStorage) values).getColumnType() != columnType) {
+            values = new ArrayList(values);
+        }
     }
 
     public List getValues() {
@@ -113,12 +121,27 @@ public class DataColumnImpl implements DataColumn {
 
     public void setGroupFunction(GroupFunction groupFunction) {
         this.groupFunction = groupFunction;
+        if (dataSet != null) {
+            dataSet.invalidateColumnIndex();
+        }
     }
 
     public DataColumn cloneEmpty() {
+        return cloneWith(ColumnStorage.newValues(values));
+    }
+
+    public DataColumn cloneInstance() {
+        return cloneWith(ColumnStorage.copyValues(values));
+    }
+
+    /**
+     * Create a copy of this column holding the given values.
+     */
+    public DataColumnImpl cloneWith(List values) {
         DataColumnImpl otherCol = new DataColumnImpl();
         otherCol.setId(getId());
         otherCol.setColumnType(getColumnType());
+        otherCol.setValues(values);
         if (columnGroup != null) otherCol.setColumnGroup(columnGroup.cloneInstance());
         otherCol.setIntervalType(getIntervalType());
         otherCol.setMinValue(getMinValue());
@@ -127,12 +150,6 @@ public class DataColumnImpl implements DataColumn {
         return otherCol;
     }
 
-    public DataColumn cloneInstance() {
-        DataColumnImpl otherCol = (DataColumnImpl) cloneEmpty();
-        otherCol.setValues(new ArrayList(values));
-        return otherCol;
-    }
-
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
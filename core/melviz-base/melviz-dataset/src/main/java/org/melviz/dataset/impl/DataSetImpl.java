@@ -17,8 +17,10 @@ package org.melviz.dataset.impl;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -27,6 +29,7 @@ import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.DataSet;
 import org.melviz.dataset.DataSetMetadata;
 import org.melviz.dataset.def.DataSetDef;
+import org.melviz.dataset.engine.IntRowSet;
 
 public class DataSetImpl implements DataSet {
 
@@ -36,6 +39,12 @@ public class DataSetImpl implements DataSet {
     protected List<DataColumn> columns = new ArrayList<DataColumn>();
     protected int rowCountNonTrimmed = -1;
 
+    /**
+     * Lower case column id (and group function source id) to the position of the first column matching it.
+     * Built lazily and dropped on every column change.
+     */
+    protected transient Map<String, Integer> columnIndex = null;
+
     public DataSetMetadata getMetadata() {
         return new DataSetMetadataImpl(this);
     }
@@ -71,17 +80,56 @@ public class DataSetImpl implements DataSet {
     public void setColumns(List<DataColumn> columnList) {
         columns.clear();
         columns.addAll(columnList);
+        invalidateColumnIndex();
     }
 
     public Optional<DataColumn> getColumnById(String id) {
         Objects.requireNonNull(id, "Column id can't be null.");
         var _id = id.toLowerCase();
-        return columns.stream()
-                .filter(cl -> cl.getId().equalsIgnoreCase(_id) ||
-                        (cl.getGroupFunction() != null &&
-                                cl.getGroupFunction().getSourceId() != null &&
-                                cl.getGroupFunction().getSourceId().equalsIgnoreCase(_id)))
-                .findFirst();
+        if (columnIndex == null) {
+            columnIndex = buildColumnIndex();
+        }
+        var index = columnIndex.get(_id);
+        if (index != null && index < columns.size() && matchesColumn(columns.get(index), _id)) {
+            return Optional.of(columns.get(index));
+        }
+        // Unknown id or columns changed behind our back (i.e: through getColumns())
+        for (var column : columns) {
+            if (matchesColumn(column, _id)) {
+                invalidateColumnIndex();
+                return Optional.of(column);
+            }
+        }
+        return Optional.empty();
+    }
+
+    protected boolean matchesColumn(DataColumn column, String id) {
+        return id.equalsIgnoreCase(column.getId()) ||
+                (column.getGroupFunction() != null &&
+                        column.getGroupFunction().getSourceId() != null &&
+                        column.getGroupFunction().getSourceId().equalsIgnoreCase(id));
+    }
+
+    protected Map<String, Integer> buildColumnIndex() {
+        var index = new HashMap<String, Integer>();
+        for (int i = 0; i < columns.size(); i++) {
+            var column = columns.get(i);
+            if (column.getId() != null) {
+                index.putIfAbsent(column.getId().toLowerCase(), i);
+            }
+            var groupFunction = column.getGroupFunction();
+            if (groupFunction != null && groupFunction.getSourceId() != null) {
+                index.putIfAbsent(groupFunction.getSourceId().toLowerCase(), i);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Must be called when the columns or their ids change.
+     */
+    public void invalidateColumnIndex() {
+        columnIndex = null;
     }
 
     public DataColumn getColumnByIndex(int index) {
@@ -116,14 +164,19 @@ public class DataSetImpl implements DataSet {
         c.setDataSet(this);
         c.setId(id);
         c.setColumnType(type);
-        if (values != null)
-            c.setValues(values);
+        c.setValues(values != null ? values : ColumnStorage.newValues(type));
         columns.add(c);
+        invalidateColumnIndex();
         return this;
     }
 
     public DataSet addColumn(DataColumn column) {
-        columns.add((DataColumnImpl) column);
+        var c = (DataColumnImpl) column;
+        if (c.getDataSet() == null) {
+            c.setDataSet(this);
+        }
+        columns.add(c);
+        invalidateColumnIndex();
         return this;
     }
 
@@ -135,6 +188,7 @@ public class DataSetImpl implements DataSet {
                 it.remove();
             }
         }
+        invalidateColumnIndex();
         return this;
     }
 
@@ -301,8 +355,15 @@ public class DataSetImpl implements DataSet {
             var column = columns.get(i);
             var colOther = other.getColumns().get(i);
             var values = column.getValues();
-            var subList = values.subList(offset, Math.min(offset + rows, values.size()));
-            colOther.getValues().addAll(subList);
+            var valOther = colOther.getValues();
+            var end = Math.min(offset + rows, values.size());
+            if (_sameStorage(values, valOther)) {
+                ((PrimitiveColumnStorage) valOther).addRange((PrimitiveColumnStorage) values, offset, end);
+            } else if (values instanceof LabelColumnStorage && valOther instanceof LabelColumnStorage) {
+                ((LabelColumnStorage) valOther).addRange((LabelColumnStorage) values, offset, end);
+            } else {
+                valOther.addAll(values.subList(offset, end));
+            }
         }
         return other;
     }
@@ -316,10 +377,37 @@ public class DataSetImpl implements DataSet {
         if (rows.isEmpty())
             return other;
 
+        IntRowSet rowSet = IntRowSet.of(rows);
+
         for (int i = 0; i < columns.size(); i++) {
             List values = columns.get(i).getValues();
             List valOther = other.getColumns().get(i).getValues();
-            for (Integer row : rows) {
+            if (_sameStorage(values, valOther)) {
+                var storage = (PrimitiveColumnStorage) values;
+                var storageOther = (PrimitiveColumnStorage) valOther;
+                for (int j = 0; j < rowSet.size(); j++) {
+                    int row = rowSet.getRow(j);
+                    if (row >= storage.size()) {
+                        throw new IllegalArgumentException("Row number is out of bounds: " + row);
+                    }
+                    storageOther.addFrom(storage, row);
+                }
+                continue;
+            }
+            if (values instanceof LabelColumnStorage && valOther instanceof LabelColumnStorage) {
+                var labels = (LabelColumnStorage) values;
+                var labelsOther = (LabelColumnStorage) valOther;
+                for (int j = 0; j < rowSet.size(); j++) {
+                    int row = rowSet.getRow(j);
+                    if (row >= labels.size()) {
+                        throw new IllegalArgumentException("Row number is out of bounds: " + row);
+                    }
+                    labelsOther.addFrom(labels, row);
+                }
+                continue;
+            }
+            for (int j = 0; j < rowSet.size(); j++) {
+                int row = rowSet.getRow(j);
                 if (row >= values.size()) {
                     throw new IllegalArgumentException("Row number is out of bounds: " + row);
                 }
@@ -330,6 +418,33 @@ public class DataSetImpl implements DataSet {
         return other;
     }
 
+    public DataSet prependRows(DataSet other, int maxRows) {
+        if (other.getColumns().size() != columns.size()) {
+            throw new IllegalArgumentException("The number of columns doesn't match: " + other.getColumns().size());
+        }
+        int kept = Math.min(getRowCount(), Math.max(0, maxRows - other.getRowCount()));
+        DataSetImpl result = new DataSetImpl();
+        result.definition = definition;
+        result.uuid = uuid;
+        for (int i = 0; i < columns.size(); i++) {
+            DataColumnImpl column = (DataColumnImpl) columns.get(i);
+            List newValues = ColumnStorage.prependValues(column.getValues(),
+                    other.getColumnByIndex(i).getValues(),
+                    kept);
+            if (newValues instanceof LabelColumnStorage
+                    && ((LabelColumnStorage) newValues).getDictionary().size() > 2 * newValues.size()) {
+                // The discarded rows may leave most of the labels unused
+                newValues = ((LabelColumnStorage) newValues).compact();
+            }
+            result.addColumn(column.cloneWith(newValues));
+        }
+        return result;
+    }
+
+    private boolean _sameStorage(List values, List valOther) {
+        return values instanceof PrimitiveColumnStorage && values.getClass() == valOther.getClass();
+    }
+
     public DataSetImpl cloneEmpty() {
         DataSetImpl other = new DataSetImpl();
         for (int i = 0; i < columns.size(); i++) {
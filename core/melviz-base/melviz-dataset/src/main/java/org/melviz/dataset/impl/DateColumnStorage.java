@@ -0,0 +1,66 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import java.util.Date;
+
+import org.melviz.dataset.ColumnType;
+
+/**
+ * Storage for DATE columns. Values are kept as epoch milliseconds and exposed as <tt>java.util.Date</tt>.
+ * <p>Milliseconds are stored in a <tt>double</tt> since they fit with no loss of precision and,
+ * unlike <tt>long</tt>, doubles are native on the client side.</p>
+ */
+public class DateColumnStorage extends PrimitiveColumnStorage {
+
+    public DateColumnStorage() {
+        super();
+    }
+
+    public DateColumnStorage(int capacity) {
+        super(capacity);
+    }
+
+    public long getTime(int row) {
+        return (long) getDouble(row);
+    }
+
+    @Override
+    public ColumnType getColumnType() {
+        return ColumnType.DATE;
+    }
+
+    @Override
+    protected Object box(double value) {
+        return new Date((long) value);
+    }
+
+    @Override
+    protected double unbox(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        throw new IllegalArgumentException("Not a java.util.Date: " + value + " (" + value.getClass().getName() + ")");
+    }
+
+    @Override
+    protected PrimitiveColumnStorage newInstance(int capacity) {
+        return new DateColumnStorage(capacity);
+    }
+}
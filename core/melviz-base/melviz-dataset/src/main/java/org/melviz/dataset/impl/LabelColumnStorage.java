@@ -0,0 +1,352 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.melviz.dataset.ColumnType;
+
+/**
+ * Storage for LABEL columns: an <tt>int[]</tt> of codes plus the {@link LabelDictionary} they refer to.
+ * <p>Every distinct label is kept only once no matter how many rows hold it. Engine code should work with
+ * {@link #getCode(int)} and the dictionary rather than with the values.</p>
+ * <p>The first row may not be at the start of the codes, leaving room to prepend rows (see
+ * {@link #prepend(List, int)}).</p>
+ */
+public class LabelColumnStorage extends ColumnStorage {
+
+    private static final int[] EMPTY = new int[0];
+
+    // The least room left before the first row when the values are copied to prepend rows
+    private static final int MIN_ROOM = 16;
+
+    protected LabelDictionary dictionary;
+    protected int[] codes;
+    protected int nullCount = 0;
+    protected int offset = 0;
+    protected int size = 0;
+    // Not null if the codes are shared with other storages
+    protected SharedHead head = null;
+
+    public LabelColumnStorage() {
+        this(new LabelDictionary(), 0);
+    }
+
+    public LabelColumnStorage(LabelDictionary dictionary, int capacity) {
+        this.dictionary = dictionary;
+        this.codes = capacity > 0 ? new int[capacity] : EMPTY;
+    }
+
+    public LabelDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int getCode(int row) {
+        checkIndex(row);
+        return codes[offset + row];
+    }
+
+    public void addCode(int code) {
+        ensureCapacity(size + 1);
+        codes[offset + size++] = code;
+        if (code == LabelDictionary.NULL_CODE) {
+            nullCount++;
+        }
+        modCount++;
+    }
+
+    /**
+     * Append the value at the given row of another label storage.
+     */
+    public void addFrom(LabelColumnStorage source, int row) {
+        addCode(encodeFrom(source, row));
+    }
+
+    /**
+     * Append the values within the range [from, to) of another label storage.
+     */
+    public void addRange(LabelColumnStorage source, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        if (source.dictionary != dictionary) {
+            for (int row = from; row < to; row++) {
+                addFrom(source, row);
+            }
+            return;
+        }
+        ensureCapacity(size + count);
+        copyRange(source, from, size, count);
+        size += count;
+        modCount++;
+    }
+
+    /**
+     * Create a copy of this storage with a dictionary of its own holding just the values in use.
+     * <p>A dictionary only grows, so it should be compacted once most of its values are no longer referenced, e.g.
+     * after discarding many rows.</p>
+     */
+    public LabelColumnStorage compact() {
+        LabelDictionary compacted = new LabelDictionary();
+        LabelColumnStorage other = new LabelColumnStorage(compacted, size);
+        // The new code of every old one plus one, zero if not yet encoded
+        int[] recoded = new int[dictionary.size()];
+        for (int row = 0; row < size; row++) {
+            int code = codes[offset + row];
+            if (code != LabelDictionary.NULL_CODE) {
+                if (recoded[code] == 0) {
+                    recoded[code] = compacted.encode(dictionary.decode(code)) + 1;
+                }
+                code = recoded[code] - 1;
+            }
+            other.addCode(code);
+        }
+        return other;
+    }
+
+    public boolean hasNulls() {
+        return nullCount > 0;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return getCode(row) == LabelDictionary.NULL_CODE;
+    }
+
+    @Override
+    public ColumnType getColumnType() {
+        return ColumnType.LABEL;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (head != null) {
+            reallocate(Math.max(capacity, size));
+        } else if (offset + capacity > codes.length) {
+            int length = codes.length - offset;
+            reallocate(Math.max(capacity, length + (length >> 1) + 1));
+        }
+    }
+
+    /**
+     * Move the codes to the start of an array of its own with the given capacity.
+     */
+    protected void reallocate(int capacity) {
+        int[] newCodes = new int[capacity];
+        System.arraycopy(codes, offset, newCodes, 0, size);
+        codes = newCodes;
+        offset = 0;
+        head = null;
+    }
+
+    /**
+     * Make a copy of the codes if shared, so they can be written.
+     */
+    protected void unshare() {
+        if (head != null) {
+            reallocate(size);
+        }
+    }
+
+    /**
+     * Copy the codes within the range [from, from + count) of another storage with the same dictionary to the
+     * given row.
+     */
+    protected void copyRange(LabelColumnStorage source, int from, int row, int count) {
+        System.arraycopy(source.codes, source.offset + from, codes, offset + row, count);
+        if (source.nullCount > 0) {
+            for (int i = 0; i < count; i++) {
+                if (codes[offset + row + i] == LabelDictionary.NULL_CODE) {
+                    nullCount++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public ColumnStorage prepend(List<?> rows, int kept) {
+        int count = rows.size();
+        LabelColumnStorage other;
+        if (count <= offset && (head == null || head.position == offset)) {
+            if (head == null) {
+                head = new SharedHead(offset);
+            }
+            other = new LabelColumnStorage(dictionary, 0);
+            other.codes = codes;
+            other.offset = offset;
+            other.size = kept;
+            other.nullCount = countNulls(kept);
+            other.head = head;
+        } else {
+            // More room than the rows held, so the next copy takes a while
+            other = new LabelColumnStorage(dictionary, Math.max(count + kept, MIN_ROOM) + kept);
+            other.offset = other.codes.length - kept;
+            other.addRange(this, 0, kept);
+        }
+        other.offset -= count;
+        other.size += count;
+        if (other.head != null) {
+            other.head.position = other.offset;
+        }
+        if (rows instanceof LabelColumnStorage && ((LabelColumnStorage) rows).dictionary == dictionary) {
+            other.copyRange((LabelColumnStorage) rows, 0, 0, count);
+        } else {
+            for (int row = 0; row < count; row++) {
+                int code = rows instanceof LabelColumnStorage
+                        ? encodeFrom((LabelColumnStorage) rows, row)
+                        : dictionary.encode(rows.get(row));
+                other.codes[other.offset + row] = code;
+                if (code == LabelDictionary.NULL_CODE) {
+                    other.nullCount++;
+                }
+            }
+        }
+        return other;
+    }
+
+    /**
+     * The number of nulls within the first rows.
+     */
+    protected int countNulls(int rows) {
+        int result = nullCount;
+        for (int row = rows; result > 0 && row < size; row++) {
+            if (codes[offset + row] == LabelDictionary.NULL_CODE) {
+                result--;
+            }
+        }
+        return result;
+    }
+
+    private int encodeFrom(LabelColumnStorage source, int row) {
+        int code = source.getCode(row);
+        return source.dictionary == dictionary ? code : dictionary.encode(source.dictionary.decode(code));
+    }
+
+    // java.util.List view
+
+    @Override
+    public Object get(int index) {
+        return dictionary.decode(getCode(index));
+    }
+
+    @Override
+    public Object set(int index, Object value) {
+        int old = getCode(index);
+        int code = dictionary.encode(value);
+        unshare();
+        codes[offset + index] = code;
+        if (old == LabelDictionary.NULL_CODE) {
+            nullCount--;
+        }
+        if (code == LabelDictionary.NULL_CODE) {
+            nullCount++;
+        }
+        return dictionary.decode(old);
+    }
+
+    @Override
+    public void add(int index, Object value) {
+        checkPosition(index);
+        int code = dictionary.encode(value);
+        ensureCapacity(size + 1);
+        System.arraycopy(codes, offset + index, codes, offset + index + 1, size - index);
+        codes[offset + index] = code;
+        if (code == LabelDictionary.NULL_CODE) {
+            nullCount++;
+        }
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        int old = getCode(index);
+        unshare();
+        System.arraycopy(codes, offset + index + 1, codes, offset + index, size - index - 1);
+        if (old == LabelDictionary.NULL_CODE) {
+            nullCount--;
+        }
+        size--;
+        modCount++;
+        return dictionary.decode(old);
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        checkIndex(from);
+        checkPosition(to);
+        unshare();
+        if (nullCount > 0) {
+            for (int i = from; i < to; i++) {
+                if (codes[offset + i] == LabelDictionary.NULL_CODE) {
+                    nullCount--;
+                }
+            }
+        }
+        System.arraycopy(codes, offset + to, codes, offset + from, size - to);
+        size -= count;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<?> c) {
+        if (c instanceof LabelColumnStorage) {
+            LabelColumnStorage other = (LabelColumnStorage) c;
+            addRange(other, 0, other.size);
+            return other.size > 0;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public void clear() {
+        if (head != null) {
+            codes = EMPTY;
+            head = null;
+        }
+        size = 0;
+        offset = 0;
+        nullCount = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ColumnStorage cloneEmpty() {
+        return new LabelColumnStorage(dictionary, codes.length - offset);
+    }
+
+    @Override
+    public ColumnStorage cloneInstance() {
+        LabelColumnStorage other = new LabelColumnStorage(dictionary, size);
+        other.addRange(this, 0, size);
+        return other;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The distinct values of a label column, each one identified by a code.
+ * <p>Codes are assigned in first-seen order and never change, so a dictionary can be shared by all the
+ * storages derived from the same column (trims, clones, ...) and their codes are valid in any of them.
+ * As a consequence, a dictionary may contain values not present in a given storage, and it never shrinks: see
+ * {@link LabelColumnStorage#compact()}.</p>
+ */
+public class LabelDictionary {
+
+    /**
+     * The code of the null value.
+     */
+    public static final int NULL_CODE = -1;
+
+    private List<Object> values = new ArrayList<>();
+    private Map<Object, Integer> codes = new HashMap<>();
+
+    /**
+     * Get the code of a value, adding it to the dictionary if not already there.
+     */
+    public int encode(Object value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Get the code of a value with no changes in the dictionary.
+     *
+     * @return The value code, or <tt>NULL_CODE</tt> if the value is null or missing.
+     */
+    public int lookup(Object value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    public Object decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    /**
+     * The number of codes in use. Codes go from 0 to <tt>size() - 1</tt>.
+     */
+    public int size() {
+        return values.size();
+    }
+}
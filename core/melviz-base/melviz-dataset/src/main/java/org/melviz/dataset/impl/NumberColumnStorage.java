@@ -0,0 +1,55 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import org.melviz.dataset.ColumnType;
+
+/**
+ * Storage for NUMBER columns. Values are exposed as <tt>java.lang.Double</tt>.
+ */
+public class NumberColumnStorage extends PrimitiveColumnStorage {
+
+    public NumberColumnStorage() {
+        super();
+    }
+
+    public NumberColumnStorage(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public ColumnType getColumnType() {
+        return ColumnType.NUMBER;
+    }
+
+    @Override
+    protected Object box(double value) {
+        return value;
+    }
+
+    @Override
+    protected double unbox(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    @Override
+    protected PrimitiveColumnStorage newInstance(int capacity) {
+        return new NumberColumnStorage(capacity);
+    }
+}
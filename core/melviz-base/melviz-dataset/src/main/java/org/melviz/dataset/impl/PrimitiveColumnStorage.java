@@ -0,0 +1,400 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A column storage backed by a <tt>double[]</tt> plus a null bitmap.
+ * <p>Values are unboxed on write and only boxed again when read through the <tt>java.util.List</tt> view.
+ * Engine code should use {@link #getDouble(int)} and {@link #isNull(int)} instead.</p>
+ * <p>The first row may not be at the start of the arrays, leaving room to prepend rows (see
+ * {@link #prepend(List, int)}). The null bitmap is indexed by array position, not by row.</p>
+ */
+public abstract class PrimitiveColumnStorage extends ColumnStorage {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // The least room left before the first row when the values are copied to prepend rows
+    private static final int MIN_ROOM = 16;
+
+    protected double[] values;
+    protected int[] nulls = null;
+    protected int nullCount = 0;
+    protected int offset = 0;
+    protected int size = 0;
+    // Not null if the arrays are shared with other storages
+    protected SharedHead head = null;
+
+    protected PrimitiveColumnStorage() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    protected PrimitiveColumnStorage(int capacity) {
+        values = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Box a primitive value into the object exposed by the list view.
+     */
+    protected abstract Object box(double value);
+
+    /**
+     * Unbox a non null value into its primitive representation.
+     * @throws IllegalArgumentException If the value has no primitive representation. It is stored as null then.
+     */
+    protected abstract double unbox(Object value);
+
+    /**
+     * Create an empty storage of the same kind with the given initial capacity.
+     */
+    protected abstract PrimitiveColumnStorage newInstance(int capacity);
+
+    public double getDouble(int row) {
+        checkIndex(row);
+        return values[offset + row];
+    }
+
+    public void setDouble(int row, double value) {
+        checkIndex(row);
+        unshare();
+        values[offset + row] = value;
+        setNull(row, false);
+    }
+
+    public void addDouble(double value) {
+        ensureCapacity(size + 1);
+        values[offset + size] = value;
+        size++;
+        modCount++;
+    }
+
+    public void addNull() {
+        ensureCapacity(size + 1);
+        values[offset + size] = 0d;
+        size++;
+        setNull(size - 1, true);
+        modCount++;
+    }
+
+    /**
+     * Append the value at the given row of another storage of the same kind.
+     */
+    public void addFrom(PrimitiveColumnStorage source, int row) {
+        if (source.isNull(row)) {
+            addNull();
+        } else {
+            addDouble(source.getDouble(row));
+        }
+    }
+
+    /**
+     * Append the values within the range [from, to) of another storage of the same kind.
+     */
+    public void addRange(PrimitiveColumnStorage source, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        ensureCapacity(size + count);
+        copyRange(source, from, size, count);
+        size += count;
+        modCount++;
+    }
+
+    public boolean hasNulls() {
+        return nullCount > 0;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public boolean isNull(int row) {
+        int position = offset + row;
+        if (nulls == null || (position >>> 5) >= nulls.length) {
+            return false;
+        }
+        return (nulls[position >>> 5] & (1 << (position & 31))) != 0;
+    }
+
+    protected void setNull(int row, boolean isNull) {
+        int position = offset + row;
+        if (isNull) {
+            if (nulls == null) {
+                nulls = new int[(values.length >>> 5) + 1];
+            } else if ((position >>> 5) >= nulls.length) {
+                growNulls(position);
+            }
+            int mask = 1 << (position & 31);
+            if ((nulls[position >>> 5] & mask) == 0) {
+                nulls[position >>> 5] |= mask;
+                nullCount++;
+            }
+        } else if (isNull(row)) {
+            nulls[position >>> 5] &= ~(1 << (position & 31));
+            nullCount--;
+        }
+    }
+
+    protected void growNulls(int position) {
+        int[] newNulls = new int[(Math.max(position, values.length) >>> 5) + 1];
+        System.arraycopy(nulls, 0, newNulls, 0, nulls.length);
+        nulls = newNulls;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (head != null) {
+            reallocate(Math.max(capacity, size));
+        } else if (offset + capacity > values.length) {
+            int length = values.length - offset;
+            reallocate(Math.max(capacity, length + (length >> 1) + 1));
+        }
+    }
+
+    /**
+     * Move the rows to the start of arrays of its own with the given capacity.
+     */
+    protected void reallocate(int capacity) {
+        double[] newValues = new double[Math.max(capacity, 1)];
+        System.arraycopy(values, offset, newValues, 0, size);
+        int[] newNulls = null;
+        if (nullCount > 0) {
+            newNulls = new int[(newValues.length >>> 5) + 1];
+            for (int row = 0; row < size; row++) {
+                if (isNull(row)) {
+                    newNulls[row >>> 5] |= 1 << (row & 31);
+                }
+            }
+        }
+        values = newValues;
+        nulls = newNulls;
+        offset = 0;
+        head = null;
+    }
+
+    /**
+     * Make a copy of the arrays if shared, so they can be written.
+     */
+    protected void unshare() {
+        if (head != null) {
+            reallocate(size);
+        }
+    }
+
+    /**
+     * Copy the values within the range [from, from + count) of another storage of the same kind to the given row.
+     * The rows written are expected to hold no nulls yet.
+     */
+    protected void copyRange(PrimitiveColumnStorage source, int from, int row, int count) {
+        System.arraycopy(source.values, source.offset + from, values, offset + row, count);
+        if (source.nullCount > 0) {
+            for (int i = 0; i < count; i++) {
+                if (source.isNull(from + i)) {
+                    setNull(row + i, true);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ColumnStorage prepend(List<?> rows, int kept) {
+        int count = rows.size();
+        PrimitiveColumnStorage other;
+        if (count <= offset && (head == null || head.position == offset)) {
+            if (head == null) {
+                head = new SharedHead(offset);
+            }
+            other = newInstance(0);
+            other.values = values;
+            other.nulls = nulls;
+            other.offset = offset;
+            other.size = kept;
+            other.nullCount = countNulls(kept);
+            other.head = head;
+        } else {
+            // More room than the rows held, so the next copy takes a while
+            other = newInstance(Math.max(count + kept, MIN_ROOM) + kept);
+            other.offset = other.values.length - kept;
+            other.addRange(this, 0, kept);
+        }
+        other.offset -= count;
+        other.size += count;
+        if (other.head != null) {
+            other.head.position = other.offset;
+        }
+        if (rows.getClass() == getClass()) {
+            other.copyRange((PrimitiveColumnStorage) rows, 0, 0, count);
+        } else {
+            for (int row = 0; row < count; row++) {
+                other.store(row, rows.get(row));
+            }
+        }
+        return other;
+    }
+
+    /**
+     * The number of nulls within the first rows.
+     */
+    protected int countNulls(int rows) {
+        int result = nullCount;
+        for (int row = rows; result > 0 && row < size; row++) {
+            if (isNull(row)) {
+                result--;
+            }
+        }
+        return result;
+    }
+
+    protected void store(int row, Object value) {
+        if (value != null) {
+            try {
+                values[offset + row] = unbox(value);
+                setNull(row, false);
+                return;
+            } catch (IllegalArgumentException e) {
+                // Not representable, stored as null
+            }
+        }
+        values[offset + row] = 0d;
+        setNull(row, true);
+    }
+
+    // java.util.List view
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index);
+        return isNull(index) ? null : box(values[offset + index]);
+    }
+
+    @Override
+    public Object set(int index, Object value) {
+        Object old = get(index);
+        unshare();
+        store(index, value);
+        return old;
+    }
+
+    @Override
+    public void add(int index, Object value) {
+        checkPosition(index);
+        double primitive = 0d;
+        boolean isNull = value == null;
+        if (!isNull) {
+            try {
+                primitive = unbox(value);
+            } catch (IllegalArgumentException e) {
+                // Not representable, stored as null
+                isNull = true;
+            }
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(values, offset + index, values, offset + index + 1, size - index);
+        if (nullCount > 0) {
+            for (int i = size; i > index; i--) {
+                setNull(i, isNull(i - 1));
+            }
+            setNull(index, false);
+        }
+        size++;
+        values[offset + index] = primitive;
+        if (isNull) {
+            setNull(index, true);
+        }
+        modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        Object old = get(index);
+        unshare();
+        System.arraycopy(values, offset + index + 1, values, offset + index, size - index - 1);
+        if (nullCount > 0) {
+            for (int i = index; i < size - 1; i++) {
+                setNull(i, isNull(i + 1));
+            }
+            setNull(size - 1, false);
+        }
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        checkIndex(from);
+        checkPosition(to);
+        unshare();
+        System.arraycopy(values, offset + to, values, offset + from, size - to);
+        if (nullCount > 0) {
+            for (int i = from; i < size - count; i++) {
+                setNull(i, isNull(i + count));
+            }
+            for (int i = size - count; i < size; i++) {
+                setNull(i, false);
+            }
+        }
+        size -= count;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<?> c) {
+        if (c != null && c.getClass() == getClass()) {
+            PrimitiveColumnStorage other = (PrimitiveColumnStorage) c;
+            addRange(other, 0, other.size);
+            return other.size > 0;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public void clear() {
+        if (head != null) {
+            values = new double[DEFAULT_CAPACITY];
+            head = null;
+        }
+        size = 0;
+        offset = 0;
+        nulls = null;
+        nullCount = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ColumnStorage cloneEmpty() {
+        return newInstance(values.length - offset);
+    }
+
+    @Override
+    public ColumnStorage cloneInstance() {
+        PrimitiveColumnStorage other = newInstance(size);
+        other.addRange(this, 0, size);
+        return other;
+    }
+}
@@ -17,17 +17,22 @@ package org.melviz.dataset.json;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
 import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.DataSet;
 import org.melviz.dataset.DataSetFactory;
 import org.melviz.dataset.DataSetMetadata;
 import org.melviz.dataset.impl.DataSetMetadataImpl;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
 import org.melviz.json.Json;
 import org.melviz.json.JsonArray;
 import org.melviz.json.JsonObject;
+import org.melviz.json.JsonReader;
+import org.melviz.json.JsonReader.Token;
 import org.melviz.json.JsonType;
 import org.melviz.json.JsonValue;
 
@@ -87,6 +92,12 @@ public class ExternalDataSetJSONParser {
                 columnTypes);
     }
 
+    /**
+     * Parses either a data set object (<tt>columns</tt> and <tt>values</tt>) or an array of rows, in which case the
+     * column types are inferred from the first row.
+     * <p>The document is read in a single pass with a {@link JsonReader}, so the values go straight into the column
+     * storage without building a JSON tree first.</p>
+     */
     public DataSet parseDataSet(String json) {
         var dataSet = DataSetFactory.newEmptyDataSet();
 
@@ -94,19 +105,16 @@ public class ExternalDataSetJSONParser {
             var trimedJson = json.trim();
             if (trimedJson.startsWith(OBJECT_START_TOKEN)) {
                 try {
-                    JsonObject dataSetObject = Json.instance().parse(json);
-                    var values = dataSetObject.getArray(VALUES);
-                    addColumns(dataSet, dataSetObject);
-                    addValues(dataSet, values);
+                    readDataSetObject(dataSet, new JsonReader(json));
                 } catch (ClassCastException e) {
                     throw new IllegalArgumentException("DataSet JSON is invalid. Expected an array of data columns", e);
                 }
 
             } else if (trimedJson.startsWith(ARRAY_START_TOKEN)) {
                 try {
-                    JsonArray dataSetArray = Json.instance().parse(json);
-                    fillDataSetColumns(dataSet, dataSetArray);
-                    addValues(dataSet, dataSetArray);
+                    var reader = new JsonReader(json);
+                    reader.next();
+                    readRows(dataSet, reader, true);
                 } catch (Exception e) {
                     throw new IllegalArgumentException(
                             "DataSet JSON is invalid. Please check that the data is in correct format.", e);
@@ -129,22 +137,6 @@ public class ExternalDataSetJSONParser {
         return resultArray.toJson();
     }
 
-    private void fillDataSetColumns(DataSet dataSet, JsonArray dataSetArray) {
-        if (dataSetArray != null && dataSetArray.length() > 0) {
-            var row = dataSetArray;
-            var isMatrix = dataSetArray.get(0).getType() == JsonType.ARRAY;
-            if (isMatrix) {
-                row = dataSetArray.getArray(0);
-            }
-            for (int i = 0; i < row.length(); i++) {
-                var columnId = COLUMN_PREFIX + i;
-                var value = row.get(i).asString();
-                var type = findValueType(value);
-                dataSet.addColumn(columnId, type);
-            }
-        }
-    }
-
     public void addColumns(DataSet dataSet, JsonObject dataSetObject) {
         var columnsArray = dataSetObject.getArray(COLUMNS);
         if (columnsArray != null) {
@@ -189,6 +181,105 @@ public class ExternalDataSetJSONParser {
         }
     }
 
+    private void readDataSetObject(DataSet dataSet, JsonReader reader) {
+        JsonArray pendingValues = null;
+        reader.next();
+        while (reader.next() == Token.NAME) {
+            var name = reader.getString();
+            if (COLUMNS.equals(name) && reader.peek() != Token.NULL) {
+                expectArray(reader);
+                while (reader.peek() != Token.END_ARRAY) {
+                    var dataColumn = (JsonObject) reader.nextValue();
+                    dataSet.addColumn(getColumnId(dataColumn), getColumnType(dataColumn));
+                }
+                reader.next();
+            } else if (VALUES.equals(name) && reader.peek() != Token.NULL) {
+                if (dataSet.getColumns().isEmpty()) {
+                    // columns may come after the values
+                    pendingValues = (JsonArray) reader.nextValue();
+                } else {
+                    expectArray(reader);
+                    readRows(dataSet, reader, false);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        if (pendingValues != null) {
+            addValues(dataSet, pendingValues);
+        }
+    }
+
+    private void expectArray(JsonReader reader) {
+        if (reader.next() != Token.BEGIN_ARRAY) {
+            throw new ClassCastException("Expected an array");
+        }
+    }
+
+    /**
+     * Reads the rows of the array just opened, either a matrix or a single row. The columns are created out of the
+     * first row if requested.
+     */
+    private void readRows(DataSet dataSet, JsonReader reader, boolean createColumns) {
+        var writers = new ArrayList<ColumnWriter>();
+        if (!createColumns) {
+            for (int i = 0; i < dataSet.getColumns().size(); i++) {
+                writers.add(new ColumnWriter(dataSet, i));
+            }
+        }
+        var firstToken = reader.peek();
+        if (firstToken == Token.END_ARRAY) {
+            // no rows
+            reader.next();
+            return;
+        }
+        if (firstToken != Token.BEGIN_ARRAY) {
+            // a single row of values
+            readRow(dataSet, reader, writers, createColumns);
+            return;
+        }
+        var first = true;
+        for (var token = reader.next(); token != Token.END_ARRAY; token = reader.next()) {
+            if (token != Token.BEGIN_ARRAY) {
+                throw new ClassCastException("Expected an array of values per row");
+            }
+            readRow(dataSet, reader, writers, createColumns && first);
+            first = false;
+        }
+    }
+
+    private void readRow(DataSet dataSet, JsonReader reader, List<ColumnWriter> writers, boolean createColumns) {
+        var j = 0;
+        for (var token = reader.peek(); token != Token.END_ARRAY; token = reader.peek(), j++) {
+            if (!createColumns && j >= writers.size()) {
+                throw new IllegalArgumentException(writers.isEmpty() ? "DataSet is missing columns." :
+                        "Row has more values than columns (" + writers.size() + ")");
+            }
+            if (token == Token.BEGIN_ARRAY || token == Token.BEGIN_OBJECT) {
+                var value = reader.nextValue();
+                if (createColumns) {
+                    writers.add(newColumn(dataSet, j, value.asString()));
+                }
+                writers.get(j).write(value);
+            } else {
+                reader.next();
+                if (createColumns) {
+                    writers.add(newColumn(dataSet, j, reader.getString()));
+                }
+                writers.get(j).write(reader);
+            }
+        }
+        reader.next();
+        for (; j < writers.size(); j++) {
+            writers.get(j).writeNull();
+        }
+    }
+
+    private ColumnWriter newColumn(DataSet dataSet, int index, String firstValue) {
+        dataSet.addColumn(COLUMN_PREFIX + index, findValueType(firstValue));
+        return new ColumnWriter(dataSet, index);
+    }
+
     private ColumnType getColumnType(JsonObject column) {
         return Optional.ofNullable(column.getString(COLUMN_TYPE))
                 .map(ColumnType::getByName)
@@ -205,7 +296,7 @@ public class ExternalDataSetJSONParser {
             case DATE:
                 var valueStr = value.asString();
                 if (valueStr != null && valueStr.trim().isEmpty()) {
-                    return "";
+                    return null;
                 }
                 return convertToDate(value.asString());
             case NUMBER:
@@ -243,4 +334,66 @@ public class ExternalDataSetJSONParser {
         return dateParser.apply(value);
     }
 
+    /**
+     * Converts and appends the values of a column, either from the reader current value or from a JSON tree.
+     */
+    private class ColumnWriter {
+
+        private final DataSet dataSet;
+        private final DataColumn column;
+        private final int index;
+        private final List values;
+        private final PrimitiveColumnStorage storage;
+
+        ColumnWriter(DataSet dataSet, int index) {
+            this.dataSet = dataSet;
+            this.column = dataSet.getColumnByIndex(index);
+            this.index = index;
+            this.values = column.getValues();
+            this.storage = values instanceof PrimitiveColumnStorage && column.getColumnType() == ColumnType.NUMBER ?
+                    (PrimitiveColumnStorage) values : null;
+        }
+
+        void write(JsonReader reader) {
+            try {
+                switch (column.getColumnType()) {
+                    case DATE:
+                        var valueStr = reader.getString();
+                        values.add(valueStr.trim().isEmpty() ? null : convertToDate(valueStr));
+                        break;
+                    case NUMBER:
+                        var number = reader.getNumber();
+                        if (Double.isNaN(number)) {
+                            throw new IllegalArgumentException("Not a number: " + reader.getString());
+                        }
+                        if (storage != null) {
+                            storage.addDouble(number);
+                        } else {
+                            values.add(number);
+                        }
+                        break;
+                    default:
+                        values.add(reader.getString());
+                }
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Incompatible value " + reader.getString() + " for column " +
+                        column.getId(), e);
+            }
+        }
+
+        void write(JsonValue value) {
+            try {
+                var objectValue = convertJsonValue(value, column.getColumnType());
+                dataSet.setValueAt(values.size(), index, objectValue);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Incompatible value " + value.asString() + " for column " +
+                        column.getId(), e);
+            }
+        }
+
+        void writeNull() {
+            values.add(null);
+        }
+    }
+
 }
@@ -16,12 +16,13 @@
 package org.melviz.dataset.json;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 import org.melviz.dataset.def.ExternalDataSetDef;
 import org.melviz.dataset.def.ExternalServiceType;
 import org.melviz.dataset.def.HttpMethod;
+import org.melviz.dataset.def.JoinType;
 import org.melviz.json.Json;
 import org.melviz.json.JsonObject;
 
@@ -37,8 +38,12 @@ public class ExternalDefJSONMarshaller implements DataSetDefJSONMarshallerExt<Ex
     public static final String HEADERS = "headers";
     public static final String QUERY = "query";
     public static final String ACCUMULATE = "accumulate";
+    public static final String LABEL_COLUMNS = "labelColumns";
+    public static final String STALE_WHILE_REVALIDATE = "staleWhileRevalidate";
     public static final String TYPE = "type";
     public static final String JOIN = "join";
+    public static final String JOIN_TYPE = "joinType";
+    public static final String JOIN_ON = "joinOn";
     public static final String FORM = "form";
     public static final String METHOD = "method";
     public static final String PATH = "path";
@@ -52,10 +57,14 @@ public class ExternalDefJSONMarshaller implements DataSetDefJSONMarshallerExt<Ex
         var form = json.getObject(FORM);
         var query = json.getObject(QUERY);
         var accumulate = json.getBoolean(ACCUMULATE);
+        var labelColumns = json.getBoolean(LABEL_COLUMNS);
+        var staleWhileRevalidate = json.getBoolean(STALE_WHILE_REVALIDATE);
         var type = json.getString(TYPE);
         var path = json.getString(PATH);
         var method = json.getString(METHOD);
         var join = json.getArray(JOIN);
+        var joinType = json.getString(JOIN_TYPE);
+        var joinOn = json.getArray(JOIN_ON);
 
         if (!isBlank(url)) {
             def.setUrl(url);
@@ -97,13 +106,25 @@ public class ExternalDefJSONMarshaller implements DataSetDefJSONMarshallerExt<Ex
             def.setType(serviceType);
         }
 
-        def.setJoin(new HashSet<>());
+        def.setJoin(new LinkedHashSet<>());
         if (join != null) {
             for (var i = 0; i < join.length(); i++) {
                 def.getJoin().add(join.getString(i));
             }
-        }        
+        }
+
+        if (!isBlank(joinType)) {
+            def.setJoinType(JoinType.byName(joinType));
+        }
+
+        if (joinOn != null) {
+            for (var i = 0; i < joinOn.length(); i++) {
+                def.getJoinOn().add(joinOn.getString(i));
+            }
+        }
         def.setAccumulate(accumulate);
+        def.setLabelColumns(labelColumns);
+        def.setStaleWhileRevalidate(staleWhileRevalidate);
     }
 
     @Override
@@ -113,6 +134,14 @@ public class ExternalDefJSONMarshaller implements DataSetDefJSONMarshallerExt<Ex
         json.put(CONTENT, def.getContent());
         json.put(ACCUMULATE, def.isAccumulate());
 
+        if (def.isLabelColumns()) {
+            json.put(LABEL_COLUMNS, true);
+        }
+
+        if (def.isStaleWhileRevalidate()) {
+            json.put(STALE_WHILE_REVALIDATE, true);
+        }
+
         if (def.getType() != null) {
             json.put(TYPE, def.getType().name());
         }
@@ -147,6 +176,18 @@ public class ExternalDefJSONMarshaller implements DataSetDefJSONMarshallerExt<Ex
             }
             json.set(JOIN, join);
         }
+
+        if (def.getJoinType() != null && def.getJoinType() != JoinType.UNION) {
+            json.put(JOIN_TYPE, def.getJoinType().name());
+        }
+
+        if (def.getJoinOn() != null && !def.getJoinOn().isEmpty()) {
+            var joinOn = Json.createArray();
+            for (var i = 0; i < def.getJoinOn().size(); i++) {
+                joinOn.set(i, def.getJoinOn().get(i));
+            }
+            json.set(JOIN_ON, joinOn);
+        }
     }
 
     private JsonObject mapToObject(Map<String, String> map) {
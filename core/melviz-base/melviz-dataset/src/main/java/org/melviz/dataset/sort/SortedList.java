@@ -18,6 +18,8 @@ package org.melviz.dataset.sort;
 import java.util.AbstractList;
 import java.util.List;
 
+import org.melviz.dataset.engine.IntRowSet;
+
 /**
  * An unmodifiable list which provides a lightweight read-only access to an existing list but applying a pre-established order.
  * <p>The order is specified by a list of integers containing the order of the elements.</p>
@@ -40,6 +42,7 @@ public class SortedList extends AbstractList {
 
     public int row(int index) {
         if (index >= rows.size()) return -1;
+        if (rows instanceof IntRowSet) return ((IntRowSet) rows).getRow(index);
         return rows.get(index);
     }
 
@@ -0,0 +1,85 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntRowSetTest {
+
+    @Test
+    public void testAddRows() {
+        IntRowSet rows = new IntRowSet();
+        for (int i = 0; i < 100; i++) {
+            rows.addRow(i * 2);
+        }
+        assertEquals(100, rows.size());
+        assertEquals(198, rows.getRow(99));
+        assertEquals(Integer.valueOf(10), rows.get(5));
+        assertTrue(rows.contains(4));
+        assertFalse(rows.contains(5));
+    }
+
+    @Test
+    public void testListAdapter() {
+        List<Integer> list = Arrays.asList(3, 1, 2);
+        IntRowSet rows = IntRowSet.of(list);
+        assertEquals(list, rows);
+        assertSame(rows, IntRowSet.of(rows));
+        assertNull(IntRowSet.of(null));
+
+        rows.add(0, 7);
+        rows.remove(2);
+        assertEquals(Arrays.asList(7, 3, 2), rows);
+    }
+
+    @Test
+    public void testRangeAndReverse() {
+        IntRowSet rows = IntRowSet.range(2, 6);
+        assertArrayEquals(new int[]{2, 3, 4, 5}, rows.toIntArray());
+        assertArrayEquals(new int[]{5, 4, 3, 2}, rows.reverse().toIntArray());
+        assertTrue(rows.isAscending());
+        assertFalse(rows.reverse().isAscending());
+    }
+
+    @Test
+    public void testIntersect() {
+        IntRowSet a = IntRowSet.of(Arrays.asList(1, 3, 5, 7, 9));
+        IntRowSet b = IntRowSet.of(Arrays.asList(3, 4, 5, 9, 10));
+        assertArrayEquals(new int[]{3, 5, 9}, a.intersect(b).toIntArray());
+
+        IntRowSet unsorted = IntRowSet.of(Arrays.asList(9, 2, 5, 3));
+        assertArrayEquals(new int[]{9, 5, 3}, unsorted.intersect(b).toIntArray());
+        assertEquals(0, unsorted.intersect(new IntRowSet()).size());
+    }
+
+    @Test
+    public void testAddAll() {
+        IntRowSet a = IntRowSet.range(0, 3);
+        a.addAll(IntRowSet.range(10, 12));
+        a.addAll(Arrays.asList(20));
+        assertArrayEquals(new int[]{0, 1, 2, 10, 11, 20}, a.toIntArray());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.filter;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.filter.CoreFunctionFilter;
+import org.melviz.dataset.filter.CoreFunctionType;
+import org.melviz.dataset.impl.DataSetImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoreFunctionTest {
+
+    static final long DAY = 24 * 60 * 60 * 1000L;
+
+    DataSetImpl dataSet;
+    DataSetFilterContext context;
+
+    @Before
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        dataSet = new DataSetImpl();
+        dataSet.addColumn("label", ColumnType.LABEL);
+        dataSet.addColumn("number", ColumnType.NUMBER);
+        dataSet.addColumn("date", ColumnType.DATE);
+        dataSet.addValues("Barcelona", 1d, new Date(now - 10 * DAY));
+        dataSet.addValues("Madrid", 2.5d, new Date(now - DAY));
+        dataSet.addValues(null, null, null);
+        dataSet.addValues("London", -0d, new Date(now + DAY));
+        dataSet.addValues("barcelona.es", 1000d, new Date(now + 10 * DAY));
+        dataSet.addValues("Line\nbreak", 5d, new Date(now));
+        context = new DataSetFilterContext(dataSet);
+    }
+
+    @Test
+    public void testCompiledMatchesEvaluation() {
+        Date now = new Date();
+        assertSameResults("label", CoreFunctionType.IS_NULL);
+        assertSameResults("number", CoreFunctionType.NOT_NULL);
+        assertSameResults("label", CoreFunctionType.EQUALS_TO, "Madrid", "London");
+        assertSameResults("number", CoreFunctionType.EQUALS_TO, 2.5d, 0, "1000.0");
+        assertSameResults("number", CoreFunctionType.IN, 1, null);
+        assertSameResults("label", CoreFunctionType.NOT_IN, "Madrid");
+        assertSameResults("number", CoreFunctionType.NOT_EQUALS_TO, 5);
+        assertSameResults("number", CoreFunctionType.GREATER_THAN, 1d);
+        assertSameResults("number", CoreFunctionType.GREATER_OR_EQUALS_TO, 1d);
+        assertSameResults("number", CoreFunctionType.LOWER_THAN, 2.5d);
+        assertSameResults("number", CoreFunctionType.LOWER_OR_EQUALS_TO, 2.5d);
+        assertSameResults("number", CoreFunctionType.BETWEEN, 0d, 5d);
+        assertSameResults("number", CoreFunctionType.BETWEEN, null, 5d);
+        assertSameResults("date", CoreFunctionType.GREATER_THAN, now);
+        assertSameResults("date", CoreFunctionType.BETWEEN, new Date(now.getTime() - 2 * DAY), now);
+        assertSameResults("date", CoreFunctionType.TIME_FRAME, "begin[year] till end[year]");
+        assertSameResults("label", CoreFunctionType.LOWER_THAN, "M");
+    }
+
+    @Test
+    public void testLikeTo() {
+        assertSameResults("label", CoreFunctionType.LIKE_TO, "%celona%");
+        assertSameResults("label", CoreFunctionType.LIKE_TO, "%CELONA%", "false");
+        assertSameResults("label", CoreFunctionType.LIKE_TO, "M_dri_");
+        assertSameResults("label", CoreFunctionType.LIKE_TO, "%.es");
+        assertSameResults("label", CoreFunctionType.LIKE_TO, "[BM]%");
+        assertSameResults("label", CoreFunctionType.LIKE_TO, "Line%");
+
+        assertTrue(LikePattern.matchWildcards("barcelona", "%a%a"));
+        assertFalse(LikePattern.matchWildcards("barcelona", "%a%a%a"));
+        assertTrue(LikePattern.matchWildcards("", "%"));
+        assertFalse(LikePattern.matchWildcards("", "_"));
+    }
+
+    @Test
+    public void testParameterSet() {
+        ParameterSet paramSet = new ParameterSet(Arrays.asList(1, "2", null));
+        assertTrue(paramSet.contains(1d));
+        assertTrue(paramSet.contains(1L));
+        assertTrue(paramSet.contains("1"));
+        assertTrue(paramSet.contains("2"));
+        assertFalse(paramSet.contains(2d));
+        assertTrue(paramSet.contains(null));
+        assertFalse(paramSet.contains("3"));
+    }
+
+    void assertSameResults(String columnId, CoreFunctionType type, Comparable... params) {
+        CoreFunctionFilter filter = new CoreFunctionFilter(columnId, type, params);
+        CoreFunction function = new CoreFunction(context, filter);
+        for (int row = 0; row < dataSet.getRowCount(); row++) {
+            context.setCurrentRow(row);
+            boolean expected = function.evaluate(type, function.getCurrentValue());
+            assertEquals(filter + " row " + row, expected, function.pass());
+        }
+    }
+}
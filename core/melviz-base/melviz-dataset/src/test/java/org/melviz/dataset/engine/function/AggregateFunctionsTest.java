@@ -25,6 +25,8 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.impl.NumberColumnStorage;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -390,4 +392,24 @@ public class AggregateFunctionsTest {
 
     }
 
+    @Test
+    public void testAccumulatorMatchesFunctions() {
+        NumberColumnStorage storage = new NumberColumnStorage();
+        storage.addAll(Arrays.asList(3.333d, null, -1d, 2.5d, -1d, 10d));
+        IntRowSet rows = IntRowSet.of(Arrays.asList(5, 0, 1, 2, 4));
+        AggregateAccumulator accumulator = new AggregateAccumulator(storage);
+        for (int i = 0; i < rows.size(); i++) {
+            accumulator.accumulate(rows.getRow(i));
+        }
+        List<AccumulableFunction> functions = Arrays.asList(new CountFunction(), new SumFunction(),
+                new AverageFunction(), new MinFunction(), new MaxFunction());
+        for (AccumulableFunction function : functions) {
+            assertEquals(function.getType().toString(), function.aggregate(storage, rows), function.aggregate(accumulator));
+        }
+
+        accumulator.reset();
+        for (AccumulableFunction function : functions) {
+            assertEquals(function.getType().toString(), function.aggregate(storage, new IntRowSet()), function.aggregate(accumulator));
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.group;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.engine.index.DataSetGroupIndex;
+import org.melviz.dataset.engine.index.DataSetIntervalIndex;
+import org.melviz.dataset.filter.DataSetFilter;
+import org.melviz.dataset.group.ColumnGroup;
+import org.melviz.dataset.group.DataSetGroup;
+import org.melviz.dataset.group.GroupStrategy;
+import org.melviz.dataset.group.Interval;
+import org.melviz.dataset.impl.DataColumnImpl;
+import org.melviz.dataset.impl.DataSetImpl;
+import org.melviz.dataset.sort.DataSetSort;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IntervalBuilderDynamicLabelTest {
+
+    @Test
+    public void testFirstSeenOrder() {
+        ColumnGroup columnGroup = new ColumnGroup("dept", "dept", GroupStrategy.DYNAMIC);
+        DataColumnImpl column = new DataColumnImpl("dept", ColumnType.LABEL);
+        column.setColumnGroup(columnGroup);
+        column.getValues().addAll(Arrays.asList("b", "a", null, "b", "c", null, "a"));
+
+        IntervalList intervals = new IntervalBuilderDynamicLabel().build(column);
+        assertEquals(4, intervals.size());
+        assertEquals("b", intervals.get(0).getName());
+        assertEquals("a", intervals.get(1).getName());
+        assertNull(intervals.get(2).getName());
+        assertEquals("c", intervals.get(3).getName());
+        assertArrayEquals(new int[]{0, 3}, intervals.get(0).getRows().toIntArray());
+        assertArrayEquals(new int[]{2, 5}, intervals.get(2).getRows().toIntArray());
+        assertSame(intervals.get(1), intervals.locateInterval("a"));
+        assertSame(intervals.get(2), intervals.locateInterval(null));
+        assertNull(intervals.locateInterval("d"));
+    }
+
+    @Test
+    public void testFewRowsOfBigDictionary() {
+        ColumnGroup columnGroup = new ColumnGroup("dept", "dept", GroupStrategy.DYNAMIC);
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("dept", ColumnType.LABEL);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addValues("L" + i % 50);
+        }
+        IntRowSet rows = IntRowSet.of(Arrays.asList(90, 5, 40, 55, 3));
+        DataSetHandler ctx = new DataSetHandler() {
+
+            public DataSet getDataSet() {
+                return dataSet;
+            }
+
+            public IntRowSet getRows() {
+                return rows;
+            }
+
+            public DataSetHandler group(DataSetGroup op) {
+                return this;
+            }
+
+            public DataSetHandler filter(DataSetFilter op) {
+                return this;
+            }
+
+            public DataSetHandler sort(DataSetSort op) {
+                return this;
+            }
+        };
+
+        IntervalList intervals = new IntervalBuilderDynamicLabel().build(ctx, columnGroup);
+        assertEquals(3, intervals.size());
+        assertEquals("L40", intervals.get(0).getName());
+        assertEquals("L5", intervals.get(1).getName());
+        assertEquals("L3", intervals.get(2).getName());
+        assertArrayEquals(new int[]{90, 40}, intervals.get(0).getRows().toIntArray());
+        assertArrayEquals(new int[]{5, 55}, intervals.get(1).getRows().toIntArray());
+        assertArrayEquals(new int[]{3}, intervals.get(2).getRows().toIntArray());
+        assertSame(intervals.get(1), intervals.locateInterval("L5"));
+    }
+
+    @Test
+    public void testGroupIndexLookup() {
+        ColumnGroup columnGroup = new ColumnGroup("dept", "dept", GroupStrategy.DYNAMIC);
+        DataColumnImpl column = new DataColumnImpl("dept", ColumnType.LABEL);
+        column.setColumnGroup(columnGroup);
+        column.getValues().addAll(Arrays.asList("b", "a", null, "b"));
+
+        IntervalList intervals = new IntervalBuilderDynamicLabel().build(column);
+        DataSetGroupIndex index = new DataSetGroupIndex(columnGroup, intervals);
+        assertEquals("a", index.getIntervalIndex("a").getName());
+        assertNull(index.getIntervalIndex(null).getName());
+        assertNull(index.getIntervalIndex("z"));
+
+        DataSetIntervalIndex extra = new DataSetIntervalIndex(index, new Interval("a"));
+        index.indexInterval(extra);
+        assertEquals(3, index.getIntervalIndexes().size());
+        assertEquals(1, index.indexOfIntervalIndex(extra));
+
+        index.indexInterval(new DataSetIntervalIndex(index, new Interval("z")));
+        assertEquals(3, index.indexOfIntervalIndex(index.getIntervalIndex("z")));
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.group;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.group.ColumnGroup;
+import org.melviz.dataset.group.GroupStrategy;
+import org.melviz.dataset.group.Interval;
+import org.melviz.dataset.impl.DataColumnImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalBuilderNumberTest {
+
+    IntervalBuilderNumber builder = new IntervalBuilderNumber();
+
+    @Test
+    public void testDistinctValuesByDefault() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.DYNAMIC),
+                1d, 2d, 1d, null));
+        assertEquals(3, intervals.size());
+        assertEquals("1.0", intervals.get(0).getName());
+        assertArrayEquals(new int[]{0, 2}, intervals.get(0).getRows().toIntArray());
+    }
+
+    @Test
+    public void testFixedWithoutIntervalSize() {
+        // As before histograms existed: one interval per distinct value
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 4, null),
+                1d, 2d, 1d, 7d, 9d, 3d, null));
+        assertEquals(6, intervals.size());
+        assertEquals("1.0", intervals.get(0).getName());
+        assertArrayEquals(new int[]{0, 2}, intervals.get(0).getRows().toIntArray());
+        assertNull(intervals.get(5).getName());
+        assertSame(intervals.get(3), intervals.locateInterval(9d));
+    }
+
+    @Test
+    public void testFixedCount() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 4, "COUNT"),
+                0d, 1d, 2.5d, 9.9d, 10d, null, 5d));
+        assertEquals("COUNT", intervals.getIntervalType());
+        assertEquals(0d, intervals.getMinValue());
+        assertEquals(10d, intervals.getMaxValue());
+        assertNames(intervals, "[0, 2.5)", "[2.5, 5)", "[5, 7.5)", "[7.5, 10]");
+        assertArrayEquals(new int[]{0, 1}, intervals.get(0).getRows().toIntArray());
+        assertArrayEquals(new int[]{2}, intervals.get(1).getRows().toIntArray());
+        assertArrayEquals(new int[]{6}, intervals.get(2).getRows().toIntArray());
+        assertArrayEquals(new int[]{3, 4}, intervals.get(3).getRows().toIntArray());
+        assertSame(intervals.get(3), intervals.locateInterval(10d));
+        assertNull(intervals.locateInterval(10.1d));
+        assertNull(intervals.locateInterval(null));
+    }
+
+    @Test
+    public void testFixedWidth() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.DYNAMIC, -1, "0.1"),
+                0.05d, 0.31d, 0.29d));
+        assertNames(intervals, "[0, 0.1)", "[0.1, 0.2)", "[0.2, 0.3)", "[0.3, 0.4)");
+        assertArrayEquals(new int[]{0}, intervals.get(0).getRows().toIntArray());
+        assertTrue(intervals.get(1).getRows().isEmpty());
+        assertArrayEquals(new int[]{2}, intervals.get(2).getRows().toIntArray());
+        assertArrayEquals(new int[]{1}, intervals.get(3).getRows().toIntArray());
+    }
+
+    @Test
+    public void testFixedWidthIsBounded() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, -1, "1"),
+                0d, 1e9d));
+        assertTrue(intervals.size() <= IntervalBuilderNumber.MAX_INTERVALS);
+        assertSame(intervals.get(0), intervals.locateInterval(0d));
+        assertSame(intervals.get(intervals.size() - 1), intervals.locateInterval(1e9d));
+    }
+
+    @Test
+    public void testLogScale() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 3, "log"),
+                1d, 5d, 10d, 150d, 1000d, 0d, -2d));
+        assertNames(intervals, "[-2, 0]", "[1, 10)", "[10, 100)", "[100, 1000]");
+        assertArrayEquals(new int[]{5, 6}, intervals.get(0).getRows().toIntArray());
+        assertArrayEquals(new int[]{0, 1}, intervals.get(1).getRows().toIntArray());
+        assertArrayEquals(new int[]{2}, intervals.get(2).getRows().toIntArray());
+        assertArrayEquals(new int[]{3, 4}, intervals.get(3).getRows().toIntArray());
+    }
+
+    @Test
+    public void testQuantiles() {
+        Double[] values = new Double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 2 == 0 ? i / 10d : 500d - i / 10d;
+        }
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 4, "QUANTILE"),
+                values));
+        assertEquals("QUANTILE", intervals.getIntervalType());
+        assertEquals(4, intervals.size());
+        for (Interval interval : intervals) {
+            assertEquals(250, interval.getRows().size(), 5);
+        }
+    }
+
+    @Test
+    public void testQuantilesOfLongTail() {
+        // Most of the values are small, as in latencies
+        Double[] values = new Double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < 900 ? 1 + i / 100d : 10 + (i - 900) * 100d;
+        }
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 4, "QUANTILE"),
+                values));
+        assertEquals(4, intervals.size());
+        for (Interval interval : intervals) {
+            assertEquals(250, interval.getRows().size(), 10);
+        }
+    }
+
+    @Test
+    public void testDescendingOrder() {
+        ColumnGroup columnGroup = new ColumnGroup("n", "n", GroupStrategy.FIXED, 2, "COUNT");
+        columnGroup.setAscendingOrder(false);
+        IntervalList intervals = builder.build(column(columnGroup, 0d, 10d));
+        assertNames(intervals, "[5, 10]", "[0, 5)");
+        assertEquals(0, intervals.get(0).getIndex());
+        assertSame(intervals.get(1), intervals.locateInterval(1d));
+    }
+
+    @Test
+    public void testSingleValue() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 5, "COUNT"),
+                3d, 3d));
+        assertNames(intervals, "[3, 3]");
+        assertEquals(2, intervals.get(0).getRows().size());
+    }
+
+    @Test
+    public void testInfiniteValues() {
+        Double[] values = {1d, 5d, 10d, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, -1, "10"),
+                values));
+        assertEquals(1d, intervals.getMinValue());
+        assertEquals(10d, intervals.getMaxValue());
+        assertNames(intervals, "[-Infinity, 10)", "[10, Infinity]");
+        assertArrayEquals(new int[]{0, 1, 4}, intervals.get(0).getRows().toIntArray());
+        assertArrayEquals(new int[]{2, 3}, intervals.get(1).getRows().toIntArray());
+        assertSame(intervals.get(1), intervals.locateInterval(Double.POSITIVE_INFINITY));
+
+        intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 3, "COUNT"), values));
+        assertNames(intervals, "[-Infinity, 4)", "[4, 7)", "[7, Infinity]");
+        assertArrayEquals(new int[]{2, 3}, intervals.get(2).getRows().toIntArray());
+
+        intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 1, "LOG"), values));
+        assertNames(intervals, "[-Infinity, 0]", "[1, Infinity]");
+        assertArrayEquals(new int[]{4}, intervals.get(0).getRows().toIntArray());
+        assertArrayEquals(new int[]{0, 1, 2, 3}, intervals.get(1).getRows().toIntArray());
+
+        intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 2, "QUANTILE"), values));
+        assertEquals(5, intervals.stream().mapToInt(interval -> interval.getRows().size()).sum());
+        assertTrue(intervals.get(0).getName().startsWith("[-Infinity"));
+        assertTrue(intervals.get(intervals.size() - 1).getName().endsWith("Infinity]"));
+    }
+
+    @Test
+    public void testInfiniteValuesOnly() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, -1, "10"),
+                Double.POSITIVE_INFINITY, null, Double.POSITIVE_INFINITY));
+        assertEquals(1, intervals.size());
+        assertArrayEquals(new int[]{0, 2}, intervals.get(0).getRows().toIntArray());
+    }
+
+    @Test
+    public void testHugeRange() {
+        Double[] values = {-Double.MAX_VALUE, 0d, Double.MAX_VALUE};
+        for (String intervalSize : new String[]{"1", "COUNT", "LOG", "QUANTILE"}) {
+            IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 4,
+                    intervalSize), values));
+            assertTrue(intervals.size() <= IntervalBuilderNumber.MAX_INTERVALS);
+            assertEquals(3, intervals.stream().mapToInt(interval -> interval.getRows().size()).sum());
+            assertSame(intervals.get(0), intervals.locateInterval(-Double.MAX_VALUE));
+            assertSame(intervals.get(intervals.size() - 1), intervals.locateInterval(Double.MAX_VALUE));
+            assertFalse(intervals.stream().anyMatch(interval -> interval.getName().contains("NaN")
+                    || interval.getName().contains("Infinity")));
+        }
+    }
+
+    @Test
+    public void testUnsupportedIntervalSize() {
+        IntervalList intervals = builder.build(column(new ColumnGroup("n", "n", GroupStrategy.FIXED, 5, "MONTH"),
+                3d, 4d, 3d));
+        assertEquals(2, intervals.size());
+        assertEquals("3.0", intervals.get(0).getName());
+    }
+
+    private DataColumnImpl column(ColumnGroup columnGroup, Double... values) {
+        DataColumnImpl column = new DataColumnImpl("n", ColumnType.NUMBER);
+        column.setColumnGroup(columnGroup);
+        column.getValues().addAll(Arrays.asList(values));
+        return column;
+    }
+
+    private void assertNames(IntervalList intervals, String... names) {
+        assertArrayEquals(names, intervals.stream().map(Interval::getName).toArray());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.index;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.engine.group.IntervalBuilderDynamicLabel;
+import org.melviz.dataset.filter.ColumnFilter;
+import org.melviz.dataset.filter.FilterFactory;
+import org.melviz.dataset.group.AggregateFunctionType;
+import org.melviz.dataset.group.ColumnGroup;
+import org.melviz.dataset.group.GroupStrategy;
+import org.melviz.dataset.impl.DataSetImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TransientDataSetIndexRegistryTest {
+
+    TransientDataSetIndexRegistry registry;
+    DataSetIndex index;
+
+    @Before
+    public void setUp() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.setUUID("test");
+        dataSet.addColumn("value", ColumnType.NUMBER);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addValues((double) i);
+        }
+        registry = new TransientDataSetIndexRegistry(() -> "uuid");
+        index = registry.put(dataSet);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        registry.setMaxEntries(4);
+        for (int i = 0; i < 4; i++) {
+            index.indexFilter(filter(i), IntRowSet.range(0, 10), 0);
+        }
+        assertNotNull(index.getFilterIndex(filter(0)));
+        assertEquals(0, registry.getStats().getEvictions());
+
+        // The budget is enforced as soon as an index is added
+        index.indexFilter(filter(4), IntRowSet.range(0, 10), 0);
+        assertEquals(3, index.getChildIndexes().size());
+        assertNotNull(index.getFilterIndex(filter(0)));
+        assertNull(index.getFilterIndex(filter(1)));
+        assertNull(index.getFilterIndex(filter(2)));
+        assertNotNull(index.getFilterIndex(filter(4)));
+
+        assertEquals(index, registry.get("test"));
+        DataSetIndexStats stats = registry.getStats();
+        assertEquals(3, stats.getEntries());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(1, stats.getHits());
+        assertTrue(stats.getEstimatedSize() > 3 * 10 * 4);
+    }
+
+    @Test
+    public void testEvictNestedIndexes() {
+        registry.setMaxEntries(2);
+        DataSetFilterIndex filterIndex = index.indexFilter(filter(0), IntRowSet.range(0, 10), 0);
+        filterIndex.indexGroup(new DataSetGroupIndex(new ColumnGroup("value", "value")));
+        assertEquals(2, registry.getStats().getEntries());
+
+        // The whole filter subtree goes away
+        index.indexFilter(filter(1), IntRowSet.range(0, 10), 0);
+        assertEquals(1, registry.getStats().getEntries());
+        assertEquals(1, registry.getStats().getEvictions());
+        assertNull(index.getFilterIndex(filter(0)));
+        assertNotNull(index.getFilterIndex(filter(1)));
+    }
+
+    @Test
+    public void testKeepAddedIndex() {
+        registry.setMaxEntries(2);
+        DataSetFilterIndex filterIndex = index.indexFilter(filter(0), IntRowSet.range(0, 10), 0);
+        index.indexFilter(filter(1), IntRowSet.range(0, 10), 0);
+        index.getFilterIndex(filter(1));
+
+        // The oldest index is the parent of the one added, so the other one goes away instead
+        DataSetGroupIndex groupIndex = filterIndex.indexGroup(new DataSetGroupIndex(new ColumnGroup("value", "value")));
+        assertNull(index.getFilterIndex(filter(1)));
+        assertEquals(filterIndex, index.getFilterIndex(filter(0)));
+        assertEquals(groupIndex, filterIndex.getGroupIndex(new ColumnGroup("value", "value")));
+    }
+
+    @Test
+    public void testEvictBySize() {
+        registry.setMaxSize(500);
+        index.indexFilter(filter(0), IntRowSet.range(0, 100), 0);
+        assertEquals(0, registry.getStats().getEvictions());
+
+        index.indexFilter(filter(1), IntRowSet.range(0, 10), 0);
+        assertEquals(1, registry.getStats().getEvictions());
+        assertNull(index.getFilterIndex(filter(0)));
+        assertNotNull(index.getFilterIndex(filter(1)));
+    }
+
+    @Test
+    public void testCostPolicy() {
+        registry.setEvictionPolicy(new DataSetIndexCostEvictionPolicy());
+        registry.setMaxEntries(2);
+        index.indexFilter(filter(0), IntRowSet.range(0, 10), 1000);
+        index.indexFilter(filter(1), IntRowSet.range(0, 10), 10);
+        index.indexFilter(filter(2), IntRowSet.range(0, 10), 100);
+
+        registry.get("test");
+        assertEquals(2, index.getChildIndexes().size());
+        assertNotNull(index.getFilterIndex(filter(0)));
+        assertNull(index.getFilterIndex(filter(1)));
+    }
+
+    ColumnFilter filter(int i) {
+        return FilterFactory.equalsTo("value", (double) i);
+    }
+
+    @Test
+    public void testPrependRows() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.setUUID("labels");
+        dataSet.addColumn("label", ColumnType.LABEL);
+        dataSet.addColumn("value", ColumnType.NUMBER);
+        for (String label : new String[]{"a", "b", "a", "c"}) {
+            dataSet.addValues(label, 1d);
+        }
+        DataSetIndex labelIndex = registry.put(dataSet);
+        ColumnGroup labelGroup = new ColumnGroup("label", "label", GroupStrategy.DYNAMIC);
+        ColumnGroup valueGroup = new ColumnGroup("value", "value", GroupStrategy.DYNAMIC);
+        DataSetGroupIndex groupIndex = labelIndex.indexGroup(buildGroupIndex(dataSet, labelGroup));
+        labelIndex.indexGroup(buildGroupIndex(dataSet, valueGroup));
+        labelIndex.indexFilter(filter(0), IntRowSet.range(0, 2), 0);
+        groupIndex.getIntervalIndex("a").indexAggValue("value", AggregateFunctionType.SUM, 2d, 0);
+        groupIndex.getIntervalIndex("b").indexAggValue("value", AggregateFunctionType.SUM, 1d, 0);
+
+        // No rows discarded
+        assertSame(labelIndex, registry.prepend("labels", rows("b", "d"), 10));
+        DataSetImpl prepended = (DataSetImpl) labelIndex.getDataSet();
+        assertEquals(Arrays.asList("b", "d", "a", "b", "a", "c"), prepended.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList("a", "b", "a", "c"), dataSet.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(groupIndex), labelIndex.getChildIndexes());
+        assertSameIntervals(buildGroupIndex(prepended, labelGroup), groupIndex);
+        assertEquals(2d, groupIndex.getIntervalIndex("a").getAggValue("value", AggregateFunctionType.SUM));
+        assertNull(groupIndex.getIntervalIndex("b").getAggValue("value", AggregateFunctionType.SUM));
+
+        // The oldest rows go away
+        assertEquals(groupIndex, registry.prepend("labels", rows("e", "a", "c"), 5).getGroupIndex(labelGroup));
+        DataSetImpl discarded = (DataSetImpl) labelIndex.getDataSet();
+        assertEquals(Arrays.asList("e", "a", "c", "b", "d"), discarded.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList("b", "d", "a", "b", "a", "c"), prepended.getColumnByIndex(0).getValues());
+        assertSameIntervals(buildGroupIndex(discarded, labelGroup), groupIndex);
+        assertNull(groupIndex.getIntervalIndex("a").getAggValue("value", AggregateFunctionType.SUM));
+
+        // Only the new rows are kept
+        registry.prepend("labels", rows("f", "f"), 0);
+        assertEquals(Arrays.asList("f", "f"), labelIndex.getDataSet().getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList("e", "a", "c", "b", "d"), discarded.getColumnByIndex(0).getValues());
+        assertNull(labelIndex.getGroupIndex(labelGroup));
+
+        assertNull(registry.prepend("missing", rows("a"), 5));
+    }
+
+    DataSetGroupIndex buildGroupIndex(DataSetImpl dataSet, ColumnGroup columnGroup) {
+        DataColumn column = dataSet.getColumnById(columnGroup.getSourceId()).get().cloneInstance();
+        column.setColumnGroup(columnGroup);
+        return new DataSetGroupIndex(columnGroup, new IntervalBuilderDynamicLabel().build(column));
+    }
+
+    DataSetImpl rows(String... labels) {
+        DataSetImpl rows = new DataSetImpl();
+        rows.addColumn("label", ColumnType.LABEL);
+        rows.addColumn("value", ColumnType.NUMBER);
+        for (String label : labels) {
+            rows.addValues(label, 1d);
+        }
+        return rows;
+    }
+
+    void assertSameIntervals(DataSetGroupIndex expected, DataSetGroupIndex actual) {
+        assertEquals(expected.getIntervalIndexes().size(), actual.getIntervalIndexes().size());
+        for (int i = 0; i < expected.getIntervalIndexes().size(); i++) {
+            DataSetIntervalIndex expectedInterval = expected.getIntervalIndexes().get(i);
+            DataSetIntervalIndex actualInterval = actual.getIntervalIndexes().get(i);
+            assertEquals(expectedInterval.getName(), actualInterval.getName());
+            assertEquals(expectedInterval.getRows(), actualInterval.getRows());
+            assertEquals(i, actualInterval.getIndex());
+            assertEquals(actualInterval, actual.getIntervalIndex(expectedInterval.getName()));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.engine.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.melviz.comparator.ComparatorUtils;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.impl.DataSetImpl;
+import org.melviz.dataset.sort.ColumnSort;
+import org.melviz.dataset.sort.SortOrder;
+
+import static org.junit.Assert.assertEquals;
+
+public class CollectionsDataSetSortTest {
+
+    static final long DAY = 24 * 60 * 60 * 1000L;
+
+    CollectionsDataSetSort sortAlgorithm = new CollectionsDataSetSort();
+    DataSetImpl dataSet;
+
+    @Before
+    public void setUp() {
+        dataSet = new DataSetImpl();
+        dataSet.addColumn("label", ColumnType.LABEL);
+        dataSet.addColumn("number", ColumnType.NUMBER);
+        dataSet.addColumn("date", ColumnType.DATE);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addValues(i % 7 == 0 ? null : "L" + (i * 31) % 10, (double) ((i * 17) % 13),
+                    i % 5 == 0 ? null : new Date(DAY * ((i * 7) % 11)));
+        }
+    }
+
+    @Test
+    public void testSortMatchesComparableOrder() {
+        assertSameAsCollectionsSort(new ColumnSort("label", SortOrder.ASCENDING));
+        assertSameAsCollectionsSort(new ColumnSort("number", SortOrder.DESCENDING));
+        assertSameAsCollectionsSort(new ColumnSort("date", SortOrder.ASCENDING));
+        assertSameAsCollectionsSort(new ColumnSort("date", SortOrder.DESCENDING),
+                new ColumnSort("label", SortOrder.DESCENDING), new ColumnSort("number", SortOrder.ASCENDING));
+
+        // Plain lists instead of column storages
+        for (DataColumn column : dataSet.getColumns()) {
+            column.setValues(new ArrayList<>(column.getValues()));
+        }
+        assertSameAsCollectionsSort(new ColumnSort("number", SortOrder.ASCENDING));
+        assertSameAsCollectionsSort(new ColumnSort("date", SortOrder.DESCENDING));
+    }
+
+    @Test
+    public void testOtherLabelValues() {
+        DataSetImpl booleans = new DataSetImpl();
+        booleans.addColumn("label", ColumnType.LABEL);
+        booleans.getColumnByIndex(0).getValues().addAll(Arrays.asList(true, null, false, true));
+
+        List<ColumnSort> sortList = Collections.singletonList(new ColumnSort("label", SortOrder.ASCENDING));
+        assertEquals(Arrays.asList(1, 2, 0, 3), sortAlgorithm.sort(booleans, sortList));
+    }
+
+    @Test
+    public void testSortRowSubset() {
+        List<Integer> rows = Arrays.asList(50, 3, 70, 14, 8, 21, 99, 0, 35, 42);
+        assertSameAsCollectionsSort(rows, new ColumnSort("label", SortOrder.ASCENDING));
+        assertSameAsCollectionsSort(rows, new ColumnSort("number", SortOrder.DESCENDING));
+        assertSameAsCollectionsSort(rows, new ColumnSort("date", SortOrder.ASCENDING),
+                new ColumnSort("label", SortOrder.DESCENDING));
+
+        for (DataColumn column : dataSet.getColumns()) {
+            column.setValues(new ArrayList<>(column.getValues()));
+        }
+        assertSameAsCollectionsSort(rows, new ColumnSort("label", SortOrder.DESCENDING));
+        assertSameAsCollectionsSort(rows, new ColumnSort("number", SortOrder.ASCENDING),
+                new ColumnSort("date", SortOrder.DESCENDING));
+    }
+
+    void assertSameAsCollectionsSort(ColumnSort... sortList) {
+        assertSameAsCollectionsSort(null, sortList);
+    }
+
+    void assertSameAsCollectionsSort(List<Integer> rows, ColumnSort... sortList) {
+        List<Integer> expected = new ArrayList<>();
+        if (rows != null) {
+            expected.addAll(rows);
+        } else {
+            for (int i = 0; i < dataSet.getRowCount(); i++) {
+                expected.add(i);
+            }
+        }
+        Collections.sort(expected, (row1, row2) -> {
+            for (ColumnSort columnSort : sortList) {
+                List values = dataSet.getColumnById(columnSort.getColumnId()).get().getValues();
+                int comp = ComparatorUtils.compare((Comparable) values.get(row1), (Comparable) values.get(row2),
+                        columnSort.getOrder().asInt());
+                if (comp != 0) {
+                    return comp;
+                }
+            }
+            return 0;
+        });
+        assertEquals(expected, sortAlgorithm.sort(dataSet, rows, Arrays.asList(sortList)));
+    }
+
+    @Test
+    public void testTopMatchesFullSort() {
+        assertSameAsFullSort(Collections.singletonList(new ColumnSort("number", SortOrder.ASCENDING)), null);
+        assertSameAsFullSort(Collections.singletonList(new ColumnSort("label", SortOrder.DESCENDING)), null);
+        assertSameAsFullSort(Arrays.asList(new ColumnSort("label", SortOrder.ASCENDING),
+                new ColumnSort("number", SortOrder.DESCENDING)), null);
+        assertSameAsFullSort(Collections.singletonList(new ColumnSort("number", SortOrder.DESCENDING)),
+                IntRowSet.range(0, 100).reverse());
+        assertSameAsFullSort(Collections.singletonList(new ColumnSort("label", SortOrder.ASCENDING)),
+                Arrays.asList(50, 3, 70, 14, 8, 21, 99));
+    }
+
+    @Test
+    public void testLimits() {
+        List<ColumnSort> sortList = Collections.singletonList(new ColumnSort("number", SortOrder.ASCENDING));
+        assertEquals(0, sortAlgorithm.sortTop(dataSet, null, sortList, 0).size());
+        assertEquals(100, sortAlgorithm.sortTop(dataSet, null, sortList, 1000).size());
+        assertEquals(0, sortAlgorithm.sortTop(dataSet, Collections.emptyList(), sortList, 5).size());
+    }
+
+    void assertSameAsFullSort(List<ColumnSort> sortList, List<Integer> rows) {
+        IntRowSet expected = sortAlgorithm.sort(dataSet, rows, sortList);
+        for (int limit : new int[]{1, 2, 5, 13, 50, expected.size() - 1, expected.size()}) {
+            IntRowSet top = sortAlgorithm.sortTop(dataSet, rows, sortList, limit);
+            assertEquals(expected.subList(0, Math.min(limit, expected.size())), top);
+        }
+    }
+}
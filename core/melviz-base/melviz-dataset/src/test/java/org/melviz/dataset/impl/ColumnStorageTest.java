@@ -0,0 +1,298 @@
+/*
+
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.engine.function.DistinctFunction;
+import org.melviz.dataset.engine.function.MaxFunction;
+import org.melviz.dataset.engine.function.MinFunction;
+import org.melviz.dataset.engine.function.SumFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnStorageTest {
+
+    @Test
+    public void testStorageByColumnType() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("label", ColumnType.LABEL);
+        dataSet.addColumn("number", ColumnType.NUMBER);
+        dataSet.addColumn("date", ColumnType.DATE);
+
+        assertTrue(dataSet.getColumnByIndex(0).getValues() instanceof LabelColumnStorage);
+        assertTrue(dataSet.getColumnByIndex(1).getValues() instanceof NumberColumnStorage);
+        assertTrue(dataSet.getColumnByIndex(2).getValues() instanceof DateColumnStorage);
+    }
+
+    @Test
+    public void testListView() {
+        NumberColumnStorage storage = new NumberColumnStorage(2);
+        storage.add(1d);
+        storage.add(null);
+        storage.add(3);
+        storage.add("4.5");
+
+        assertEquals(4, storage.size());
+        assertEquals(Arrays.asList(1d, null, 3d, 4.5d), storage);
+        assertTrue(storage.isNull(1));
+        assertEquals(1, storage.getNullCount());
+
+        storage.add(0, null);
+        assertEquals(Arrays.asList(null, 1d, null, 3d, 4.5d), storage);
+
+        storage.remove(1);
+        assertEquals(Arrays.asList(null, null, 3d, 4.5d), storage);
+
+        storage.set(0, 2d);
+        assertEquals(Arrays.asList(2d, null, 3d, 4.5d), storage);
+        assertEquals(1, storage.getNullCount());
+    }
+
+    @Test
+    public void testDateStorage() {
+        Date date = new Date();
+        DateColumnStorage storage = new DateColumnStorage();
+        storage.add(date);
+        storage.add(null);
+
+        assertEquals(date, storage.get(0));
+        assertEquals(date.getTime(), storage.getTime(0));
+        assertNull(storage.get(1));
+    }
+
+    @Test
+    public void testDateStorageInvalidValue() {
+        DateColumnStorage storage = new DateColumnStorage();
+        storage.add("not a date");
+        assertNull(storage.get(0));
+        assertEquals(1, storage.getNullCount());
+    }
+
+    @Test
+    public void testNumberStorageInvalidValue() {
+        NumberColumnStorage storage = new NumberColumnStorage();
+        storage.add("n/a");
+        storage.add(0, "1..2");
+        storage.add(new BigDecimal("2.5"));
+        assertEquals(Arrays.asList(null, null, 2.5d), storage);
+        assertEquals(2, storage.getNullCount());
+
+        storage.set(2, "");
+        assertEquals(Arrays.asList(null, null, null), storage);
+        storage.set(0, "7");
+        assertEquals(Arrays.asList(7d, null, null), storage);
+        assertEquals(2, storage.getNullCount());
+    }
+
+    @Test
+    public void testCloneAndTrim() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("number", ColumnType.NUMBER);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addValues(i % 10 == 0 ? null : (double) i);
+        }
+
+        DataSet clone = dataSet.cloneInstance();
+        assertTrue(clone.getColumnByIndex(0).getValues() instanceof NumberColumnStorage);
+        assertEquals(dataSet.getColumnByIndex(0).getValues(), clone.getColumnByIndex(0).getValues());
+
+        DataSet trimmed = dataSet.trim(8, 4);
+        assertEquals(Arrays.asList(8d, 9d, null, 11d), trimmed.getColumnByIndex(0).getValues());
+
+        trimmed = dataSet.trim(Arrays.asList(20, 21, 99));
+        assertEquals(Arrays.asList(null, 21d, 99d), trimmed.getColumnByIndex(0).getValues());
+    }
+
+    @Test
+    public void testLabelStorage() {
+        LabelColumnStorage storage = new LabelColumnStorage();
+        storage.addAll(Arrays.asList("a", "b", null, "a"));
+        assertEquals(Arrays.asList("a", "b", null, "a"), storage);
+        assertEquals(2, storage.getDictionary().size());
+        assertEquals(storage.getCode(0), storage.getCode(3));
+        assertTrue(storage.isNull(2));
+        assertEquals(1, storage.getNullCount());
+
+        storage.add(1, "c");
+        storage.remove(3);
+        storage.set(0, null);
+        assertEquals(Arrays.asList(null, "c", "b", "a"), storage);
+        assertEquals(1, storage.getNullCount());
+        assertEquals(3, storage.getDictionary().size());
+        assertEquals(LabelDictionary.NULL_CODE, storage.getDictionary().lookup("d"));
+    }
+
+    @Test
+    public void testLabelCompact() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("label", ColumnType.LABEL);
+        for (int i = 0; i < 100; i++) {
+            dataSet.addValues("L" + i);
+        }
+        DataSetImpl rows = new DataSetImpl();
+        rows.addColumn("label", ColumnType.LABEL);
+        rows.addValues("L7");
+        rows.addValues((Object) null);
+        rows.addValues("new");
+
+        // Most of the labels are gone along with the discarded rows
+        var values = (LabelColumnStorage) dataSet.prependRows(rows, 5).getColumnByIndex(0).getValues();
+        assertEquals(Arrays.asList("L7", null, "new", "L0", "L1"), values);
+        assertEquals(4, values.getDictionary().size());
+        assertEquals(1, values.getNullCount());
+        assertEquals(100, dataSet.getRowCount());
+
+        // Only a few codes out of a big dictionary
+        var storage = new LabelColumnStorage();
+        for (int i = 0; i < 1000; i++) {
+            storage.add("L" + i % 500);
+        }
+        assertEquals(3d, new DistinctFunction().aggregate(storage, IntRowSet.of(Arrays.asList(3, 503, 9, 3, 40))));
+        assertEquals(500d, new DistinctFunction().aggregate(storage));
+    }
+
+    @Test
+    public void testPrependRows() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.setUUID("ticks");
+        dataSet.addColumn("label", ColumnType.LABEL);
+        dataSet.addColumn("number", ColumnType.NUMBER);
+        dataSet.addValues("a", 1d);
+        dataSet.addValues(null, null);
+
+        DataSet first = dataSet.prependRows(rows("b", 2d), 10);
+        DataSet second = first.prependRows(rows("c", null), 10);
+        DataSet third = second.prependRows(rows(null, 4d), 3);
+        assertEquals("ticks", third.getUUID());
+        assertEquals(Arrays.asList(null, "c", "b"), third.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(4d, null, 2d), third.getColumnByIndex(1).getValues());
+        assertEquals(1, ((NumberColumnStorage) third.getColumnByIndex(1).getValues()).getNullCount());
+        assertEquals(1, ((LabelColumnStorage) third.getColumnByIndex(0).getValues()).getNullCount());
+
+        // The data sets returned before are not changed
+        assertEquals(Arrays.asList("a", null), dataSet.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(1d, null), dataSet.getColumnByIndex(1).getValues());
+        assertEquals(Arrays.asList("b", "a", null), first.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList("c", "b", "a", null), second.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(null, 2d, 1d, null), second.getColumnByIndex(1).getValues());
+        assertEquals(2, ((NumberColumnStorage) second.getColumnByIndex(1).getValues()).getNullCount());
+
+        // Prepending to an older data set again must not overwrite the rows of the newer ones
+        DataSet other = first.prependRows(rows("d", 5d), 10);
+        assertEquals(Arrays.asList("d", "b", "a", null), other.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(5d, 2d, 1d, null), other.getColumnByIndex(1).getValues());
+        assertEquals(Arrays.asList("c", "b", "a", null), second.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(null, 2d, 1d, null), second.getColumnByIndex(1).getValues());
+
+        // Neither are they by changes on the data sets sharing their storage
+        second.setValueAt(1, 0, "x");
+        second.setValueAt(1, 1, 7d);
+        second.addValuesAt(3, "y", 8d);
+        assertEquals(Arrays.asList(null, "c", "b"), third.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(4d, null, 2d), third.getColumnByIndex(1).getValues());
+        assertEquals(Arrays.asList("b", "a", null), first.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList(2d, 1d, null), first.getColumnByIndex(1).getValues());
+        assertEquals(Arrays.asList("c", "x", "a", "y", null), second.getColumnByIndex(0).getValues());
+    }
+
+    @Test
+    public void testPrependSharesStorage() {
+        var storage = new NumberColumnStorage();
+        for (int i = 0; i < 100; i++) {
+            storage.add((double) i);
+        }
+        ColumnStorage current = storage;
+        for (int i = 0; i < 50; i++) {
+            current = current.prepend(Arrays.asList(-1d - i), 99);
+        }
+        var previous = (NumberColumnStorage) current;
+        var next = (NumberColumnStorage) previous.prepend(Arrays.asList(-51d, -52d), 98);
+        // The new values are written before the ones of the previous storage, in the same array
+        assertSame(previous.values, next.values);
+        assertEquals(previous.offset - 2, next.offset);
+        assertEquals(100, next.size());
+        assertEquals(-51d, next.get(0));
+        assertEquals(-50d, next.get(2));
+        assertEquals(47d, next.get(99));
+        assertEquals(100, previous.size());
+        assertEquals(-50d, previous.get(0));
+        assertEquals(49d, previous.get(99));
+    }
+
+    DataSetImpl rows(Object label, Object number) {
+        DataSetImpl rows = new DataSetImpl();
+        rows.addColumn("label", ColumnType.LABEL);
+        rows.addColumn("number", ColumnType.NUMBER);
+        rows.addValues(label, number);
+        return rows;
+    }
+
+    @Test
+    public void testLabelTrim() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("label", ColumnType.LABEL);
+        for (int i = 0; i < 20; i++) {
+            dataSet.addValues(i % 5 == 0 ? null : "L" + i % 3);
+        }
+        var values = (LabelColumnStorage) dataSet.getColumnByIndex(0).getValues();
+
+        DataSet trimmed = dataSet.trim(4, 3);
+        var trimmedValues = (LabelColumnStorage) trimmed.getColumnByIndex(0).getValues();
+        assertEquals(Arrays.asList("L1", null, "L0"), trimmedValues);
+        assertSame(values.getDictionary(), trimmedValues.getDictionary());
+
+        trimmed = dataSet.trim(Arrays.asList(10, 2, 7));
+        assertEquals(Arrays.asList(null, "L2", "L1"), trimmed.getColumnByIndex(0).getValues());
+        assertEquals(3d, new DistinctFunction().aggregate(trimmed.getColumnByIndex(0).getValues()));
+        assertEquals(3d, new DistinctFunction().aggregate(values, IntRowSet.range(0, 3)));
+        assertEquals(values, dataSet.cloneInstance().getColumnByIndex(0).getValues());
+    }
+
+    @Test
+    public void testColumnTypeChange() {
+        DataColumnImpl column = new DataColumnImpl("number", ColumnType.NUMBER);
+        column.getValues().add(1d);
+        column.setColumnType(ColumnType.LABEL);
+        column.getValues().add("a");
+
+        assertFalse(column.getValues() instanceof ColumnStorage);
+        assertEquals(Arrays.asList(1d, "a"), column.getValues());
+    }
+
+    @Test
+    public void testAggregateFunctions() {
+        NumberColumnStorage storage = new NumberColumnStorage();
+        storage.addAll(Arrays.asList(3d, null, 1d, 2d));
+
+        assertEquals(6d, new SumFunction().aggregate(storage));
+        assertEquals(3d, new SumFunction().aggregate(storage, Arrays.asList(1, 2, 3)));
+        assertEquals(1d, new MinFunction().aggregate(storage));
+        assertEquals(2d, new MinFunction().aggregate(storage, Arrays.asList(0, 1, 3)));
+        assertEquals(3d, new MaxFunction().aggregate(storage));
+        assertNull(new MaxFunction().aggregate(storage, Arrays.asList(1)));
+    }
+}
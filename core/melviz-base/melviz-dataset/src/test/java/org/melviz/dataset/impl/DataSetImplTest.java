@@ -0,0 +1,80 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.dataset.impl;
+
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.group.AggregateFunctionType;
+import org.melviz.dataset.group.GroupFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class DataSetImplTest {
+
+    @Test
+    public void testGetColumnById() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("Dept", ColumnType.LABEL);
+        dataSet.addColumn("amount", ColumnType.NUMBER);
+
+        assertSame(dataSet.getColumnByIndex(0), dataSet.getColumnById("dept").orElseThrow());
+        assertSame(dataSet.getColumnByIndex(1), dataSet.getColumnById("AMOUNT").orElseThrow());
+        assertFalse(dataSet.getColumnById("other").isPresent());
+
+        dataSet.addColumn("other", ColumnType.LABEL);
+        assertSame(dataSet.getColumnByIndex(2), dataSet.getColumnById("other").orElseThrow());
+
+        dataSet.removeColumn("dept");
+        assertFalse(dataSet.getColumnById("dept").isPresent());
+        assertSame(dataSet.getColumnByIndex(0), dataSet.getColumnById("amount").orElseThrow());
+    }
+
+    @Test
+    public void testGetColumnByIdAfterChanges() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("a", ColumnType.LABEL);
+        dataSet.addColumn("b", ColumnType.NUMBER);
+        assertSame(dataSet.getColumnByIndex(0), dataSet.getColumnById("a").orElseThrow());
+
+        dataSet.getColumnByIndex(0).setId("c");
+        assertFalse(dataSet.getColumnById("a").isPresent());
+        assertSame(dataSet.getColumnByIndex(0), dataSet.getColumnById("C").orElseThrow());
+
+        // Changes made straight into the column list are detected as well
+        DataColumnImpl column = new DataColumnImpl("d", ColumnType.LABEL);
+        dataSet.getColumns().add(0, column);
+        assertSame(column, dataSet.getColumnById("d").orElseThrow());
+        dataSet.getColumns().remove(0);
+        assertFalse(dataSet.getColumnById("d").isPresent());
+    }
+
+    @Test
+    public void testGetColumnBySourceId() {
+        DataSetImpl dataSet = new DataSetImpl();
+        dataSet.addColumn("total", ColumnType.NUMBER);
+        dataSet.addColumn("amount", ColumnType.NUMBER);
+        dataSet.getColumnByIndex(0).setGroupFunction(new GroupFunction("amount", "total", AggregateFunctionType.SUM));
+
+        // The first column matching either its id or its source id wins
+        assertEquals("total", dataSet.getColumnById("amount").orElseThrow().getId());
+        assertEquals("total", dataSet.getColumnById("total").orElseThrow().getId());
+
+        dataSet.getColumnByIndex(0).setGroupFunction(null);
+        assertEquals("amount", dataSet.getColumnById("amount").orElseThrow().getId());
+    }
+}
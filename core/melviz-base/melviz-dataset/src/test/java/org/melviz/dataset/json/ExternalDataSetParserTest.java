@@ -259,6 +259,24 @@ public class ExternalDataSetParserTest {
                 dataset.getColumns().stream().map(DataColumn::getId).toArray());
     }
 
+    @Test
+    public void testParseEmptyValues() {
+        var dataset = parser.parseDataSet("{\"columns\":[{\"id\":\"a\",\"type\":\"number\"}],\"values\":[]}");
+        assertEquals(1, dataset.getColumns().size());
+        assertEquals(0, dataset.getRowCount());
+
+        dataset = parser.parseDataSet("{\"values\":[],\"columns\":[{\"id\":\"a\",\"type\":\"number\"}]}");
+        assertEquals(1, dataset.getColumns().size());
+        assertEquals(0, dataset.getRowCount());
+    }
+
+    @Test
+    public void testParseEmptyValuesWithoutColumns() {
+        var dataset = parser.parseDataSet("{\"values\":[]}");
+        assertEquals(0, dataset.getColumns().size());
+        assertEquals(0, dataset.getRowCount());
+    }
+
     @Test
     public void testParseEmptyDataSetArray() {
         var dataset = parser.parseDataSet("[ ]");
@@ -318,6 +336,31 @@ public class ExternalDataSetParserTest {
         assertEquals("[[\"A\",\"1.0\"],[\"B\",\"2.0\"]]", result);
     }
 
+    @Test
+    public void testParseDataSetObjectValuesFirst() {
+        var dataset = parser.parseDataSet("{\"values\": [[1, \"a\"], [2.5, null]], \"extra\": {\"x\": [1, {}]}, " +
+                "\"columns\": [{\"id\": \"n\", \"type\": \"NUMBER\"}, {\"id\": \"l\"}]}");
+        assertEquals(2, dataset.getRowCount());
+        assertArrayEquals(new Object[]{1.0, 2.5}, dataset.getColumnById("n").orElseThrow().getValues().toArray());
+        assertArrayEquals(new Object[]{"a", "null"}, dataset.getColumnById("l").orElseThrow().getValues().toArray());
+    }
+
+    @Test
+    public void testParseDataSetMatrixLiterals() {
+        var dataset = parser.parseDataSet("[[1, \"Line\\nbreak \\u0041\", true, [1, 2]], [1e3, 'single', false]]");
+        assertArrayEquals(new ColumnType[]{ColumnType.NUMBER, ColumnType.LABEL, ColumnType.LABEL, ColumnType.LABEL},
+                dataset.getColumns().stream().map(DataColumn::getColumnType).toArray());
+        assertArrayEquals(new Object[]{1.0, 1000.0}, dataset.getColumnByIndex(0).getValues().toArray());
+        assertArrayEquals(new Object[]{"Line\nbreak A", "single"}, dataset.getColumnByIndex(1).getValues().toArray());
+        assertArrayEquals(new Object[]{"true", "false"}, dataset.getColumnByIndex(2).getValues().toArray());
+        assertArrayEquals(new Object[]{"1, 2", null}, dataset.getColumnByIndex(3).getValues().toArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseMalformedDataSetArray() {
+        parser.parseDataSet("[[1, 2], 3]");
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testParseIncompatibleColumnDataSet() {
         parser.parseDataSet(DATASET_WITH_INCOMPATIBLE_VALUE);
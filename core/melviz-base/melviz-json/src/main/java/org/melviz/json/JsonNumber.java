@@ -62,6 +62,10 @@ public class JsonNumber implements JsonValue {
 
     @Override
     public String toJson() {
+        return format(number);
+    }
+
+    static String format(double number) {
         String toReturn = String.valueOf(number);
         if (toReturn.endsWith(".0")) {
             toReturn = toReturn.substring(0, toReturn.length() - 2);
@@ -0,0 +1,412 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.json;
+
+/**
+ * Pull reader walking a JSON document token by token, without building a {@link JsonValue} tree.
+ * <p>Scalar values are available through {@link #getString()}, {@link #getNumber()} and {@link #getBoolean()} right
+ * after the token is returned by {@link #next()} (or {@link #peek()}). They follow the same conversion rules as
+ * {@link JsonValue#asString()} and {@link JsonValue#asNumber()}, so a reader can be used in place of a parsed tree
+ * without any change in the resulting values.</p>
+ * <p>The reader is as lenient as {@link JsonFactory#parse(String)}: single quoted strings, unquoted names and
+ * <tt>undefined</tt> literals are accepted.</p>
+ */
+public class JsonReader {
+
+    /**
+     * The tokens of a JSON document.
+     */
+    public enum Token {
+        BEGIN_ARRAY,
+        END_ARRAY,
+        BEGIN_OBJECT,
+        END_OBJECT,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT;
+    }
+
+    private static final int INVALID_CHAR = -1;
+
+    private static final String STOPCHARS = ",:]}/\\\"[{;=#";
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int DANGLING_NAME = 6;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final StringBuilder buffer = new StringBuilder();
+    private final String json;
+    private final int length;
+    private int position = 0;
+
+    private int[] stack = new int[16];
+    private int depth = 1;
+
+    private Token peeked;
+    private Token token;
+    private String stringValue;
+    private double numberValue;
+    private boolean booleanValue;
+
+    public JsonReader(String json) {
+        this.json = json;
+        this.length = json.length();
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Get the next token without consuming it.
+     */
+    public Token peek() throws JsonException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    /**
+     * Consume the next token.
+     */
+    public Token next() throws JsonException {
+        var result = peek();
+        peeked = null;
+        return result;
+    }
+
+    /**
+     * The current name or scalar value as a string. Numbers, booleans and nulls are turned into its JSON literal.
+     */
+    public String getString() {
+        switch (token) {
+            case NAME:
+            case STRING:
+                return stringValue;
+            case NUMBER:
+                return JsonNumber.format(numberValue);
+            case BOOLEAN:
+                return Boolean.toString(booleanValue);
+            case NULL:
+                return "null";
+            default:
+                throw new JsonException("Not a scalar value: " + token);
+        }
+    }
+
+    /**
+     * The current scalar value as a number. Strings which are not numbers are read as <tt>NaN</tt>.
+     */
+    public double getNumber() {
+        switch (token) {
+            case NUMBER:
+                return numberValue;
+            case STRING:
+                if (stringValue.isEmpty()) {
+                    return 0.0;
+                }
+                try {
+                    return Double.parseDouble(stringValue);
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+            case BOOLEAN:
+                return booleanValue ? 1 : 0;
+            case NULL:
+                return 0;
+            default:
+                throw new JsonException("Not a scalar value: " + token);
+        }
+    }
+
+    public boolean getBoolean() {
+        if (token != Token.BOOLEAN) {
+            throw new JsonException("Not a boolean value: " + token);
+        }
+        return booleanValue;
+    }
+
+    /**
+     * Skip the next value, including all its nested values if it is an array or an object.
+     */
+    public void skipValue() throws JsonException {
+        var count = 0;
+        do {
+            switch (next()) {
+                case BEGIN_ARRAY:
+                case BEGIN_OBJECT:
+                    count++;
+                    break;
+                case END_ARRAY:
+                case END_OBJECT:
+                    count--;
+                    break;
+                case END_DOCUMENT:
+                    throw new JsonException("Unexpected end of document");
+                default:
+                    break;
+            }
+        } while (count > 0);
+    }
+
+    /**
+     * Read the next value as a tree. Meant for the small parts of a document that are easier to handle as a whole.
+     */
+    public JsonValue nextValue() throws JsonException {
+        switch (next()) {
+            case BEGIN_ARRAY:
+                var array = jsonFactory.createArray();
+                while (peek() != Token.END_ARRAY) {
+                    array.set(array.length(), nextValue());
+                }
+                next();
+                return array;
+            case BEGIN_OBJECT:
+                var object = jsonFactory.createObject();
+                while (next() == Token.NAME) {
+                    var name = stringValue;
+                    object.put(name, nextValue());
+                }
+                return object;
+            case STRING:
+                return jsonFactory.create(stringValue);
+            case NUMBER:
+                return jsonFactory.create(numberValue);
+            case BOOLEAN:
+                return jsonFactory.create(booleanValue);
+            case NULL:
+                return jsonFactory.createNull();
+            default:
+                throw new JsonException("Unexpected token: " + token);
+        }
+    }
+
+    private Token doPeek() {
+        switch (stack[depth - 1]) {
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return readValue();
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace() != INVALID_CHAR) {
+                    throw new JsonException("Unexpected content after the end of the document");
+                }
+                return token = Token.END_DOCUMENT;
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                return peekInArray();
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                return peekInObject();
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw new JsonException("Invalid object: expecting \":\"");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return readValue();
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    private Token peekInArray() {
+        var c = nextNonWhitespace();
+        if (stack[depth - 1] == NONEMPTY_ARRAY) {
+            if (c == ',') {
+                c = nextNonWhitespace();
+            } else if (c != ']') {
+                throw new JsonException("Invalid array: expecting ] or ,");
+            }
+        }
+        if (c == ']') {
+            depth--;
+            return token = Token.END_ARRAY;
+        }
+        position--;
+        stack[depth - 1] = NONEMPTY_ARRAY;
+        return readValue();
+    }
+
+    private Token peekInObject() {
+        var c = nextNonWhitespace();
+        if (stack[depth - 1] == NONEMPTY_OBJECT) {
+            if (c == ',') {
+                c = nextNonWhitespace();
+            } else if (c != '}') {
+                throw new JsonException("Invalid object: expecting } or ,");
+            }
+        }
+        if (c == '}') {
+            depth--;
+            return token = Token.END_OBJECT;
+        }
+        if (c == '"' || c == '\'') {
+            stringValue = readString((char) c);
+        } else if (c != INVALID_CHAR) {
+            position--;
+            stringValue = readLiteral();
+            if (stringValue.isEmpty()) {
+                throw new JsonException("Invalid object: expecting a name");
+            }
+        } else {
+            throw new JsonException("Unexpected end of document");
+        }
+        stack[depth - 1] = DANGLING_NAME;
+        return token = Token.NAME;
+    }
+
+    private Token readValue() {
+        var c = nextNonWhitespace();
+        switch (c) {
+            case INVALID_CHAR:
+                throw new JsonException("Unexpected end of document");
+            case '"':
+            case '\'':
+                stringValue = readString((char) c);
+                return token = Token.STRING;
+            case '[':
+                push(EMPTY_ARRAY);
+                return token = Token.BEGIN_ARRAY;
+            case '{':
+                push(EMPTY_OBJECT);
+                return token = Token.BEGIN_OBJECT;
+            default:
+                position--;
+                return token = readLiteralValue();
+        }
+    }
+
+    private Token readLiteralValue() {
+        var literal = readLiteral();
+        if (literal.isEmpty()) {
+            throw new JsonException("Missing value");
+        }
+        if ("null".equals(literal) || "undefined".equals(literal)) {
+            return Token.NULL;
+        }
+        if ("true".equals(literal) || "false".equals(literal)) {
+            booleanValue = "true".equals(literal);
+            return Token.BOOLEAN;
+        }
+        var c = literal.charAt(0);
+        if (c == '-' || Character.isDigit(c)) {
+            try {
+                numberValue = Double.parseDouble(literal);
+                return Token.NUMBER;
+            } catch (NumberFormatException e) {
+                throw new JsonException("Invalid number literal: " + literal);
+            }
+        }
+        throw new JsonException("Invalid literal: \"" + literal + "\"");
+    }
+
+    private String readLiteral() {
+        var start = position;
+        while (position < length) {
+            var c = json.charAt(position);
+            if (Character.isWhitespace(c) || STOPCHARS.indexOf(c) >= 0) {
+                break;
+            }
+            position++;
+        }
+        return json.substring(start, position);
+    }
+
+    /**
+     * Strings without escape sequences are taken as substrings of the document, so the buffer is only used for
+     * the escaped ones.
+     */
+    private String readString(char quote) {
+        var start = position;
+        var buffered = false;
+        while (position < length) {
+            var c = json.charAt(position++);
+            if (c == quote) {
+                return buffered ? buffer.toString() : json.substring(start, position - 1);
+            }
+            if (c == '\r' || c == '\n') {
+                throw new JsonException("Unterminated string");
+            }
+            if (c == '\\') {
+                if (!buffered) {
+                    buffer.setLength(0);
+                    buffer.append(json, start, position - 1);
+                    buffered = true;
+                }
+                buffer.append(readEscaped());
+            } else if (buffered) {
+                buffer.append(c);
+            }
+        }
+        throw new JsonException("Unterminated string");
+    }
+
+    private char readEscaped() {
+        if (position >= length) {
+            throw new JsonException("Unterminated string");
+        }
+        var c = json.charAt(position++);
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                if (position + 4 > length) {
+                    throw new JsonException("Unterminated escape sequence");
+                }
+                var code = json.substring(position, position + 4);
+                position += 4;
+                try {
+                    return (char) Integer.parseInt(code, 16);
+                } catch (NumberFormatException e) {
+                    throw new JsonException("Invalid escape sequence: \\u" + code);
+                }
+            default:
+                return c;
+        }
+    }
+
+    private int nextNonWhitespace() {
+        while (position < length) {
+            var c = json.charAt(position++);
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+        }
+        return INVALID_CHAR;
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            var newStack = new int[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = context;
+    }
+}
@@ -59,7 +59,8 @@ public class ClientDataSetCore extends AbstractDataSetCore {
             clientIntervalBuilderLocator = new ClientIntervalBuilderLocator(
                     checkNotNull(getIntervalBuilderDynamicLabel(), "IntervalBuilderDynamicLabel"),
                     checkNotNull(getClientIntervalBuilderDynamicDate(), "ClientIntervalBuilderDynamicDate"),
-                    checkNotNull(getIntervalBuilderFixedDate(), "IntervalBuilderFixedDate"));
+                    checkNotNull(getIntervalBuilderFixedDate(), "IntervalBuilderFixedDate"),
+                    checkNotNull(getIntervalBuilderNumber(), "IntervalBuilderNumber"));
         }
         return clientIntervalBuilderLocator;
     }
@@ -16,6 +16,9 @@
  */
 package org.melviz.dataset.client;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.enterprise.context.ApplicationScoped;
 
 import org.melviz.common.client.StringUtils;
@@ -35,8 +38,26 @@ import org.melviz.dataset.engine.index.DataSetIndex;
 @ApplicationScoped
 public class ClientDataSetManager implements DataSetManager {
 
+    public static final int DEFAULT_LOOKUP_CACHE_SIZE = 100;
+
     SharedDataSetOpEngine dataSetOpEngine;
 
+    /**
+     * Results of the latest lookups, least recently used first. Results are shared between callers, so they must
+     * be treated as read-only.
+     */
+    Map<DataSetLookup, LookupResult> lookupCache = new LinkedHashMap<DataSetLookup, LookupResult>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DataSetLookup, LookupResult> eldest) {
+            return size() > lookupCacheSize;
+        }
+    };
+
+    int lookupCacheSize = DEFAULT_LOOKUP_CACHE_SIZE;
+    int lookupCacheHits = 0;
+    int lookupCacheMisses = 0;
+
     public ClientDataSetManager() {
         this.dataSetOpEngine = ClientDataSetCore.get().getSharedDataSetOpEngine();
     }
@@ -60,12 +81,33 @@ public class ClientDataSetManager implements DataSetManager {
     @Override
     public void registerDataSet(DataSet dataSet) {
         if (dataSet != null) {
+            invalidateLookups(dataSet.getUUID());
             dataSetOpEngine.getIndexRegistry().put(dataSet);
         }
     }
 
+    /**
+     * Register a data set with new rows at the beginning of a registered one, which is left unchanged. Unlike
+     * registering a new data set, most of the indexes built so far are kept.
+     *
+     * @param uuid The data set identifier.
+     * @param rows A data set with the same columns holding the new rows.
+     * @param maxRows The max. number of rows to keep, the oldest (last) rows are discarded first. The new rows are
+     * always kept, so zero or negative means keeping only them.
+     * @return The new data set or null if not registered.
+     */
+    public DataSet prependDataSet(String uuid, DataSet rows, int maxRows) {
+        invalidateLookups(uuid);
+        DataSetIndex index = dataSetOpEngine.getIndexRegistry().prepend(uuid, rows, maxRows);
+        if (index == null) {
+            return null;
+        }
+        return index.getDataSet();
+    }
+
     @Override
     public DataSet removeDataSet(String uuid) {
+        invalidateLookups(uuid);
         DataSetIndex index = dataSetOpEngine.getIndexRegistry().remove(uuid);
         if (index == null) {
             return null;
@@ -86,15 +128,34 @@ public class ClientDataSetManager implements DataSetManager {
             return null;
         }
 
+        // Reuse the result of an identical lookup, as long as the data set has not been replaced since then
+        LookupResult cached = lookupCache.get(lookup);
+        if (cached != null && cached.dataSetIndex == dataSetIndex) {
+            lookupCacheHits++;
+            return cached.dataSet;
+        }
+        lookupCacheMisses++;
+
         DataSet dataSet = dataSetIndex.getDataSet();
 
         // Apply the list of operations specified (if any).
+        // When a page is requested a trailing sort only needs to find the rows up to the end of the page.
         if (!lookup.getOperationList().isEmpty()) {
-            dataSet = dataSetOpEngine.execute(uuid, lookup.getOperationList());
+            int rowLimit = lookup.getNumberOfRows() > 0 ? lookup.getRowOffset() + lookup.getNumberOfRows() : -1;
+            dataSet = dataSetOpEngine.execute(uuid, lookup.getOperationList(), rowLimit);
         }
 
         // Trim the data set as requested.
+        int rowCount = dataSet.getRowCountNonTrimmed();
         dataSet = dataSet.trim(lookup.getRowOffset(), lookup.getNumberOfRows());
+        if (dataSet.getRowCountNonTrimmed() < rowCount) {
+            dataSet.setRowCountNonTrimmed(rowCount);
+        }
+
+        if (lookupCacheSize > 0) {
+            // The caller may keep changing its lookup instance
+            lookupCache.put(lookup.cloneInstance(), new LookupResult(dataSetIndex, dataSet));
+        }
         return dataSet;
     }
 
@@ -107,5 +168,44 @@ public class ClientDataSetManager implements DataSetManager {
         return result;
     }
 
+    public int getLookupCacheHits() {
+        return lookupCacheHits;
+    }
+
+    public int getLookupCacheMisses() {
+        return lookupCacheMisses;
+    }
+
+    public int getLookupCacheSize() {
+        return lookupCacheSize;
+    }
+
+    /**
+     * Set the max number of lookup results to keep. Zero disables the cache.
+     */
+    public void setLookupCacheSize(int lookupCacheSize) {
+        this.lookupCacheSize = lookupCacheSize;
+        clearLookupCache();
+    }
+
+    public void clearLookupCache() {
+        lookupCache.clear();
+    }
+
+    protected void invalidateLookups(String uuid) {
+        if (uuid != null) {
+            lookupCache.keySet().removeIf(lookup -> uuid.equals(lookup.getDataSetUUID()));
+        }
+    }
 
+    static class LookupResult {
+
+        final DataSetIndex dataSetIndex;
+        final DataSet dataSet;
+
+        LookupResult(DataSetIndex dataSetIndex, DataSet dataSet) {
+            this.dataSetIndex = dataSetIndex;
+            this.dataSet = dataSet;
+        }
+    }
 }
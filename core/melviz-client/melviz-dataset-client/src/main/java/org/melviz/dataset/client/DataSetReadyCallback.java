@@ -23,8 +23,22 @@ import org.melviz.dataset.DataSet;
  */
 public interface DataSetReadyCallback {
 
+    int DEFAULT_PRIORITY = 0;
+
+    /**
+     * Priority of the callbacks whose result is shown straight away, e.g. displayers in the visible area.
+     */
+    int VISIBLE_PRIORITY = 10;
+
     void callback(DataSet dataSet);
     void notFound();
     boolean onError(ClientRuntimeError error);
 
+    /**
+     * When the data set has to be fetched, requests with a higher priority are sent first.
+     */
+    default int getPriority() {
+        return DEFAULT_PRIORITY;
+    }
+
 }
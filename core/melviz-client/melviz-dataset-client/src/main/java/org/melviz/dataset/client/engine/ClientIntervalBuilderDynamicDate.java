@@ -17,7 +17,6 @@ package org.melviz.dataset.client.engine;
 
 import java.util.Collections;
 import java.util.Date;
-import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -26,6 +25,7 @@ import org.melviz.dataset.DataColumn;
 import org.melviz.dataset.DataSet;
 import org.melviz.dataset.date.Quarter;
 import org.melviz.dataset.engine.DataSetHandler;
+import org.melviz.dataset.engine.IntRowSet;
 import org.melviz.dataset.engine.group.IntervalBuilder;
 import org.melviz.dataset.engine.group.IntervalList;
 import org.melviz.dataset.group.ColumnGroup;
@@ -84,7 +84,7 @@ public class ClientIntervalBuilderDynamicDate implements IntervalBuilder {
         DataSetSort sortOp = new DataSetSort();
         sortOp.addSortColumn(new ColumnSort(columnGroup.getSourceId(), SortOrder.ASCENDING));
         DataSetHandler sortResults = handler.sort(sortOp);
-        List<Integer> sortedRows = sortResults.getRows();
+        IntRowSet sortedRows = sortResults.getRows();
         if (sortedRows == null || sortedRows.isEmpty()) {
             return results;
         }
@@ -105,7 +105,7 @@ public class ClientIntervalBuilderDynamicDate implements IntervalBuilder {
         if (minDate == null || minDate.compareTo(maxDate) == 0) {
             IntervalDateRange interval = new IntervalDateRange(0, intervalType, minDate, maxDate);
             for (int row = 0; row < sortedValues.size(); row++)
-                interval.getRows().add(row);
+                interval.getRows().addRow(row);
             results.add(interval);
 
             results.setIntervalType(columnGroup.getIntervalSize());
@@ -135,11 +135,11 @@ public class ClientIntervalBuilderDynamicDate implements IntervalBuilder {
                     stop = true;
                 } else {
                     Date dateValue = (Date) sortedValues.get(index);
-                    Integer row = sortedRows.get(index);
+                    int row = sortedRows.getRow(index);
                     if (dateValue == null) {
                         index++;
                     } else if (dateValue.before(intervalMaxDate)) {
-                        interval.getRows().add(row);
+                        interval.getRows().addRow(row);
                         index++;
                     } else {
                         stop = true;
@@ -24,6 +24,7 @@ import org.melviz.dataset.engine.group.IntervalBuilder;
 import org.melviz.dataset.engine.group.IntervalBuilderDynamicLabel;
 import org.melviz.dataset.engine.group.IntervalBuilderFixedDate;
 import org.melviz.dataset.engine.group.IntervalBuilderLocator;
+import org.melviz.dataset.engine.group.IntervalBuilderNumber;
 import org.melviz.dataset.group.GroupStrategy;
 
 @ApplicationScoped
@@ -32,6 +33,7 @@ public class ClientIntervalBuilderLocator implements IntervalBuilderLocator {
     IntervalBuilderDynamicLabel intervalBuilderDynamicLabel;
     ClientIntervalBuilderDynamicDate intervalBuilderDynamicDate;
     IntervalBuilderFixedDate intervalBuilderFixedDate;
+    IntervalBuilderNumber intervalBuilderNumber;
 
     public ClientIntervalBuilderLocator() {
     }
@@ -39,11 +41,13 @@ public class ClientIntervalBuilderLocator implements IntervalBuilderLocator {
     @Inject
     public ClientIntervalBuilderLocator(IntervalBuilderDynamicLabel intervalBuilderDynamicLabel,
                                         ClientIntervalBuilderDynamicDate intervalBuilderDynamicDate,
-                                        IntervalBuilderFixedDate intervalBuilderFixedDate) {
+                                        IntervalBuilderFixedDate intervalBuilderFixedDate,
+                                        IntervalBuilderNumber intervalBuilderNumber) {
 
         this.intervalBuilderDynamicLabel = intervalBuilderDynamicLabel;
         this.intervalBuilderDynamicDate = intervalBuilderDynamicDate;
         this.intervalBuilderFixedDate = intervalBuilderFixedDate;
+        this.intervalBuilderNumber = intervalBuilderNumber;
     }
 
     public IntervalBuilder lookup(ColumnType columnType, GroupStrategy strategy) {
@@ -57,7 +61,8 @@ public class ClientIntervalBuilderLocator implements IntervalBuilderLocator {
             return intervalBuilderDynamicDate;
         }
         if (ColumnType.NUMBER.equals(columnType)) {
-            return intervalBuilderDynamicLabel;
+            if (GroupStrategy.CUSTOM.equals(strategy)) return intervalBuilderDynamicLabel;
+            return intervalBuilderNumber;
         }
         if (ColumnType.TEXT.equals(columnType)) {
             throw new IllegalArgumentException( CommonConstants.exc_text_columns_no_grouping());
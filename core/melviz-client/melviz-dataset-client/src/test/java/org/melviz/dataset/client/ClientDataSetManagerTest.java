@@ -16,12 +16,20 @@ package org.melviz.dataset.client;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.melviz.dataset.DataSetLookup;
 import org.melviz.dataset.DataSetLookupFactory;
+import org.melviz.dataset.group.NumberIntervalType;
+import org.melviz.dataset.sort.SortOrder;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_AMOUNT;
+import static org.melviz.dataset.ExpenseReportsData.COLUMN_CITY;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_DATE;
+import static org.melviz.dataset.ExpenseReportsData.COLUMN_ID;
+import static org.melviz.dataset.group.AggregateFunctionType.COUNT;
 import static org.melviz.dataset.group.AggregateFunctionType.SUM;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -45,4 +53,112 @@ public class ClientDataSetManagerTest extends AbstractDataSetTest {
 
         assertEquals(result.getRowCount(), 4);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLookupCache() throws Exception {
+        clientDataSetManager.clearLookupCache();
+        var hits = clientDataSetManager.getLookupCacheHits();
+        var misses = clientDataSetManager.getLookupCacheMisses();
+
+        var result = clientDataSetManager.lookupDataSet(amountByDateLookup());
+        var lookup = amountByDateLookup();
+        assertSame(result, clientDataSetManager.lookupDataSet(lookup));
+        assertEquals(hits + 1, clientDataSetManager.getLookupCacheHits());
+        assertEquals(misses + 1, clientDataSetManager.getLookupCacheMisses());
+
+        // Changes in the caller's lookup don't affect the cached entries
+        lookup.setNumberOfRows(2);
+        assertEquals(2, clientDataSetManager.lookupDataSet(lookup).getRowCount());
+        assertSame(result, clientDataSetManager.lookupDataSet(amountByDateLookup()));
+
+        // Registering the data set again invalidates its results
+        registerExpensesDataSet();
+        assertNotSame(result, clientDataSetManager.lookupDataSet(amountByDateLookup()));
+        assertEquals(misses + 3, clientDataSetManager.getLookupCacheMisses());
+    }
+
+    @Test
+    public void testLookupCacheSize() {
+        clientDataSetManager.setLookupCacheSize(1);
+        try {
+            var result = clientDataSetManager.lookupDataSet(amountByDateLookup());
+            clientDataSetManager.lookupDataSet(DataSetLookupFactory.newDataSetLookupBuilder()
+                    .dataset(EXPENSES)
+                    .buildLookup());
+            assertNotSame(result, clientDataSetManager.lookupDataSet(amountByDateLookup()));
+
+            clientDataSetManager.setLookupCacheSize(0);
+            result = clientDataSetManager.lookupDataSet(amountByDateLookup());
+            assertNotSame(result, clientDataSetManager.lookupDataSet(amountByDateLookup()));
+        } finally {
+            clientDataSetManager.setLookupCacheSize(ClientDataSetManager.DEFAULT_LOOKUP_CACHE_SIZE);
+        }
+    }
+
+    @Test
+    public void testSortedPages() {
+        clientDataSetManager.setLookupCacheSize(0);
+        try {
+            var all = clientDataSetManager.lookupDataSet(sortedByCityLookup(0, -1));
+            int rowCount = all.getRowCount();
+            int[][] pages = {{0, 5}, {5, 5}, {20, 10}, {rowCount - 3, 10}, {0, rowCount}};
+            for (int[] page : pages) {
+                var result = clientDataSetManager.lookupDataSet(sortedByCityLookup(page[0], page[1]));
+                int expectedRows = Math.min(page[1], rowCount - page[0]);
+                assertEquals(expectedRows, result.getRowCount());
+                assertEquals(rowCount, result.getRowCountNonTrimmed());
+                for (int row = 0; row < expectedRows; row++) {
+                    assertEquals(all.getValueAt(page[0] + row, COLUMN_ID), result.getValueAt(row, COLUMN_ID));
+                }
+            }
+        } finally {
+            clientDataSetManager.setLookupCacheSize(ClientDataSetManager.DEFAULT_LOOKUP_CACHE_SIZE);
+        }
+    }
+
+    @Test
+    public void testAmountHistogram() {
+        var result = clientDataSetManager.lookupDataSet(amountHistogramLookup());
+        assertEquals(5, result.getRowCount());
+        int total = 0;
+        for (int row = 0; row < result.getRowCount(); row++) {
+            total += ((Number) result.getValueAt(row, 1)).intValue();
+        }
+        assertEquals(expensesDataSet.getRowCount(), total);
+
+        // Select the first interval
+        var firstInterval = (String) result.getValueAt(0, 0);
+        var selection = clientDataSetManager.lookupDataSet(DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(EXPENSES)
+                .group(COLUMN_AMOUNT).histogram(NumberIntervalType.COUNT, 5, false).select(firstInterval)
+                .buildLookup());
+        assertEquals(((Number) result.getValueAt(0, 1)).intValue(), selection.getRowCount());
+    }
+
+    private DataSetLookup sortedByCityLookup(int offset, int rows) {
+        return DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(EXPENSES)
+                .sort(COLUMN_CITY, SortOrder.DESCENDING)
+                .rowOffset(offset)
+                .rowNumber(rows)
+                .buildLookup();
+    }
+
+    private DataSetLookup amountHistogramLookup() {
+        return DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(EXPENSES)
+                .group(COLUMN_AMOUNT).histogram(NumberIntervalType.COUNT, 5, true)
+                .column(COLUMN_AMOUNT)
+                .column(COUNT, "occurrences")
+                .buildLookup();
+    }
+
+    private DataSetLookup amountByDateLookup() {
+        return DataSetLookupFactory.newDataSetLookupBuilder()
+                .dataset(EXPENSES)
+                .group(COLUMN_DATE)
+                .column(COLUMN_DATE)
+                .column(COLUMN_AMOUNT, SUM)
+                .buildLookup();
+    }
+}
@@ -19,11 +19,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.function.Function;
 
+import elemental2.dom.DomGlobal;
 import elemental2.dom.HTMLElement;
 import org.melviz.common.client.StringUtils;
 import org.melviz.common.client.error.ClientRuntimeError;
@@ -35,7 +38,6 @@ import org.melviz.dataset.client.DataSetReadyCallback;
 import org.melviz.dataset.date.DayOfWeek;
 import org.melviz.dataset.date.Month;
 import org.melviz.dataset.filter.DataSetFilter;
-import org.melviz.dataset.group.ColumnGroup;
 import org.melviz.dataset.group.DataSetGroup;
 import org.melviz.dataset.group.DateIntervalPattern;
 import org.melviz.dataset.group.DateIntervalType;
@@ -96,6 +98,20 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
 
         String formatNumber(String pattern, Number n);
 
+        /**
+         * Resolve the number format for the given pattern once, so it can be applied to many values.
+         */
+        default Function<Number, String> numberFormatter(String pattern) {
+            return n -> formatNumber(pattern, n);
+        }
+
+        /**
+         * Resolve the date format for the given pattern once, so it can be applied to many values.
+         */
+        default Function<Date, String> dateFormatter(String pattern) {
+            return d -> formatDate(pattern, d);
+        }
+
         String formatDayOfWeek(DayOfWeek dayOfWeek);
 
         String formatMonth(Month month);
@@ -113,11 +129,15 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
     protected List<DisplayerListener> listenerList = new ArrayList<>();
     protected Map<String, List<Interval>> columnSelectionMap = new HashMap<>();
     protected Map<String, ValueFormatter> formatterMap = new HashMap<>();
+    protected Map<DataColumn, ColumnRenderPlan> renderPlanMap = new IdentityHashMap<>();
+    protected DataSet renderPlanDataSet = null;
     protected Formatter formatter = null;
     protected ExpressionEval evaluator = null;
     protected DataSetFilter currentFilter = null;
     protected boolean refreshEnabled = true;
     protected boolean drawn = false;
+    protected RedrawScheduler redrawScheduler = null;
+    protected int lookupCount = 0;
 
     /**
      * It returns the actual implementation of the View
@@ -159,6 +179,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
     public void setDisplayerSettings(DisplayerSettings displayerSettings) {
         checkDisplayerSettings(displayerSettings);
         this.displayerSettings = displayerSettings;
+        renderPlanMap.clear();
     }
 
     public void checkDisplayerSettings(DisplayerSettings displayerSettings) {
@@ -188,6 +209,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
 
     public void setFormatter(Formatter formatter) {
         this.formatter = formatter;
+        renderPlanMap.clear();
     }
 
     public ExpressionEval getEvaluator() {
@@ -199,6 +221,19 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
 
     public void setEvaluator(ExpressionEval evaluator) {
         this.evaluator = evaluator;
+        renderPlanMap.clear();
+    }
+
+    public RedrawScheduler getRedrawScheduler() {
+        return redrawScheduler;
+    }
+
+    /**
+     * Set the scheduler the redraws caused by the filter notifications are delegated to.
+     * If none is set such redraws are executed straight away.
+     */
+    public void setRedrawScheduler(RedrawScheduler redrawScheduler) {
+        this.redrawScheduler = redrawScheduler;
     }
 
     public void addListener(DisplayerListener... listeners) {
@@ -242,6 +277,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
                 drawn = true;
                 getView().showLoading();
 
+                lookupCount++;
                 beforeLoad();
                 beforeDataSetLookup();
                 dataSetHandler.lookupDataSet(new DataSetReadyCallback() {
@@ -249,6 +285,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
                     public void callback(DataSet result) {
                         try {
                             dataSet = result;
+                            renderPlanMap.clear();
                             afterLoad();
                             afterDataSetLookup(result);
                             createVisualization();
@@ -277,6 +314,11 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
                         showError(error);
                         return false;
                     }
+
+                    @Override
+                    public int getPriority() {
+                        return getLookupPriority();
+                    }
                 });
             } catch (Exception e) {
                 showError(new ClientRuntimeError(e));
@@ -284,22 +326,48 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
         }
     }
 
+    /**
+     * Displayers within the visible area of the page get their data first.
+     */
+    protected int getLookupPriority() {
+        var element = getElement();
+        if (element == null || !element.isConnected) {
+            return DataSetReadyCallback.DEFAULT_PRIORITY;
+        }
+        var rect = element.getBoundingClientRect();
+        var visible = rect.bottom >= 0 && rect.top <= DomGlobal.window.innerHeight;
+        return visible ? DataSetReadyCallback.VISIBLE_PRIORITY : DataSetReadyCallback.DEFAULT_PRIORITY;
+    }
+
     /**
      * Just reload the data set and make the current displayer to redraw.
      */
     @Override
     public void redraw() {
+        redraw(null);
+    }
+
+    /**
+     * Redraw as part of a batch, so the data set lookup is shared with the identical ones within the batch.
+     * <p>The result of a lookup superseded by a later redraw is discarded.</p>
+     */
+    public void redraw(DataSetLookupBatch batch) {
         if (!isDrawn()) {
             draw();
         } else {
             try {
+                var lookup = ++lookupCount;
                 beforeLoad();
                 beforeDataSetLookup();
-                dataSetHandler.lookupDataSet(new DataSetReadyCallback() {
+                var callback = new DataSetReadyCallback() {
 
                     public void callback(DataSet result) {
+                        if (isSuperseded()) {
+                            return;
+                        }
                         try {
                             dataSet = result;
+                            renderPlanMap.clear();
                             afterDataSetLookup(result);
                             updateVisualization();
 
@@ -312,6 +380,9 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
                     }
 
                     public void notFound() {
+                        if (isSuperseded()) {
+                            return;
+                        }
                         String uuid = displayerSettings.getDataSetLookup().getDataSetUUID();
                         getView().errorDataSetNotFound(uuid);
                         handleError("Data set not found: " + uuid);
@@ -319,18 +390,45 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
 
                     @Override
                     public boolean onError(final ClientRuntimeError error) {
+                        if (isSuperseded()) {
+                            return true;
+                        }
                         showError(error);
                         requestDraw();
                         return false;
                     }
 
-                });
+                    @Override
+                    public int getPriority() {
+                        return getLookupPriority();
+                    }
+
+                    private boolean isSuperseded() {
+                        return lookup != lookupCount;
+                    }
+                };
+                if (batch != null) {
+                    dataSetHandler.lookupDataSet(batch, callback);
+                } else {
+                    dataSetHandler.lookupDataSet(callback);
+                }
             } catch (Exception e) {
                 showError(new ClientRuntimeError(e));
             }
         }
     }
 
+    /**
+     * Redraw in response to a change made by some other displayer, through the redraw scheduler if any.
+     */
+    protected void requestRedraw() {
+        if (redrawScheduler != null) {
+            redrawScheduler.schedule(this);
+        } else {
+            redraw();
+        }
+    }
+
     private void requestDraw() {
         drawn = false;
     }
@@ -479,7 +577,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
     public void onFilterEnabled(Displayer displayer, DataSetGroup groupOp) {
         if (displayerSettings.isFilterListeningEnabled()) {
             if (dataSetHandler.filter(groupOp)) {
-                redraw();
+                requestRedraw();
             }
         }
     }
@@ -488,7 +586,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
     public void onFilterEnabled(Displayer displayer, DataSetFilter filter) {
         if (displayerSettings.isFilterListeningEnabled()) {
             if (dataSetHandler.filter(filter)) {
-                redraw();
+                requestRedraw();
             }
         }
     }
@@ -499,7 +597,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
             boolean unfilter = dataSetHandler.unfilter(oldFilter);
             boolean filter = dataSetHandler.filter(newFilter);
             if (unfilter || filter) {
-                redraw();
+                requestRedraw();
             }
         }
     }
@@ -514,7 +612,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
                 }
             }
             if (applied) {
-                redraw();
+                requestRedraw();
             }
         }
     }
@@ -523,7 +621,7 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
     public void onFilterReset(Displayer displayer, DataSetFilter filter) {
         if (displayerSettings.isFilterListeningEnabled()) {
             if (dataSetHandler.unfilter(filter)) {
-                redraw();
+                requestRedraw();
             }
         }
     }
@@ -852,73 +950,40 @@ public abstract class AbstractDisplayer<V extends AbstractDisplayer.View> implem
 
     public void addFormatter(String columnId, ValueFormatter formatter) {
         formatterMap.put(columnId, formatter);
+        renderPlanMap.clear();
     }
 
     public ValueFormatter getFormatter(String columnId) {
         return formatterMap.get(columnId);
     }
 
-    public String formatValue(int row, int column) {
-        Object value = row < dataSet.getRowCount() ? dataSet.getValueAt(row, column) : null;
-        DataColumn columnObj = dataSet.getColumnByIndex(column);
-        ValueFormatter formatter = getFormatter(columnObj.getId());
-        if (formatter != null) {
-            return formatter.formatValue(dataSet, row, column);
+    /**
+     * Get the formatting settings of a column, resolved once per data set drawn. Renderers formatting many values
+     * should get the plan of each column before looping over the rows.
+     */
+    public ColumnRenderPlan getRenderPlan(DataColumn column) {
+        if (renderPlanDataSet != dataSet) {
+            renderPlanMap.clear();
+            renderPlanDataSet = dataSet;
         }
-        return formatValue(value, columnObj);
-    }
-
-    public String formatValue(Object value, DataColumn column) {
-
-        ValueFormatter formatter = getFormatter(column.getId());
-        if (formatter != null) {
-            return formatter.formatValue(value);
+        var plan = renderPlanMap.get(column);
+        if (plan == null) {
+            plan = new ColumnRenderPlan(this, column);
+            renderPlanMap.put(column, plan);
         }
+        return plan;
+    }
 
-        ColumnSettings columnSettings = displayerSettings.getColumnSettings(column);
-        String pattern = columnSettings.getValuePattern();
-        String empty = columnSettings.getEmptyTemplate();
-        String expression = columnSettings.getValueExpression();
+    public ColumnRenderPlan getRenderPlan(int column) {
+        return getRenderPlan(dataSet.getColumnByIndex(column));
+    }
 
-        if (value == null) {
-            return empty;
-        }
+    public String formatValue(int row, int column) {
+        return getRenderPlan(column).format(dataSet, row, column);
+    }
 
-        // Date grouped columns
-        DateIntervalType intervalType = DateIntervalType.getByName(column.getIntervalType());
-        if (intervalType != null) {
-            ColumnGroup columnGroup = column.getColumnGroup();
-            return formatDate(intervalType,
-                    columnGroup.getStrategy(),
-                    value.toString(), pattern, expression);
-        }
-        // Label grouped columns, aggregations & raw values
-        else {
-            ColumnType columnType = column.getColumnType();
-            if (ColumnType.DATE.equals(columnType)) {
-                Date d = (Date) value;
-                return getFormatter().formatDate(pattern, d);
-            } else if (ColumnType.NUMBER.equals(columnType)) {
-                OptionalDouble od = OptionalDouble.empty();
-                if (value instanceof Number) {
-                    od = OptionalDouble.of(((Number) value).doubleValue());
-                }
-                if (!StringUtils.isBlank(expression)) {
-                    String r = getEvaluator().evalExpression(value.toString(), expression);
-                    try {
-                        od = OptionalDouble.of(Double.parseDouble(r));
-                    } catch (NumberFormatException e) {
-                        return r;
-                    }
-                }
-                return getFormatter().formatNumber(pattern, od.getAsDouble());
-            } else {
-                if (StringUtils.isBlank(expression)) {
-                    return value.toString();
-                }
-                return getEvaluator().evalExpression(value.toString(), expression);
-            }
-        }
+    public String formatValue(Object value, DataColumn column) {
+        return getRenderPlan(column).format(value);
     }
 
     // DATE FORMATTING
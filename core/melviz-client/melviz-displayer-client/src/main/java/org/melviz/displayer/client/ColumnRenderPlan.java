@@ -0,0 +1,148 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client;
+
+import java.util.Date;
+import java.util.function.Function;
+
+import org.melviz.common.client.StringUtils;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.group.DateIntervalType;
+import org.melviz.dataset.group.GroupStrategy;
+import org.melviz.displayer.ColumnSettings;
+import org.melviz.displayer.client.formatter.ValueFormatter;
+
+/**
+ * Everything needed to format the values of a data set column, resolved once so it can be applied to every cell
+ * of the column.
+ *
+ * @see AbstractDisplayer#getRenderPlan(DataColumn)
+ */
+public class ColumnRenderPlan {
+
+    private final AbstractDisplayer<?> displayer;
+    private final DataColumn column;
+    private final ColumnSettings settings;
+    private final ValueFormatter valueFormatter;
+    private final ColumnType columnType;
+    private final DateIntervalType intervalType;
+    private final GroupStrategy strategy;
+    private final String pattern;
+    private final String empty;
+    private final String expression;
+    private Function<Number, String> numberFormat;
+    private Function<Date, String> dateFormat;
+
+    ColumnRenderPlan(AbstractDisplayer<?> displayer, DataColumn column) {
+        this.displayer = displayer;
+        this.column = column;
+        this.settings = displayer.getDisplayerSettings().getColumnSettings(column);
+        this.valueFormatter = displayer.getFormatter(column.getId());
+        this.columnType = column.getColumnType();
+        this.intervalType = DateIntervalType.getByName(column.getIntervalType());
+        this.strategy = intervalType != null && column.getColumnGroup() != null ? column.getColumnGroup()
+                .getStrategy() : null;
+        this.pattern = settings.getValuePattern();
+        this.empty = settings.getEmptyTemplate();
+        // the default expression just returns the value
+        var valueExpression = settings.getValueExpression();
+        this.expression = StringUtils.isBlank(valueExpression) || ColumnSettings.EXPRESSION.equals(valueExpression)
+                ? null : valueExpression;
+    }
+
+    public DataColumn getColumn() {
+        return column;
+    }
+
+    /**
+     * The column settings, including the defaults for the column type.
+     */
+    public ColumnSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Format the value at the given data set cell.
+     */
+    public String format(DataSet dataSet, int row, int columnIndex) {
+        if (valueFormatter != null) {
+            return valueFormatter.formatValue(dataSet, row, columnIndex);
+        }
+        return format(row < dataSet.getRowCount() ? dataSet.getValueAt(row, columnIndex) : null);
+    }
+
+    /**
+     * Format a value of the column according to its pattern, expression and empty template.
+     */
+    public String format(Object value) {
+        if (valueFormatter != null) {
+            return valueFormatter.formatValue(value);
+        }
+        if (value == null) {
+            return empty;
+        }
+
+        // Date grouped columns
+        if (intervalType != null) {
+            return displayer.formatDate(intervalType, strategy, value.toString(), pattern, expression);
+        }
+        // Label grouped columns, aggregations & raw values
+        if (ColumnType.DATE.equals(columnType)) {
+            return getDateFormat().apply((Date) value);
+        }
+        if (ColumnType.NUMBER.equals(columnType)) {
+            if (expression == null && value instanceof Number) {
+                return getNumberFormat().apply((Number) value);
+            }
+            var result = evaluate(value);
+            try {
+                return getNumberFormat().apply(Double.parseDouble(result));
+            } catch (NumberFormatException e) {
+                return result;
+            }
+        }
+        return evaluate(value);
+    }
+
+    // the formats are resolved on first use, as some renderers only evaluate the expressions
+
+    private Function<Number, String> getNumberFormat() {
+        if (numberFormat == null) {
+            numberFormat = displayer.getFormatter().numberFormatter(pattern);
+        }
+        return numberFormat;
+    }
+
+    private Function<Date, String> getDateFormat() {
+        if (dateFormat == null) {
+            dateFormat = displayer.getFormatter().dateFormatter(pattern);
+        }
+        return dateFormat;
+    }
+
+    /**
+     * Apply the column expression (if any) to the raw value, no pattern is applied.
+     */
+    public String evaluate(Object value) {
+        var str = value == null ? "" : value.toString();
+        if (expression == null) {
+            return str;
+        }
+        return displayer.getEvaluator().evalExpression(str, expression);
+    }
+}
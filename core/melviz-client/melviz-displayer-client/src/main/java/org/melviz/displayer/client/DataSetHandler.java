@@ -136,6 +136,17 @@ public interface DataSetHandler {
      */
     void lookupDataSet(DataSetReadyCallback callback) throws Exception;
 
+    /**
+     * Executes the current data set lookup request as part of a batch, so it is shared with any identical
+     * request issued within the same batch.
+     *
+     * @param batch The batch the lookup belongs to.
+     * @param callback The callback interface that is invoked right after the data is available.
+     */
+    default void lookupDataSet(DataSetLookupBatch batch, DataSetReadyCallback callback) throws Exception {
+        lookupDataSet(callback);
+    }
+
     /**
      * Get the data set get on the last lookup call (if any)
      */
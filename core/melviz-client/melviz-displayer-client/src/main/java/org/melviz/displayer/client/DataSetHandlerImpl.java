@@ -44,6 +44,7 @@ public class DataSetHandlerImpl implements DataSetHandler {
     protected DataSetLookup lookupBase;
     protected DataSetLookup lookupCurrent;
     protected DataSet lastLookedUpDataSet;
+    protected int lookupCount = 0;
 
     public DataSetHandlerImpl(DataSetClientServices clientServices, DataSetLookup lookup) {
         this.clientServices = clientServices;
@@ -214,10 +215,19 @@ public class DataSetHandlerImpl implements DataSetHandler {
 
     @Override
     public void lookupDataSet(final DataSetReadyCallback callback) throws Exception {
-        clientServices.lookupDataSet(lookupCurrent, new DataSetReadyCallback() {
+        lookupDataSet(null, callback);
+    }
+
+    @Override
+    public void lookupDataSet(DataSetLookupBatch batch, DataSetReadyCallback callback) throws Exception {
+        var lookup = ++lookupCount;
+        var handlerCallback = new DataSetReadyCallback() {
 
             public void callback(DataSet dataSet) {
-                lastLookedUpDataSet = dataSet;
+                // Results of superseded lookups must not replace the latest one
+                if (lookup == lookupCount) {
+                    lastLookedUpDataSet = dataSet;
+                }
                 callback.callback(dataSet);
             }
 
@@ -229,7 +239,17 @@ public class DataSetHandlerImpl implements DataSetHandler {
             public boolean onError(final ClientRuntimeError error) {
                 return callback.onError(error);
             }
-        });
+
+            @Override
+            public int getPriority() {
+                return callback.getPriority();
+            }
+        };
+        if (batch != null) {
+            batch.lookupDataSet(clientServices, lookupCurrent, handlerCallback);
+        } else {
+            clientServices.lookupDataSet(lookupCurrent, handlerCallback);
+        }
     }
 
     @Override
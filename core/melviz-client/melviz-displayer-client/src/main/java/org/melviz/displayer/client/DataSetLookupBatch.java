@@ -0,0 +1,115 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.melviz.common.client.error.ClientRuntimeError;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetLookup;
+import org.melviz.dataset.client.DataSetClientServices;
+import org.melviz.dataset.client.DataSetReadyCallback;
+
+/**
+ * Runs the identical data set lookups issued by several displayers within the same redraw batch only once.
+ * <p>Results are shared between the displayers, so they must be treated as read-only.</p>
+ */
+public class DataSetLookupBatch {
+
+    private Map<DataSetLookup, SharedLookup> lookupMap = new HashMap<>();
+
+    public void lookupDataSet(DataSetClientServices clientServices,
+                              DataSetLookup lookup,
+                              DataSetReadyCallback callback) throws Exception {
+        var shared = lookupMap.get(lookup);
+        if (shared != null) {
+            shared.add(callback);
+            return;
+        }
+        shared = new SharedLookup();
+        shared.add(callback);
+        lookupMap.put(lookup.cloneInstance(), shared);
+        clientServices.lookupDataSet(lookup, shared);
+    }
+
+    /**
+     * The number of lookups actually executed.
+     */
+    public int getLookupCount() {
+        return lookupMap.size();
+    }
+
+    /**
+     * Forwards the result of a lookup to every callback, including the ones joining after it has completed.
+     */
+    private static class SharedLookup implements DataSetReadyCallback {
+
+        List<DataSetReadyCallback> callbacks = new ArrayList<>();
+        boolean done = false;
+        DataSet dataSet;
+        ClientRuntimeError error;
+
+        void add(DataSetReadyCallback callback) {
+            if (!done) {
+                callbacks.add(callback);
+            } else if (error != null) {
+                callback.onError(error);
+            } else if (dataSet != null) {
+                callback.callback(dataSet);
+            } else {
+                callback.notFound();
+            }
+        }
+
+        @Override
+        public void callback(DataSet dataSet) {
+            done = true;
+            this.dataSet = dataSet;
+            callbacks.forEach(c -> c.callback(dataSet));
+            callbacks.clear();
+        }
+
+        @Override
+        public void notFound() {
+            done = true;
+            callbacks.forEach(DataSetReadyCallback::notFound);
+            callbacks.clear();
+        }
+
+        @Override
+        public boolean onError(ClientRuntimeError error) {
+            done = true;
+            this.error = error;
+            var result = callbacks.stream()
+                    .map(c -> c.onError(error))
+                    .reduce((r1, r2) -> r1 && r2)
+                    .orElse(false);
+            callbacks.clear();
+            return result;
+        }
+
+        @Override
+        public int getPriority() {
+            return callbacks.stream()
+                    .mapToInt(DataSetReadyCallback::getPriority)
+                    .max()
+                    .orElse(DEFAULT_PRIORITY);
+        }
+    }
+}
@@ -24,10 +24,12 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import org.jboss.errai.ioc.client.container.IOC;
 import org.melviz.common.client.error.ClientRuntimeError;
+import org.melviz.dataset.events.DataSetModifiedEvent;
 import org.melviz.dataset.filter.DataSetFilter;
 import org.melviz.dataset.group.DataSetGroup;
 
@@ -35,6 +37,8 @@ import org.melviz.dataset.group.DataSetGroup;
  * The coordinator class holds a list of Displayer instances and it makes sure that the data shared among
  * all of them is properly synced. This means every time a data display modification request comes from any
  * of the displayer components the rest are updated to reflect those changes.
+ * <p>The redraws caused by such changes go through a {@link RedrawScheduler}, so the displayers are redrawn once
+ * per frame, the visible ones first, no matter how many changes arrive in between.</p>
  */
 @ApplicationScoped
 public class DisplayerCoordinator {
@@ -45,6 +49,7 @@ public class DisplayerCoordinator {
     protected CoordinatorListener coordinatorListener = new CoordinatorListener();
     protected Map<Displayer, List<Displayer>> notificationVetoMap = new HashMap<>();
     protected RendererManager rendererManager;
+    protected RedrawScheduler redrawScheduler = new RedrawScheduler();
 
     @Inject
     public DisplayerCoordinator(RendererManager rendererManager) {
@@ -80,6 +85,9 @@ public class DisplayerCoordinator {
 
             displayer.addListener(coordinatorListener);
             listenerSet.stream().forEach(displayer::addListener);
+            if (displayer instanceof AbstractDisplayer) {
+                ((AbstractDisplayer) displayer).setRedrawScheduler(redrawScheduler);
+            }
 
             RendererLibrary renderer = rendererManager.getRendererForDisplayer(displayer.getDisplayerSettings());
             List<Displayer> rendererGroup = rendererMap.get(renderer);
@@ -99,6 +107,7 @@ public class DisplayerCoordinator {
         if (displayer == null) {
             return false;
         }
+        redrawScheduler.cancel(displayer);
         RendererLibrary renderer = rendererManager.getRendererForDisplayer(displayer.getDisplayerSettings());
         List<Displayer> rendererGroup = rendererMap.get(renderer);
         if (rendererGroup != null)
@@ -107,6 +116,18 @@ public class DisplayerCoordinator {
         return displayerList.remove(displayer);
     }
 
+    public RedrawScheduler getRedrawScheduler() {
+        return redrawScheduler;
+    }
+
+    public void setRedrawScheduler(RedrawScheduler redrawScheduler) {
+        this.redrawScheduler.cancelAll();
+        this.redrawScheduler = redrawScheduler;
+        displayerList.stream()
+                .filter(displayer -> displayer instanceof AbstractDisplayer)
+                .forEach(displayer -> ((AbstractDisplayer) displayer).setRedrawScheduler(redrawScheduler));
+    }
+
     public void drawAll() {
         drawAll(null, null);
     }
@@ -128,7 +149,23 @@ public class DisplayerCoordinator {
         rendererMap.forEach(RendererLibrary::redraw);
     }
 
+    /**
+     * Redraw the displayers already drawn that show data from the given data set.
+     */
+    public void redrawDataSet(String uuid) {
+        displayerList.stream()
+                .filter(displayer -> displayer.isDrawn() && isDisplayingDataSet(displayer, uuid))
+                .forEach(redrawScheduler::schedule);
+    }
+
+    void onDataSetModified(@Observes DataSetModifiedEvent event) {
+        if (event.getDataSetDef() != null) {
+            redrawDataSet(event.getDataSetDef().getUUID());
+        }
+    }
+
     public void closeAll() {
+        redrawScheduler.cancelAll();
         displayerList.stream().forEach(Displayer::close);
         displayerList.stream().forEach(IOC.getBeanManager()::destroyBean);
     }
@@ -156,6 +193,12 @@ public class DisplayerCoordinator {
         return vetoList != null && vetoList.contains(from);
     }
 
+    private boolean isDisplayingDataSet(Displayer displayer, String uuid) {
+        var handler = displayer.getDataSetHandler();
+        var lookup = handler != null ? handler.getCurrentDataSetLookup() : null;
+        return lookup != null && uuid != null && uuid.equals(lookup.getDataSetUUID());
+    }
+
     /**
      * Internal class that listens to events raised by any of the Displayer instances handled by this coordinator.
      */
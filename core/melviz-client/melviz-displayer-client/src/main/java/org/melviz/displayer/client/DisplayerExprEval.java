@@ -14,18 +14,39 @@
  */
 package org.melviz.displayer.client;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import elemental2.core.Function;
 import elemental2.core.Global;
-import jsinterop.annotations.JsMethod;
 import jsinterop.annotations.JsPackage;
 import jsinterop.annotations.JsType;
 import org.melviz.common.client.StringUtils;
+import org.melviz.displayer.client.expression.ValueExpression;
+import org.melviz.displayer.client.expression.ValueExpressionParser;
 import org.melviz.displayer.client.resources.i18n.DisplayerConstants;
 
+/**
+ * Evaluates the column value expressions.
+ * <p>Every distinct expression is compiled once, up to {@link #MAX_COMPILED_EXPRESSIONS} expressions: into plain
+ * Java when it falls within the subset {@link ValueExpressionParser} supports, or into a JavaScript function
+ * otherwise. The results of the plain Java expressions, which have no side effects, are memoised per expression and
+ * input, up to {@link #MAX_MEMOISED_RESULTS} distinct inputs, so low cardinality columns only evaluate each
+ * expression a handful of times. JavaScript expressions may depend on anything else, so they are always
+ * evaluated.</p>
+ */
 public class DisplayerExprEval implements AbstractDisplayer.ExpressionEval {
 
 	public static final String[] _jsMalicious = { "document.", "window.", "alert(", "eval(", ".innerHTML" };
 
+	public static final int MAX_MEMOISED_RESULTS = 1000;
+
+	public static final int MAX_COMPILED_EXPRESSIONS = 1000;
+
+	static final Map<String, ValueExpression> compiledExpressions = new HashMap<>();
+
 	AbstractDisplayer presenter = null;
+	Map<String, Map<String, String>> memoisedResults = new HashMap<>();
 
 	public DisplayerExprEval(AbstractDisplayer presenter) {
 		this.presenter = presenter;
@@ -36,26 +57,97 @@ public class DisplayerExprEval implements AbstractDisplayer.ExpressionEval {
 		if (StringUtils.isBlank(expr) || "value".equals(expr)) {
 			return val;
 		}
+		var expression = compile(expr);
+		if (!(expression instanceof PureExpression)) {
+			return eval(expression, val, expr);
+		}
+		var results = memoisedResults.computeIfAbsent(expr, k -> new HashMap<>());
+		var result = results.get(val);
+		if (result != null) {
+			return result;
+		}
+		result = eval(expression, val, expr);
+		if (results.size() < MAX_MEMOISED_RESULTS) {
+			results.put(val, result);
+		}
+		return result;
+	}
+
+	String eval(ValueExpression expression, String val, String expr) {
+		try {
+			return expression.eval(val);
+		} catch (Exception e) {
+			presenter.handleError(DisplayerConstants.displayer_expr_invalid_syntax(expr), e);
+			throw new RuntimeException(DisplayerConstants.displayer_expr_invalid_syntax(expr));
+		}
+	}
+
+	ValueExpression compile(String expr) {
+		var expression = compiledExpressions.get(expr);
+		if (expression != null) {
+			return expression;
+		}
 		for (String keyword : _jsMalicious) {
 			if (expr.contains(keyword)) {
 				presenter.handleError(DisplayerConstants.displayer_keyword_not_allowed(expr));
 				throw new RuntimeException(DisplayerConstants.displayer_keyword_not_allowed(expr));
 			}
 		}
+		expression = compileExpression(expr);
+		if (compiledExpressions.size() < MAX_COMPILED_EXPRESSIONS) {
+			compiledExpressions.put(expr, expression);
+		}
+		return expression;
+	}
+
+	static ValueExpression compileExpression(String expr) {
 		try {
-			return _evalExpression(val, expr);
+			var javaExpression = ValueExpressionParser.parse(expr);
+			// Let the JavaScript engine deal with the values the Java subset can not, i.e. nulls or type errors
+			return new PureExpression(value -> {
+				try {
+					return javaExpression.eval(value);
+				} catch (RuntimeException e) {
+					return evalScript(value, expr);
+				}
+			});
+		} catch (IllegalArgumentException e) {
+			return compileJsExpression(expr);
+		}
+	}
+
+	static ValueExpression compileJsExpression(String expr) {
+		try {
+			var function = new Function("value", "return (" + expr + "\n);");
+			return value -> function.call(null, value) + "";
 		} catch (Exception e) {
-			presenter.handleError(DisplayerConstants.displayer_expr_invalid_syntax(expr), e);
-			throw new RuntimeException(DisplayerConstants.displayer_expr_invalid_syntax(expr));
+			// Not a single expression (i.e. several statements), keep evaluating it as a script
+			return value -> evalScript(value, expr);
 		}
 	}
 
-	@JsMethod
-	protected String _evalExpression(String value, String expr) {		
+	static String evalScript(String value, String expr) {
 		JsWindowWrapper.value = value;
 		return Global.eval(expr) + "";
 	}
 	
+	/**
+	 * An expression whose result only depends on the input value.
+	 */
+	static class PureExpression implements ValueExpression {
+
+		private final ValueExpression expression;
+
+		PureExpression(ValueExpression expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		public String eval(String value) {
+			return expression.eval(value);
+		}
+	}
+
 	@JsType(isNative=true, namespace=JsPackage.GLOBAL, name="window")
 	public static class JsWindowWrapper {
 	    public static String value;
@@ -17,6 +17,7 @@ package org.melviz.displayer.client;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 import com.google.gwt.i18n.client.DateTimeFormat;
 import com.google.gwt.i18n.client.NumberFormat;
@@ -48,6 +49,18 @@ public class DisplayerFormatter implements AbstractDisplayer.Formatter {
         return f.format(n);
     }
 
+    @Override
+    public Function<Number, String> numberFormatter(String pattern) {
+        NumberFormat f = getNumberFormat(pattern);
+        return f::format;
+    }
+
+    @Override
+    public Function<Date, String> dateFormatter(String pattern) {
+        DateTimeFormat df = getDateFormat(pattern);
+        return df::format;
+    }
+
     @Override
     public String formatDayOfWeek(DayOfWeek dayOfWeek) {
         return StringUtils.startCase(dayOfWeek.name());
@@ -0,0 +1,132 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import elemental2.dom.DomGlobal;
+import org.melviz.dataset.client.DataSetReadyCallback;
+
+/**
+ * Coalesces the redraw requests the displayers get from the filter notifications.
+ * <p>Requests are collected until the next animation frame, so a displayer is redrawn once no matter how many
+ * notifications it got in between. The displayers within the visible area are redrawn first, sharing identical
+ * lookups through a {@link DataSetLookupBatch}. The ones outside are deferred until no further request has arrived
+ * for {@link #OFFSCREEN_DELAY_MS}, so while a filter keeps changing (i.e. a slider drag) they are not redrawn for
+ * the intermediate states.</p>
+ */
+public class RedrawScheduler {
+
+    public static final int OFFSCREEN_DELAY_MS = 100;
+
+    private final Consumer<Runnable> frameExecutor;
+    private final Consumer<Runnable> deferredExecutor;
+    private final Set<Displayer> pending = new LinkedHashSet<>();
+    private final Set<Displayer> deferred = new LinkedHashSet<>();
+    private boolean frameRequested = false;
+    private int deferredGeneration = 0;
+
+    public RedrawScheduler() {
+        this(task -> DomGlobal.requestAnimationFrame(time -> task.run()),
+             task -> DomGlobal.setTimeout(p -> task.run(), OFFSCREEN_DELAY_MS));
+    }
+
+    /**
+     * @param frameExecutor Runs a task on the next frame.
+     * @param deferredExecutor Runs a task once the visible displayers have been given the chance to redraw.
+     */
+    public RedrawScheduler(Consumer<Runnable> frameExecutor, Consumer<Runnable> deferredExecutor) {
+        this.frameExecutor = frameExecutor;
+        this.deferredExecutor = deferredExecutor;
+    }
+
+    /**
+     * Request the given displayer to be redrawn. Requests for a displayer already waiting are merged.
+     */
+    public void schedule(Displayer displayer) {
+        deferred.remove(displayer);
+        pending.add(displayer);
+        if (!frameRequested) {
+            frameRequested = true;
+            frameExecutor.accept(this::flush);
+        }
+    }
+
+    /**
+     * Drop any pending request for the given displayer, i.e. when it is closed.
+     */
+    public void cancel(Displayer displayer) {
+        pending.remove(displayer);
+        deferred.remove(displayer);
+    }
+
+    public void cancelAll() {
+        pending.clear();
+        deferred.clear();
+    }
+
+    public boolean isScheduled(Displayer displayer) {
+        return pending.contains(displayer) || deferred.contains(displayer);
+    }
+
+    protected void flush() {
+        frameRequested = false;
+        var visible = new ArrayList<Displayer>();
+        for (var displayer : pending) {
+            if (isVisible(displayer)) {
+                visible.add(displayer);
+            } else {
+                deferred.add(displayer);
+            }
+        }
+        pending.clear();
+        redraw(visible);
+
+        if (!deferred.isEmpty()) {
+            var generation = ++deferredGeneration;
+            deferredExecutor.accept(() -> flushDeferred(generation));
+        }
+    }
+
+    protected void flushDeferred(int generation) {
+        // A later flush has deferred more displayers, wait for its own turn
+        if (generation != deferredGeneration) {
+            return;
+        }
+        var displayers = new ArrayList<>(deferred);
+        deferred.clear();
+        redraw(displayers);
+    }
+
+    protected void redraw(Iterable<Displayer> displayers) {
+        var batch = new DataSetLookupBatch();
+        for (var displayer : displayers) {
+            if (displayer instanceof AbstractDisplayer) {
+                ((AbstractDisplayer) displayer).redraw(batch);
+            } else {
+                displayer.redraw();
+            }
+        }
+    }
+
+    protected boolean isVisible(Displayer displayer) {
+        return !(displayer instanceof AbstractDisplayer) ||
+                ((AbstractDisplayer) displayer).getLookupPriority() >= DataSetReadyCallback.VISIBLE_PRIORITY;
+    }
+}
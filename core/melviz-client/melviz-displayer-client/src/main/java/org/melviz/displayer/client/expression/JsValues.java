@@ -0,0 +1,222 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client.expression;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The JavaScript conversion and comparison rules the Java evaluated expressions must follow.
+ * <p>Values are either a <tt>String</tt>, a <tt>Double</tt> or a <tt>Boolean</tt>.</p>
+ */
+public final class JsValues {
+
+    private JsValues() {
+        // static helpers only
+    }
+
+    public static double toNumber(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return toNumber((String) value);
+    }
+
+    public static double toNumber(String value) {
+        var text = value.trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        if (text.length() > 2 && text.charAt(0) == '0') {
+            var prefix = Character.toLowerCase(text.charAt(1));
+            var radix = prefix == 'x' ? 16 : prefix == 'o' ? 8 : prefix == 'b' ? 2 : 0;
+            if (radix > 0) {
+                return parseInteger(text.substring(2), radix);
+            }
+        }
+        var last = Character.toLowerCase(text.charAt(text.length() - 1));
+        if (last == 'd' || last == 'f') {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    public static String toString(Object value) {
+        if (value instanceof Double) {
+            return toString((double) (Double) value);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Format a number as <tt>Number.prototype.toString()</tt> does.
+     */
+    public static String toString(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "Infinity" : "-Infinity";
+        }
+        if (value == 0) {
+            return "0";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        var text = Double.toString(value);
+        var exponentAt = text.indexOf('E');
+        return exponentAt < 0 ? text : toJsNotation(text, exponentAt);
+    }
+
+    /**
+     * Format a number as <tt>Number.prototype.toFixed(digits)</tt> does.
+     */
+    public static String toFixed(double value, int digits) {
+        if (digits < 0 || digits > 100) {
+            throw new IllegalArgumentException("toFixed() digits argument must be between 0 and 100");
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e21) {
+            return toString(value);
+        }
+        var text = new BigDecimal(value).setScale(digits, RoundingMode.HALF_UP).toPlainString();
+        return value < 0 && text.charAt(0) != '-' ? "-" + text : text;
+    }
+
+    public static boolean isTruthy(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Double) {
+            var number = (Double) value;
+            return number != 0 && !number.isNaN();
+        }
+        return !((String) value).isEmpty();
+    }
+
+    /**
+     * The <tt>+</tt> operator: string concatenation as soon as one of the operands is a string.
+     */
+    public static Object add(Object left, Object right) {
+        if (left instanceof String || right instanceof String) {
+            return toString(left) + toString(right);
+        }
+        return toNumber(left) + toNumber(right);
+    }
+
+    /**
+     * The <tt>&lt;</tt> operator; the other relational operators swap or negate it.
+     * Strings are compared by code unit and anything else as numbers, with NaN never being less.
+     */
+    public static boolean lessThan(Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            return ((String) left).compareTo((String) right) < 0;
+        }
+        return toNumber(left) < toNumber(right);
+    }
+
+    public static boolean lessOrEqual(Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            return ((String) left).compareTo((String) right) <= 0;
+        }
+        return toNumber(left) <= toNumber(right);
+    }
+
+    /**
+     * The <tt>===</tt> operator.
+     */
+    public static boolean strictEquals(Object left, Object right) {
+        if (left.getClass() != right.getClass()) {
+            return false;
+        }
+        if (left instanceof Double) {
+            return toNumber(left) == toNumber(right);
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * The <tt>==</tt> operator: values of different type are compared as numbers.
+     */
+    public static boolean looseEquals(Object left, Object right) {
+        if (left.getClass() == right.getClass()) {
+            return strictEquals(left, right);
+        }
+        return toNumber(left) == toNumber(right);
+    }
+
+    private static double parseInteger(String digits, int radix) {
+        var result = 0d;
+        for (int i = 0; i < digits.length(); i++) {
+            var digit = Character.digit(digits.charAt(i), radix);
+            if (digit < 0) {
+                return Double.NaN;
+            }
+            result = result * radix + digit;
+        }
+        return result;
+    }
+
+    /**
+     * Turn the Java scientific notation into the one JavaScript uses, which keeps plain decimals
+     * for exponents within [-7, 21).
+     */
+    private static String toJsNotation(String text, int exponentAt) {
+        var mantissa = text.substring(0, exponentAt);
+        var negative = mantissa.charAt(0) == '-';
+        var digits = new StringBuilder();
+        for (int i = negative ? 1 : 0; i < mantissa.length(); i++) {
+            var c = mantissa.charAt(i);
+            if (c != '.') {
+                digits.append(c);
+            }
+        }
+        while (digits.length() > 1 && digits.charAt(digits.length() - 1) == '0') {
+            digits.setLength(digits.length() - 1);
+        }
+        var k = digits.length();
+        var n = Integer.parseInt(text.substring(exponentAt + 1)) + 1;
+        var result = new StringBuilder(negative ? "-" : "");
+        if (k <= n && n <= 21) {
+            result.append(digits);
+            for (int i = k; i < n; i++) {
+                result.append('0');
+            }
+        } else if (0 < n && n <= 21) {
+            result.append(digits, 0, n).append('.').append(digits, n, k);
+        } else if (-6 < n && n <= 0) {
+            result.append("0.");
+            for (int i = n; i < 0; i++) {
+                result.append('0');
+            }
+            result.append(digits);
+        } else {
+            result.append(digits.charAt(0));
+            if (k > 1) {
+                result.append('.').append(digits, 1, k);
+            }
+            result.append('e').append(n > 0 ? "+" : "-").append(Math.abs(n - 1));
+        }
+        return result.toString();
+    }
+}
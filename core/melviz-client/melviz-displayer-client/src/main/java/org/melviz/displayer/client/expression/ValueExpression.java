@@ -0,0 +1,31 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client.expression;
+
+/**
+ * A value expression compiled once and applied to as many column values as needed.
+ */
+@FunctionalInterface
+public interface ValueExpression {
+
+    /**
+     * Evaluate the expression for the given value.
+     *
+     * @param value The formatted column value, bound to the <tt>value</tt> variable of the expression.
+     * @return The result converted to string the same way JavaScript does.
+     */
+    String eval(String value);
+}
@@ -0,0 +1,497 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the common subset of the JavaScript value expressions into a {@link ValueExpression} evaluated in plain Java.
+ * <p>Supported are number, string and boolean literals, the <tt>value</tt> variable, parentheses, the arithmetic,
+ * comparison, logical and conditional operators, the <tt>Math.abs/ceil/floor/max/min/round</tt>, <tt>Number</tt>
+ * and <tt>String</tt> functions, the <tt>length</tt> property and the <tt>toFixed</tt>, <tt>toLowerCase</tt>,
+ * <tt>toString</tt>, <tt>toUpperCase</tt>, <tt>trim</tt> and <tt>substring</tt> methods. Anything else is rejected
+ * with an <tt>IllegalArgumentException</tt> so the caller can hand the expression over to the JavaScript engine.</p>
+ */
+public class ValueExpressionParser {
+
+    private interface Node {
+
+        Object eval(String value);
+    }
+
+    private static final String[] OPERATORS = {"===", "!==", "==", "!=", "<=", ">=", "<<", ">>", "&&", "||", "++", "--", "**"};
+
+    private final String text;
+    private int pos = 0;
+
+    private ValueExpressionParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Compile the given expression.
+     *
+     * @throws IllegalArgumentException If the expression is not within the supported subset.
+     */
+    public static ValueExpression parse(String expression) {
+        var parser = new ValueExpressionParser(expression);
+        var node = parser.conditional();
+        parser.skipSpaces();
+        if (parser.pos < parser.text.length()) {
+            throw parser.unsupported();
+        }
+        return value -> {
+            if (value == null) {
+                throw new IllegalStateException("Null values are not supported");
+            }
+            return JsValues.toString(node.eval(value));
+        };
+    }
+
+    private Node conditional() {
+        var condition = or();
+        if (!accept("?")) {
+            return condition;
+        }
+        var whenTrue = conditional();
+        expect(":");
+        var whenFalse = conditional();
+        return v -> JsValues.isTruthy(condition.eval(v)) ? whenTrue.eval(v) : whenFalse.eval(v);
+    }
+
+    private Node or() {
+        var node = and();
+        while (accept("||")) {
+            var left = node;
+            var right = and();
+            node = v -> {
+                var result = left.eval(v);
+                return JsValues.isTruthy(result) ? result : right.eval(v);
+            };
+        }
+        return node;
+    }
+
+    private Node and() {
+        var node = equality();
+        while (accept("&&")) {
+            var left = node;
+            var right = equality();
+            node = v -> {
+                var result = left.eval(v);
+                return JsValues.isTruthy(result) ? right.eval(v) : result;
+            };
+        }
+        return node;
+    }
+
+    private Node equality() {
+        var node = relational();
+        while (true) {
+            var left = node;
+            if (accept("===")) {
+                var right = relational();
+                node = v -> JsValues.strictEquals(left.eval(v), right.eval(v));
+            } else if (accept("!==")) {
+                var right = relational();
+                node = v -> !JsValues.strictEquals(left.eval(v), right.eval(v));
+            } else if (accept("==")) {
+                var right = relational();
+                node = v -> JsValues.looseEquals(left.eval(v), right.eval(v));
+            } else if (accept("!=")) {
+                var right = relational();
+                node = v -> !JsValues.looseEquals(left.eval(v), right.eval(v));
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node relational() {
+        var node = additive();
+        while (true) {
+            var left = node;
+            if (accept("<=")) {
+                var right = additive();
+                node = v -> JsValues.lessOrEqual(left.eval(v), right.eval(v));
+            } else if (accept(">=")) {
+                var right = additive();
+                node = v -> {
+                    var l = left.eval(v);
+                    return JsValues.lessOrEqual(right.eval(v), l);
+                };
+            } else if (accept("<")) {
+                var right = additive();
+                node = v -> JsValues.lessThan(left.eval(v), right.eval(v));
+            } else if (accept(">")) {
+                var right = additive();
+                node = v -> {
+                    var l = left.eval(v);
+                    return JsValues.lessThan(right.eval(v), l);
+                };
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node additive() {
+        var node = multiplicative();
+        while (true) {
+            var left = node;
+            if (accept("+")) {
+                var right = multiplicative();
+                node = v -> JsValues.add(left.eval(v), right.eval(v));
+            } else if (accept("-")) {
+                var right = multiplicative();
+                node = v -> JsValues.toNumber(left.eval(v)) - JsValues.toNumber(right.eval(v));
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node multiplicative() {
+        var node = unary();
+        while (true) {
+            var left = node;
+            if (accept("*")) {
+                var right = unary();
+                node = v -> JsValues.toNumber(left.eval(v)) * JsValues.toNumber(right.eval(v));
+            } else if (accept("/")) {
+                var right = unary();
+                node = v -> JsValues.toNumber(left.eval(v)) / JsValues.toNumber(right.eval(v));
+            } else if (accept("%")) {
+                var right = unary();
+                node = v -> JsValues.toNumber(left.eval(v)) % JsValues.toNumber(right.eval(v));
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node unary() {
+        if (accept("!")) {
+            var operand = unary();
+            return v -> !JsValues.isTruthy(operand.eval(v));
+        }
+        if (accept("-")) {
+            var operand = unary();
+            return v -> -JsValues.toNumber(operand.eval(v));
+        }
+        if (accept("+")) {
+            var operand = unary();
+            return v -> JsValues.toNumber(operand.eval(v));
+        }
+        return member(primary());
+    }
+
+    private Node member(Node node) {
+        while (accept(".")) {
+            var target = node;
+            var name = identifier();
+            if ("length".equals(name)) {
+                node = v -> (double) asString(target.eval(v), name).length();
+                continue;
+            }
+            var args = arguments();
+            node = method(target, name, args);
+        }
+        return node;
+    }
+
+    private Node method(Node target, String name, List<Node> args) {
+        switch (name) {
+            case "toString":
+                checkArguments(args, 0, 0);
+                return v -> JsValues.toString(target.eval(v));
+            case "toUpperCase":
+                checkArguments(args, 0, 0);
+                return v -> asString(target.eval(v), name).toUpperCase();
+            case "toLowerCase":
+                checkArguments(args, 0, 0);
+                return v -> asString(target.eval(v), name).toLowerCase();
+            case "trim":
+                checkArguments(args, 0, 0);
+                return v -> asString(target.eval(v), name).trim();
+            case "substring":
+                checkArguments(args, 1, 2);
+                return v -> {
+                    var s = asString(target.eval(v), name);
+                    var start = clampIndex(args.get(0).eval(v), s.length());
+                    var end = args.size() > 1 ? clampIndex(args.get(1).eval(v), s.length()) : s.length();
+                    return s.substring(Math.min(start, end), Math.max(start, end));
+                };
+            case "toFixed":
+                checkArguments(args, 0, 1);
+                return v -> {
+                    var number = target.eval(v);
+                    if (!(number instanceof Double)) {
+                        throw new IllegalStateException(name + " is not a function");
+                    }
+                    var digits = args.isEmpty() ? 0 : toInteger(args.get(0).eval(v));
+                    return JsValues.toFixed((Double) number, digits);
+                };
+            default:
+                throw unsupported();
+        }
+    }
+
+    private Node primary() {
+        skipSpaces();
+        if (pos >= text.length()) {
+            throw unsupported();
+        }
+        var c = text.charAt(pos);
+        if (c == '(') {
+            pos++;
+            var node = conditional();
+            expect(")");
+            return node;
+        }
+        if (c == '\'' || c == '"') {
+            var literal = stringLiteral(c);
+            return v -> literal;
+        }
+        if (isDigit(c) || (c == '.' && pos + 1 < text.length() && isDigit(text.charAt(pos + 1)))) {
+            Object literal = numberLiteral();
+            return v -> literal;
+        }
+        var name = identifier();
+        switch (name) {
+            case "value":
+                return v -> v;
+            case "true":
+                return v -> Boolean.TRUE;
+            case "false":
+                return v -> Boolean.FALSE;
+            case "Number":
+                var number = singleArgument();
+                return v -> JsValues.toNumber(number.eval(v));
+            case "String":
+                var string = singleArgument();
+                return v -> JsValues.toString(string.eval(v));
+            case "Math":
+                expect(".");
+                return mathFunction(identifier());
+            default:
+                throw unsupported();
+        }
+    }
+
+    private Node mathFunction(String name) {
+        var args = arguments();
+        switch (name) {
+            case "abs":
+                checkArguments(args, 1, 1);
+                return v -> Math.abs(JsValues.toNumber(args.get(0).eval(v)));
+            case "ceil":
+                checkArguments(args, 1, 1);
+                return v -> Math.ceil(JsValues.toNumber(args.get(0).eval(v)));
+            case "floor":
+                checkArguments(args, 1, 1);
+                return v -> Math.floor(JsValues.toNumber(args.get(0).eval(v)));
+            case "round":
+                checkArguments(args, 1, 1);
+                return v -> {
+                    var number = JsValues.toNumber(args.get(0).eval(v));
+                    var floor = Math.floor(number);
+                    return number - floor >= 0.5 ? floor + 1 : floor;
+                };
+            case "max":
+                return v -> {
+                    var result = Double.NEGATIVE_INFINITY;
+                    for (var arg : args) {
+                        result = Math.max(result, JsValues.toNumber(arg.eval(v)));
+                    }
+                    return result;
+                };
+            case "min":
+                return v -> {
+                    var result = Double.POSITIVE_INFINITY;
+                    for (var arg : args) {
+                        result = Math.min(result, JsValues.toNumber(arg.eval(v)));
+                    }
+                    return result;
+                };
+            default:
+                throw unsupported();
+        }
+    }
+
+    private Node singleArgument() {
+        var args = arguments();
+        checkArguments(args, 1, 1);
+        return args.get(0);
+    }
+
+    private List<Node> arguments() {
+        expect("(");
+        var args = new ArrayList<Node>();
+        if (accept(")")) {
+            return args;
+        }
+        do {
+            args.add(conditional());
+        } while (accept(","));
+        expect(")");
+        return args;
+    }
+
+    private void checkArguments(List<Node> args, int min, int max) {
+        if (args.size() < min || args.size() > max) {
+            throw unsupported();
+        }
+    }
+
+    private String identifier() {
+        skipSpaces();
+        var start = pos;
+        while (pos < text.length() && isIdentifierPart(text.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos || isDigit(text.charAt(start))) {
+            throw unsupported();
+        }
+        return text.substring(start, pos);
+    }
+
+    private String stringLiteral(char quote) {
+        var result = new StringBuilder();
+        pos++;
+        while (pos < text.length()) {
+            var c = text.charAt(pos++);
+            if (c == quote) {
+                return result.toString();
+            }
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            var escaped = text.charAt(pos++);
+            switch (escaped) {
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                case '\\':
+                case '\'':
+                case '"':
+                    result.append(escaped);
+                    break;
+                default:
+                    throw unsupported();
+            }
+        }
+        throw unsupported();
+    }
+
+    private double numberLiteral() {
+        var start = pos;
+        while (pos < text.length() && (isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                pos++;
+            }
+            while (pos < text.length() && isDigit(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        var literal = text.substring(start, pos);
+        if ((pos < text.length() && isIdentifierPart(text.charAt(pos))) ||
+                (literal.length() > 1 && literal.charAt(0) == '0' && literal.charAt(1) != '.')) {
+            throw unsupported();
+        }
+        try {
+            return Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            throw unsupported();
+        }
+    }
+
+    private boolean accept(String token) {
+        skipSpaces();
+        if (!text.startsWith(token, pos)) {
+            return false;
+        }
+        // Do not take the first characters of a longer operator, e.g. "<" out of "<="
+        for (var operator : OPERATORS) {
+            if (operator.length() > token.length() && operator.startsWith(token) && text.startsWith(operator, pos)) {
+                return false;
+            }
+        }
+        pos += token.length();
+        return true;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw unsupported();
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException unsupported() {
+        return new IllegalArgumentException("Unsupported expression at " + pos + ": " + text);
+    }
+
+    private static String asString(Object target, String member) {
+        if (!(target instanceof String)) {
+            throw new IllegalStateException(member + " is not supported on " + JsValues.toString(target));
+        }
+        return (String) target;
+    }
+
+    private static int clampIndex(Object index, int length) {
+        return Math.max(0, Math.min(length, toInteger(index)));
+    }
+
+    private static int toInteger(Object value) {
+        var number = JsValues.toNumber(value);
+        if (Double.isNaN(number)) {
+            return 0;
+        }
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, number));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$';
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.melviz.dataset.DataSet;
+import org.melviz.displayer.DisplayerSettingsFactory;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.melviz.dataset.ExpenseReportsData.COLUMN_AMOUNT;
+import static org.melviz.dataset.ExpenseReportsData.COLUMN_CITY;
+import static org.melviz.dataset.ExpenseReportsData.COLUMN_ID;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ColumnRenderPlanTest extends AbstractDisplayerTest {
+
+    List<String> expressions = new ArrayList<>();
+
+    AbstractDisplayer createDisplayer() {
+        var settings = DisplayerSettingsFactory.newTableSettings()
+                .dataset(EXPENSES)
+                .column(COLUMN_ID)
+                .column(COLUMN_CITY).expression("value.toUpperCase()")
+                .column(COLUMN_AMOUNT).format("Amount", "#,##0.0")
+                .buildSettings();
+        settings.setColumnEmptyTemplate(COLUMN_AMOUNT, "none");
+        var displayer = createNewDisplayer(settings);
+        displayer.draw();
+        displayer.setEvaluator((value, expression) -> {
+            expressions.add(expression);
+            return value;
+        });
+        return displayer;
+    }
+
+    @Test
+    public void testPlanReused() {
+        var displayer = createDisplayer();
+        DataSet dataSet = displayer.getDataSetHandler().getLastDataSet();
+        var plan = displayer.getRenderPlan(2);
+
+        assertSame(plan, displayer.getRenderPlan(dataSet.getColumnByIndex(2)));
+        assertEquals("#,##0.0", plan.getSettings().getValuePattern());
+        assertEquals("none", plan.getSettings().getEmptyTemplate());
+
+        displayer.redraw();
+        assertNotSame(plan, displayer.getRenderPlan(2));
+    }
+
+    @Test
+    public void testFormat() {
+        var displayer = createDisplayer();
+        DataSet dataSet = displayer.getDataSetHandler().getLastDataSet();
+        var amount = displayer.getRenderPlan(2);
+        var city = displayer.getRenderPlan(1);
+
+        assertEquals("1,000.5", amount.format(1000.5d));
+        assertEquals("none", amount.format(null));
+        assertEquals(displayer.formatValue(0, 2), amount.format(dataSet, 0, 2));
+        assertEquals(dataSet.getValueAt(3, 1), city.format(dataSet, 3, 1));
+        assertEquals(dataSet.getValueAt(3, 1), city.evaluate(dataSet.getValueAt(3, 1)));
+
+        // the default "value" expression is not evaluated
+        assertEquals(List.of("value.toUpperCase()", "value.toUpperCase()"), expressions);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetLookup;
+import org.melviz.dataset.client.DataSetClientServices;
+import org.melviz.dataset.client.DataSetReadyCallback;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataSetLookupBatchTest {
+
+    @Mock
+    DataSetClientServices clientServices;
+
+    @Mock
+    DataSet dataSet;
+
+    @Test
+    public void testIdenticalLookupsShared() throws Exception {
+        var batch = new DataSetLookupBatch();
+        var first = mock(DataSetReadyCallback.class);
+        var second = mock(DataSetReadyCallback.class);
+        var late = mock(DataSetReadyCallback.class);
+        when(second.getPriority()).thenReturn(DataSetReadyCallback.VISIBLE_PRIORITY);
+
+        batch.lookupDataSet(clientServices, new DataSetLookup("expenses"), first);
+        batch.lookupDataSet(clientServices, new DataSetLookup("expenses"), second);
+        batch.lookupDataSet(clientServices, new DataSetLookup("other"), mock(DataSetReadyCallback.class));
+        assertEquals(2, batch.getLookupCount());
+
+        var captor = ArgumentCaptor.forClass(DataSetReadyCallback.class);
+        verify(clientServices).lookupDataSet(eq(new DataSetLookup("expenses")), captor.capture());
+        verify(clientServices, times(2)).lookupDataSet(any(DataSetLookup.class), any(DataSetReadyCallback.class));
+        assertEquals(DataSetReadyCallback.VISIBLE_PRIORITY, captor.getValue().getPriority());
+
+        captor.getValue().callback(dataSet);
+        verify(first).callback(dataSet);
+        verify(second).callback(dataSet);
+
+        // Lookups joining once the result is available get it straight away
+        batch.lookupDataSet(clientServices, new DataSetLookup("expenses"), late);
+        verify(late).callback(dataSet);
+        verify(clientServices, times(2)).lookupDataSet(any(DataSetLookup.class), any(DataSetReadyCallback.class));
+    }
+}
@@ -14,6 +14,7 @@
  */
 package org.melviz.displayer.client;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -22,6 +23,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.melviz.common.client.error.ClientRuntimeError;
 import org.melviz.dataset.DataSet;
+import org.melviz.dataset.def.DataSetDef;
+import org.melviz.dataset.events.DataSetModifiedEvent;
 import org.melviz.dataset.filter.CoreFunctionFilter;
 import org.melviz.dataset.filter.CoreFunctionType;
 import org.melviz.dataset.filter.DataSetFilter;
@@ -35,6 +38,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_AMOUNT;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_CITY;
@@ -121,6 +125,7 @@ public class DisplayerCoordinatorTest extends AbstractDisplayerTest {
         quarterPieChart = createNewDisplayer(byQuarter);
 
         displayerCoordinator = new DisplayerCoordinator(rendererManager);
+        displayerCoordinator.setRedrawScheduler(new RedrawScheduler(Runnable::run, Runnable::run));
         displayerCoordinator.addDisplayers(allRowsTable, deptPieChart, deptSelector, yearBarChart, quarterPieChart);
         displayerCoordinator.addListener(listener);
     }
@@ -133,6 +138,63 @@ public class DisplayerCoordinatorTest extends AbstractDisplayerTest {
         verify(listener, times(5)).onDraw(any(Displayer.class));
     }
 
+    @Test
+    public void testRedrawModifiedDataSet() {
+        var otherDef = new DataSetDef();
+        otherDef.setUUID("other");
+        displayerCoordinator.onDataSetModified(new DataSetModifiedEvent(otherDef));
+        verify(listener, never()).onRedraw(any(Displayer.class));
+
+        // only drawn displayers are redrawn
+        var def = new DataSetDef();
+        def.setUUID(EXPENSES);
+        displayerCoordinator.onDataSetModified(new DataSetModifiedEvent(def));
+        verify(listener, never()).onRedraw(any(Displayer.class));
+
+        displayerCoordinator.drawAll();
+        displayerCoordinator.onDataSetModified(new DataSetModifiedEvent(def));
+        verify(listener, times(5)).onRedraw(any(Displayer.class));
+    }
+
+    @Test
+    public void testRedrawsCoalescedWithinFrame() {
+        var frames = new ArrayList<Runnable>();
+        var deferred = new ArrayList<Runnable>();
+        displayerCoordinator.setRedrawScheduler(new RedrawScheduler(frames::add, deferred::add) {
+
+            @Override
+            protected boolean isVisible(Displayer displayer) {
+                return displayer == allRowsTable;
+            }
+        });
+        displayerCoordinator.drawAll();
+
+        // Two clicks within the same frame
+        reset(listener);
+        deptPieChart.filterUpdate(COLUMN_DEPARTMENT, 0);
+        deptPieChart.filterUpdate(COLUMN_DEPARTMENT, 1);
+        verify(listener, never()).onRedraw(allRowsTable);
+        assertEquals(1, frames.size());
+
+        // The visible displayer is redrawn once, the others wait
+        frames.remove(0).run();
+        verify(listener, times(1)).onRedraw(allRowsTable);
+        verify(listener, never()).onRedraw(yearBarChart);
+        assertTrue(displayerCoordinator.getRedrawScheduler().isScheduled(yearBarChart));
+        assertEquals(30, allRowsTable.getDataSetHandler().getLastDataSet().getRowCount());
+
+        // A further click supersedes the deferred redraws
+        deptPieChart.filterUpdate(COLUMN_DEPARTMENT, 1);
+        frames.remove(0).run();
+        assertEquals(2, deferred.size());
+        deferred.remove(0).run();
+        verify(listener, never()).onRedraw(yearBarChart);
+        deferred.remove(0).run();
+        verify(listener, times(1)).onRedraw(yearBarChart);
+        verify(listener, times(1)).onRedraw(quarterPieChart);
+        assertFalse(displayerCoordinator.getRedrawScheduler().isScheduled(yearBarChart));
+    }
+
     @Test
     public void testFilterPropagations() {
         displayerCoordinator.drawAll();
@@ -285,6 +347,7 @@ public class DisplayerCoordinatorTest extends AbstractDisplayerTest {
                         .buildSettings());
 
         displayerCoordinator = new DisplayerCoordinator(rendererManager);
+        displayerCoordinator.setRedrawScheduler(new RedrawScheduler(Runnable::run, Runnable::run));
         displayerCoordinator.addDisplayers(deptPieChart, tableNoColumns);
         displayerCoordinator.addListener(listener);
         displayerCoordinator.drawAll();
@@ -0,0 +1,108 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DisplayerExprEvalTest {
+
+    @Mock
+    AbstractDisplayer displayer;
+
+    @Test
+    public void testExpressionCompiledOnce() {
+        var evaluator = new DisplayerExprEval(displayer);
+        var expression = evaluator.compile("value * 100");
+
+        assertSame(expression, evaluator.compile("value * 100"));
+        assertSame(expression, new DisplayerExprEval(displayer).compile("value * 100"));
+        assertEquals("50", evaluator.evalExpression("0.5", "value * 100"));
+        assertEquals("abc", evaluator.evalExpression("abc", "value"));
+        assertEquals("abc", evaluator.evalExpression("abc", " "));
+    }
+
+    @Test
+    public void testResultsMemoised() {
+        var counter = new int[1];
+        DisplayerExprEval.compiledExpressions.put("memoised(value)", new DisplayerExprEval.PureExpression(value -> {
+            counter[0]++;
+            return value + "!";
+        }));
+        var evaluator = new DisplayerExprEval(displayer);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a!", evaluator.evalExpression("a", "memoised(value)"));
+            assertEquals("b!", evaluator.evalExpression("b", "memoised(value)"));
+        }
+        assertEquals(2, counter[0]);
+
+        for (int i = 0; i < DisplayerExprEval.MAX_MEMOISED_RESULTS + 10; i++) {
+            evaluator.evalExpression(String.valueOf(i), "memoised(value)");
+        }
+        counter[0] = 0;
+        evaluator.evalExpression(String.valueOf(DisplayerExprEval.MAX_MEMOISED_RESULTS + 5), "memoised(value)");
+        evaluator.evalExpression(String.valueOf(DisplayerExprEval.MAX_MEMOISED_RESULTS + 5), "memoised(value)");
+        assertEquals(2, counter[0]);
+    }
+
+    @Test
+    public void testScriptResultsNotMemoised() {
+        var counter = new int[1];
+        DisplayerExprEval.compiledExpressions.put("script(value)", value -> {
+            counter[0]++;
+            return value + counter[0];
+        });
+        var evaluator = new DisplayerExprEval(displayer);
+        assertEquals("a1", evaluator.evalExpression("a", "script(value)"));
+        assertEquals("a2", evaluator.evalExpression("a", "script(value)"));
+        assertTrue(evaluator.compile("value * 100") instanceof DisplayerExprEval.PureExpression);
+    }
+
+    @Test
+    public void testCompiledExpressionsBounded() {
+        var evaluator = new DisplayerExprEval(displayer);
+        try {
+            for (int i = 0; i < DisplayerExprEval.MAX_COMPILED_EXPRESSIONS + 10; i++) {
+                evaluator.compile("value * " + i);
+            }
+            assertEquals(DisplayerExprEval.MAX_COMPILED_EXPRESSIONS, DisplayerExprEval.compiledExpressions.size());
+            assertEquals("10", evaluator.evalExpression("2", "value * 5"));
+        } finally {
+            DisplayerExprEval.compiledExpressions.clear();
+        }
+    }
+
+    @Test
+    public void testMaliciousExpression() {
+        var evaluator = new DisplayerExprEval(displayer);
+        try {
+            evaluator.evalExpression("a", "window.location");
+            fail("Expression should be rejected");
+        } catch (RuntimeException e) {
+            verify(displayer).handleError(anyString());
+        }
+    }
+}
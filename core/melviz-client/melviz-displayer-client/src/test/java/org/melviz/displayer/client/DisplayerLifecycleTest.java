@@ -14,8 +14,12 @@
  */
 package org.melviz.displayer.client;
 
+import java.util.ArrayList;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.melviz.common.client.error.ClientRuntimeError;
+import org.melviz.dataset.client.DataSetReadyCallback;
 import org.melviz.displayer.DisplayerSettings;
 import org.melviz.displayer.DisplayerSettingsFactory;
 import org.mockito.Mock;
@@ -23,13 +27,19 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.melviz.dataset.Assertions.assertDataSetValues;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_AMOUNT;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_DATE;
 import static org.melviz.dataset.group.AggregateFunctionType.COUNT;
 import static org.melviz.dataset.group.AggregateFunctionType.SUM;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
@@ -118,4 +128,31 @@ public class DisplayerLifecycleTest extends AbstractDisplayerTest {
         verify(view).clear();
         verify(listener).onClose(displayer);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSupersededRedrawDiscarded() throws Exception {
+        AbstractDisplayer displayer = (AbstractDisplayer) displayerLocator.lookupDisplayer(settings);
+        displayer.addListener(listener);
+        displayer.draw();
+        var dataSet = displayer.getDataSetHandler().getLastDataSet();
+
+        var callbacks = new ArrayList<DataSetReadyCallback>();
+        var handler = mock(DataSetHandler.class);
+        doAnswer(invocation -> callbacks.add(invocation.getArgument(0)))
+                .when(handler).lookupDataSet(any(DataSetReadyCallback.class));
+        displayer.setDataSetHandler(handler);
+
+        reset(listener);
+        displayer.redraw();
+        displayer.redraw();
+        callbacks.get(1).callback(dataSet);
+        verify(listener, times(1)).onRedraw(displayer);
+
+        // The late result of the first redraw is ignored
+        callbacks.get(0).callback(dataSet.cloneInstance());
+        assertTrue(callbacks.get(0).onError(new ClientRuntimeError("late")));
+        verify(listener, times(1)).onRedraw(displayer);
+        assertSame(dataSet, displayer.dataSet);
+        assertTrue(displayer.isDrawn());
+    }
+}
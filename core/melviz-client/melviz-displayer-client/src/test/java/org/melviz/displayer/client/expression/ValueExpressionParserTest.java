@@ -0,0 +1,144 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.displayer.client.expression;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ValueExpressionParserTest {
+
+    private static String eval(String expression, String value) {
+        return ValueExpressionParser.parse(expression).eval(value);
+    }
+
+    private static void assertUnsupported(String expression) {
+        try {
+            ValueExpressionParser.parse(expression);
+            fail("Expression should not be supported: " + expression);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testArithmetic() {
+        assertEquals("6", eval("value * 2", "3"));
+        assertEquals("7", eval("1 + value * 2", "3"));
+        assertEquals("26", eval("(1 + value) * 2", "3"));
+        assertEquals("8", eval("(1 + +value) * 2", "3"));
+        assertEquals("1.5", eval("value / 2", "3"));
+        assertEquals("1", eval("value % 2", "3"));
+        assertEquals("-3", eval("-value", "3"));
+        assertEquals("0.30000000000000004", eval("0.1 + +value", "0.2"));
+        assertEquals("NaN", eval("value * 2", "abc"));
+        assertEquals("Infinity", eval("value / 0", "1"));
+        assertEquals("10", eval("value * 10", " 1 "));
+        assertEquals("0", eval("value * 10", ""));
+        assertEquals("32", eval("value * 2", "0x10"));
+    }
+
+    @Test
+    public void testNumberToString() {
+        assertEquals("1e+21", eval("value * 1", "1e21"));
+        assertEquals("100000000000000000000", eval("value * 1", "1e20"));
+        assertEquals("12345678.9", eval("value * 1", "12345678.9"));
+        assertEquals("0.000001", eval("value * 1", "0.000001"));
+        assertEquals("1e-7", eval("value * 1", "0.0000001"));
+        assertEquals("-1.5e-7", eval("value * 1", "-0.00000015"));
+        assertEquals("0", eval("value * -1", "0"));
+    }
+
+    @Test
+    public void testStrings() {
+        assertEquals("32", eval("value + 2", "3"));
+        assertEquals("5", eval("+value + 2", "3"));
+        assertEquals("5", eval("Number(value) + 2", "3"));
+        assertEquals("3 %", eval("value + ' %'", "3"));
+        assertEquals("Total: 3\"", eval("\"Total: \" + value + '\\\"'", "3"));
+        assertEquals("ABC", eval("value.toUpperCase()", "abc"));
+        assertEquals("abc", eval("value.toLowerCase()", "ABC"));
+        assertEquals("abc", eval("value.trim()", "  abc "));
+        assertEquals("bc", eval("value.substring(1)", "abc"));
+        assertEquals("ab", eval("value.substring(2, 0)", "abc"));
+        assertEquals("3", eval("value.length", "abc"));
+        assertEquals("truefalse", eval("String(true) + false", "x"));
+    }
+
+    @Test
+    public void testMath() {
+        assertEquals("3.14", eval("Number(value).toFixed(2)", "3.14159"));
+        assertEquals("1.00", eval("(value * 1).toFixed(2)", "1.005"));
+        assertEquals("-2", eval("(value * 1).toFixed()", "-1.5"));
+        assertEquals("-0.00", eval("(value * 1).toFixed(2)", "-0.0001"));
+        assertEquals("3", eval("Math.round(value)", "2.5"));
+        assertEquals("-2", eval("Math.round(value)", "-2.5"));
+        assertEquals("2", eval("Math.floor(value)", "2.7"));
+        assertEquals("3", eval("Math.ceil(value)", "2.1"));
+        assertEquals("2.5", eval("Math.abs(value)", "-2.5"));
+        assertEquals("5", eval("Math.max(1, value, 3)", "5"));
+        assertEquals("1", eval("Math.min(1, value, 3)", "5"));
+    }
+
+    @Test
+    public void testConditions() {
+        assertEquals("High", eval("value > 50 ? 'High' : 'Low'", "100"));
+        assertEquals("Low", eval("value >= 50 ? 'High' : 'Low'", "9"));
+        assertEquals("true", eval("value < 'b'", "abc"));
+        assertEquals("false", eval("value < 10", "9a"));
+        assertEquals("true", eval("value == 1", "1.0"));
+        assertEquals("false", eval("value === 1", "1.0"));
+        assertEquals("true", eval("value !== '1'", "1.0"));
+        assertEquals("none", eval("value || 'none'", ""));
+        assertEquals("b", eval("value && 'b'", "a"));
+        assertEquals("true", eval("!(value > 1) && value != 2", "0"));
+        assertEquals("c", eval("value == 1 ? 'a' : value == 2 ? 'b' : 'c'", "3"));
+    }
+
+    @Test
+    public void testTypeErrors() {
+        try {
+            eval("value.toFixed(2)", "3");
+            fail("toFixed is not defined for strings");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            eval("value + 1", null);
+            fail("Null values are not supported");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertUnsupported("var x = value * 2; x");
+        assertUnsupported("value * 2;");
+        assertUnsupported("value = 2");
+        assertUnsupported("value ** 2");
+        assertUnsupported("value & 1");
+        assertUnsupported("new Date(value)");
+        assertUnsupported("parseInt(value)");
+        assertUnsupported("value.replace('a', 'b')");
+        assertUnsupported("Math.random()");
+        assertUnsupported("`${value}`");
+        assertUnsupported("'abc");
+        assertUnsupported("010");
+        assertUnsupported("(value");
+    }
+}
@@ -19,11 +19,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
 
+import elemental2.dom.DomGlobal;
 import elemental2.dom.HTMLElement;
 import org.uberfire.client.mvp.UberElemental;
 
@@ -31,10 +33,20 @@ import org.uberfire.client.mvp.UberElemental;
 public class Table {
 
     private static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Number of pages after the one shown that are built in advance.
+     */
+    private static final int PREFETCH_PAGES = 1;
+
     @Inject
     View view;
 
+    /**
+     * The rows built so far. Rows are only built once they are about to be shown.
+     */
     private Value[][] data;
+    private IntFunction<String[]> rowFunction;
     private int pageSize;
     private String search;
     private BiConsumer<String, Integer> onCellSelectedListener;
@@ -75,42 +87,76 @@ public class Table {
     public void buildTable(List<String> columns,
                            String[][] data,
                            int pageSize) {
-        this.data = buildData(data);
+        buildTable(columns, data.length, i -> data[i], pageSize);
+    }
+
+    /**
+     * Build a table whose rows are only produced when they are about to be shown.
+     *
+     * @param rowCount The number of rows.
+     * @param rowFunction Produces the cell values of the given row.
+     * @param pageSize The number of rows per page.
+     */
+    public void buildTable(List<String> columns,
+                           int rowCount,
+                           IntFunction<String[]> rowFunction,
+                           int pageSize) {
+        this.data = new Value[rowCount][];
+        this.rowFunction = rowFunction;
         this.pageSize = pageSize > 1 ? pageSize : DEFAULT_PAGE_SIZE;
         view.setColumns(columns);
-        view.setPagination(data.length, this.pageSize);
+        view.setPagination(rowCount, this.pageSize);
         showPage(1);
     }
 
-    private Value[][] buildData(String[][] data) {
-        var dataValue = new Value[data.length][];
-        for (int i = 0; i < data.length; i++) {
-            dataValue[i] = new Value[data[i].length];
-            for (int j = 0; data[i] != null && j < data[i].length; j++) {
-                dataValue[i][j] = new Value(i, data[i][j]);
-            }
-        }
-        return dataValue;
-    }
-
     public void showPage(int page) {
-        if (data == null || data.length == 0 || data[0] == null) {
+        if (data == null || data.length == 0) {
+            return;
+        }
+        var begin = Math.max(pageSize * (page - 1), 0);
+        if (isSearching()) {
+            var filteredData = filter();
+            var end = Math.min(pageSize * page, filteredData.length);
+            view.setData(begin < end ? Arrays.copyOfRange(filteredData, begin, end) : new Value[0][]);
             return;
         }
-        var filteredData = filter();
-        var begin = pageSize * (page - 1);
-        var end = pageSize * page;
 
-        if (begin < 0) {
-            begin = 0;
+        var end = Math.min(pageSize * page, data.length);
+        var pagedData = new Value[Math.max(end - begin, 0)][];
+        for (int i = 0; i < pagedData.length; i++) {
+            pagedData[i] = getRow(begin + i);
         }
+        view.setData(pagedData);
+        prefetch(end);
+    }
 
-        if (end > data.length) {
-            end = data.length;
+    Value[] getRow(int i) {
+        var row = data[i];
+        if (row == null) {
+            var values = rowFunction.apply(i);
+            row = new Value[values.length];
+            for (int j = 0; j < values.length; j++) {
+                row[j] = new Value(i, values[j]);
+            }
+            data[i] = row;
         }
+        return row;
+    }
 
-        var pagedData = Arrays.copyOfRange(filteredData, begin, end);
-        view.setData(pagedData);
+    private void prefetch(int from) {
+        var target = data;
+        var to = Math.min(from + pageSize * PREFETCH_PAGES, data.length);
+        if (from >= to || target[to - 1] != null) {
+            return;
+        }
+        DomGlobal.setTimeout(p -> {
+            // the table may have been rebuilt in the meantime
+            if (data == target) {
+                for (int i = from; i < to; i++) {
+                    getRow(i);
+                }
+            }
+        }, 0);
     }
 
     public void onFilterChange(String value) {
@@ -125,16 +171,26 @@ public class Table {
 
     }
 
-    Value[][] filter() {
+    private boolean isSearching() {
         // isBlank do not work with current GWT version
-        if (search == null || search.trim().isEmpty()) {
+        return search != null && !search.trim().isEmpty();
+    }
+
+    Value[][] filter() {
+        if (!isSearching()) {
+            for (int i = 0; i < data.length; i++) {
+                getRow(i);
+            }
             return data;
         }
+        // searching needs every row to be built
+        var searchText = search.toLowerCase();
         var filteredData = new ArrayList<Value[]>();
         for (int i = 0; i < data.length; i++) {
-            for (int j = 0; j < data[i].length; j++) {
-                if (data[i][j].toString().toLowerCase().contains(search.toLowerCase())) {
-                    filteredData.add(data[i]);
+            var row = getRow(i);
+            for (int j = 0; j < row.length; j++) {
+                if (row[j].toString().toLowerCase().contains(searchText)) {
+                    filteredData.add(row);
                     break;
                 }
             }
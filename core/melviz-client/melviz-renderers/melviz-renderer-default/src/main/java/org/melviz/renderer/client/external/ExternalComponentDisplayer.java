@@ -167,11 +167,15 @@ public class ExternalComponentDisplayer extends AbstractDisplayer<ExternalCompon
         int cols = columns.size();
         if (cols > 0) {
             int rows = columns.get(0).getValues().size();
+            var expressions = new String[cols];
+            for (int j = 0; j < cols; j++) {
+                expressions[j] = getValueExpression(columns.get(j).getId());
+            }
             result = new String[rows][];
             for (int i = 0; i < rows; i++) {
                 var line = new String[cols];
                 for (int j = 0; j < cols; j++) {
-                    line[j] = getEvaluatedValue(ds, i, j);
+                    line[j] = getEvaluatedValue(ds, i, j, expressions[j]);
                 }
                 result[i] = line;
             }
@@ -227,17 +231,24 @@ public class ExternalComponentDisplayer extends AbstractDisplayer<ExternalCompon
         }
     }
 
-    private String getEvaluatedValue(DataSet ds, int i, int j) {
+    private String getValueExpression(String columnId) {
+        ColumnSettings settings = displayerSettings.getColumnSettings(columnId);
+        if (settings != null) {
+            String expression = settings.getValueExpression();
+            if (!StringUtils.isBlank(expression) && !ColumnSettings.EXPRESSION.equals(expression)) {
+                return expression;
+            }
+        }
+        return null;
+    }
+
+    private String getEvaluatedValue(DataSet ds, int i, int j, String expression) {
         String value = columnValueToString(ds.getValueAt(i, j));
+        if (expression == null) {
+            return value;
+        }
         try {
-            String columnId = ds.getColumnByIndex(j).getId();
-            ColumnSettings settings = displayerSettings.getColumnSettings(columnId);
-            if (settings != null) {
-                String expression = settings.getValueExpression();
-                if (!StringUtils.isBlank(expression)) {
-                    return getEvaluator().evalExpression(value, expression);
-                }
-            }
+            return getEvaluator().evalExpression(value, expression);
         } catch (Exception e) {
             DomGlobal.console.debug("Error evaluating value at " + i + "," + j);
             DomGlobal.console.debug(e);
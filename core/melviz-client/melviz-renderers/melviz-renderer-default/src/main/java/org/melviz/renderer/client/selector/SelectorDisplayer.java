@@ -139,7 +139,7 @@ public class SelectorDisplayer extends AbstractDisplayer<SelectorDisplayer.View>
                 for (int j = 1; j < ncolumns; j++) {
 
                     DataColumn extraColumn = dataSet.getColumnByIndex(j);
-                    columnSettings = displayerSettings.getColumnSettings(extraColumn);
+                    columnSettings = getRenderPlan(extraColumn).getSettings();
                     String extraColumnName = columnSettings.getColumnName();
                     Object extraValue = dataSet.getValueAt(i, j);
 
@@ -182,7 +182,7 @@ public class SelectorDropDownDisplayer extends AbstractDisplayer<SelectorDropDow
             if (ncolumns > 1) {
                 for (int j = 1; j < ncolumns; j++) {
                     DataColumn extraColumn = dataSet.getColumnByIndex(j);
-                    columnSettings = displayerSettings.getColumnSettings(extraColumn);
+                    columnSettings = getRenderPlan(extraColumn).getSettings();
                     String extraColumnName = columnSettings.getColumnName();
                     Object extraValue = dataSet.getValueAt(i, j);
                     if (extraValue != null) {
@@ -169,7 +169,7 @@ public class SelectorLabelSetDisplayer extends AbstractDisplayer<SelectorLabelSe
                 if (ncolumns > 1) {
                     for (int j = 1; j < ncolumns; j++) {
                         DataColumn extraColumn = dataSet.getColumnByIndex(j);
-                        ColumnSettings columnSettings = displayerSettings.getColumnSettings(extraColumn);
+                        ColumnSettings columnSettings = getRenderPlan(extraColumn).getSettings();
                         String extraColumnName = columnSettings.getColumnName();
                         Object extraValue = dataSet.getValueAt(i, j);
                         if (extraValue != null) {
@@ -26,6 +26,7 @@ import org.melviz.common.client.widgets.FilterLabel;
 import org.melviz.common.client.widgets.FilterLabelSet;
 import org.melviz.dataset.ColumnType;
 import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.DataSet;
 import org.melviz.dataset.DataSetLookupConstraints;
 import org.melviz.dataset.filter.DataSetFilter;
 import org.melviz.dataset.group.DataSetGroup;
@@ -35,6 +36,7 @@ import org.melviz.displayer.DisplayerAttributeDef;
 import org.melviz.displayer.DisplayerAttributeGroupDef;
 import org.melviz.displayer.DisplayerConstraints;
 import org.melviz.displayer.client.AbstractDisplayer;
+import org.melviz.displayer.client.ColumnRenderPlan;
 import org.melviz.displayer.client.Displayer;
 
 @Dependent
@@ -42,13 +44,23 @@ public class TableDisplayer extends AbstractDisplayer<TableDisplayer.View> {
 
     public interface View extends AbstractDisplayer.View<TableDisplayer> {
 
+        /**
+         * Provides the formatted table rows on demand, so only the rows actually shown need to be formatted.
+         */
+        interface RowProvider {
+
+            int getRowCount();
+
+            String[] getRow(int row);
+        }
+
         String getGroupsTitle();
 
         String getColumnsTitle();
 
         void showTitle(String title);
 
-        void redrawTable(List<String> columnsNames, String[][] data, int pageSize);
+        void redrawTable(List<String> columnsNames, RowProvider rows, int pageSize);
 
         void setWidth(int width);
 
@@ -149,20 +161,38 @@ public class TableDisplayer extends AbstractDisplayer<TableDisplayer.View> {
                 .map(ColumnSettings::getColumnName)
                 .collect(Collectors.toList());
 
-        var data = new String[dataSet.getRowCount()][columns.size()];
-        for (int i = 0; i < dataSet.getRowCount(); i++) {
-            for (int j = 0; j < columns.size(); j++) {
-                var value = dataSet.getValueAt(i, j);
-                var column = columns.get(j);
-                data[i][j] = super.formatValue(value, column);
-            }
+        // the rows are formatted as pages are shown, from the data set at hand when the table was drawn
+        var tableDataSet = dataSet;
+        var plans = new ColumnRenderPlan[columns.size()];
+        for (int j = 0; j < plans.length; j++) {
+            plans[j] = getRenderPlan(columns.get(j));
         }
+        var rows = new View.RowProvider() {
+
+            @Override
+            public int getRowCount() {
+                return tableDataSet.getRowCount();
+            }
+
+            @Override
+            public String[] getRow(int row) {
+                return formatRow(plans, tableDataSet, row);
+            }
+        };
 
         view.gotoFirstPage();
-        view.redrawTable(columnsNames, data, displayerSettings.getTablePageSize());
+        view.redrawTable(columnsNames, rows, displayerSettings.getTablePageSize());
         updateFilterStatus();
     }
 
+    protected String[] formatRow(ColumnRenderPlan[] plans, DataSet tableDataSet, int row) {
+        var values = new String[plans.length];
+        for (int j = 0; j < plans.length; j++) {
+            values[j] = plans[j].format(tableDataSet.getValueAt(row, j));
+        }
+        return values;
+    }
+
     protected void updateFilterStatus() {
         filterLabelSet.clear();
         Set<String> columnFilters = filterColumns();
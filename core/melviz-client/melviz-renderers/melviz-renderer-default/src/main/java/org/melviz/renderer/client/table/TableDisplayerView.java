@@ -78,8 +78,8 @@ public class TableDisplayerView extends AbstractDisplayerView<TableDisplayer> im
 	}
 
 	@Override
-	public void redrawTable(List<String> columnsNames, String[][] data, int pageSize) {
-		table.buildTable(columnsNames, data, pageSize);
+	public void redrawTable(List<String> columnsNames, RowProvider rows, int pageSize) {
+		table.buildTable(columnsNames, rows.getRowCount(), rows::getRow, pageSize);
 	}
 
 	@Override
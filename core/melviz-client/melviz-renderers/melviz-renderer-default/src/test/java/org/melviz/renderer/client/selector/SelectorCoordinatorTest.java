@@ -30,6 +30,7 @@ import org.melviz.displayer.client.AbstractDisplayerTest;
 import org.melviz.displayer.client.Displayer;
 import org.melviz.displayer.client.DisplayerCoordinator;
 import org.melviz.displayer.client.DisplayerListener;
+import org.melviz.displayer.client.RedrawScheduler;
 import org.melviz.displayer.client.widgets.filter.DateParameterEditor;
 import org.melviz.displayer.client.widgets.filter.NumberParameterEditor;
 import org.mockito.Mock;
@@ -171,6 +172,7 @@ public class SelectorCoordinatorTest extends AbstractDisplayerTest {
         deptDropDownDisplayer = createDropDownDisplayer(dropDownDept);
 
         displayerCoordinator = new DisplayerCoordinator(rendererManager);
+        displayerCoordinator.setRedrawScheduler(new RedrawScheduler(Runnable::run, Runnable::run));
         displayerCoordinator.addDisplayers(allRowsDisplayer, dateSliderDisplayer, numberSliderDisplayer, yearLabelDisplayer, cityDropDownDisplayer, deptDropDownDisplayer);
         displayerCoordinator.addListener(listener);
     }
@@ -14,6 +14,9 @@
  */
 package org.melviz.renderer.client.table;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.melviz.common.client.widgets.FilterLabel;
@@ -25,14 +28,19 @@ import org.melviz.displayer.DisplayerSettingsFactory;
 import org.melviz.displayer.client.AbstractDisplayerTest;
 import org.melviz.displayer.client.DisplayerListener;
 import org.melviz.displayer.client.formatter.ValueFormatter;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.uberfire.mvp.Command;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_DEPARTMENT;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_EMPLOYEE;
 import static org.melviz.dataset.ExpenseReportsData.COLUMN_ID;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -87,6 +95,42 @@ public class TableDisplayerTest extends AbstractDisplayerTest {
         verify(displayerListener, never()).onRedraw(table);
     }
 
+    @Test
+    public void testRowsFormattedOnDemand() {
+        TableDisplayer table = createTableDisplayer(DisplayerSettingsFactory.newTableSettings()
+                .dataset(EXPENSES)
+                .column(COLUMN_ID)
+                .column(COLUMN_EMPLOYEE)
+                .tablePageSize(10)
+                .buildSettings());
+
+        List<Object> formatted = new ArrayList<>();
+        table.addFormatter(COLUMN_EMPLOYEE, new ValueFormatter() {
+
+            public String formatValue(DataSet dataSet, int row, int column) {
+                return formatValue(dataSet.getValueAt(row, column));
+            }
+
+            public String formatValue(Object value) {
+                formatted.add(value);
+                return "employee " + value;
+            }
+        });
+        table.draw();
+
+        ArgumentCaptor<TableDisplayer.View.RowProvider> rowsCaptor =
+                ArgumentCaptor.forClass(TableDisplayer.View.RowProvider.class);
+        verify(table.getView()).redrawTable(any(), rowsCaptor.capture(), anyInt());
+        assertTrue(formatted.isEmpty());
+
+        DataSet dataSet = table.getDataSetHandler().getLastDataSet();
+        TableDisplayer.View.RowProvider rows = rowsCaptor.getValue();
+        assertEquals(50, rows.getRowCount());
+        String[] row = rows.getRow(3);
+        assertArrayEquals(new String[]{table.formatValue(3, 0), "employee " + dataSet.getValueAt(3, 1)}, row);
+        assertEquals(1, formatted.size());
+    }
+
     @Test
     public void testFormatEmpty() {
         TableDisplayer table = createTableDisplayer(DisplayerSettingsFactory.newTableSettings()
@@ -33,6 +33,7 @@ import org.melviz.displayer.DisplayerConstraints;
 import org.melviz.displayer.Mode;
 import org.melviz.displayer.Position;
 import org.melviz.displayer.client.AbstractDisplayer;
+import org.melviz.displayer.client.ColumnRenderPlan;
 import org.melviz.renderer.echarts.client.js.ECharts;
 import org.melviz.renderer.echarts.client.js.ECharts.Option;
 import org.melviz.renderer.echarts.client.js.ECharts.Renderer;
@@ -133,15 +134,18 @@ public abstract class EChartsAbstractDisplayer<V extends EChartsAbstractDisplaye
 
         var source = new Object[dataSet.getRowCount()][dataSet.getColumns().size()];
         var columns = dataSet.getColumns();
+        var plans = new ColumnRenderPlan[columns.size()];
+        for (int j = 0; j < plans.length; j++) {
+            plans[j] = getRenderPlan(columns.get(j));
+        }
         for (var i = 0; i < dataSet.getRowCount(); i++) {
             source[i] = new String[columns.size()];
             for (int j = 0; j < columns.size(); j++) {
                 var column = columns.get(j);
                 if (column.getColumnType() != ColumnType.NUMBER) {
-                    source[i][j] = super.formatValue(i, j);
+                    source[i][j] = plans[j].format(dataSet, i, j);
                 } else {
-                    var settings = displayerSettings.getColumnSettings(column);
-                    var value = super.evaluateValueToString(dataSet.getValueAt(i, j), settings);
+                    var value = plans[j].evaluate(dataSet.getValueAt(i, j));
                     try {
                         source[i][j] = Double.parseDouble(value);
                     } catch (Exception e) {
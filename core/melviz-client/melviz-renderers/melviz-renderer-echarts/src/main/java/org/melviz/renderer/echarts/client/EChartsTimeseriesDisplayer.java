@@ -92,11 +92,11 @@ public class EChartsTimeseriesDisplayer extends EChartsXYDisplayer {
 
     private Object getValue(DataColumn column, int i) {
         var value = column.getValues().get(i);
+        var plan = getRenderPlan(column);
         if (column.getColumnType() != ColumnType.NUMBER) {
-            return super.formatValue(value, column);
+            return plan.format(value);
         } else {
-            var settings = displayerSettings.getColumnSettings(column);
-            var valueStr = super.evaluateValueToString(value, settings);
+            var valueStr = plan.evaluate(value);
             try {
                 return Double.parseDouble(valueStr);
             } catch (Exception e) {
@@ -43,4 +43,9 @@ class DataSetReadyCallbackWrapper implements DataSetReadyCallback {
         return wrapped.onError(error);
     }
 
+    @Override
+    public int getPriority() {
+        return wrapped.getPriority();
+    }
+
 }
@@ -16,7 +16,7 @@
 package org.melviz.client.external;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -32,7 +32,9 @@ import org.melviz.dataset.def.DataSetDef;
 
 /**
  * This class avoids problems when multiple datasets attempts to fetch data at the same time, avoiding useless requests.
- *
+ * <p>Callbacks are queued by data set definition instance, so a definition replaced while its data is being fetched
+ * (e.g. with a new URL or headers) starts its own request instead of joining the stale one. Requests shared by
+ * different data sets are deduplicated by the {@link org.melviz.client.external.fetch.FetchScheduler}.</p>
  */
 @ApplicationScoped
 public class ExternalDataCallbackCoordinator {
@@ -41,24 +43,26 @@ public class ExternalDataCallbackCoordinator {
 
     @PostConstruct
     void setup() {
-        queueMap = new HashMap<>();
+        queueMap = new IdentityHashMap<>();
     }
 
     public DataSetReadyCallback getCallback(DataSetDef def,
                                             DataSetReadyCallback callback,
                                             Consumer<DataSetReadyCallback> action,
                                             Runnable cleanUp) {
-        if (!queueMap.containsKey(def)) {
-            var _queuedCallback = new QueuedDataSetReadyCallback(() -> {
-                queueMap.remove(def);
-                cleanUp.run();
-            });
-            queueMap.put(def, _queuedCallback);
-            action.accept(_queuedCallback);
-        }
         var queuedCallback = queueMap.get(def);
-        queuedCallback.addDataSetReadyCallback(callback);
-        return queueMap.get(def);
+        if (queuedCallback != null) {
+            queuedCallback.addDataSetReadyCallback(callback);
+            return queuedCallback;
+        }
+        var newQueuedCallback = new QueuedDataSetReadyCallback(() -> {
+            queueMap.remove(def);
+            cleanUp.run();
+        });
+        queueMap.put(def, newQueuedCallback);
+        newQueuedCallback.addDataSetReadyCallback(callback);
+        action.accept(newQueuedCallback);
+        return newQueuedCallback;
     }
 
     public class QueuedDataSetReadyCallback implements DataSetReadyCallback {
@@ -114,6 +118,11 @@ public class ExternalDataCallbackCoordinator {
             return result;
         }
 
+        @Override
+        public int getPriority() {
+            return queue.stream().mapToInt(DataSetReadyCallback::getPriority).max().orElse(DEFAULT_PRIORITY);
+        }
+
         private void cleanUp() {
             queue.clear();
             cleanUpCallback.run();
@@ -18,30 +18,37 @@ package org.melviz.client.external;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import elemental2.core.Global;
 import elemental2.dom.DomGlobal;
-import elemental2.dom.FormData;
-import elemental2.dom.Headers;
-import elemental2.dom.RequestInit;
-import elemental2.dom.Response;
 import elemental2.dom.URL;
 import elemental2.promise.IThenable;
 import org.melviz.client.RuntimeClientLoader;
+import org.melviz.client.external.csv.CSVDataSetReader;
+import org.melviz.client.external.fetch.FetchCancelledException;
+import org.melviz.client.external.fetch.FetchRequest;
+import org.melviz.client.external.fetch.FetchResponse;
+import org.melviz.client.external.fetch.FetchScheduler;
+import org.melviz.client.external.metrics.MetricsDataSetReader;
 import org.melviz.client.external.transformer.JSONAtaInjector;
 import org.melviz.client.external.transformer.JSONAtaTransformer;
 import org.melviz.common.client.error.ClientRuntimeError;
+import org.melviz.dataset.ColumnType;
 import org.melviz.dataset.DataSet;
 import org.melviz.dataset.DataSetLookup;
 import org.melviz.dataset.client.ClientDataSetManager;
 import org.melviz.dataset.client.DataSetReadyCallback;
 import org.melviz.dataset.client.ExternalDataSetParserProvider;
+import org.melviz.dataset.def.DataColumnDef;
 import org.melviz.dataset.def.ExternalDataSetDef;
 import org.melviz.dataset.def.HttpMethod;
+import org.melviz.dataset.events.DataSetModifiedEvent;
 
 import static org.melviz.common.client.StringUtils.isBlank;
 
@@ -50,6 +57,8 @@ public class ExternalDataSetClientProvider {
 
     private static final int OK_RESPONSE_CODE = 200;
 
+    private static final int NOT_MODIFIED_RESPONSE_CODE = 304;
+
     @Inject
     ClientDataSetManager clientDataSetManager;
 
@@ -62,16 +71,35 @@ public class ExternalDataSetClientProvider {
     @Inject
     RuntimeClientLoader runtimeClientLoader;
 
+    @Inject
+    CSVDataSetReader csvReader;
+
+    @Inject
+    MetricsDataSetReader metricsReader;
+
+    @Inject
+    FetchScheduler fetchScheduler;
+
+    @Inject
+    Event<DataSetModifiedEvent> dataSetModifiedEvent;
+
     private Map<String, ExternalDataSetDef> externalDataSets;
 
     private Map<String, Double> scheduledTimeouts;
 
+    /**
+     * Latest response of the stale while revalidate data sets, used to detect unchanged content. Only the
+     * validators and a digest of the content are kept, not the content itself.
+     */
+    private Map<String, ResponseDigest> lastResponses;
+
     private static final SupportedMimeType DEFAULT_TYPE = SupportedMimeType.JSON;
 
     @PostConstruct
     public void setup() {
         externalDataSets = new HashMap<>();
         scheduledTimeouts = new HashMap<>();
+        lastResponses = new HashMap<>();
     }
 
     public void fetchAndRegister(String uuid, DataSetLookup lookup, DataSetReadyCallback listener) {
@@ -88,6 +116,7 @@ public class ExternalDataSetClientProvider {
         var existingDef = externalDataSets.get(def.getUUID());
         if (existingDef == null || !def.equals(existingDef)) {
             clientDataSetManager.removeDataSet(def.getUUID());
+            lastResponses.remove(def.getUUID());
             externalDataSets.put(def.getUUID(), def);
         }
     }
@@ -99,11 +128,13 @@ public class ExternalDataSetClientProvider {
     public void unregister(String uuid) {
         clearRegisteredDataSets();
         externalDataSets.remove(uuid);
+        lastResponses.remove(uuid);
     }
 
     public void clear() {
         clearRegisteredDataSets();
         externalDataSets.clear();
+        lastResponses.clear();
     }
 
     private void fetchAndRegisterDefinition(ExternalDataSetDef def,
@@ -142,7 +173,178 @@ public class ExternalDataSetClientProvider {
     }
 
     private void fetch(ExternalDataSetDef def, DataSetReadyCallback callback) {
-        var req = RequestInit.create();
+        var finalUrl = buildUrl(def);
+        var request = buildRequest(def, finalUrl, def.getHeaders());
+        request.setPriority(callback.getPriority());
+
+        DomGlobal.console.debug("Fetching dataset " + def.getUUID() + " from URL: " + finalUrl);
+        fetchScheduler.schedule(request, new FetchScheduler.FetchListener() {
+
+            @Override
+            public void onResponse(FetchResponse response) {
+                var mimeType = SupportedMimeType.byMimeTypeOrUrl(response.getContentType(), finalUrl)
+                        .orElse(DEFAULT_TYPE);
+                if (response.getStatus() == OK_RESPONSE_CODE) {
+                    if (def.isStaleWhileRevalidate()) {
+                        lastResponses.put(def.getUUID(), new ResponseDigest(response));
+                    }
+                    register(def, callback, response.getText(), mimeType);
+                } else {
+                    notAbleToRetrieveDataSet(def, callback, buildExceptionForResponse(response));
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (error instanceof FetchCancelledException) {
+                    // the definition is still valid, only the request was cancelled
+                    callback.onError(new ClientRuntimeError("Not able to retrieve dataset content", error));
+                } else {
+                    notAbleToRetrieveDataSet(def, callback, error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetch again a data set that is still being served from the cache. The cached data set is only replaced
+     * once the new content is parsed, and only if the content has changed.
+     */
+    void revalidate(String uuid) {
+        var def = externalDataSets.get(uuid);
+        if (def == null || clientDataSetManager.getDataSet(uuid) == null) {
+            // the next lookup will fetch it as usual
+            return;
+        }
+        var finalUrl = buildUrl(def);
+        var previous = lastResponses.get(uuid);
+        var headers = def.getHeaders();
+        if (previous != null && isSameOrigin(finalUrl)) {
+            // conditional headers on cross origin requests would require a CORS preflight
+            headers = conditionalHeaders(headers, previous);
+        }
+        var request = buildRequest(def, finalUrl, headers);
+
+        DomGlobal.console.debug("Revalidating dataset " + uuid + " from URL: " + finalUrl);
+        fetchScheduler.schedule(request, new FetchScheduler.FetchListener() {
+
+            @Override
+            public void onResponse(FetchResponse response) {
+                if (externalDataSets.get(uuid) != def) {
+                    return;
+                }
+                if (isUnchanged(previous, response)) {
+                    if (response.getStatus() == OK_RESPONSE_CODE) {
+                        lastResponses.put(uuid, new ResponseDigest(response));
+                    }
+                    handleCache(uuid);
+                    return;
+                }
+                if (response.getStatus() != OK_RESPONSE_CODE) {
+                    revalidationFailed(uuid, new ClientRuntimeError(buildExceptionForResponse(response)));
+                    return;
+                }
+                var mimeType = SupportedMimeType.byMimeTypeOrUrl(response.getContentType(), finalUrl)
+                        .orElse(DEFAULT_TYPE);
+                lastResponses.put(uuid, new ResponseDigest(response));
+                register(def, new DataSetReadyCallback() {
+
+                    @Override
+                    public void callback(DataSet dataSet) {
+                        handleCache(uuid);
+                        dataSetModifiedEvent.fire(new DataSetModifiedEvent(def));
+                        joinedDataSetsModified(uuid);
+                    }
+
+                    @Override
+                    public void notFound() {
+                        handleCache(uuid);
+                    }
+
+                    @Override
+                    public boolean onError(ClientRuntimeError error) {
+                        revalidationFailed(uuid, error);
+                        return false;
+                    }
+                }, response.getText(), mimeType);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (externalDataSets.get(uuid) == def) {
+                    revalidationFailed(uuid, new ClientRuntimeError(error));
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the data sets joining the given one, so their next lookup joins the new content, and notify them as
+     * modified as well.
+     */
+    void joinedDataSetsModified(String uuid) {
+        var joinDefs = externalDataSets.values().stream()
+                .filter(joinDef -> joinDef.getJoin() != null && joinDef.getJoin().contains(uuid))
+                .collect(Collectors.toList());
+        for (var joinDef : joinDefs) {
+            clientDataSetManager.removeDataSet(joinDef.getUUID());
+            dataSetModifiedEvent.fire(new DataSetModifiedEvent(joinDef));
+        }
+    }
+
+    /**
+     * Check if a revalidation response brings the same content as the previous one.
+     */
+    static boolean isUnchanged(ResponseDigest previous, FetchResponse response) {
+        if (previous == null) {
+            return false;
+        }
+        if (response.getStatus() == NOT_MODIFIED_RESPONSE_CODE) {
+            return true;
+        }
+        if (response.getStatus() != OK_RESPONSE_CODE) {
+            return false;
+        }
+        if (!isBlank(previous.etag)) {
+            return previous.etag.equals(response.getEtag());
+        }
+        return previous.text != null && previous.text.equals(response.getText());
+    }
+
+    static Map<String, String> conditionalHeaders(Map<String, String> headers, ResponseDigest previous) {
+        var result = new HashMap<String, String>();
+        if (headers != null) {
+            result.putAll(headers);
+        }
+        if (!isBlank(previous.etag)) {
+            result.put("If-None-Match", previous.etag);
+        }
+        if (!isBlank(previous.lastModified)) {
+            result.put("If-Modified-Since", previous.lastModified);
+        }
+        return result;
+    }
+
+    private void revalidationFailed(String uuid, ClientRuntimeError error) {
+        if (!(error.getThrowable() instanceof FetchCancelledException)) {
+            DomGlobal.console.warn("Not able to refresh dataset " + uuid + ", the cached data is kept: " +
+                    error.getMessage());
+        }
+        // try again after the refresh time
+        handleCache(uuid);
+    }
+
+    private boolean isSameOrigin(String url) {
+        return new FetchRequest(url, null, null, null).getOrigin().equals(DomGlobal.location.origin);
+    }
+
+    private FetchRequest buildRequest(ExternalDataSetDef def, String url, Map<String, String> headers) {
+        var method = def.getMethod() != null ? def.getMethod().name() : null;
+        var form = def.getMethod() == HttpMethod.POST ? def.getForm() : null;
+        return new FetchRequest(url, method, headers, form);
+    }
+
+    String buildUrl(ExternalDataSetDef def) {
         URL url = null;
 
         try {
@@ -156,47 +358,19 @@ public class ExternalDataSetClientProvider {
             url = new URL(def.getPath(), url);
         }
 
-        if (def.getHeaders() != null) {
-            var headers = new Headers();
-            def.getHeaders().forEach(headers::append);
-            req.setHeaders(headers);
-        }
-
         if (def.getQuery() != null) {
             def.getQuery().forEach(url.searchParams::set);
         }
-        if (def.getMethod() != null) {
-            req.setMethod(def.getMethod().name());
-        }
-
-        if (def.getMethod() == HttpMethod.POST && def.getForm() != null && !def.getForm().isEmpty()) {
-            var form = new FormData();
-            def.getForm().forEach(form::set);
-            req.setBody(form);
-        }
-        final var finalUrl = url.toString();
-        DomGlobal.console.debug("Fetching dataset " + def.getUUID() + " from URL: " + finalUrl);
-        DomGlobal.fetch(finalUrl, req).then((Response response) -> {
-            var contentType = response.headers.get("content-type");
-            var mimeType = SupportedMimeType.byMimeTypeOrUrl(contentType, finalUrl).orElse(DEFAULT_TYPE);
-            return response.text().then(responseText -> {
-                if (response.status == OK_RESPONSE_CODE) {
-                    return register(def, callback, responseText, mimeType);
-                } else {
-                    var exception = buildExceptionForResponse(responseText, response);
-                    return notAbleToRetrieveDataSet(def, callback, exception);
-                }
 
-            }, error -> notAbleToRetrieveDataSet(def, callback));
-        }).catch_(e -> notAbleToRetrieveDataSet(def, callback,
-                new RuntimeException("Request not started, make sure that CORS is enabled.\nMessage: " + e)));
+        return url.toString();
     }
 
-    private Throwable buildExceptionForResponse(String responseText, Response response) {
+    private Throwable buildExceptionForResponse(FetchResponse response) {
+        var responseText = response.getText();
         var sb = new StringBuilder("The dataset URL is unreachable with status ");
-        sb.append(response.status);
+        sb.append(response.getStatus());
         sb.append(" - ");
-        sb.append(response.statusText);
+        sb.append(response.getStatusText());
 
         if (responseText != null && !responseText.trim().isEmpty()) {
             sb.append("\n");
@@ -211,6 +385,47 @@ public class ExternalDataSetClientProvider {
             final String responseText,
             final SupportedMimeType contentType) {
         DataSet dataSet = null;
+        if (contentType == SupportedMimeType.CSV && def.getType() == null && isBlank(def.getExpression())) {
+            try {
+                dataSet = csvReader.read(responseText);
+            } catch (Exception e) {
+                callback.onError(new ClientRuntimeError("Error parsing dataset: " + e.getMessage(), e));
+                return null;
+            }
+            if (def.getColumns().isEmpty()) {
+                def.setColumns(dataSet.getColumns()
+                        .stream()
+                        .map(cl -> new DataColumnDef(cl.getId(), ColumnType.LABEL))
+                        .collect(Collectors.toList()));
+            }
+            return register(def, callback, dataSet);
+        }
+
+        // metrics are only converted to JSON when an expression has to be evaluated on them
+        if (contentType == SupportedMimeType.METRIC && def.getType() == null && isBlank(def.getExpression())) {
+            // accumulated scrapes keep the label columns seen so far
+            var previous = def.isAccumulate() && def.isLabelColumns() ?
+                    clientDataSetManager.getDataSet(def.getUUID()) : null;
+            try {
+                dataSet = metricsReader.read(responseText, def.isLabelColumns(), previous);
+            } catch (Exception e) {
+                callback.onError(new ClientRuntimeError("Error parsing dataset: " + e.getMessage(), e));
+                return null;
+            }
+            if (def.getColumns().isEmpty() && !def.isLabelColumns()) {
+                def.setColumns(contentType.columnsFunction.apply(responseText));
+            }
+            if (previous != null && dataSet.getRowCount() > 0 &&
+                    previous.getColumns().size() < dataSet.getColumns().size()) {
+                // new labels showed up
+                var widened = metricsReader.addLabelColumns(previous, dataSet);
+                widened.setUUID(def.getUUID());
+                widened.setDefinition(previous.getDefinition());
+                clientDataSetManager.registerDataSet(widened);
+            }
+            return register(def, callback, dataSet);
+        }
+
         var content = contentType.tranformer.apply(responseText);
 
         if (def.getType() != null) {
@@ -241,17 +456,21 @@ public class ExternalDataSetClientProvider {
             callback.onError(new ClientRuntimeError("Error parsing dataset: " + e.getMessage(), e));
             return null;
         }
+        return register(def, callback, dataSet);
+    }
 
+    private IThenable<Object> register(ExternalDataSetDef def,
+            final DataSetReadyCallback callback,
+            DataSet dataSet) {
         applyColumnsToDataSet(def, dataSet);
 
         var existingDs = clientDataSetManager.getDataSet(def.getUUID());
         if (def.isAccumulate() && existingDs != null) {
-            // no new data, so keep existing data set
-            if (dataSet.getRowCount() == 0) {
-                dataSet = existingDs;
-            } else {
-                accumulateDataSet(dataSet, existingDs);
-            }
+            // the new rows (if any) are added before the ones of the data set already registered
+            var accumulatedDs = dataSet.getRowCount() > 0 ? accumulateDataSet(dataSet, existingDs) : existingDs;
+            accumulatedDs.setDefinition(def);
+            callback.callback(accumulatedDs);
+            return null;
         }
         dataSet.setDefinition(def);
         dataSet.setUUID(def.getUUID());
@@ -291,8 +510,12 @@ public class ExternalDataSetClientProvider {
             var refreshTimeAmount = def.getRefreshTimeAmount();
             if (refreshTimeAmount != null) {
                 var id = DomGlobal.setTimeout(params -> {
-                    clientDataSetManager.removeDataSet(uuid);
                     scheduledTimeouts.remove(uuid);
+                    if (def.isStaleWhileRevalidate()) {
+                        revalidate(uuid);
+                    } else {
+                        clientDataSetManager.removeDataSet(uuid);
+                    }
                 }, refreshTimeAmount.toMillis());
                 scheduledTimeouts.put(uuid, id);
             }
@@ -301,19 +524,17 @@ public class ExternalDataSetClientProvider {
         }
     }
 
-    void accumulateDataSet(DataSet dataSet, DataSet existingDs) {
+    /**
+     * Register a data set with the new rows before the ones of the registered data set, which is left unchanged.
+     * The oldest rows are discarded once the cache max. rows are reached.
+     */
+    DataSet accumulateDataSet(DataSet dataSet, DataSet existingDs) {
         if (dataSet.getRowCount() > 0 && !existingDs.getColumns().equals(dataSet.getColumns())) {
             throw new RuntimeException("New data is not compatible with existing data.");
         }
-        for (int i = dataSet.getRowCount(), j = 0; i < existingDs.getDefinition().getCacheMaxRows() && j < existingDs
-                .getRowCount(); i++, j++) {
-            final int row = j;
-            var values = existingDs.getColumns()
-                    .stream()
-                    .map(cl -> existingDs.getValueAt(row, cl.getId()))
-                    .toArray(Object[]::new);
-            dataSet.addValues(values);
-        }
+        return clientDataSetManager.prependDataSet(existingDs.getUUID(),
+                dataSet,
+                existingDs.getDefinition().getCacheMaxRows());
     }
 
     private void doLookup(DataSetLookup lookup, DataSetReadyCallback listener) {
@@ -325,10 +546,6 @@ public class ExternalDataSetClientProvider {
         }
     }
 
-    private IThenable<Object> notAbleToRetrieveDataSet(ExternalDataSetDef def, DataSetReadyCallback listener) {
-        return notAbleToRetrieveDataSet(def, listener, new RuntimeException("Unknown Error"));
-    }
-
     private IThenable<Object> notAbleToRetrieveDataSet(ExternalDataSetDef def,
             DataSetReadyCallback listener,
             Throwable e) {
@@ -353,4 +570,22 @@ public class ExternalDataSetClientProvider {
         return DomGlobal.location.href;
     }
 
+
+    /**
+     * The validators of a response. The content is kept when there is no ETag to tell whether it has changed.
+     */
+    static class ResponseDigest {
+
+        final String etag;
+
+        final String lastModified;
+
+        final String text;
+
+        ResponseDigest(FetchResponse response) {
+            this.etag = response.getEtag();
+            this.lastModified = response.getLastModified();
+            this.text = isBlank(etag) ? response.getText() : null;
+        }
+    }
 }
@@ -0,0 +1,313 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.csv;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.i18n.client.DateTimeFormat.PredefinedFormat;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetFactory;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
+
+/**
+ * Reads CSV content straight into a data set in a single pass, without building an intermediate JSON document.
+ * <p>The first line holds the column ids. The type of every column is inferred once, from the first data row, and
+ * the values are then converted and appended directly into the column storage.</p>
+ */
+@ApplicationScoped
+public class CSVDataSetReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '\"';
+    private static final char BACKSLASH = '\\';
+    private static final char LINE_FEED = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+
+    private Function<String, Date> dateParser;
+
+    public CSVDataSetReader() {
+    }
+
+    public CSVDataSetReader(Function<String, Date> dateParser) {
+        this.dateParser = dateParser;
+    }
+
+    @PostConstruct
+    public void init() {
+        var format = DateTimeFormat.getFormat(PredefinedFormat.ISO_8601);
+        dateParser = format::parse;
+    }
+
+    public DataSet read(String csv) {
+        var dataSet = DataSetFactory.newEmptyDataSet();
+        if (csv == null) {
+            return dataSet;
+        }
+        var cursor = new Cursor(csv);
+        var header = new ArrayList<String>();
+        while (header.isEmpty() && cursor.hasNext()) {
+            readHeader(cursor, header);
+        }
+
+        var columns = new ColumnWriter[header.size()];
+        var row = 0;
+        while (cursor.hasNext()) {
+            var column = 0;
+            do {
+                var value = cursor.nextField();
+                if (column == 0 && cursor.isBlankRow(value)) {
+                    break;
+                }
+                if (column >= columns.length) {
+                    throw new IllegalArgumentException("Row " + (row + 1) + " has more values than columns (" +
+                            columns.length + ")");
+                }
+                if (row == 0) {
+                    columns[column] = newColumn(dataSet, header.get(column), inferType(value));
+                }
+                columns[column++].write(value);
+            } while (!cursor.rowEnd);
+
+            if (column > 0) {
+                for (; column < columns.length; column++) {
+                    if (row == 0) {
+                        columns[column] = newColumn(dataSet, header.get(column), ColumnType.LABEL);
+                    }
+                    columns[column].write(null);
+                }
+                row++;
+            }
+        }
+
+        if (row == 0) {
+            header.forEach(id -> dataSet.addColumn(id, ColumnType.LABEL));
+        }
+        return dataSet;
+    }
+
+    private void readHeader(Cursor cursor, List<String> header) {
+        do {
+            var id = cursor.nextField();
+            if (header.isEmpty() && cursor.isBlankRow(id)) {
+                return;
+            }
+            header.add(id);
+        } while (!cursor.rowEnd);
+    }
+
+    private ColumnType inferType(String value) {
+        try {
+            Double.parseDouble(value);
+            return ColumnType.NUMBER;
+        } catch (NumberFormatException e) {
+            // empty
+        }
+        return parseDate(value) != null ? ColumnType.DATE : ColumnType.LABEL;
+    }
+
+    private Date parseDate(String value) {
+        try {
+            return dateParser.apply(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private ColumnWriter newColumn(DataSet dataSet, String id, ColumnType type) {
+        dataSet.addColumn(id, type);
+        var column = dataSet.getColumnByIndex(dataSet.getColumns().size() - 1);
+        switch (type) {
+            case NUMBER:
+                return new NumberColumnWriter(column);
+            case DATE:
+                return new DateColumnWriter(column);
+            default:
+                return new LabelColumnWriter(column);
+        }
+    }
+
+    private abstract static class ColumnWriter {
+
+        final DataColumn column;
+        final List values;
+
+        ColumnWriter(DataColumn column) {
+            this.column = column;
+            this.values = column.getValues();
+        }
+
+        abstract void write(String value);
+
+        IllegalArgumentException incompatible(String value) {
+            return new IllegalArgumentException("Incompatible value " + value + " for column " + column.getId());
+        }
+    }
+
+    private static class NumberColumnWriter extends ColumnWriter {
+
+        final PrimitiveColumnStorage storage;
+
+        NumberColumnWriter(DataColumn column) {
+            super(column);
+            this.storage = (PrimitiveColumnStorage) values;
+        }
+
+        @Override
+        void write(String value) {
+            if (value == null) {
+                storage.addNull();
+            } else if (value.isEmpty()) {
+                // Same as the JSON parser, where empty strings are read as zero
+                storage.addDouble(0d);
+            } else {
+                try {
+                    storage.addDouble(Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    throw incompatible(value);
+                }
+            }
+        }
+    }
+
+    private class DateColumnWriter extends ColumnWriter {
+
+        DateColumnWriter(DataColumn column) {
+            super(column);
+        }
+
+        @Override
+        void write(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                values.add(null);
+                return;
+            }
+            var date = parseDate(value);
+            if (date == null) {
+                throw incompatible(value);
+            }
+            values.add(date);
+        }
+    }
+
+    private static class LabelColumnWriter extends ColumnWriter {
+
+        LabelColumnWriter(DataColumn column) {
+            super(column);
+        }
+
+        @Override
+        void write(String value) {
+            if ("True".equals(value)) {
+                value = "true";
+            } else if ("False".equals(value)) {
+                value = "false";
+            }
+            values.add(value);
+        }
+    }
+
+    /**
+     * Walks the CSV content field by field. Unquoted fields are taken as substrings of the content, so only
+     * quoted fields are copied into the buffer.
+     */
+    private static class Cursor {
+
+        final String text;
+        final int length;
+        final StringBuilder buffer = new StringBuilder();
+        int pos = 0;
+        boolean rowEnd;
+        boolean quoted;
+
+        Cursor(String text) {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        boolean hasNext() {
+            return pos < length;
+        }
+
+        boolean isBlankRow(String firstValue) {
+            return rowEnd && !quoted && firstValue.isEmpty();
+        }
+
+        String nextField() {
+            var start = pos;
+            var buffered = false;
+            var inQuotes = false;
+            rowEnd = false;
+            quoted = false;
+            while (pos < length) {
+                var c = text.charAt(pos);
+                if (inQuotes) {
+                    if ((c == QUOTE || c == BACKSLASH) && pos + 1 < length && text.charAt(pos + 1) == QUOTE) {
+                        buffer.append(QUOTE);
+                        pos += 2;
+                    } else {
+                        if (c == QUOTE) {
+                            inQuotes = false;
+                        } else {
+                            buffer.append(c);
+                        }
+                        pos++;
+                    }
+                } else if (c == SEPARATOR) {
+                    var value = value(start, pos, buffered);
+                    pos++;
+                    return value;
+                } else if (c == LINE_FEED || c == CARRIAGE_RETURN) {
+                    var value = value(start, pos, buffered);
+                    pos++;
+                    if (c == CARRIAGE_RETURN && pos < length && text.charAt(pos) == LINE_FEED) {
+                        pos++;
+                    }
+                    rowEnd = true;
+                    return value;
+                } else if (c == QUOTE) {
+                    if (!buffered) {
+                        buffer.setLength(0);
+                        buffer.append(text, start, pos);
+                        buffered = true;
+                    }
+                    inQuotes = true;
+                    quoted = true;
+                    pos++;
+                } else {
+                    if (buffered) {
+                        buffer.append(c);
+                    }
+                    pos++;
+                }
+            }
+            rowEnd = true;
+            return value(start, pos, buffered);
+        }
+
+        private String value(int start, int end, boolean buffered) {
+            return buffered ? buffer.toString() : text.substring(start, end);
+        }
+    }
+}
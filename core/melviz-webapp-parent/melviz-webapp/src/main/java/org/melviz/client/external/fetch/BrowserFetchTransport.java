@@ -0,0 +1,86 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.fetch;
+
+import elemental2.dom.AbortController;
+import elemental2.dom.DomGlobal;
+import elemental2.dom.FormData;
+import elemental2.dom.Headers;
+import elemental2.dom.RequestInit;
+import elemental2.dom.Response;
+
+/**
+ * Sends the requests with the browser fetch API, aborting them when the timeout expires.
+ *
+ */
+class BrowserFetchTransport implements FetchScheduler.Transport {
+
+    private static final String POST = "POST";
+
+    @Override
+    public Runnable send(FetchRequest request, FetchScheduler.FetchListener listener) {
+        var controller = new AbortController();
+        var req = RequestInit.create();
+        req.setMethod(request.getMethod());
+        req.setSignal(controller.signal);
+
+        if (!request.getHeaders().isEmpty()) {
+            var headers = new Headers();
+            request.getHeaders().forEach(headers::append);
+            req.setHeaders(headers);
+        }
+
+        if (POST.equals(request.getMethod()) && !request.getForm().isEmpty()) {
+            var form = new FormData();
+            request.getForm().forEach(form::set);
+            req.setBody(form);
+        }
+
+        var timedOut = new boolean[1];
+        var timeoutId = request.getTimeout() > 0 ? DomGlobal.setTimeout(p -> {
+            timedOut[0] = true;
+            controller.abort();
+        }, request.getTimeout()) : -1;
+
+        DomGlobal.fetch(request.getUrl(), req).then((Response response) -> {
+            var contentType = response.headers.get("content-type");
+            var etag = response.headers.get("etag");
+            var lastModified = response.headers.get("last-modified");
+            return response.text().then(responseText -> {
+                DomGlobal.clearTimeout(timeoutId);
+                listener.onResponse(new FetchResponse(response.status, response.statusText, contentType,
+                        responseText, etag, lastModified));
+                return null;
+            }, error -> {
+                DomGlobal.clearTimeout(timeoutId);
+                listener.onError(timedOut[0] ? timeoutError(request)
+                        : new RuntimeException("Not able to read the response: " + error));
+                return null;
+            });
+        }).catch_(e -> {
+            DomGlobal.clearTimeout(timeoutId);
+            listener.onError(timedOut[0] ? timeoutError(request)
+                    : new RuntimeException("Request not started, make sure that CORS is enabled.\nMessage: " + e));
+            return null;
+        });
+        return controller::abort;
+    }
+
+    private static RuntimeException timeoutError(FetchRequest request) {
+        return new RuntimeException("No response after " + request.getTimeout() + " ms from " + request.getUrl());
+    }
+
+}
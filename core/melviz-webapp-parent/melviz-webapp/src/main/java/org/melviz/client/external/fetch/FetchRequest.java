@@ -0,0 +1,116 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.fetch;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A resolved HTTP request for external data. Requests with the same key are sent only once.
+ *
+ */
+public class FetchRequest {
+
+    private final String url;
+
+    private final String method;
+
+    private final Map<String, String> headers;
+
+    private final Map<String, String> form;
+
+    private int priority;
+
+    private int timeout = FetchScheduler.DEFAULT_TIMEOUT;
+
+    private String key;
+
+    public FetchRequest(String url, String method, Map<String, String> headers, Map<String, String> form) {
+        this.url = url;
+        this.method = method != null ? method : "GET";
+        this.headers = headers != null ? headers : Collections.emptyMap();
+        this.form = form != null ? form : Collections.emptyMap();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public Map<String, String> getForm() {
+        return form;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return The time in milliseconds to wait for the response. Zero or less to wait for ever.
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * The scheme, host and port of the URL.
+     */
+    public String getOrigin() {
+        var schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            return "";
+        }
+        var pathStart = url.indexOf('/', schemeEnd + 3);
+        return pathStart < 0 ? url : url.substring(0, pathStart);
+    }
+
+    /**
+     * Identifies the request by its method, URL, headers and form, regardless of the headers and form order.
+     */
+    public String getKey() {
+        if (key == null) {
+            var sb = new StringBuilder();
+            sb.append(method).append(' ').append(url);
+            new TreeMap<>(headers).forEach((k, v) -> sb.append('\n').append(k).append(": ").append(v));
+            sb.append("\n\n");
+            new TreeMap<>(form).forEach((k, v) -> sb.append(k).append('=').append(v).append('&'));
+            key = sb.toString();
+        }
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+}
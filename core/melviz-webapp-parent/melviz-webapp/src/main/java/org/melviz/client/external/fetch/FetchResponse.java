@@ -0,0 +1,84 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.fetch;
+
+/**
+ * The response of a {@link FetchRequest}, shared by all the requesters.
+ *
+ */
+public class FetchResponse {
+
+    private final int status;
+
+    private final String statusText;
+
+    private final String contentType;
+
+    private final String text;
+
+    private String etag;
+
+    private String lastModified;
+
+    public FetchResponse(int status, String statusText, String contentType, String text) {
+        this.status = status;
+        this.statusText = statusText;
+        this.contentType = contentType;
+        this.text = text;
+    }
+
+    public FetchResponse(int status,
+                         String statusText,
+                         String contentType,
+                         String text,
+                         String etag,
+                         String lastModified) {
+        this(status, statusText, contentType, text);
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getStatusText() {
+        return statusText;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The <tt>ETag</tt> response header, if any.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * The <tt>Last-Modified</tt> response header, if any.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+}
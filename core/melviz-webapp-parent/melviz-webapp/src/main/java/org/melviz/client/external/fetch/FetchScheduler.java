@@ -0,0 +1,253 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.fetch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Schedules the requests for external data.
+ * <p>Requests are identified by {@link FetchRequest#getKey()}, so the same request made by different data sets or
+ * displayers while in flight is sent only once and its response is handed to all of them. At most
+ * {@link #MAX_REQUESTS_PER_ORIGIN} requests are sent at the same time to an origin; the rest wait in a queue and are
+ * sent by priority, then in arrival order. The {@link Transport} is in charge of the request timeout.</p>
+ */
+@ApplicationScoped
+public class FetchScheduler {
+
+    public static final int MAX_REQUESTS_PER_ORIGIN = 6;
+
+    public static final int DEFAULT_TIMEOUT = 60000;
+
+    /**
+     * Sends a request over the network.
+     */
+    public interface Transport {
+
+        /**
+         * @return An action that aborts the request.
+         */
+        Runnable send(FetchRequest request, FetchListener listener);
+
+    }
+
+    public interface FetchListener {
+
+        void onResponse(FetchResponse response);
+
+        void onError(Throwable error);
+
+    }
+
+    public interface ProgressListener {
+
+        /**
+         * Called whenever a request is added or finished. The completed count starts over once all the requests are
+         * done.
+         */
+        void onProgress(int queued, int running, int completed);
+
+    }
+
+    /**
+     * Handle to stop listening to a scheduled request.
+     */
+    public interface FetchHandle {
+
+        void cancel();
+
+    }
+
+    Transport transport;
+
+    int maxRequestsPerOrigin = MAX_REQUESTS_PER_ORIGIN;
+
+    ProgressListener progressListener;
+
+    Map<String, FetchTask> tasks = new HashMap<>();
+
+    List<FetchTask> queue = new ArrayList<>();
+
+    Map<String, Integer> runningByOrigin = new HashMap<>();
+
+    int running;
+
+    int completed;
+
+    @PostConstruct
+    void setup() {
+        transport = new BrowserFetchTransport();
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public void setMaxRequestsPerOrigin(int maxRequestsPerOrigin) {
+        this.maxRequestsPerOrigin = maxRequestsPerOrigin;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public FetchHandle schedule(FetchRequest request, FetchListener listener) {
+        var key = request.getKey();
+        var task = tasks.get(key);
+        if (task == null) {
+            task = new FetchTask(request);
+            tasks.put(key, task);
+            queue.add(task);
+        } else if (request.getPriority() > task.priority) {
+            task.priority = request.getPriority();
+        }
+        task.listeners.add(listener);
+        var scheduled = task;
+        pump();
+        return () -> cancel(scheduled, listener);
+    }
+
+    /**
+     * Cancel all the queued and running requests. Their listeners are notified with an error.
+     */
+    public void cancelAll() {
+        var cancelled = new ArrayList<>(tasks.values());
+        tasks.clear();
+        queue.clear();
+        runningByOrigin.clear();
+        running = 0;
+        completed = 0;
+        for (var task : cancelled) {
+            if (task.abort != null) {
+                task.abort.run();
+            }
+            var error = new FetchCancelledException("Request cancelled: " + task.request);
+            task.listeners.forEach(l -> l.onError(error));
+        }
+        notifyProgress();
+    }
+
+    private void cancel(FetchTask task, FetchListener listener) {
+        if (!task.listeners.remove(listener) || !task.listeners.isEmpty() || tasks.get(task.key) != task) {
+            return;
+        }
+        tasks.remove(task.key);
+        if (task.abort != null) {
+            task.abort.run();
+            finished(task);
+        } else {
+            queue.remove(task);
+            notifyProgress();
+        }
+    }
+
+    private void pump() {
+        FetchTask next;
+        while ((next = nextTask()) != null) {
+            queue.remove(next);
+            start(next);
+        }
+        notifyProgress();
+    }
+
+    private FetchTask nextTask() {
+        FetchTask next = null;
+        for (var task : queue) {
+            if (runningByOrigin.getOrDefault(task.origin, 0) < maxRequestsPerOrigin &&
+                (next == null || task.priority > next.priority)) {
+                next = task;
+            }
+        }
+        return next;
+    }
+
+    private void start(FetchTask task) {
+        runningByOrigin.merge(task.origin, 1, Integer::sum);
+        running++;
+        task.abort = () -> {
+            // not sent yet
+        };
+        var abort = transport.send(task.request, new FetchListener() {
+
+            @Override
+            public void onResponse(FetchResponse response) {
+                complete(task).forEach(l -> l.onResponse(response));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                complete(task).forEach(l -> l.onError(error));
+            }
+        });
+        if (abort != null && tasks.get(task.key) == task) {
+            task.abort = abort;
+        }
+    }
+
+    private List<FetchListener> complete(FetchTask task) {
+        if (tasks.get(task.key) != task) {
+            // cancelled
+            return new ArrayList<>();
+        }
+        tasks.remove(task.key);
+        finished(task);
+        return task.listeners;
+    }
+
+    private void finished(FetchTask task) {
+        runningByOrigin.computeIfPresent(task.origin, (k, v) -> v > 1 ? v - 1 : null);
+        running--;
+        completed++;
+        pump();
+        if (tasks.isEmpty()) {
+            completed = 0;
+        }
+    }
+
+    private void notifyProgress() {
+        if (progressListener != null) {
+            progressListener.onProgress(queue.size(), running, completed);
+        }
+    }
+
+    static class FetchTask {
+
+        final FetchRequest request;
+
+        final String key;
+
+        final String origin;
+
+        final List<FetchListener> listeners = new ArrayList<>();
+
+        int priority;
+
+        Runnable abort;
+
+        FetchTask(FetchRequest request) {
+            this.request = request;
+            this.key = request.getKey();
+            this.origin = request.getOrigin();
+            this.priority = request.getPriority();
+        }
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetFactory;
+import org.melviz.dataset.impl.ColumnStorage;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.NumberColumnStorage;
+
+/**
+ * Reads metrics in the Prometheus text exposition format straight into a data set in a single pass.
+ * <p>Every sample line is scanned once and its metric name, labels and value are appended to the column storages,
+ * without splitting the content into lines or building an intermediate JSON document. By default the result has the
+ * same <tt>metric</tt>, <tt>labels</tt> and <tt>value</tt> columns produced by {@link MetricsParser}. When the labels
+ * are read as columns, every label name gets its own column instead, placed between the metric and the value
+ * columns in order of appearance. Their ids are prefixed by {@link #LABEL_COLUMN_PREFIX}, so no label can clash
+ * with the metric and value columns.</p>
+ */
+@ApplicationScoped
+public class MetricsDataSetReader {
+
+    public static final String METRIC_COLUMN = "metric";
+    public static final String LABELS_COLUMN = "labels";
+    public static final String VALUE_COLUMN = "value";
+    public static final String LABEL_COLUMN_PREFIX = "label_";
+
+    static final double NAN_VALUE = Double.parseDouble(MetricsParser.DEFAULT_NAN_VALUE);
+
+    private static final char COMMENT = '#';
+    private static final char LABEL_OPEN = '{';
+    private static final char LABEL_CLOSE = '}';
+    private static final char LABEL_SEPARATOR = ',';
+    private static final char EQUALS = '=';
+    private static final char QUOTE = '\"';
+    private static final char BACKSLASH = '\\';
+    private static final char LINE_FEED = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+
+    public DataSet read(String metrics) {
+        return read(metrics, false);
+    }
+
+    public DataSet read(String metrics, boolean labelColumns) {
+        return read(metrics, labelColumns, null);
+    }
+
+    /**
+     * @param previous A data set read before from the same source, or null. When the labels are read as columns,
+     * its label columns come first and in the same order, filled with nulls if a label is no longer present. So the
+     * columns only change when a new label shows up (see {@link #addLabelColumns(DataSet, DataSet)}).
+     */
+    public DataSet read(String metrics, boolean labelColumns, DataSet previous) {
+        var metricValues = new LabelColumnStorage();
+        var labelsValues = labelColumns ? null : new LabelColumnStorage();
+        var labelValues = new LinkedHashMap<String, LabelColumnStorage>();
+        var values = new NumberColumnStorage();
+        if (labelColumns && previous != null) {
+            for (var labelName : getLabelNames(previous)) {
+                labelValues.put(labelName, new LabelColumnStorage());
+            }
+        }
+
+        if (metrics != null) {
+            var scanner = new Scanner(metrics, labelColumns);
+            while (scanner.nextSample()) {
+                var row = values.size();
+                metricValues.add(scanner.name);
+                values.addDouble(scanner.value);
+                if (labelsValues != null) {
+                    labelsValues.add(scanner.labels);
+                    continue;
+                }
+                for (int i = 0; i < scanner.labelCount; i++) {
+                    var column = labelValues.get(scanner.labelNames[i]);
+                    if (column == null) {
+                        column = new LabelColumnStorage();
+                        for (int j = 0; j < row; j++) {
+                            column.add(null);
+                        }
+                        labelValues.put(scanner.labelNames[i], column);
+                    }
+                    if (column.size() == row) {
+                        column.add(scanner.labelValues[i]);
+                    }
+                }
+                for (var column : labelValues.values()) {
+                    if (column.size() == row) {
+                        column.add(null);
+                    }
+                }
+            }
+        }
+
+        var dataSet = DataSetFactory.newEmptyDataSet();
+        dataSet.addColumn(METRIC_COLUMN, ColumnType.LABEL, metricValues);
+        if (labelsValues != null) {
+            dataSet.addColumn(LABELS_COLUMN, ColumnType.LABEL, labelsValues);
+        }
+        for (Map.Entry<String, LabelColumnStorage> entry : labelValues.entrySet()) {
+            dataSet.addColumn(LABEL_COLUMN_PREFIX + entry.getKey(), ColumnType.LABEL, entry.getValue());
+        }
+        dataSet.addColumn(VALUE_COLUMN, ColumnType.NUMBER, values);
+        return dataSet;
+    }
+
+    /**
+     * Get a copy of a data set read with label columns, having also the label columns of another one read after it
+     * (see {@link #read(String, boolean, DataSet)}). The label columns it lacks are filled with nulls.
+     */
+    public DataSet addLabelColumns(DataSet dataSet, DataSet other) {
+        var labelNames = getLabelNames(dataSet);
+        var result = DataSetFactory.newEmptyDataSet();
+        var rows = dataSet.getRowCount();
+        for (var column : dataSet.getColumns()) {
+            if (VALUE_COLUMN.equals(column.getId())) {
+                for (var labelName : getLabelNames(other)) {
+                    if (!labelNames.contains(labelName)) {
+                        var nulls = new LabelColumnStorage();
+                        for (int i = 0; i < rows; i++) {
+                            nulls.add(null);
+                        }
+                        result.addColumn(LABEL_COLUMN_PREFIX + labelName, ColumnType.LABEL, nulls);
+                    }
+                }
+            }
+            result.addColumn(column.getId(), column.getColumnType(), ColumnStorage.copyValues(column.getValues()));
+        }
+        return result;
+    }
+
+    private static List<String> getLabelNames(DataSet dataSet) {
+        var labelNames = new ArrayList<String>();
+        for (var column : dataSet.getColumns()) {
+            if (column.getId().startsWith(LABEL_COLUMN_PREFIX)) {
+                labelNames.add(column.getId().substring(LABEL_COLUMN_PREFIX.length()));
+            }
+        }
+        return labelNames;
+    }
+
+    /**
+     * Walks the content sample by sample. Names and values are taken as substrings of the content, only label
+     * values holding escape sequences are copied into the buffer.
+     */
+    static class Scanner {
+
+        final String text;
+        final int length;
+        final boolean labelColumns;
+        final StringBuilder buffer = new StringBuilder();
+        int pos = 0;
+        int line = 0;
+
+        String name;
+        String labels;
+        String[] labelNames = new String[8];
+        String[] labelValues = new String[8];
+        int labelCount;
+        double value;
+
+        Scanner(String text, boolean labelColumns) {
+            this.text = text;
+            this.length = text.length();
+            this.labelColumns = labelColumns;
+        }
+
+        /**
+         * Moves to the next sample, skipping comments, blank lines and lines without a metric name or value.
+         *
+         * @return False when there are no more samples.
+         */
+        boolean nextSample() {
+            while (pos < length) {
+                line++;
+                var end = lineEnd();
+                var found = readSample(end);
+                pos = end + 1;
+                if (found) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int lineEnd() {
+            var end = text.indexOf(LINE_FEED, pos);
+            return end < 0 ? length : end;
+        }
+
+        private boolean readSample(int end) {
+            if (end > pos && text.charAt(end - 1) == CARRIAGE_RETURN) {
+                end--;
+            }
+            var i = skipBlanks(pos, end);
+            if (i == end || text.charAt(i) == COMMENT) {
+                return false;
+            }
+
+            var start = i;
+            while (i < end && text.charAt(i) != LABEL_OPEN && !isBlank(text.charAt(i))) {
+                i++;
+            }
+            name = text.substring(start, i);
+            labels = "";
+            labelCount = 0;
+            if (i < end && text.charAt(i) == LABEL_OPEN) {
+                i = readLabels(i + 1, end);
+            }
+
+            start = skipBlanks(i, end);
+            i = start;
+            while (i < end && !isBlank(text.charAt(i))) {
+                i++;
+            }
+            if (name.isEmpty() || i == start) {
+                return false;
+            }
+            value = parseValue(text.substring(start, i));
+            return true;
+        }
+
+        private int readLabels(int start, int end) {
+            var i = start;
+            while (true) {
+                i = skipBlanks(i, end);
+                while (i < end && text.charAt(i) == LABEL_SEPARATOR) {
+                    i = skipBlanks(i + 1, end);
+                }
+                if (i == end) {
+                    throw invalid("Labels not closed");
+                }
+                if (text.charAt(i) == LABEL_CLOSE) {
+                    labels = text.substring(start, i);
+                    return i + 1;
+                }
+
+                var nameStart = i;
+                while (i < end && text.charAt(i) != EQUALS) {
+                    i++;
+                }
+                var labelName = text.substring(nameStart, i).trim();
+                i = skipBlanks(i + 1, end);
+                if (i >= end || text.charAt(i) != QUOTE) {
+                    throw invalid("Missing value for label " + labelName);
+                }
+                i = readLabelValue(labelName, i + 1, end);
+            }
+        }
+
+        private int readLabelValue(String labelName, int start, int end) {
+            var buffered = false;
+            var i = start;
+            while (i < end) {
+                var c = text.charAt(i);
+                if (c == QUOTE) {
+                    if (labelColumns) {
+                        addLabel(labelName, buffered ? buffer.toString() : text.substring(start, i));
+                    }
+                    return i + 1;
+                }
+                if (c == BACKSLASH && i + 1 < end) {
+                    if (!buffered) {
+                        buffer.setLength(0);
+                        buffer.append(text, start, i);
+                        buffered = true;
+                    }
+                    var escaped = text.charAt(i + 1);
+                    buffer.append(escaped == 'n' ? LINE_FEED : escaped);
+                    i += 2;
+                } else {
+                    if (buffered) {
+                        buffer.append(c);
+                    }
+                    i++;
+                }
+            }
+            throw invalid("Label value not closed");
+        }
+
+        private void addLabel(String labelName, String labelValue) {
+            if (labelCount == labelNames.length) {
+                labelNames = Arrays.copyOf(labelNames, labelCount * 2);
+                labelValues = Arrays.copyOf(labelValues, labelCount * 2);
+            }
+            labelNames[labelCount] = labelName;
+            labelValues[labelCount++] = labelValue;
+        }
+
+        private double parseValue(String token) {
+            switch (token) {
+                case "NaN":
+                    return NAN_VALUE;
+                case "+Inf":
+                    return Double.POSITIVE_INFINITY;
+                case "-Inf":
+                    return Double.NEGATIVE_INFINITY;
+                default:
+                    try {
+                        return Double.parseDouble(token);
+                    } catch (NumberFormatException e) {
+                        throw invalid("Invalid value " + token);
+                    }
+            }
+        }
+
+        private int skipBlanks(int i, int end) {
+            while (i < end && isBlank(text.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean isBlank(char c) {
+            return c == ' ' || c == '\t';
+        }
+
+        private IllegalArgumentException invalid(String message) {
+            return new IllegalArgumentException(message + " at line " + line);
+        }
+    }
+}
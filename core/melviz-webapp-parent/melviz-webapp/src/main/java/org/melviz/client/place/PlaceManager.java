@@ -10,6 +10,7 @@ import javax.inject.Inject;
 
 import elemental2.dom.Element;
 import org.jboss.errai.common.client.dom.elemental2.Elemental2DomUtil;
+import org.melviz.client.external.fetch.FetchScheduler;
 import org.melviz.client.screens.ContentErrorScreen;
 import org.melviz.client.screens.DashboardsListScreen;
 import org.melviz.client.screens.EmptyScreen;
@@ -54,6 +55,9 @@ public class PlaceManager {
     @Inject
     Elemental2DomUtil domUtil;
 
+    @Inject
+    FetchScheduler fetchScheduler;
+
     Place defaultPlace;    
 
     private Element root;
@@ -79,6 +83,8 @@ public class PlaceManager {
         var screen = screens.get(id);
 
         if (screen != null) {
+            // data requested by the place being left is not needed anymore
+            fetchScheduler.cancelAll();
             screen.onOpen();
             // go to Screen
             domUtil.removeAllElementChildren(root);
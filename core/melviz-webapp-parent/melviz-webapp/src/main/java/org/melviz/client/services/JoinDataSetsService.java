@@ -15,6 +15,7 @@
  */
 package org.melviz.client.services;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -35,6 +36,12 @@ import org.melviz.dataset.client.ClientDataSetManager;
 import org.melviz.dataset.client.DataSetReadyCallback;
 import org.melviz.dataset.client.ExternalDataSetParserProvider;
 import org.melviz.dataset.def.ExternalDataSetDef;
+import org.melviz.dataset.def.JoinType;
+import org.melviz.dataset.engine.IntRowSet;
+import org.melviz.dataset.impl.ColumnStorage;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.LabelDictionary;
+import org.melviz.dataset.impl.PrimitiveColumnStorage;
 
 import static org.melviz.common.client.StringUtils.isBlank;
 
@@ -92,15 +99,62 @@ public class JoinDataSetsService {
                     onError.set(true);
                     return false;
                 }
+
+                @Override
+                public int getPriority() {
+                    return listener.getPriority();
+                }
             });
         }
     }
 
+    /**
+     * Combine the given data sets as configured in the definition: a union by default or a hash join on the
+     * {@link ExternalDataSetDef#getJoinOn()} columns otherwise.
+     */
+    DataSet join(ExternalDataSetDef def, List<DataSet> dataSets) {
+        var joinType = def.getJoinType() != null ? def.getJoinType() : JoinType.UNION;
+        if (joinType == JoinType.UNION) {
+            return union(dataSets);
+        }
+        if (def.getJoinOn() == null || def.getJoinOn().isEmpty()) {
+            throw new IllegalArgumentException("The columns to join on are required for join type " + joinType);
+        }
+        if (dataSets.isEmpty()) {
+            return DataSetFactory.newEmptyDataSet();
+        }
+        var joinedDataSet = dataSets.get(0);
+        if (dataSets.size() == 1) {
+            return joinedDataSet.cloneInstance();
+        }
+        for (var i = 1; i < dataSets.size(); i++) {
+            joinedDataSet = hashJoin(joinedDataSet, dataSets.get(i), def.getJoinOn(), joinType == JoinType.INNER);
+        }
+        return joinedDataSet;
+    }
+
+    DataSet union(List<DataSet> dataSets) {
+        var joinedDataSet = DataSetFactory.newEmptyDataSet();
+        if (dataSets.isEmpty()) {
+            return joinedDataSet;
+        }
+        var rowCount = 0;
+        for (var dataSet : dataSets) {
+            rowCount += dataSet.getRowCount();
+        }
+        initColumns(joinedDataSet, dataSets.get(0), rowCount);
+        dataSets.forEach(ds -> join(joinedDataSet, ds));
+        return joinedDataSet;
+    }
+
+    /**
+     * Append all the rows of a data set to the joined one, column by column.
+     */
     @SuppressWarnings("unchecked")
     void join(DataSet joinedDataSet, DataSet dataSet) {
 
         if (joinedDataSet.getColumns().isEmpty()) {
-            initColumns(joinedDataSet, dataSet);
+            initColumns(joinedDataSet, dataSet, dataSet.getRowCount());
         }
 
         var initialColumns = joinedDataSet.getColumns().stream()
@@ -109,31 +163,169 @@ public class JoinDataSetsService {
 
         verifyColumnsCompatibility(initialColumns, dataSet);
 
-        dataSet.getColumns()
-                .forEach(cl -> joinedDataSet.getColumnById(cl.getId())
-                        .orElseThrow()
-                        .getValues().addAll(cl.getValues()));
+        for (var column : dataSet.getColumns()) {
+            var values = joinedDataSet.getColumnById(column.getId()).orElseThrow().getValues();
+            values.addAll(column.getValues());
+        }
+
+        var dataSetValues = joinedDataSet.getColumnById(DATASET_COLUMN).orElseThrow().getValues();
+        if (dataSetValues instanceof LabelColumnStorage) {
+            var storage = (LabelColumnStorage) dataSetValues;
+            var code = storage.getDictionary().encode(dataSet.getUUID());
+            storage.ensureCapacity(storage.size() + dataSet.getRowCount());
+            for (var i = 0; i < dataSet.getRowCount(); i++) {
+                storage.addCode(code);
+            }
+        } else {
+            for (var i = 0; i < dataSet.getRowCount(); i++) {
+                dataSetValues.add(dataSet.getUUID());
+            }
+        }
+    }
+
+    /**
+     * Join two data sets on the given columns. The rows of the right data set are hashed by their key and then
+     * looked up for every row of the left one, so the left order is kept. Null keys never match.
+     *
+     * @param inner If true the left rows without a match are discarded, otherwise they are kept with nulls in the
+     * right columns.
+     * @return A new data set with all the left columns followed by the right columns not in the key. Right columns
+     * whose id is already taken are prefixed with the right data set UUID.
+     */
+    DataSet hashJoin(DataSet left, DataSet right, List<String> on, boolean inner) {
+        var leftKeys = keyColumns(left, on);
+        var rightKeys = keyColumns(right, on);
+        for (var i = 0; i < on.size(); i++) {
+            if (leftKeys[i].getColumnType() != rightKeys[i].getColumnType()) {
+                throw new RuntimeException("Data set " + right.getUUID() + " column " + on.get(i) +
+                        " should be of type " + leftKeys[i].getColumnType());
+            }
+        }
+
+        var rightRowsByKey = new HashMap<Object, IntRowSet>();
+        for (var row = 0; row < right.getRowCount(); row++) {
+            var key = key(rightKeys, row);
+            if (key != null) {
+                rightRowsByKey.computeIfAbsent(key, k -> new IntRowSet()).addRow(row);
+            }
+        }
+
+        var leftRows = new IntRowSet(left.getRowCount());
+        var rightRows = new IntRowSet(left.getRowCount());
+        for (var row = 0; row < left.getRowCount(); row++) {
+            var key = key(leftKeys, row);
+            var matches = key != null ? rightRowsByKey.get(key) : null;
+            if (matches != null) {
+                for (var i = 0; i < matches.size(); i++) {
+                    leftRows.addRow(row);
+                    rightRows.addRow(matches.getRow(i));
+                }
+            } else if (!inner) {
+                leftRows.addRow(row);
+                rightRows.addRow(-1);
+            }
+        }
+
+        var joinedDataSet = DataSetFactory.newEmptyDataSet();
+        for (var column : left.getColumns()) {
+            joinedDataSet.addColumn(column.getId(), column.getColumnType(), gather(column.getValues(), leftRows));
+        }
+        for (var column : right.getColumns()) {
+            if (on.contains(column.getId())) {
+                continue;
+            }
+            var id = column.getId();
+            if (joinedDataSet.getColumnById(id).isPresent()) {
+                id = right.getUUID() + "." + id;
+            }
+            joinedDataSet.addColumn(id, column.getColumnType(), gather(column.getValues(), rightRows));
+        }
+        return joinedDataSet;
+    }
 
-        for (var i = 0; i < dataSet.getRowCount(); i++) {
-            joinedDataSet.getColumnById(DATASET_COLUMN)
-                    .orElseThrow()
-                    .getValues().add(dataSet.getUUID());
+    private DataColumn[] keyColumns(DataSet dataSet, List<String> on) {
+        var columns = new DataColumn[on.size()];
+        for (var i = 0; i < columns.length; i++) {
+            var id = on.get(i);
+            columns[i] = dataSet.getColumnById(id)
+                    .orElseThrow(() -> new RuntimeException("Data set " + dataSet.getUUID() +
+                            " does not have the join column " + id));
         }
+        return columns;
+    }
 
+    private static Object key(DataColumn[] columns, int row) {
+        if (columns.length == 1) {
+            return columns[0].getValues().get(row);
+        }
+        var key = new Object[columns.length];
+        for (var i = 0; i < columns.length; i++) {
+            key[i] = columns[i].getValues().get(row);
+            if (key[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Copy the values at the given rows into a new list of the same kind. Negative rows are copied as nulls.
+     */
+    @SuppressWarnings("unchecked")
+    private static List gather(List values, IntRowSet rows) {
+        var result = ColumnStorage.newValues(values);
+        if (result instanceof LabelColumnStorage) {
+            var source = (LabelColumnStorage) values;
+            var target = (LabelColumnStorage) result;
+            target.ensureCapacity(rows.size());
+            for (var i = 0; i < rows.size(); i++) {
+                var row = rows.getRow(i);
+                if (row < 0) {
+                    target.addCode(LabelDictionary.NULL_CODE);
+                } else {
+                    target.addFrom(source, row);
+                }
+            }
+        } else if (result instanceof PrimitiveColumnStorage) {
+            var source = (PrimitiveColumnStorage) values;
+            var target = (PrimitiveColumnStorage) result;
+            target.ensureCapacity(rows.size());
+            for (var i = 0; i < rows.size(); i++) {
+                var row = rows.getRow(i);
+                if (row < 0) {
+                    target.addNull();
+                } else {
+                    target.addFrom(source, row);
+                }
+            }
+        } else {
+            for (var i = 0; i < rows.size(); i++) {
+                var row = rows.getRow(i);
+                result.add(row < 0 ? null : values.get(row));
+            }
+        }
+        return result;
     }
 
     private void finishJoin(ExternalDataSetDef def,
             DataSetLookup lookup,
             DataSetReadyCallback listener,
             HashMap<String, DataSet> dataSetsMap) {
-        var joinedDataSet = DataSetFactory.newEmptyDataSet();
         var uuids = def.getJoin();
         var uuid = lookup.getDataSetUUID();
 
-        uuids.stream()
+        var dataSets = uuids.stream()
                 .map(dataSetsMap::get)
                 .filter(ds -> !isEmpty(ds))
-                .forEach(ds -> join(joinedDataSet, ds));
+                .collect(Collectors.toList());
+
+        DataSet joinedDataSet = null;
+        try {
+            joinedDataSet = join(def, dataSets);
+        } catch (Exception e) {
+            listener.onError(new ClientRuntimeError("Error joining data sets: " + e.getMessage(), e));
+            return;
+        }
 
         if (!isBlank(def.getExpression())) {
             var jsonArray = parserProvider.get().toJsonArray(joinedDataSet);
@@ -180,7 +372,7 @@ public class JoinDataSetsService {
 
         for (var i = 0; i < columnsToJoin.size(); i++) {
             var columnToJoin = columnsToJoin.get(i);
-            var initColumn = columnsToJoin.get(i);
+            var initColumn = initialColumns.get(i);
 
             if (columnToJoin.getColumnType() != initColumn.getColumnType()) {
                 throw new RuntimeException("Data set " + dataSet.getDefinition().getUUID() + " column " +
@@ -190,10 +382,15 @@ public class JoinDataSetsService {
 
     }
 
-    private void initColumns(DataSet joinedDataSet, DataSet dataSet) {
+    private void initColumns(DataSet joinedDataSet, DataSet dataSet, int rowCount) {
         // data columns
         dataSet.getColumns().forEach((cl -> joinedDataSet.addColumn(cl.getId(), cl.getColumnType())));
         joinedDataSet.addColumn(DATASET_COLUMN, ColumnType.LABEL);
+        for (var column : joinedDataSet.getColumns()) {
+            if (column.getValues() instanceof ColumnStorage) {
+                ((ColumnStorage) column.getValues()).ensureCapacity(rowCount);
+            }
+        }
 
     }
 
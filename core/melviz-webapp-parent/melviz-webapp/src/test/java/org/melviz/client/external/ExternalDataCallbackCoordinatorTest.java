@@ -15,6 +15,9 @@
  */
 package org.melviz.client.external;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import elemental2.dom.Console;
 import elemental2.dom.DomGlobal;
 import org.junit.Before;
@@ -117,6 +120,44 @@ public class ExternalDataCallbackCoordinatorTest {
         assertEquals(0, coordinator.queueMap.size());
     }
 
+    @Test
+    public void testQueuePriority() {
+        Mockito.when(c2.getPriority()).thenReturn(DataSetReadyCallback.VISIBLE_PRIORITY);
+        var priorities = new ArrayList<Integer>();
+
+        var queuedCallback = coordinator.getCallback(def, c1, c -> priorities.add(c.getPriority()), () -> {
+        });
+        coordinator.getCallback(def, c2, c -> priorities.add(c.getPriority()), () -> {
+        });
+
+        assertEquals(List.of(DataSetReadyCallback.DEFAULT_PRIORITY), priorities);
+        assertEquals(1, coordinator.queueMap.size());
+        assertEquals(DataSetReadyCallback.VISIBLE_PRIORITY, queuedCallback.getPriority());
+    }
+
+    @Test
+    public void testChangedDefinitionNotQueued() {
+        var changedDef = mock(DataSetDef.class);
+        Mockito.when(def.getUUID()).thenReturn("ds");
+        Mockito.when(changedDef.getUUID()).thenReturn("ds");
+        var actions = new ArrayList<DataSetReadyCallback>();
+
+        var staleCallback = coordinator.getCallback(def, c1, actions::add, () -> {
+        });
+        var queuedCallback = coordinator.getCallback(changedDef, c2, actions::add, () -> {
+        });
+
+        assertEquals(List.of(staleCallback, queuedCallback), actions);
+        assertEquals(2, coordinator.queueMap.size());
+
+        staleCallback.callback(mock(DataSet.class));
+
+        verify(c1).callback(any());
+        verify(c2, Mockito.never()).callback(any());
+        assertEquals(1, coordinator.queueMap.size());
+        assertEquals(queuedCallback, coordinator.queueMap.get(changedDef));
+    }
+
     @Test
     public void testCallbackOnError() {
         var dataset = mock(DataSet.class);
@@ -15,12 +15,38 @@
  */
 package org.melviz.client.external;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.event.Event;
+
+import elemental2.dom.Console;
+import elemental2.dom.DomGlobal;
 import org.junit.Before;
 import org.junit.Test;
+import org.melviz.client.external.fetch.FetchCancelledException;
+import org.melviz.client.external.fetch.FetchResponse;
+import org.melviz.client.external.fetch.FetchScheduler;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.DataSetLookupFactory;
+import org.melviz.dataset.client.ClientDataSetManager;
+import org.melviz.dataset.client.DataSetReadyCallback;
 import org.melviz.dataset.def.ExternalDataSetDef;
+import org.melviz.dataset.events.DataSetModifiedEvent;
 import org.melviz.dataset.json.ExternalDataSetJSONParser;
+import org.mockito.ArgumentCaptor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 public class ExternalDataSetClientProviderTest {
 
@@ -31,24 +57,36 @@ public class ExternalDataSetClientProviderTest {
     @Before
     public void prepare() {
         externalParser = new ExternalDataSetJSONParser(null);
-        provider = new ExternalDataSetClientProvider();
+        provider = new ExternalDataSetClientProvider() {
+
+            @Override
+            String buildUrl(ExternalDataSetDef def) {
+                // elemental2 URL is not available out of the browser
+                return def.getUrl();
+            }
+        };
+        provider.clientDataSetManager = new ClientDataSetManager();
     }
 
     @Test
     public void accumulateDataSetTest() {
-        var provider = new ExternalDataSetClientProvider();
-
         var def = new ExternalDataSetDef();
         def.setAccumulate(true);
 
-        var existingDs = externalParser.parseDataSet("[[2], [1]]");
+        var existingDs = register("[[2], [1]]", def);
         var ds = externalParser.parseDataSet("[[3]]");
 
-        existingDs.setDefinition(def);
         ds.setDefinition(def);
-        provider.accumulateDataSet(ds, existingDs);
+        var accumulatedDs = provider.accumulateDataSet(ds, existingDs);
 
-        assertEquals(3, ds.getRowCount());
+        assertEquals(3, accumulatedDs.getRowCount());
+        assertEquals(3.0, accumulatedDs.getValueAt(0, 0));
+        assertEquals(1.0, accumulatedDs.getValueAt(2, 0));
+        assertSame(accumulatedDs, provider.clientDataSetManager.getDataSet(existingDs.getUUID()));
+        // the data set returned before is not changed
+        assertEquals(2, existingDs.getRowCount());
+        assertEquals(2.0, existingDs.getValueAt(0, 0));
+        assertEquals(1.0, existingDs.getValueAt(1, 0));
     }
 
     @Test
@@ -57,16 +95,17 @@ public class ExternalDataSetClientProviderTest {
         def.setAccumulate(true);
         def.setCacheMaxRows(2);
 
-        var existingDs = externalParser.parseDataSet("[[2], [1]]");
+        var existingDs = register("[[2], [1]]", def);
         var ds = externalParser.parseDataSet("[[3]]");
 
-        existingDs.setDefinition(def);
         ds.setDefinition(def);
-        provider.accumulateDataSet(ds, existingDs);
+        var accumulatedDs = provider.accumulateDataSet(ds, existingDs);
 
-        assertEquals(2, ds.getRowCount());
-        assertEquals(3.0, ds.getValueAt(0, 0));
-        assertEquals(2.0, ds.getValueAt(1, 0));
+        assertEquals(2, accumulatedDs.getRowCount());
+        assertEquals(3.0, accumulatedDs.getValueAt(0, 0));
+        assertEquals(2.0, accumulatedDs.getValueAt(1, 0));
+        assertEquals(2, existingDs.getRowCount());
+        assertEquals(1.0, existingDs.getValueAt(1, 0));
     }
 
     @Test(expected = RuntimeException.class)
@@ -75,13 +114,149 @@ public class ExternalDataSetClientProviderTest {
         def.setAccumulate(true);
         def.setCacheMaxRows(2);
 
-        var existingDs = externalParser.parseDataSet("[[1]]");
+        var existingDs = register("[[1]]", def);
         var ds = externalParser.parseDataSet("[[\"a\", 1]]");
 
-        existingDs.setDefinition(def);
         ds.setDefinition(def);
 
         provider.accumulateDataSet(ds, existingDs);
     }
 
+    @Test
+    public void unchangedResponseTest() {
+        var previous = new ExternalDataSetClientProvider.ResponseDigest(
+                new FetchResponse(200, "OK", null, "[[1]]", "\"v1\"", null));
+
+        assertTrue(ExternalDataSetClientProvider.isUnchanged(previous, new FetchResponse(304, "", null, "")));
+        assertTrue(ExternalDataSetClientProvider.isUnchanged(previous,
+                new FetchResponse(200, "OK", null, "[[2]]", "\"v1\"", null)));
+        assertFalse(ExternalDataSetClientProvider.isUnchanged(previous,
+                new FetchResponse(200, "OK", null, "[[1]]", "\"v2\"", null)));
+        assertFalse(ExternalDataSetClientProvider.isUnchanged(previous, new FetchResponse(200, "OK", null, "[[1]]")));
+        assertFalse(ExternalDataSetClientProvider.isUnchanged(previous, new FetchResponse(500, "Error", null, "")));
+        assertFalse(ExternalDataSetClientProvider.isUnchanged(null, new FetchResponse(200, "OK", null, "[[1]]")));
+    }
+
+    @Test
+    public void unchangedContentTest() {
+        var previous = new ExternalDataSetClientProvider.ResponseDigest(
+                new FetchResponse(200, "OK", null, "[[\"Aa\"]]", null, "Wed, 21 Oct 2015 07:28:00 GMT"));
+
+        assertTrue(ExternalDataSetClientProvider.isUnchanged(previous,
+                new FetchResponse(200, "OK", null, "[[\"Aa\"]]")));
+        // same length and String hash code, different content
+        assertFalse(ExternalDataSetClientProvider.isUnchanged(previous,
+                new FetchResponse(200, "OK", null, "[[\"BB\"]]")));
+        assertFalse(ExternalDataSetClientProvider.isUnchanged(previous,
+                new FetchResponse(200, "OK", null, "[[\"Aa\"]]]")));
+    }
+
+    @Test
+    public void joinedDataSetsModifiedTest() {
+        provider.setup();
+        @SuppressWarnings("unchecked")
+        Event<DataSetModifiedEvent> dataSetModifiedEvent = mock(Event.class);
+        provider.dataSetModifiedEvent = dataSetModifiedEvent;
+        var sourceDef = new ExternalDataSetDef();
+        sourceDef.setUUID("source");
+        provider.register(sourceDef);
+        var joinDef = new ExternalDataSetDef();
+        joinDef.setUUID("joined");
+        joinDef.setJoin(List.of("source", "other"));
+        provider.register(joinDef);
+        var otherJoinDef = new ExternalDataSetDef();
+        otherJoinDef.setUUID("unrelated");
+        otherJoinDef.setJoin(List.of("other"));
+        provider.register(otherJoinDef);
+        registerDataSet("[[1]]", joinDef);
+        registerDataSet("[[2]]", otherJoinDef);
+
+        provider.joinedDataSetsModified("source");
+
+        var event = ArgumentCaptor.forClass(DataSetModifiedEvent.class);
+        verify(dataSetModifiedEvent).fire(event.capture());
+        assertSame(joinDef, event.getValue().getDataSetDef());
+        assertNull(provider.clientDataSetManager.getDataSet("joined"));
+        assertNotNull(provider.clientDataSetManager.getDataSet("unrelated"));
+    }
+
+    @Test
+    public void conditionalHeadersTest() {
+        var previous = new ExternalDataSetClientProvider.ResponseDigest(
+                new FetchResponse(200, "OK", null, "", "\"v1\"", "Wed, 21 Oct 2015 07:28:00 GMT"));
+        var headers = ExternalDataSetClientProvider.conditionalHeaders(Map.of("Accept", "text/csv"), previous);
+
+        assertEquals(Map.of("Accept", "text/csv",
+                "If-None-Match", "\"v1\"",
+                "If-Modified-Since", "Wed, 21 Oct 2015 07:28:00 GMT"), headers);
+        assertEquals(Map.of(), ExternalDataSetClientProvider.conditionalHeaders(null,
+                new ExternalDataSetClientProvider.ResponseDigest(new FetchResponse(200, "OK", null, ""))));
+    }
+
+    @Test
+    public void revalidateEvictedDataSetTest() {
+        provider.setup();
+        provider.fetchScheduler = mock(FetchScheduler.class);
+        var def = new ExternalDataSetDef();
+        def.setUUID("evicted");
+        def.setStaleWhileRevalidate(true);
+        provider.register(def);
+
+        // nothing to keep serving, the next lookup fetches the data set as usual
+        provider.revalidate("evicted");
+        provider.revalidate("unknown");
+
+        verifyNoInteractions(provider.fetchScheduler);
+    }
+
+    @Test
+    public void visibleDisplayerFetchedFirstTest() {
+        provider.setup();
+        provider.dataSetCallbackCoordinator = new ExternalDataCallbackCoordinator();
+        provider.dataSetCallbackCoordinator.setup();
+        provider.fetchScheduler = new FetchScheduler();
+        provider.fetchScheduler.setMaxRequestsPerOrigin(1);
+        DomGlobal.console = mock(Console.class);
+        var sent = new ArrayList<String>();
+        var pending = new ArrayList<FetchScheduler.FetchListener>();
+        provider.fetchScheduler.setTransport((request, listener) -> {
+            sent.add(request.getUrl());
+            pending.add(listener);
+            return () -> {
+            };
+        });
+
+        for (var uuid : List.of("first", "hidden", "visible")) {
+            var def = new ExternalDataSetDef();
+            def.setUUID(uuid);
+            def.setUrl("http://data.com/" + uuid);
+            provider.register(def);
+            var displayerCallback = mock(DataSetReadyCallback.class);
+            when(displayerCallback.getPriority()).thenReturn(uuid.equals("visible")
+                    ? DataSetReadyCallback.VISIBLE_PRIORITY
+                    : DataSetReadyCallback.DEFAULT_PRIORITY);
+            provider.fetchAndRegister(uuid,
+                    DataSetLookupFactory.newDataSetLookupBuilder().dataset(uuid).buildLookup(),
+                    displayerCallback);
+        }
+        assertEquals(List.of("http://data.com/first"), sent);
+
+        pending.get(0).onError(new FetchCancelledException("done"));
+        assertEquals(List.of("http://data.com/first", "http://data.com/visible"), sent);
+    }
+
+    private DataSet register(String json, ExternalDataSetDef def) {
+        var dataSet = externalParser.parseDataSet(json);
+        dataSet.setDefinition(def);
+        dataSet.setUUID("accumulated");
+        provider.clientDataSetManager.registerDataSet(dataSet);
+        return dataSet;
+    }
+
+    private void registerDataSet(String json, ExternalDataSetDef def) {
+        var dataSet = externalParser.parseDataSet(json);
+        dataSet.setDefinition(def);
+        dataSet.setUUID(def.getUUID());
+        provider.clientDataSetManager.registerDataSet(dataSet);
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.csv;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.impl.DateColumnStorage;
+import org.melviz.dataset.impl.NumberColumnStorage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CSVDataSetReaderTest {
+
+    private static final String SAMPLE_TEST =
+            "Year,Make,Model,Description,Price\n" +
+                    "1997,Ford,E350,\"ac, abs, moon\",3000.00\n" +
+                    "1999,Chevy,\"Venture \"\"Extended Edition\"\"\",\"\",4900.00\n" +
+                    "1999,Chevy,\"Venture \"\"Extended Edition, Very Large\"\"\",\"\",5000.00\r\n" +
+                    "1996,Jeep,Grand Cherokee,\"MUST SELL!\nair, moon roof, loaded\",4799.00\n";
+
+    private CSVDataSetReader reader;
+
+    @Before
+    public void prepare() {
+        reader = new CSVDataSetReader(s -> {
+            if (s.startsWith("D")) {
+                return new Date(Long.parseLong(s.substring(1)));
+            }
+            throw new IllegalArgumentException("Not a date: " + s);
+        });
+    }
+
+    @Test
+    public void testReadSample() {
+        var dataSet = reader.read(SAMPLE_TEST);
+        assertEquals(4, dataSet.getRowCount());
+        assertEquals(5, dataSet.getColumns().size());
+        assertEquals("Year", dataSet.getColumnByIndex(0).getId());
+        assertEquals(ColumnType.NUMBER, dataSet.getColumnByIndex(0).getColumnType());
+        assertEquals(ColumnType.LABEL, dataSet.getColumnByIndex(1).getColumnType());
+        assertEquals(ColumnType.NUMBER, dataSet.getColumnByIndex(4).getColumnType());
+        assertTrue(dataSet.getColumnByIndex(4).getValues() instanceof NumberColumnStorage);
+
+        assertEquals(1997d, dataSet.getValueAt(0, 0));
+        assertEquals("ac, abs, moon", dataSet.getValueAt(0, 3));
+        assertEquals("Venture \"Extended Edition\"", dataSet.getValueAt(1, 2));
+        assertEquals("", dataSet.getValueAt(1, 3));
+        assertEquals("Venture \"Extended Edition, Very Large\"", dataSet.getValueAt(2, 2));
+        assertEquals(5000d, dataSet.getValueAt(2, 4));
+        assertEquals("MUST SELL!\nair, moon roof, loaded", dataSet.getValueAt(3, 3));
+        assertEquals(4799d, dataSet.getValueAt(3, 4));
+    }
+
+    @Test
+    public void testMissingValues() {
+        var dataSet = reader.read("a,b,c\nx,,z\n,y,\n\nx\n");
+        assertEquals(3, dataSet.getRowCount());
+        assertEquals(Arrays.asList("x", "", "x"), dataSet.getColumnByIndex(0).getValues());
+        assertEquals(Arrays.asList("", "y", null), dataSet.getColumnByIndex(1).getValues());
+        assertEquals(Arrays.asList("z", "", null), dataSet.getColumnByIndex(2).getValues());
+    }
+
+    @Test
+    public void testEscapedQuotesAndBooleans() {
+        var dataSet = reader.read("a,b\n\"x\\\"y\",True\nab\"c,d\"e,False\n");
+        assertEquals("x\"y", dataSet.getValueAt(0, 0));
+        assertEquals("abc,de", dataSet.getValueAt(1, 0));
+        assertEquals("true", dataSet.getValueAt(0, 1));
+        assertEquals("false", dataSet.getValueAt(1, 1));
+    }
+
+    @Test
+    public void testDates() {
+        var dataSet = reader.read("when,amount\nD2000,\n,1.5");
+        assertEquals(ColumnType.DATE, dataSet.getColumnByIndex(0).getColumnType());
+        assertTrue(dataSet.getColumnByIndex(0).getValues() instanceof DateColumnStorage);
+        assertEquals(new Date(2000), dataSet.getValueAt(0, 0));
+        assertNull(dataSet.getValueAt(1, 0));
+        assertEquals(ColumnType.LABEL, dataSet.getColumnByIndex(1).getColumnType());
+        assertEquals("1.5", dataSet.getValueAt(1, 1));
+    }
+
+    @Test
+    public void testHeaderOnly() {
+        var dataSet = reader.read("a,b\n");
+        assertEquals(0, dataSet.getRowCount());
+        assertEquals(2, dataSet.getColumns().size());
+        assertEquals(0, reader.read("").getColumns().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompatibleNumber() {
+        reader.read("a\n1\nx\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyValues() {
+        reader.read("a\n1,2\n");
+    }
+}
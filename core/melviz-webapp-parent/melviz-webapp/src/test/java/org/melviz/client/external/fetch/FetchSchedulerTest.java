@@ -0,0 +1,165 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.fetch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FetchSchedulerTest {
+
+    FetchScheduler scheduler;
+
+    List<FetchRequest> sent;
+
+    List<FetchScheduler.FetchListener> pending;
+
+    List<String> aborted;
+
+    List<String> results;
+
+    int[] progress;
+
+    @Before
+    public void setup() {
+        sent = new ArrayList<>();
+        pending = new ArrayList<>();
+        aborted = new ArrayList<>();
+        results = new ArrayList<>();
+        scheduler = new FetchScheduler();
+        scheduler.setTransport((request, listener) -> {
+            sent.add(request);
+            pending.add(listener);
+            return () -> aborted.add(request.getUrl());
+        });
+        scheduler.setProgressListener((queued, running, completed) -> progress = new int[]{queued, running,
+                completed});
+    }
+
+    @Test
+    public void testRequestKey() {
+        var r1 = new FetchRequest("http://a.com/x", null, Map.of("A", "1", "B", "2"), null);
+        var r2 = new FetchRequest("http://a.com/x", "GET", Map.of("B", "2", "A", "1"), Map.of());
+        assertEquals(r1.getKey(), r2.getKey());
+        assertNotEquals(r1.getKey(), new FetchRequest("http://a.com/x", "POST", null, null).getKey());
+        assertNotEquals(r1.getKey(), new FetchRequest("http://a.com/x", null, Map.of("A", "1"), null).getKey());
+        assertEquals("http://a.com:8080", new FetchRequest("http://a.com:8080/x?y", null, null, null).getOrigin());
+        assertEquals("https://a.com", new FetchRequest("https://a.com", null, null, null).getOrigin());
+    }
+
+    @Test
+    public void testSameRequestSentOnce() {
+        scheduler.schedule(request("http://a.com/data", 0), listener("first"));
+        scheduler.schedule(request("http://a.com/data", 0), listener("second"));
+        assertEquals(1, sent.size());
+
+        pending.get(0).onResponse(new FetchResponse(200, "OK", "application/json", "[]"));
+        assertEquals(Arrays.asList("first:[]", "second:[]"), results);
+        assertArrayEquals(new int[]{0, 0, 1}, progress);
+
+        scheduler.schedule(request("http://a.com/data", 0), listener("third"));
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testLimitPerOriginAndPriority() {
+        scheduler.setMaxRequestsPerOrigin(2);
+        scheduler.schedule(request("http://a.com/1", 0), listener("1"));
+        scheduler.schedule(request("http://a.com/2", 0), listener("2"));
+        scheduler.schedule(request("http://a.com/3", 0), listener("3"));
+        scheduler.schedule(request("http://a.com/4", 5), listener("4"));
+        scheduler.schedule(request("http://b.com/1", 0), listener("b"));
+        assertEquals(Arrays.asList("http://a.com/1", "http://a.com/2", "http://b.com/1"), urls());
+        assertArrayEquals(new int[]{2, 3, 0}, progress);
+
+        // a new requester raises the priority of a queued request
+        scheduler.schedule(request("http://a.com/3", 10), listener("3 again"));
+        pending.get(0).onResponse(new FetchResponse(200, "OK", null, "1"));
+        assertEquals("http://a.com/3", sent.get(3).getUrl());
+        pending.get(1).onError(new RuntimeException("failed"));
+        assertEquals("http://a.com/4", sent.get(4).getUrl());
+        assertEquals(Arrays.asList("1:1", "2:failed"), results);
+    }
+
+    @Test
+    public void testCancel() {
+        scheduler.setMaxRequestsPerOrigin(1);
+        var running = scheduler.schedule(request("http://a.com/1", 0), listener("1"));
+        var queued = scheduler.schedule(request("http://a.com/2", 0), listener("2"));
+        scheduler.schedule(request("http://a.com/3", 0), listener("3"));
+
+        queued.cancel();
+        running.cancel();
+        assertEquals(Arrays.asList("http://a.com/1"), aborted);
+        assertEquals(Arrays.asList("http://a.com/1", "http://a.com/3"), urls());
+
+        // late responses of cancelled requests are ignored
+        pending.get(0).onResponse(new FetchResponse(200, "OK", null, "late"));
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testCancelAll() {
+        scheduler.setMaxRequestsPerOrigin(1);
+        scheduler.schedule(request("http://a.com/1", 0), listener("1"));
+        scheduler.schedule(request("http://a.com/2", 0), listener("2"));
+
+        scheduler.cancelAll();
+        assertEquals(Arrays.asList("http://a.com/1"), aborted);
+        assertEquals(Arrays.asList("1:cancelled", "2:cancelled"), results);
+        assertArrayEquals(new int[]{0, 0, 0}, progress);
+
+        scheduler.schedule(request("http://a.com/3", 0), listener("3"));
+        assertEquals(Arrays.asList("http://a.com/1", "http://a.com/3"), urls());
+    }
+
+    private FetchRequest request(String url, int priority) {
+        var request = new FetchRequest(url, "GET", null, null);
+        request.setPriority(priority);
+        return request;
+    }
+
+    private List<String> urls() {
+        var urls = new ArrayList<String>();
+        sent.forEach(r -> urls.add(r.getUrl()));
+        return urls;
+    }
+
+    private FetchScheduler.FetchListener listener(String name) {
+        return new FetchScheduler.FetchListener() {
+
+            @Override
+            public void onResponse(FetchResponse response) {
+                results.add(name + ":" + response.getText());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                results.add(name + ":" + (error instanceof FetchCancelledException ? "cancelled" : error
+                        .getMessage()));
+            }
+        };
+    }
+}
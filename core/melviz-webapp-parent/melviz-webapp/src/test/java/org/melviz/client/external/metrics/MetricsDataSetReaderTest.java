@@ -0,0 +1,140 @@
+/*
+ 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.melviz.client.external.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.melviz.dataset.ColumnType;
+import org.melviz.dataset.DataColumn;
+import org.melviz.dataset.DataSet;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.NumberColumnStorage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsDataSetReaderTest {
+
+    private static final String METRICS = "# HELP jvm_memory_max_bytes The maximum amount of memory\n" +
+            "# TYPE jvm_memory_max_bytes gauge\n" +
+            "jvm_memory_max_bytes{area=\"nonheap\",id=\"Metaspace\",} -1.0\n" +
+            "process_uptime_seconds 339164.251\r\n" +
+            "\n" +
+            "http_requests_total{method=\"post\",code=\"200\"} 1027 1395066363000\n" +
+            "  msg_total{text=\"a \\\"quoted\\\" value, with } and \\\\\",id=\"x\"} NaN\n" +
+            "test      \n" +
+            "bucket{le=\"+Inf\"} +Inf";
+
+    private MetricsDataSetReader reader = new MetricsDataSetReader();
+
+    @Test
+    public void testReadCompatibleColumns() {
+        var dataSet = reader.read(METRICS);
+        assertEquals(5, dataSet.getRowCount());
+        assertEquals(3, dataSet.getColumns().size());
+        assertEquals("metric", dataSet.getColumnByIndex(0).getId());
+        assertEquals("labels", dataSet.getColumnByIndex(1).getId());
+        assertEquals("value", dataSet.getColumnByIndex(2).getId());
+        assertEquals(ColumnType.LABEL, dataSet.getColumnByIndex(1).getColumnType());
+        assertEquals(ColumnType.NUMBER, dataSet.getColumnByIndex(2).getColumnType());
+        assertTrue(dataSet.getColumnByIndex(0).getValues() instanceof LabelColumnStorage);
+        assertTrue(dataSet.getColumnByIndex(2).getValues() instanceof NumberColumnStorage);
+
+        assertEquals(Arrays.asList("jvm_memory_max_bytes", "process_uptime_seconds", "http_requests_total",
+                "msg_total", "bucket"), dataSet.getColumnByIndex(0).getValues());
+        assertEquals("area=\"nonheap\",id=\"Metaspace\",", dataSet.getValueAt(0, 1));
+        assertEquals("", dataSet.getValueAt(1, 1));
+        assertEquals(Arrays.asList(-1d, 339164.251d, 1027d, MetricsDataSetReader.NAN_VALUE,
+                Double.POSITIVE_INFINITY), dataSet.getColumnByIndex(2).getValues());
+    }
+
+    @Test
+    public void testReadLabelColumns() {
+        var dataSet = reader.read(METRICS, true);
+        assertEquals(5, dataSet.getRowCount());
+        assertEquals(Arrays.asList("metric", "label_area", "label_id", "label_method", "label_code", "label_text",
+                "label_le", "value"), columnIds(dataSet));
+        assertEquals(Arrays.asList("Metaspace", null, null, "x", null), dataSet.getColumnValues("label_id"));
+        assertEquals(Arrays.asList(null, null, "200", null, null), dataSet.getColumnValues("label_code"));
+        assertEquals("a \"quoted\" value, with } and \\", dataSet.getValueAt(3, 5));
+        assertEquals("+Inf", dataSet.getValueAt(4, 6));
+        assertEquals(1027d, dataSet.getValueAt(2, 7));
+    }
+
+    @Test
+    public void testLabelsNamedAsColumns() {
+        var dataSet = reader.read("a{metric=\"m\",value=\"v\"} 1", true);
+        assertEquals(Arrays.asList("metric", "label_metric", "label_value", "value"), columnIds(dataSet));
+        assertEquals(Arrays.asList("a", "m", "v", 1d), Arrays.asList(dataSet.getValueAt(0, 0),
+                dataSet.getValueAt(0, 1), dataSet.getValueAt(0, 2), dataSet.getValueAt(0, 3)));
+    }
+
+    @Test
+    public void testStableLabelColumns() {
+        var first = reader.read("a{x=\"1\",y=\"2\"} 1", true);
+        var second = reader.read("a{z=\"3\",x=\"4\"} 2", true, first);
+        assertEquals(Arrays.asList("metric", "label_x", "label_y", "label_z", "value"), columnIds(second));
+        assertEquals(Arrays.asList("a", "4", null, "3", 2d), Arrays.asList(second.getValueAt(0, 0),
+                second.getValueAt(0, 1), second.getValueAt(0, 2), second.getValueAt(0, 3), second.getValueAt(0, 4)));
+
+        var widened = reader.addLabelColumns(first, second);
+        assertEquals(second.getColumns(), widened.getColumns());
+        assertEquals(Arrays.asList("a", "1", "2", null, 1d), Arrays.asList(widened.getValueAt(0, 0),
+                widened.getValueAt(0, 1), widened.getValueAt(0, 2), widened.getValueAt(0, 3), widened.getValueAt(0, 4)));
+        assertEquals(4, first.getColumns().size());
+
+        var third = reader.read("a 3", true, second);
+        assertEquals(second.getColumns(), third.getColumns());
+        assertEquals(Arrays.asList(null, null, null), Arrays.asList(third.getValueAt(0, 1), third.getValueAt(0, 2),
+                third.getValueAt(0, 3)));
+    }
+
+    @Test
+    public void testMatchesMetricsParser() {
+        var expected = new MetricsParser().metricsToJsonArray("a 1\nb{x=\"1\",} 2\n# c 3\nd{} 4");
+        var dataSet = reader.read("a 1\nb{x=\"1\",} 2\n# c 3\nd{} 4");
+        assertEquals(expected.length(), dataSet.getRowCount());
+        for (int i = 0; i < expected.length(); i++) {
+            var row = expected.getArray(i);
+            assertEquals(row.getString(0), dataSet.getValueAt(i, 0));
+            assertEquals(row.getString(1), dataSet.getValueAt(i, 1));
+            assertEquals(Double.parseDouble(row.getString(2)), dataSet.getValueAt(i, 2));
+        }
+    }
+
+    @Test
+    public void testEmptyContent() {
+        assertEquals(0, reader.read("").getRowCount());
+        assertEquals(3, reader.read(null).getColumns().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidValue() {
+        reader.read("metric{a=\"b\"} abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLabelsNotClosed() {
+        reader.read("metric{a=\"b\" 1");
+    }
+
+    private static List<String> columnIds(DataSet dataSet) {
+        return dataSet.getColumns().stream().map(DataColumn::getId).collect(Collectors.toList());
+    }
+}
@@ -15,7 +15,9 @@
  */
 package org.melviz.client.services;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,7 +32,10 @@ import org.melviz.dataset.client.DataSetReadyCallback;
 import org.melviz.dataset.client.DataSetReadyCallbackAdapter;
 import org.melviz.dataset.client.ExternalDataSetParserProvider;
 import org.melviz.dataset.def.ExternalDataSetDef;
+import org.melviz.dataset.def.JoinType;
 import org.melviz.dataset.impl.ExternalDataSetDefBuilderImpl;
+import org.melviz.dataset.impl.LabelColumnStorage;
+import org.melviz.dataset.impl.NumberColumnStorage;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
@@ -39,6 +44,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -244,6 +250,126 @@ public class JoinDataSetsServiceTest {
         verify(datasetReadyCallback, times(0)).callback(any());
     }
 
+    @Test
+    public void testUnionKeepsColumnStorage() {
+        var numbers = DataSetFactory.newDataSetBuilder()
+                .uuid(DS2_UUID)
+                .label(C1_ID)
+                .number(C2_ID)
+                .row("a", 1d)
+                .row(null, null)
+                .buildDataSet();
+        var result = joinService.union(List.of(numbers, numbers));
+        assertEquals(Arrays.asList("a", null, "a", null), result.getColumnValues(C1_ID));
+        assertEquals(Arrays.asList(1d, null, 1d, null), result.getColumnValues(C2_ID));
+        assertTrue(result.getColumnById(C1_ID).get().getValues() instanceof LabelColumnStorage);
+        assertTrue(result.getColumnById(C2_ID).get().getValues() instanceof NumberColumnStorage);
+        assertEquals(List.of("ds2", "ds2", "ds2", "ds2"), result.getColumnValues(JoinDataSetsService.DATASET_COLUMN));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnionIncompatibleColumns() {
+        var numbers = DataSetFactory.newDataSetBuilder()
+                .uuid(DS2_UUID)
+                .label(C1_ID)
+                .number(C2_ID)
+                .row("a", 1d)
+                .buildDataSet();
+        numbers.setDefinition(def);
+        joinService.union(List.of(d1, numbers));
+    }
+
+    @Test
+    public void testHashJoin() {
+        var users = DataSetFactory.newDataSetBuilder()
+                .uuid(DS1_UUID)
+                .label("id")
+                .label("name")
+                .row("u1", "Ann")
+                .row("u2", "Bob")
+                .row(null, "Nobody")
+                .row("u3", "Cid")
+                .buildDataSet();
+        var orders = DataSetFactory.newDataSetBuilder()
+                .uuid(DS2_UUID)
+                .number("total")
+                .label("id")
+                .label("name")
+                .row(10d, "u2", "order 1")
+                .row(20d, "u1", "order 2")
+                .row(30d, "u2", "order 3")
+                .row(40d, null, "order 4")
+                .buildDataSet();
+
+        var inner = joinService.hashJoin(users, orders, List.of("id"), true);
+        assertEquals(List.of("id", "name", "total", "ds2.name"),
+                inner.getColumns().stream().map(c -> c.getId()).collect(Collectors.toList()));
+        assertEquals(List.of("u1", "u2", "u2"), inner.getColumnValues("id"));
+        assertEquals(List.of(20d, 10d, 30d), inner.getColumnValues("total"));
+        assertEquals(List.of("order 2", "order 1", "order 3"), inner.getColumnValues("ds2.name"));
+        assertTrue(inner.getColumnById("total").get().getValues() instanceof NumberColumnStorage);
+
+        var left = joinService.hashJoin(users, orders, List.of("id"), false);
+        assertEquals(Arrays.asList("u1", "u2", "u2", null, "u3"), left.getColumnValues("id"));
+        assertEquals(Arrays.asList(20d, 10d, 30d, null, null), left.getColumnValues("total"));
+        assertEquals(Arrays.asList("order 2", "order 1", "order 3", null, null), left.getColumnValues("ds2.name"));
+    }
+
+    @Test
+    public void testHashJoinMultipleColumns() {
+        var joined = joinService.hashJoin(d1, d1, List.of(C1_ID, C2_ID), true);
+        assertEquals(2, joined.getRowCount());
+        assertEquals(2, joined.getColumns().size());
+
+        def.setJoinType(JoinType.LEFT);
+        def.setJoinOn(List.of(C1_ID));
+        joined = joinService.join(def, List.of(d1, d2));
+        assertEquals(List.of("D1_C1_R1", "D1_C1_R2"), joined.getColumnValues(C1_ID));
+        assertEquals(Arrays.asList(null, null), joined.getColumnValues("ds2." + C2_ID));
+    }
+
+    @Test
+    public void testJoinDatasetsOnColumns() {
+        var lookup = DataSetLookupFactory.newDataSetLookupBuilder().dataset(RESULT_UUID).buildLookup();
+        def.setJoinType(JoinType.INNER);
+        def.setJoinOn(List.of(C1_ID));
+        var d3 = DataSetFactory.newDataSetBuilder()
+                .uuid(DS2_UUID)
+                .label(C1_ID)
+                .number("value")
+                .row("D1_C1_R2", 5d)
+                .buildDataSet();
+
+        var datasetReadyCallback = mock(DataSetReadyCallback.class);
+        joinService.joinDataSets(def, lookup, datasetReadyCallback);
+        verify(externalDataSetClientProvider).fetchAndRegister(eq(DS1_UUID), any(), ds1DatasetCallbackCaptor.capture());
+        verify(externalDataSetClientProvider).fetchAndRegister(eq(DS2_UUID), any(), ds2DatasetCallbackCaptor.capture());
+        ds1DatasetCallbackCaptor.getValue().callback(d1);
+        ds2DatasetCallbackCaptor.getValue().callback(d3);
+
+        var result = manager.getDataSet(RESULT_UUID);
+        assertEquals(List.of("D1_C1_R2"), result.getColumnValues(C1_ID));
+        assertEquals(List.of("D1_C2_R2"), result.getColumnValues(C2_ID));
+        assertEquals(List.of(5d), result.getColumnValues("value"));
+        verify(datasetReadyCallback).callback(any());
+    }
+
+    @Test
+    public void testJoinDatasetsMissingColumn() {
+        var lookup = DataSetLookupFactory.newDataSetLookupBuilder().dataset(RESULT_UUID).buildLookup();
+        def.setJoinType(JoinType.INNER);
+        def.setJoinOn(List.of("missing"));
+        var datasetReadyCallback = mock(DataSetReadyCallback.class);
+        joinService.joinDataSets(def, lookup, datasetReadyCallback);
+        verify(externalDataSetClientProvider).fetchAndRegister(eq(DS1_UUID), any(), ds1DatasetCallbackCaptor.capture());
+        verify(externalDataSetClientProvider).fetchAndRegister(eq(DS2_UUID), any(), ds2DatasetCallbackCaptor.capture());
+        ds1DatasetCallbackCaptor.getValue().callback(d1);
+        ds2DatasetCallbackCaptor.getValue().callback(d2);
+
+        verify(datasetReadyCallback).onError(any());
+        verify(datasetReadyCallback, times(0)).callback(any());
+    }
+
     private void verifyDataSetD1(DataSet result) {
         assertEquals(List.of("D1_C1_R1", "D1_C1_R2"),
                 result.getColumnValues(C1_ID));